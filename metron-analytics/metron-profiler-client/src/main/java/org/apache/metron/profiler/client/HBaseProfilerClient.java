@@ -109,6 +109,50 @@ public class HBaseProfilerClient implements ProfilerClient {
     return get(gets, columnQualifier, columnFamily, clazz);
   }
 
+  /**
+   * Fetch the values stored in a profile for each of a number of requests.  The values for all
+   * of the requests are retrieved from HBase with a single multi-get.
+   *
+   * @param clazz    The type of values stored by the profile.
+   * @param requests The profile, entity, groups and time range of each fetch.
+   * @param <T>      The type of values stored by the profile.
+   * @return The list of values for each request, in the order of the requests.
+   */
+  @Override
+  public <T> List<List<T>> fetch(Class<T> clazz, List<ProfileRequest> requests) {
+    byte[] columnFamily = Bytes.toBytes(columnBuilder.getColumnFamily());
+    byte[] columnQualifier = columnBuilder.getColumnQualifier("value");
+
+    // create a Get for each of the row keys of each request
+    List<Get> gets = new ArrayList<>();
+    int[] counts = new int[requests.size()];
+    for(int i = 0; i < requests.size(); i++) {
+      ProfileRequest request = requests.get(i);
+      List<byte[]> keysToFetch = rowKeyBuilder.rowKeys(request.getProfile(), request.getEntity(), request.getGroups(), request.getStart(), request.getEnd());
+      keysToFetch.forEach(k -> gets.add(new Get(k).addColumn(columnFamily, columnQualifier)));
+      counts[i] = keysToFetch.size();
+    }
+
+    // get the 'gets' and split the results between the requests
+    List<List<T>> values = new ArrayList<>(requests.size());
+    try {
+      Result[] results = table.get(gets);
+      int offset = 0;
+      for(int count : counts) {
+        values.add(Arrays.stream(results, offset, offset + count)
+                .filter(r -> r.containsColumn(columnFamily, columnQualifier))
+                .map(r -> SerDeUtils.fromBytes(r.getValue(columnFamily, columnQualifier), clazz))
+                .collect(Collectors.toList()));
+        offset += count;
+      }
+
+    } catch(IOException e) {
+      throw new RuntimeException(e);
+    }
+
+    return values;
+  }
+
   /**
    * Submits multiple Gets to HBase and deserialize the results.
    *
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.profiler.client;
+
+import java.util.List;
+
+/**
+ * A request for the values stored in a profile between a start and end timestamp.
+ */
+public class ProfileRequest {
+
+  private final String profile;
+  private final String entity;
+  private final List<Object> groups;
+  private final long start;
+  private final long end;
+
+  /**
+   * @param profile The name of the profile.
+   * @param entity  The name of the entity.
+   * @param groups  The groups used to sort the profile data.
+   * @param start   The start time in epoch milliseconds.
+   * @param end     The end time in epoch milliseconds.
+   */
+  public ProfileRequest(String profile, String entity, List<Object> groups, long start, long end) {
+    this.profile = profile;
+    this.entity = entity;
+    this.groups = groups;
+    this.start = start;
+    this.end = end;
+  }
+
+  public String getProfile() {
+    return profile;
+  }
+
+  public String getEntity() {
+    return entity;
+  }
+
+  public List<Object> getGroups() {
+    return groups;
+  }
+
+  public long getStart() {
+    return start;
+  }
+
+  public long getEnd() {
+    return end;
+  }
+}
@@ -20,6 +20,7 @@
 
 package org.apache.metron.profiler.client;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -55,4 +56,20 @@ public interface ProfilerClient {
    * @return A list of values.
    */
   <T> List<T> fetch(Class<T> clazz, String profile, String entity, List<Object> groups, long start, long end);
+
+  /**
+   * Fetch the values stored in a profile for each of a number of requests.
+   *
+   * @param clazz    The type of values stored by the profile.
+   * @param requests The profile, entity, groups and time range of each fetch.
+   * @param <T>      The type of values stored by the profile.
+   * @return The list of values for each request, in the order of the requests.
+   */
+  default <T> List<List<T>> fetch(Class<T> clazz, List<ProfileRequest> requests) {
+    List<List<T>> results = new ArrayList<>(requests.size());
+    for(ProfileRequest request : requests) {
+      results.add(fetch(clazz, request.getProfile(), request.getEntity(), request.getGroups(), request.getStart(), request.getEnd()));
+    }
+    return results;
+  }
 }
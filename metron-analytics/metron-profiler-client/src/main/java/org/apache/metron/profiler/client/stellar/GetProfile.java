@@ -23,14 +23,15 @@ package org.apache.metron.profiler.client.stellar;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.client.HTableInterface;
+import org.apache.metron.common.dsl.BatchStellarFunction;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.ParseException;
 import org.apache.metron.common.dsl.Stellar;
-import org.apache.metron.common.dsl.StellarFunction;
 import org.apache.metron.common.utils.ConversionUtils;
 import org.apache.metron.hbase.HTableProvider;
 import org.apache.metron.hbase.TableProvider;
 import org.apache.metron.profiler.client.HBaseProfilerClient;
+import org.apache.metron.profiler.client.ProfileRequest;
 import org.apache.metron.profiler.client.ProfilerClient;
 import org.apache.metron.profiler.hbase.ColumnBuilder;
 import org.apache.metron.profiler.hbase.RowKeyBuilder;
@@ -81,7 +82,7 @@ import static org.apache.metron.common.dsl.Context.Capabilities.GLOBAL_CONFIG;
         },
         returns="The profile measurements."
 )
-public class GetProfile implements StellarFunction {
+public class GetProfile implements BatchStellarFunction {
 
   /**
    * A global property that defines the name of the HBase table used to store profile data.
@@ -170,7 +171,33 @@ public class GetProfile implements StellarFunction {
    */
   @Override
   public Object apply(List<Object> args, Context context) throws ParseException {
+    ProfileRequest request = getRequest(args, System.currentTimeMillis());
+    return client.fetch(Object.class, request.getProfile(), request.getEntity(), request.getGroups(), request.getStart(), request.getEnd());
+  }
+
+  /**
+   * Apply the function to the arguments of a batch of calls.  The profile values of all
+   * of the calls are retrieved together.
+   * @param args The function arguments of each call.
+   * @param context
+   */
+  @Override
+  public List<Object> applyBatch(List<List<Object>> args, Context context) throws ParseException {
+    long now = System.currentTimeMillis();
+    List<ProfileRequest> requests = args
+            .stream()
+            .map(a -> getRequest(a, now))
+            .collect(Collectors.toList());
+
+    return new ArrayList<>(client.fetch(Object.class, requests));
+  }
 
+  /**
+   * Creates the request for profile values described by the function arguments.
+   * @param args The function arguments.
+   * @param end The time in epoch milliseconds up to which values are retrieved.
+   */
+  private ProfileRequest getRequest(List<Object> args, long end) {
     String profile = getArg(0, String.class, args);
     String entity = getArg(1, String.class, args);
     long durationAgo = getArg(2, Long.class, args);
@@ -178,7 +205,7 @@ public class GetProfile implements StellarFunction {
     TimeUnit units = TimeUnit.valueOf(unitsName);
     List<Object> groups = getGroupsArg(4, args);
 
-    return client.fetch(Object.class, profile, entity, groups, durationAgo, units);
+    return new ProfileRequest(profile, entity, groups, end - units.toMillis(durationAgo), end);
   }
 
   /**
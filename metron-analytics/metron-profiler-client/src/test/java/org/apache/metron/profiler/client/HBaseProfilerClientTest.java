@@ -246,4 +246,35 @@ public class HBaseProfilerClientTest {
     // validate - there should NOT be any results from just 2 milliseconds ago
     assertEquals(0, results.size());
   }
-}
\ No newline at end of file
+
+  /**
+   * A batch of requests should each receive only the values in their own group and time window.
+   */
+  @Test
+  public void testFetchBatch() throws Exception {
+    final int periodsPerHour = 4;
+    final int hours = 2;
+    final int count = hours * periodsPerHour;
+    final long endTime = System.currentTimeMillis();
+    final long startTime = endTime - TimeUnit.HOURS.toMillis(hours);
+
+    // setup - write two groups of measurements - 'weekends' and 'weekdays'
+    ProfileMeasurement m = new ProfileMeasurement("profile1", "entity1", startTime, periodDuration, periodUnits);
+    profileWriter.write(m, count, Arrays.asList("weekdays"), val -> 2302);
+    profileWriter.write(m, count, Arrays.asList("weekends"), val -> 0);
+
+    // execute
+    List<List<Integer>> results = client.fetch(Integer.class, Arrays.asList(
+            new ProfileRequest("profile1", "entity1", Arrays.asList("weekdays"), startTime, endTime),
+            new ProfileRequest("profile1", "entity1", Arrays.asList("does-not-exist"), startTime, endTime),
+            new ProfileRequest("profile1", "entity1", Arrays.asList("weekends"), startTime, endTime)));
+
+    // validate
+    assertEquals(3, results.size());
+    assertEquals(count, results.get(0).size());
+    results.get(0).forEach(actual -> assertEquals(2302, (int) actual));
+    assertEquals(0, results.get(1).size());
+    assertEquals(count, results.get(2).size());
+    results.get(2).forEach(actual -> assertEquals(0, (int) actual));
+  }
+}
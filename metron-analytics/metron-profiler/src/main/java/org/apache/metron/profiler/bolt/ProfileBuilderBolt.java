@@ -28,6 +28,10 @@ import org.apache.metron.common.configuration.profiler.ProfileConfig;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.ParseException;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.stellar.budget.StellarBudget;
+import org.apache.metron.common.stellar.budget.StellarBudgetMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
 import org.apache.metron.profiler.ProfileMeasurement;
 import org.apache.metron.profiler.stellar.DefaultStellarExecutor;
 import org.apache.metron.profiler.stellar.StellarExecutor;
@@ -91,6 +95,16 @@ public class ProfileBuilderBolt extends ConfiguredProfilerBolt {
    */
   private transient JSONParser parser;
 
+  /**
+   * The metrics of the Stellar executed by this bolt, if enabled.
+   */
+  private transient StellarMetrics stellarMetrics;
+
+  /**
+   * The budget of the Stellar executed by this bolt, if any.
+   */
+  private transient StellarBudget stellarBudget;
+
   /**
    * @param zookeeperUrl The Zookeeper URL that contains the configuration data.
    */
@@ -126,6 +140,8 @@ public class ProfileBuilderBolt extends ConfiguredProfilerBolt {
             .newBuilder()
             .expireAfterAccess(timeToLiveMillis, TimeUnit.MILLISECONDS)
             .build();
+    this.stellarMetrics = StellarMetric.register(getConfigurations().getGlobalConfig(), null, context);
+    this.stellarBudget = StellarBudgetMetric.register(getConfigurations().getGlobalConfig(), null, context);
   }
 
   /**
@@ -294,6 +310,12 @@ public class ProfileBuilderBolt extends ConfiguredProfilerBolt {
             .with(Context.Capabilities.ZOOKEEPER_CLIENT, () -> client)
             .with(Context.Capabilities.GLOBAL_CONFIG, () -> getConfigurations().getGlobalConfig())
             .build();
+    if(stellarMetrics != null) {
+      stellarMetrics.addTo(context);
+    }
+    if(stellarBudget != null) {
+      stellarBudget.addTo(context);
+    }
     StellarFunctions.initialize(context);
     executor.setContext(context);
 
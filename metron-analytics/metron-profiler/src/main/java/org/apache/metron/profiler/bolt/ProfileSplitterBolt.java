@@ -33,6 +33,10 @@ import org.apache.metron.common.configuration.profiler.ProfileConfig;
 import org.apache.metron.common.configuration.profiler.ProfilerConfig;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.stellar.budget.StellarBudget;
+import org.apache.metron.common.stellar.budget.StellarBudgetMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
 import org.apache.metron.profiler.stellar.StellarExecutor;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -66,6 +70,16 @@ public class ProfileSplitterBolt extends ConfiguredProfilerBolt {
    */
   private StellarExecutor executor;
 
+  /**
+   * The metrics of the Stellar executed by this bolt, if enabled.
+   */
+  private transient StellarMetrics stellarMetrics;
+
+  /**
+   * The budget of the Stellar executed by this bolt, if any.
+   */
+  private transient StellarBudget stellarBudget;
+
   /**
    * @param zookeeperUrl The Zookeeper URL that contains the configuration for this bolt.
    */
@@ -79,6 +93,8 @@ public class ProfileSplitterBolt extends ConfiguredProfilerBolt {
     this.collector = collector;
     this.parser = new JSONParser();
     this.executor = new DefaultStellarExecutor();
+    this.stellarMetrics = StellarMetric.register(getConfigurations().getGlobalConfig(), null, context);
+    this.stellarBudget = StellarBudgetMetric.register(getConfigurations().getGlobalConfig(), null, context);
     initializeStellar();
   }
 
@@ -87,6 +103,12 @@ public class ProfileSplitterBolt extends ConfiguredProfilerBolt {
             .with(Context.Capabilities.ZOOKEEPER_CLIENT, () -> client)
             .with(Context.Capabilities.GLOBAL_CONFIG, () -> getConfigurations().getGlobalConfig())
             .build();
+    if(stellarMetrics != null) {
+      stellarMetrics.addTo(context);
+    }
+    if(stellarBudget != null) {
+      stellarBudget.addTo(context);
+    }
     StellarFunctions.initialize(context);
     executor.setContext(context);
   }
@@ -34,6 +34,7 @@ public class MathFunctions {
                 "number - The number to take the absolute value of"
                     }
           , returns="The absolute value of the number passed in."
+          , deterministic = true
           )
   public static class Abs implements StellarFunction{
 
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.benchmarks.stellar;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.StellarExpression;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the evaluation of compiled Stellar expressions by the kind of work that they do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StellarEvaluationBenchmark {
+
+  public static final String ARITHMETIC_INT = "(foo + 2) * bar - foo / 3";
+  public static final String ARITHMETIC_DOUBLE = "(ratio + 2.5) * bar - ratio / 3.0";
+  public static final String BOOLEAN = "(foo > 1 and bar < 10) or not(name == 'casey') and (foo != bar)";
+  public static final String MAP_GET = "MAP_GET('dns', config, 'unknown')";
+  public static final String MAP_EXISTS = "MAP_EXISTS('http', config)";
+  public static final String STRING_CASE = "TO_UPPER(TRIM(name))";
+  public static final String STRING_SPLIT_JOIN = "JOIN(SPLIT(path, '/'), '.')";
+  public static final String STRING_STARTS_WITH = "STARTS_WITH(path, '/usr')";
+
+  private VariableResolver resolver;
+  private FunctionResolver functionResolver;
+  private Context context;
+
+  private StellarExpression arithmeticInt;
+  private StellarExpression arithmeticDouble;
+  private StellarExpression booleanLogic;
+  private StellarExpression mapGet;
+  private StellarExpression mapExists;
+  private StellarExpression stringCase;
+  private StellarExpression stringSplitJoin;
+  private StellarExpression stringStartsWith;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> config = new HashMap<>();
+    config.put("dns", 53);
+    config.put("http", 80);
+    config.put("https", 443);
+
+    Map<String, Object> message = new HashMap<>();
+    message.put("foo", 7);
+    message.put("bar", 3);
+    message.put("ratio", 0.75);
+    message.put("name", "  casey  ");
+    message.put("path", "/usr/local/metron/bin");
+    message.put("ports", Arrays.asList(53, 80, 443));
+    message.put("config", config);
+
+    resolver = new MapVariableResolver(message);
+    functionResolver = StellarFunctions.FUNCTION_RESOLVER();
+    context = Context.EMPTY_CONTEXT();
+
+    StellarProcessor processor = new StellarProcessor();
+    arithmeticInt = processor.compile(ARITHMETIC_INT, functionResolver, context);
+    arithmeticDouble = processor.compile(ARITHMETIC_DOUBLE, functionResolver, context);
+    booleanLogic = processor.compile(BOOLEAN, functionResolver, context);
+    mapGet = processor.compile(MAP_GET, functionResolver, context);
+    mapExists = processor.compile(MAP_EXISTS, functionResolver, context);
+    stringCase = processor.compile(STRING_CASE, functionResolver, context);
+    stringSplitJoin = processor.compile(STRING_SPLIT_JOIN, functionResolver, context);
+    stringStartsWith = processor.compile(STRING_STARTS_WITH, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object arithmeticInt() {
+    return arithmeticInt.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object arithmeticDouble() {
+    return arithmeticDouble.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object booleanLogic() {
+    return booleanLogic.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object mapGet() {
+    return mapGet.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object mapExists() {
+    return mapExists.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object stringCase() {
+    return stringCase.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object stringSplitJoin() {
+    return stringSplitJoin.apply(resolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object stringStartsWith() {
+    return stringStartsWith.apply(resolver, functionResolver, context);
+  }
+}
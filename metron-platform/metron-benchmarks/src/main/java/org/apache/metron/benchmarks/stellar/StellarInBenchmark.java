@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.benchmarks.stellar;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.StellarExpression;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the 'in' operator against lists of increasing size, both when the list is
+ * a literal in the expression and when it is resolved from a variable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StellarInBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int size;
+
+  private VariableResolver hitResolver;
+  private VariableResolver missResolver;
+  private FunctionResolver functionResolver;
+  private Context context;
+  private StellarExpression literalList;
+  private StellarExpression variableList;
+
+  @Setup
+  public void setup() {
+    List<String> hosts = new ArrayList<>(size);
+    StringBuilder literal = new StringBuilder("host in [");
+    for(int i = 0; i < size; i++) {
+      String host = "host-" + i + ".example.com";
+      hosts.add(host);
+      literal.append(i == 0 ? "" : ",").append('\'').append(host).append('\'');
+    }
+    literal.append("]");
+
+    // the last element of the list is the worst case of a linear scan
+    Map<String, Object> hit = new HashMap<>();
+    hit.put("host", hosts.get(size - 1));
+    hit.put("hosts", hosts);
+    Map<String, Object> miss = new HashMap<>();
+    miss.put("host", "unknown.example.com");
+    miss.put("hosts", hosts);
+
+    hitResolver = new MapVariableResolver(hit);
+    missResolver = new MapVariableResolver(miss);
+    functionResolver = StellarFunctions.FUNCTION_RESOLVER();
+    context = Context.EMPTY_CONTEXT();
+
+    StellarProcessor processor = new StellarProcessor();
+    literalList = processor.compile(literal.toString(), functionResolver, context);
+    variableList = processor.compile("host in hosts", functionResolver, context);
+  }
+
+  @Benchmark
+  public Object literalListHit() {
+    return literalList.apply(hitResolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object literalListMiss() {
+    return literalList.apply(missResolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object variableListHit() {
+    return variableList.apply(hitResolver, functionResolver, context);
+  }
+
+  @Benchmark
+  public Object variableListMiss() {
+    return variableList.apply(missResolver, functionResolver, context);
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.benchmarks.stellar;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.ErrorListener;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.StellarCompiler;
+import org.apache.metron.common.stellar.StellarExpression;
+import org.apache.metron.common.stellar.StellarOptimizer;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.apache.metron.common.stellar.generated.StellarLexer;
+import org.apache.metron.common.stellar.generated.StellarParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of parsing a Stellar expression with the cost of evaluating it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StellarParseBenchmark {
+
+  @Param({ "1 + 2 * foo"
+         , "TO_UPPER(TRIM(name)) == 'CASEY' and foo > 1"
+         , "if ip_src_addr in [ '10.0.0.1', '10.0.0.2' ] then MAP_GET('foo', { 'foo' : 1 }) else 0"
+         })
+  public String rule;
+
+  private StellarProcessor processor;
+  private StellarExpression expression;
+  private VariableResolver resolver;
+  private FunctionResolver functionResolver;
+  private Context context;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> message = new HashMap<>();
+    message.put("foo", 2);
+    message.put("name", " casey ");
+    message.put("ip_src_addr", "10.0.0.1");
+    resolver = new MapVariableResolver(message);
+    functionResolver = StellarFunctions.FUNCTION_RESOLVER();
+    context = Context.EMPTY_CONTEXT();
+    processor = new StellarProcessor();
+    expression = processor.compile(rule, functionResolver, context);
+  }
+
+  /**
+   * Parses and optimizes the expression without consulting the expression cache.
+   */
+  @Benchmark
+  public StellarExpression parse() {
+    StellarLexer lexer = new StellarLexer(new ANTLRInputStream(rule));
+    lexer.removeErrorListeners();
+    lexer.addErrorListener(new ErrorListener());
+    StellarParser parser = new StellarParser(new CommonTokenStream(lexer));
+    StellarCompiler compiler = new StellarCompiler(rule);
+    parser.addParseListener(compiler);
+    parser.removeErrorListeners();
+    parser.addErrorListener(new ErrorListener());
+    parser.transformation();
+    return new StellarOptimizer().optimize(compiler.getExpression());
+  }
+
+  /**
+   * Looks up the compiled expression in the expression cache.
+   */
+  @Benchmark
+  public StellarExpression compile() {
+    return processor.compile(rule, functionResolver, context);
+  }
+
+  /**
+   * Evaluates an expression that has already been compiled.
+   */
+  @Benchmark
+  public Object evaluate() {
+    return expression.apply(resolver, functionResolver, context);
+  }
+
+  /**
+   * Compiles (through the cache) and evaluates the expression, as a caller of the processor would.
+   */
+  @Benchmark
+  public Object parseAndEvaluate() {
+    return processor.parse(rule, resolver, functionResolver, context);
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.benchmarks.stellar;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.field.transformation.StellarTransformation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a parser's Stellar field transformations applied to a realistic HTTP message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StellarTransformationBenchmark {
+
+  private StellarTransformation transformation;
+  private Map<String, Object> message;
+  private List<String> output;
+  private Map<String, Object> config;
+  private Map<String, Object> sensorConfig;
+  private Context context;
+
+  @Setup
+  public void setup() {
+    message = new HashMap<>();
+    message.put("ts", "2016-09-14 17:03:26");
+    message.put("uid", "CUrRne3iLIxXavQtci");
+    message.put("ip_src_addr", "192.168.66.121");
+    message.put("ip_src_port", 49206);
+    message.put("ip_dst_addr", "95.163.121.204");
+    message.put("ip_dst_port", 80);
+    message.put("method", "get");
+    message.put("url", "http://www.example.co.uk/download/update.php?id=3412&type=exe");
+    message.put("user_agent", "Mozilla/4.0 (compatible; MSIE 7.0; Windows NT 6.1)");
+    message.put("status_code", 200);
+    message.put("response_body_len", 15624);
+
+    config = new LinkedHashMap<>();
+    config.put("timestamp", "TO_EPOCH_TIMESTAMP(ts, 'yyyy-MM-dd HH:mm:ss', 'UTC')");
+    config.put("host", "URL_TO_HOST(url)");
+    config.put("tld", "DOMAIN_TO_TLD(URL_TO_HOST(url))");
+    config.put("method", "TO_UPPER(method)");
+    config.put("is_internal", "IN_SUBNET(ip_src_addr, '192.168.0.0/16', '10.0.0.0/8')");
+    config.put("is_error", "status_code >= 400");
+    config.put("large_response", "response_body_len > 10000 and ip_dst_port == 80");
+    output = ImmutableList.copyOf(config.keySet());
+
+    sensorConfig = new HashMap<>();
+    context = Context.EMPTY_CONTEXT();
+    StellarFunctions.initialize(context);
+    transformation = new StellarTransformation();
+  }
+
+  @Benchmark
+  public Map<String, Object> transform() {
+    return transformation.map(message, output, config, sensorConfig, context);
+  }
+}
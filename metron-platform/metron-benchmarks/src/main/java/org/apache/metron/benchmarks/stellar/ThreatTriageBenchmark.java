@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.benchmarks.stellar;
+
+import org.apache.metron.common.configuration.enrichment.SensorEnrichmentConfig;
+import org.apache.metron.common.configuration.enrichment.threatintel.ThreatTriageConfig;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.threatintel.triage.ThreatTriageProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures threat triage of a message against an increasing number of rules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreatTriageBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int rules;
+
+  private ThreatTriageProcessor processor;
+  private Map<String, Object> message;
+
+  @Setup
+  public void setup() {
+    Map<String, Number> riskLevelRules = new LinkedHashMap<>();
+    for(int i = 0; i < rules; i++) {
+      String rule;
+      switch(i % 4) {
+        case 0:
+          rule = "ip_dst_port == " + i;
+          break;
+        case 1:
+          rule = "IN_SUBNET(ip_dst_addr, '10." + (i % 256) + ".0.0/16')";
+          break;
+        case 2:
+          rule = "TO_UPPER(method) == 'POST' and response_body_len > " + i;
+          break;
+        default:
+          rule = "exists(is_alert) and host in [ 'host-" + i + ".example.com', 'www.example.com' ]";
+          break;
+      }
+      riskLevelRules.put(rule, i % 100);
+    }
+
+    SensorEnrichmentConfig config = new SensorEnrichmentConfig();
+    ThreatTriageConfig triageConfig = config.getThreatIntel().getTriageConfig();
+    triageConfig.setRiskLevelRules(riskLevelRules);
+    triageConfig.setAggregator("MAX");
+
+    message = new HashMap<>();
+    message.put("ip_src_addr", "192.168.66.121");
+    message.put("ip_dst_addr", "10.12.121.204");
+    message.put("ip_dst_port", 80);
+    message.put("method", "post");
+    message.put("host", "www.example.com");
+    message.put("response_body_len", 15624);
+    message.put("is_alert", true);
+
+    Context context = Context.EMPTY_CONTEXT();
+    StellarFunctions.initialize(context);
+    processor = new ThreatTriageProcessor(config, StellarFunctions.FUNCTION_RESOLVER(), context);
+  }
+
+  @Benchmark
+  public Double triage() {
+    return processor.apply(message);
+  }
+}
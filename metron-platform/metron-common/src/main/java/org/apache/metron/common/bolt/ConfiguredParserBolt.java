@@ -42,6 +42,17 @@ public abstract class ConfiguredParserBolt extends ConfiguredBolt<ParserConfigur
     return getConfigurations().getSensorParserConfig(sensorType);
   }
 
+  /**
+   * The parser config of a sensor; that of the bolt's own sensor is looked up through
+   * {@link #getSensorParserConfig()}.
+   */
+  protected SensorParserConfig getSensorParserConfig(String sensorType) {
+    if(this.sensorType.equals(sensorType)) {
+      return getSensorParserConfig();
+    }
+    return getConfigurations().getSensorParserConfig(sensorType);
+  }
+
   @Override
   protected ParserConfigurations defaultConfigurations() {
     return new ParserConfigurations();
@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.configuration;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.field.transformation.StellarTransformation;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.apache.metron.common.stellar.StellarProgram;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+import org.json.simple.JSONObject;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The field transformations of a sensor, prepared to be applied to each message in order.
+ *
+ * Consecutive Stellar transformations that read the whole message are fused into a single
+ * compiled program.  The program writes each output field straight into the message as it is
+ * evaluated, so later statements see the fields written by earlier ones exactly as they would
+ * had the transformations been applied one at a time.  All other transformations are applied
+ * by their {@link FieldTransformer}.
+ *
+ * A program is immutable once built; a change to the sensor's configuration builds a new one.
+ */
+public class FieldTransformerProgram implements Serializable {
+
+  private interface Step extends Serializable {
+    void transformAndUpdate(JSONObject message, Map<String, Object> sensorConfig, Context context);
+
+    /**
+     * Applies the step to each message of a batch that has not already failed.
+     * @param errors The exception that each message failed with, or null; updated in place.
+     */
+    default void transformAndUpdate( List<JSONObject> messages
+                                   , Throwable[] errors
+                                   , Map<String, Object> sensorConfig
+                                   , FunctionResolver functionResolver
+                                   , Context context
+                                   )
+    {
+      for(int i = 0; i < messages.size(); i++) {
+        if(errors[i] == null) {
+          try {
+            transformAndUpdate(messages.get(i), sensorConfig, context);
+          }
+          catch(Throwable t) {
+            errors[i] = t;
+          }
+        }
+      }
+    }
+  }
+
+  private final List<Step> steps;
+
+  /**
+   * @param transformers The field transformations of a sensor, which must have been initialized.
+   */
+  public FieldTransformerProgram(List<FieldTransformer> transformers) {
+    List<Step> steps = new ArrayList<>();
+    StellarStep stellar = null;
+    for(FieldTransformer transformer : transformers) {
+      if(transformer == null) {
+        continue;
+      }
+      if(isFusable(transformer)) {
+        if(stellar == null) {
+          stellar = new StellarStep();
+          steps.add(stellar);
+        }
+        stellar.add(transformer);
+      }
+      else {
+        stellar = null;
+        steps.add(transformer::transformAndUpdate);
+      }
+    }
+    this.steps = Collections.unmodifiableList(steps);
+  }
+
+  /**
+   * Applies the transformations to a message, updating it in place.
+   * @param message The message to transform.
+   * @param sensorConfig The parser config of the sensor.
+   * @param context The Stellar context.
+   */
+  public void transformAndUpdate(JSONObject message, Map<String, Object> sensorConfig, Context context) {
+    for(Step step : steps) {
+      step.transformAndUpdate(message, sensorConfig, context);
+    }
+  }
+
+  /**
+   * Applies the transformations to a batch of messages, updating each in place.  Each message is
+   * transformed exactly as it would be on its own, but the calls to batch Stellar functions that
+   * every message reaches are made once for the whole batch, and those to asynchronous functions
+   * are all started before any is waited for.  A message that fails is not transformed further and
+   * does not affect the others.
+   * @param messages The messages to transform.
+   * @param sensorConfig The parser config of the sensor.
+   * @param context The Stellar context.
+   * @return The exception that each message failed with, or null for each message that was
+   *         transformed; in the order of the messages.
+   */
+  public List<Throwable> transformAndUpdate(List<JSONObject> messages, Map<String, Object> sensorConfig, Context context) {
+    return transformAndUpdate(messages, sensorConfig, StellarFunctions.FUNCTION_RESOLVER(), context);
+  }
+
+  /**
+   * Applies the transformations to a batch of messages, resolving the functions of the Stellar
+   * transformations with the given resolver.
+   * @see #transformAndUpdate(List, Map, Context)
+   */
+  public List<Throwable> transformAndUpdate( List<JSONObject> messages
+                                           , Map<String, Object> sensorConfig
+                                           , FunctionResolver functionResolver
+                                           , Context context
+                                           )
+  {
+    Throwable[] errors = new Throwable[messages.size()];
+    for(Step step : steps) {
+      step.transformAndUpdate(messages, errors, sensorConfig, functionResolver, context);
+    }
+    return Arrays.asList(errors);
+  }
+
+  /**
+   * The number of separate steps that each message is transformed by.
+   */
+  public int size() {
+    return steps.size();
+  }
+
+  /**
+   * A Stellar transformation can be fused if it reads the whole message, rather than only a
+   * few of its fields, and all of its statements compile.  Those that do not compile are left
+   * to fail for each message as they always have.
+   */
+  private static boolean isFusable(FieldTransformer transformer) {
+    if(!(transformer.getFieldTransformation() instanceof StellarTransformation)
+       || (transformer.getInput() != null && !transformer.getInput().isEmpty())
+       || transformer.getOutput() == null
+      ) {
+      return false;
+    }
+    StellarProcessor processor = new StellarProcessor();
+    for(String field : transformer.getOutput()) {
+      Object rule = transformer.getConfig().get(field);
+      if(rule != null) {
+        try {
+          processor.compile(rule.toString());
+        }
+        catch(Exception e) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Consecutive Stellar transformations compiled together into one program.
+   */
+  private static class StellarStep implements Step {
+
+    private final List<String> fields = new ArrayList<>();
+    private final List<String> rules = new ArrayList<>();
+    private final Set<String> outputs = new HashSet<>();
+
+    /**
+     * The program optimized for the function resolver that it was last applied with.  It is
+     * compiled on first use, as the functions are only available once the bolt is prepared.
+     */
+    private transient volatile Compiled compiled;
+
+    void add(FieldTransformer transformer) {
+      for(String field : transformer.getOutput()) {
+        Object rule = transformer.getConfig().get(field);
+        if(rule != null) {
+          fields.add(field);
+          rules.add(rule.toString());
+        }
+      }
+      outputs.addAll(transformer.getOutput());
+    }
+
+    @Override
+    public void transformAndUpdate(JSONObject message, Map<String, Object> sensorConfig, Context context) {
+      if(rules.isEmpty()) {
+        return;
+      }
+      FunctionResolver functionResolver = StellarFunctions.FUNCTION_RESOLVER();
+      StellarProgram program = getProgram(functionResolver, context);
+      StellarProcessor processor = new StellarProcessor();
+      ExpressionState state = program.createState(new MapVariableResolver(message, sensorConfig), functionResolver, context);
+      for(int i = 0; i < program.size(); i++) {
+        evaluate(processor, program, i, state, message);
+      }
+    }
+
+    /**
+     * Evaluates each statement against every message that has not failed before moving on to the
+     * next, so that the statement's batch and asynchronous calls can be prefetched for all of them.
+     * Each message still sees the fields written by the earlier statements.
+     */
+    @Override
+    public void transformAndUpdate( List<JSONObject> messages
+                                  , Throwable[] errors
+                                  , Map<String, Object> sensorConfig
+                                  , FunctionResolver functionResolver
+                                  , Context context
+                                  )
+    {
+      if(rules.isEmpty()) {
+        return;
+      }
+      StellarProgram program = getProgram(functionResolver, context);
+      StellarProcessor processor = new StellarProcessor();
+      List<ExpressionState> states = new ArrayList<>(messages.size());
+      for(JSONObject message : messages) {
+        states.add(program.createState(new MapVariableResolver(message, sensorConfig), functionResolver, context));
+      }
+      for(int i = 0; i < program.size(); i++) {
+        List<ExpressionState> remaining = new ArrayList<>(states.size());
+        for(int j = 0; j < states.size(); j++) {
+          if(errors[j] == null) {
+            remaining.add(states.get(j));
+          }
+        }
+        program.getStatement(i).prefetch(remaining);
+        for(int j = 0; j < states.size(); j++) {
+          if(errors[j] == null) {
+            try {
+              evaluate(processor, program, i, states.get(j), messages.get(j));
+            }
+            catch(Throwable t) {
+              errors[j] = t;
+            }
+          }
+        }
+      }
+    }
+
+    private void evaluate(StellarProcessor processor, StellarProgram program, int i, ExpressionState state, JSONObject message) {
+      String field = fields.get(i);
+      try {
+        Object o = processor.evaluate(program.getStatement(i), state);
+        if(o != null) {
+          message.put(field, o);
+        }
+      }
+      catch(Exception ex) {
+        throw new IllegalStateException( "Unable to process transformation: " + rules.get(i)
+                                       + " for " + field + " because " + ex.getMessage()
+                                       , ex
+                                       );
+      }
+    }
+
+    private StellarProgram getProgram(FunctionResolver functionResolver, Context context) {
+      Compiled current = compiled;
+      if(current == null || current.functionResolver != functionResolver) {
+        StellarProgram program = new StellarProcessor().compile(rules, outputs, functionResolver, context);
+        current = new Compiled(functionResolver, program);
+        compiled = current;
+      }
+      return current.program;
+    }
+  }
+
+  private static class Compiled {
+    private final FunctionResolver functionResolver;
+    private final StellarProgram program;
+
+    Compiled(FunctionResolver functionResolver, StellarProgram program) {
+      this.functionResolver = functionResolver;
+      this.program = program;
+    }
+  }
+}
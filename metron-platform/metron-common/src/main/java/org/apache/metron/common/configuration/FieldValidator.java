@@ -113,7 +113,7 @@ public class FieldValidator implements Serializable {
       for (Object o : validations) {
         FieldValidator f = new FieldValidator(o);
         f.getValidation().initialize(f.getConfig(), globalConfig);
-        validators.add(new FieldValidator(o));
+        validators.add(f);
       }
     }
     return validators;
@@ -17,6 +17,7 @@
  */
 package org.apache.metron.common.configuration;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.collect.ImmutableList;
 import org.apache.metron.common.utils.JSONUtils;
@@ -61,6 +62,7 @@ public class SensorParserConfig implements Serializable {
   }
   private Map<String, Object> parserConfig = new HashMap<>();
   private List<FieldTransformer> fieldTransformations = new ArrayList<>();
+  private FieldTransformerProgram fieldTransformerProgram;
 
   public List<FieldTransformer> getFieldTransformations() {
     return fieldTransformations;
@@ -68,6 +70,19 @@ public class SensorParserConfig implements Serializable {
 
   public void setFieldTransformations(List<FieldTransformer> fieldTransformations) {
     this.fieldTransformations = fieldTransformations;
+    this.fieldTransformerProgram = null;
+  }
+
+  /**
+   * The field transformations prepared to be applied to each message.  They are prepared
+   * when the config is initialized, so a config loaded from Zookeeper swaps them all at once.
+   */
+  @JsonIgnore
+  public FieldTransformerProgram getFieldTransformerProgram() {
+    if(fieldTransformerProgram == null) {
+      init();
+    }
+    return fieldTransformerProgram;
   }
 
   public String getFilterClassName() {
@@ -112,6 +127,7 @@ public class SensorParserConfig implements Serializable {
     for(FieldTransformer h : getFieldTransformations()) {
       h.initAndValidate();
     }
+    fieldTransformerProgram = new FieldTransformerProgram(getFieldTransformations());
   }
 
 
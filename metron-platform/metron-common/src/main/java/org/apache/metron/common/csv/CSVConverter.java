@@ -37,6 +37,13 @@ public class CSVConverter implements Serializable {
   public static final String SEPARATOR_KEY="separator";
   protected Map<String, Integer> columnMap = new HashMap<>();
   protected CSVParser parser;
+  /**
+   * The configured columns, and the number of fields up to and including the last of them.
+   */
+  protected String[] columnNames;
+  protected int[] columnPositions;
+  protected int fieldCount;
+  private transient DelimitedTokenizer tokenizer;
 
   public Map<String, Integer> getColumnMap() {
     return columnMap;
@@ -47,15 +54,37 @@ public class CSVConverter implements Serializable {
   }
 
   public Map<String, String> toMap(String line) throws IOException {
+    Map<String, String> values = new HashMap<>();
+    return toMap(line, values) ? values : null;
+  }
+
+  /**
+   * Puts the configured columns of a line into a map.  Only the fields up to the last of the
+   * columns are read, and only the columns are decoded; lines that the tokenizer does not read
+   * in the same way as opencsv are left to opencsv.
+   * @param line The line.
+   * @param values The map to put the columns into.
+   * @return False if the line is ignored.
+   */
+  protected boolean toMap(String line, Map<String, ? super String> values) throws IOException {
     if(ignore(line)) {
-      return null;
+      return false;
     }
-    String[] tokens = parser.parseLine(line);
-    Map<String, String> values = new HashMap<>();
-    for(Map.Entry<String, Integer> kv : columnMap.entrySet()) {
-      values.put(kv.getKey(), tokens[kv.getValue()]);
+    if(tokenizer == null) {
+      tokenizer = new DelimitedTokenizer(parser.getSeparator());
+    }
+    if(tokenizer.tokenize(line, 0, line.length(), fieldCount) != DelimitedTokenizer.IRREGULAR) {
+      for(int i = 0; i < columnNames.length; i++) {
+        values.put(columnNames[i], tokenizer.get(columnPositions[i]));
+      }
+    }
+    else {
+      String[] tokens = parser.parseLine(line);
+      for(int i = 0; i < columnNames.length; i++) {
+        values.put(columnNames[i], tokens[columnPositions[i]]);
+      }
     }
-    return values;
+    return true;
   }
 
   public void initialize(Map<String, Object> config) {
@@ -72,6 +101,17 @@ public class CSVConverter implements Serializable {
     }
     parser = new CSVParserBuilder().withSeparator(separator)
               .build();
+    tokenizer = null;
+    columnNames = new String[columnMap.size()];
+    columnPositions = new int[columnMap.size()];
+    fieldCount = 0;
+    int i = 0;
+    for(Map.Entry<String, Integer> kv : columnMap.entrySet()) {
+      columnNames[i] = kv.getKey();
+      columnPositions[i] = kv.getValue();
+      fieldCount = Math.max(fieldCount, kv.getValue() + 1);
+      i++;
+    }
   }
   protected boolean ignore(String line) {
     if(null == line) {
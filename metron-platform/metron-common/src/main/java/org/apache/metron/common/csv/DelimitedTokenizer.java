@@ -0,0 +1,284 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.csv;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits delimited records, such as lines of a CSV file, into fields.
+ *
+ * A field is either unquoted, or quoted from the separator before it to the separator after it;
+ * within a quoted field a doubled quote or an escaped quote or escape character stands for the
+ * character itself.  This is the subset of records that opencsv reads in the same way as this
+ * tokenizer does.  Any other record (a quote within an unquoted field, an escape character
+ * outside a quoted field, an unterminated quote) is reported as irregular, so that the caller
+ * may fall back to opencsv.
+ *
+ * The tokenizer records where each field starts and ends, and only decodes a field when it is
+ * asked for, so records can be split up to the last field of interest and only the fields of
+ * interest materialized.  The buffers holding the fields are reused from record to record; a
+ * tokenizer must not be shared between threads.
+ */
+public class DelimitedTokenizer implements Serializable {
+
+  public static final char DEFAULT_QUOTE = '"';
+  public static final char DEFAULT_ESCAPE = '\\';
+
+  /**
+   * The value returned by {@link #tokenize(CharSequence, int, int, int)} for an irregular record.
+   */
+  public static final int IRREGULAR = -1;
+
+  private final char separator;
+  private final char quote;
+  private final char escape;
+
+  /**
+   * The range of the content of each field of the last record, and whether it holds escapes.
+   */
+  private transient int[] starts;
+  private transient int[] ends;
+  private transient boolean[] escaped;
+  private transient int count;
+
+  /**
+   * The last record; either text, or bytes read through {@link #byteText}.
+   */
+  private transient CharSequence text;
+  private transient byte[] bytes;
+  private transient ByteText byteText;
+  private transient StringBuilder unescapedChars;
+  private transient byte[] unescapedBytes;
+
+  public DelimitedTokenizer(char separator) {
+    this(separator, DEFAULT_QUOTE, DEFAULT_ESCAPE);
+  }
+
+  /**
+   * @param separator The character between fields.
+   * @param quote The character that quotes a field.
+   * @param escape The character that escapes a quote or itself within a quoted field; if it is the
+   *               quote, a doubled quote is the only escape.
+   */
+  public DelimitedTokenizer(char separator, char quote, char escape) {
+    this.separator = separator;
+    this.quote = quote;
+    this.escape = escape;
+  }
+
+  public char getSeparator() {
+    return separator;
+  }
+
+  /**
+   * Splits a record.
+   * @param text The record.
+   * @return The number of fields, or {@link #IRREGULAR}.
+   */
+  public int tokenize(CharSequence text) {
+    return tokenize(text, 0, text.length(), Integer.MAX_VALUE);
+  }
+
+  /**
+   * Splits a record into at most the given number of fields; the rest of the record is not read.
+   * @param text The text holding the record.
+   * @param start The start of the record.
+   * @param end The end of the record.
+   * @param maxFields The number of fields of interest.
+   * @return The number of fields, or {@link #IRREGULAR}.
+   */
+  public int tokenize(CharSequence text, int start, int end, int maxFields) {
+    this.text = text;
+    this.bytes = null;
+    return scan(text, start, end, maxFields);
+  }
+
+  /**
+   * Splits a UTF-8 encoded record into at most the given number of fields; the rest of the
+   * record is not read.  The separator, quote and escape must be ASCII characters.
+   * @param buffer The bytes holding the record.
+   * @param start The start of the record.
+   * @param end The end of the record.
+   * @param maxFields The number of fields of interest.
+   * @return The number of fields, or {@link #IRREGULAR}.
+   */
+  public int tokenize(byte[] buffer, int start, int end, int maxFields) {
+    if (separator >= 0x80 || quote >= 0x80 || escape >= 0x80) {
+      throw new IllegalStateException("Unable to split bytes on a non-ASCII separator, quote or escape");
+    }
+    if (byteText == null) {
+      byteText = new ByteText();
+    }
+    // no byte of a multi-byte UTF-8 character is ASCII, so the bytes are scanned as characters
+    byteText.buffer = buffer;
+    this.text = null;
+    this.bytes = buffer;
+    return scan(byteText, start, end, maxFields);
+  }
+
+  /**
+   * The number of fields of the last record.
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Decodes a field of the last record.
+   * @param field The index of the field.
+   */
+  public String get(int field) {
+    if (field < 0 || field >= count) {
+      throw new IllegalArgumentException("Expected at least " + (field + 1) + " fields, but found " + count);
+    }
+    int start = starts[field];
+    int end = ends[field];
+    if (bytes != null) {
+      return escaped[field] ? unescape(bytes, start, end) : new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+    return escaped[field] ? unescape(text, start, end) : text.subSequence(start, end).toString();
+  }
+
+  private int scan(CharSequence text, int start, int end, int maxFields) {
+    if (starts == null) {
+      starts = new int[16];
+      ends = new int[16];
+      escaped = new boolean[16];
+    }
+    count = 0;
+    int i = start;
+    while (true) {
+      if (count == starts.length) {
+        starts = Arrays.copyOf(starts, count * 2);
+        ends = Arrays.copyOf(ends, count * 2);
+        escaped = Arrays.copyOf(escaped, count * 2);
+      }
+      boolean hasEscapes = false;
+      int fieldStart;
+      int fieldEnd;
+      if (i < end && text.charAt(i) == quote) {
+        fieldStart = ++i;
+        while (true) {
+          if (i >= end) {
+            return count = IRREGULAR;
+          }
+          char c = text.charAt(i);
+          if (c == quote) {
+            if (i + 1 < end && text.charAt(i + 1) == quote) {
+              hasEscapes = true;
+              i += 2;
+              continue;
+            }
+            break;
+          }
+          if (c == escape) {
+            if (i + 1 < end && (text.charAt(i + 1) == quote || text.charAt(i + 1) == escape)) {
+              hasEscapes = true;
+              i += 2;
+              continue;
+            }
+            return count = IRREGULAR;
+          }
+          i++;
+        }
+        fieldEnd = i++;
+        if (i < end && text.charAt(i) != separator) {
+          return count = IRREGULAR;
+        }
+      }
+      else {
+        fieldStart = i;
+        while (i < end) {
+          char c = text.charAt(i);
+          if (c == separator) {
+            break;
+          }
+          if (c == quote || c == escape) {
+            return count = IRREGULAR;
+          }
+          i++;
+        }
+        fieldEnd = i;
+      }
+      starts[count] = fieldStart;
+      ends[count] = fieldEnd;
+      escaped[count] = hasEscapes;
+      count++;
+      if (i >= end || count == maxFields) {
+        return count;
+      }
+      // past the separator; a separator at the end of the record is followed by an empty field
+      i++;
+    }
+  }
+
+  private String unescape(CharSequence text, int start, int end) {
+    if (unescapedChars == null) {
+      unescapedChars = new StringBuilder();
+    }
+    StringBuilder value = unescapedChars;
+    value.setLength(0);
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      // both escape sequences are two characters standing for the second
+      value.append(c == quote || c == escape ? text.charAt(++i) : c);
+    }
+    return value.toString();
+  }
+
+  private String unescape(byte[] buffer, int start, int end) {
+    if (unescapedBytes == null || unescapedBytes.length < end - start) {
+      unescapedBytes = new byte[Math.max(64, end - start)];
+    }
+    byte[] value = unescapedBytes;
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      byte b = buffer[i];
+      value[length++] = b == quote || b == escape ? buffer[++i] : b;
+    }
+    return new String(value, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The bytes of a record, read as characters; only the ASCII characters are meaningful.
+   */
+  private static class ByteText implements CharSequence {
+    private byte[] buffer;
+
+    @Override
+    public int length() {
+      return buffer.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (buffer[index] & 0xff);
+    }
+
+    /**
+     * Decodes the bytes from start to end, as the fields are decoded.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+    }
+  }
+}
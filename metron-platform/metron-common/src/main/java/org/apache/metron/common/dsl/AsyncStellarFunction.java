@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A Stellar function that can be applied without blocking the calling thread; for example, one
+ * that calls a remote service.
+ *
+ * When a compiled expression is evaluated against a batch of messages, the calls to asynchronous
+ * functions that every message reaches are all started before any of them is waited for, so
+ * that the remote calls of the batch are made concurrently.  The result of each future must be
+ * exactly what {@link #apply(List, Context)} returns for the same call.  Blocking work should be
+ * done on the {@link StellarAsyncExecutor} rather than the calling thread.
+ */
+public interface AsyncStellarFunction extends StellarFunction {
+
+  /**
+   * Starts applying the function.
+   * @param args The arguments of the call.
+   * @param context The context of the evaluation.
+   * @return The result of the call, once it completes.
+   */
+  CompletableFuture<Object> applyAsync(List<Object> args, Context context);
+}
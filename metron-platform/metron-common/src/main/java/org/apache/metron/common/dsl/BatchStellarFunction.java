@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl;
+
+import java.util.List;
+
+/**
+ * A Stellar function that can be applied to the arguments of many calls at once; for example,
+ * to look up the indicators of a whole batch of messages in a single round trip.
+ *
+ * When a compiled expression is evaluated against a batch of messages, a call to a batch
+ * function that every message reaches is applied once to the arguments of all of the messages.
+ * The results must be exactly those that {@link #apply(List, Context)} returns for each call.
+ */
+public interface BatchStellarFunction extends StellarFunction {
+
+  /**
+   * Applies the function to the arguments of each of a batch of calls.
+   * @param args The arguments of each call.
+   * @param context The context of the evaluation.
+   * @return The result of each call, in the same order as the arguments.
+   */
+  List<Object> applyBatch(List<List<Object>> args, Context context) throws ParseException;
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the arguments of a call to a Stellar function at a particular point in an
+ * expression.  The value of each argument that is a constant is known; the others are
+ * only known when the expression is evaluated.
+ */
+public class CallSite {
+
+  private final List<Object> constants;
+  private final boolean[] constant;
+
+  /**
+   * @param constants The value of each constant argument; null for the other arguments.
+   * @param constant True for each argument that is constant.
+   */
+  public CallSite(List<Object> constants, boolean[] constant) {
+    if (constants.size() != constant.length) {
+      throw new IllegalArgumentException("Expected a value for each of the " + constant.length + " arguments");
+    }
+    this.constants = new ArrayList<>(constants);
+    this.constant = constant.clone();
+  }
+
+  /**
+   * The number of arguments at the call site.
+   */
+  public int size() {
+    return constant.length;
+  }
+
+  /**
+   * True if the argument is a constant.
+   * @param i The position of the argument.
+   */
+  public boolean isConstant(int i) {
+    return i < constant.length && constant[i];
+  }
+
+  /**
+   * True if each of the arguments from a position onwards is a constant.
+   * @param from The position of the first argument.
+   */
+  public boolean isConstantFrom(int from) {
+    for (int i = from; i < constant.length; i++) {
+      if (!constant[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The value of a constant argument.
+   * @param i The position of the argument.
+   */
+  public Object getConstant(int i) {
+    if (!isConstant(i)) {
+      throw new IllegalStateException("Argument " + i + " is not a constant");
+    }
+    return constants.get(i);
+  }
+}
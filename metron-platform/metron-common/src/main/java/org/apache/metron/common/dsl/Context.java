@@ -34,7 +34,9 @@ public class Context implements Serializable {
     , GLOBAL_CONFIG
     , ZOOKEEPER_CLIENT
     , SERVICE_DISCOVERER
-    , STELLAR_CONFIG;
+    , STELLAR_CONFIG
+    , STELLAR_METRICS
+    , STELLAR_BUDGET;
   }
 
   public static class Builder {
@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl;
+
+/**
+ * A Stellar function that can do some of its work once for each place it is called, when
+ * some of its arguments are constant.  For example, a function that accepts a regular
+ * expression can compile the expression once rather than each time it is called.
+ *
+ * The specialized function is used for every evaluation of that call, so it must behave
+ * exactly as the function does for the same arguments and be safe to call from any thread.
+ */
+public interface SpecializableFunction extends StellarFunction {
+
+  /**
+   * Specializes the function for a call site.
+   * @param callSite The arguments of the call; at least one of which is constant.
+   * @param context The context of the evaluation.
+   * @return The specialized function or null, if the function cannot be specialized for the call.
+   */
+  StellarFunction specialize(CallSite callSite, Context context);
+}
@@ -29,4 +29,20 @@ public @interface Stellar {
   String description() default "";
   String returns() default "";
   String[] params() default {};
+
+  /**
+   * A deterministic function always returns the same result for the same arguments and
+   * has no side effects.  Calls to deterministic functions may be evaluated once at compile
+   * time when their arguments are constant, and shared when they are repeated.  As the result
+   * of a call may be shared, a function that returns a new mutable value, such as a list,
+   * is not deterministic.
+   */
+  boolean deterministic() default false;
+
+  /**
+   * A cacheable function is deterministic and expensive enough that its results are worth
+   * remembering.  The results of calls to cacheable functions are cached by the function
+   * resolver and reused when the function is called again with the same arguments.
+   */
+  boolean cacheable() default false;
 }
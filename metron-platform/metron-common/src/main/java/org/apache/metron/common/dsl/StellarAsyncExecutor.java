@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl;
+
+import org.apache.metron.common.utils.ConversionUtils;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads on which {@link AsyncStellarFunction}s do their blocking work.  The pool is shared by
+ * every function in the JVM, so a worker has a bounded number of remote calls in flight.
+ *
+ * The size of the pool is given by the global configuration property stellar.async.threads
+ * when the pool is first used; 16 by default.
+ */
+public class StellarAsyncExecutor {
+
+  public static final String THREADS_KEY = "stellar.async.threads";
+  public static final int DEFAULT_THREADS = 16;
+
+  private static volatile ExecutorService executor;
+
+  private StellarAsyncExecutor() {}
+
+  /**
+   * The executor, created on first use.
+   * @param context The context of the evaluation; its global configuration sizes the pool.
+   */
+  public static ExecutorService get(Context context) {
+    ExecutorService ret = executor;
+    if (ret == null) {
+      synchronized (StellarAsyncExecutor.class) {
+        ret = executor;
+        if (ret == null) {
+          ret = create(getThreads(context));
+          executor = ret;
+        }
+      }
+    }
+    return ret;
+  }
+
+  private static ExecutorService create(int threads) {
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "stellar-async-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  private static int getThreads(Context context) {
+    Optional<Object> config = context == null
+                            ? Optional.empty()
+                            : context.getCapability(Context.Capabilities.GLOBAL_CONFIG, false);
+    Object threads = config.isPresent() ? ((Map<String, Object>) config.get()).get(THREADS_KEY) : null;
+    Integer ret = threads == null ? null : ConversionUtils.convert(threads, Integer.class);
+    return ret == null || ret < 1 ? DEFAULT_THREADS : ret;
+  }
+}
@@ -50,12 +50,22 @@ public class StellarFunctionInfo {
    */
   StellarFunction function;
 
+  /**
+   * True if the function always returns the same result for the same arguments.
+   */
+  boolean deterministic;
+
   public StellarFunctionInfo(String description, String name, String[] params, String returns, StellarFunction function) {
+    this(description, name, params, returns, function, false);
+  }
+
+  public StellarFunctionInfo(String description, String name, String[] params, String returns, StellarFunction function, boolean deterministic) {
     this.description = description;
     this.name = name;
     this.params = params;
     this.function = function;
     this.returns = returns;
+    this.deterministic = deterministic;
   }
 
   public String getReturns() {
@@ -78,6 +88,10 @@ public class StellarFunctionInfo {
     return function;
   }
 
+  public boolean isDeterministic() {
+    return deterministic;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -88,6 +102,7 @@ public class StellarFunctionInfo {
     if (name != null ? !name.equals(that.name) : that.name != null) return false;
     if (description != null ? !description.equals(that.description) : that.description != null) return false;
     if (returns != null ? !returns.equals(that.returns) : that.returns != null) return false;
+    if (deterministic != that.deterministic) return false;
     // Probably incorrect - comparing Object[] arrays with Arrays.equals
     if (!Arrays.equals(params, that.params)) return false;
     return function != null ? function.equals(that.function) : that.function == null;
@@ -101,6 +116,7 @@ public class StellarFunctionInfo {
     result = 31 * result + (returns != null ? returns.hashCode() : 0);
     result = 31 * result + Arrays.hashCode(params);
     result = 31 * result + (function != null ? function.hashCode() : 0);
+    result = 31 * result + (deterministic ? 1 : 0);
     return result;
   }
 
@@ -112,6 +128,7 @@ public class StellarFunctionInfo {
             ", returns='" + returns + '\'' +
             ", params=" + Arrays.toString(params) +
             ", function=" + function +
+            ", deterministic=" + deterministic +
             '}';
   }
 }
@@ -41,6 +41,7 @@ public class ConversionFunctions {
           , description="Transforms the first argument to an integer"
           , params = { "input - Object of string or numeric type"}
           , returns = "Integer version of the first argument"
+          , deterministic = true
           )
   public static class TO_INTEGER extends Cast<Integer> {
 
@@ -53,6 +54,7 @@ public class ConversionFunctions {
           , description="Transforms the first argument to a double precision number"
           , params = { "input - Object of string or numeric type"}
           , returns = "Double version of the first argument"
+          , deterministic = true
           )
   public static class TO_DOUBLE extends Cast<Double> {
 
@@ -65,6 +67,7 @@ public class ConversionFunctions {
           , description="Transforms the first argument to a long integer"
           , params = { "input - Object of string or numeric type"}
           , returns = "Long version of the first argument"
+          , deterministic = true
   )
   public static class TO_LONG extends Cast<Long> {
 
@@ -141,6 +141,7 @@ public class DataStructureFunctions {
           , description="Returns true if string or collection is empty or null and false if otherwise."
           , params = { "input - Object of string or collection type (for example, list)"}
           , returns = "True if the string or collection is empty or null and false if otherwise."
+          , deterministic = true
           )
   public static class IsEmpty extends BaseStellarFunction {
 
@@ -167,6 +168,7 @@ public class DataStructureFunctions {
           , description="Returns the length of a string or size of a collection. Returns 0 for empty or null Strings"
           , params = { "input - Object of string or collection type (e.g. list)"}
           , returns = "Integer"
+          , deterministic = true
   )
   public static class Length extends BaseStellarFunction {
     @Override
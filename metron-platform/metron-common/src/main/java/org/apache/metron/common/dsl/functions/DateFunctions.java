@@ -18,19 +18,20 @@
 
 package org.apache.metron.common.dsl.functions;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.CallSite;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.SpecializableFunction;
 import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarFunction;
 import org.apache.metron.common.utils.ConversionUtils;
+import org.apache.metron.common.utils.timestamp.TimestampParser;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Optional;
-import java.util.TimeZone;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -38,91 +39,34 @@ import java.util.concurrent.ExecutionException;
  */
 public class DateFunctions {
 
-  private static class TimezonedFormat {
-
-    private String format;
-    private Optional<String> timezone;
-
-    public TimezonedFormat(String format, String timezone) {
-      this.format = format;
-      this.timezone = Optional.of(timezone);
-    }
-
-    public TimezonedFormat(String format) {
-      this.format = format;
-      this.timezone = Optional.empty();
-    }
-
-    public SimpleDateFormat toDateFormat() {
-      return createFormat(format, timezone);
-    }
-
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) return true;
-      if (o == null || getClass() != o.getClass()) return false;
-
-      TimezonedFormat that = (TimezonedFormat) o;
-
-      if (format != null ? !format.equals(that.format) : that.format != null) return false;
-      return timezone != null ? timezone.equals(that.timezone) : that.timezone == null;
-    }
-
-    @Override
-    public int hashCode() {
-      int result = format != null ? format.hashCode() : 0;
-      result = 31 * result + (timezone != null ? timezone.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private static LoadingCache<TimezonedFormat, ThreadLocal<SimpleDateFormat>> formatCache =
-          CacheBuilder.newBuilder().build(
-                  new CacheLoader<TimezonedFormat, ThreadLocal<SimpleDateFormat>>() {
-                    @Override
-                    public ThreadLocal<SimpleDateFormat> load(final TimezonedFormat format) throws Exception {
-                      return new ThreadLocal<SimpleDateFormat>() {
-                        @Override
-                        public SimpleDateFormat initialValue() {
-                        return format.toDateFormat();
-                        }
-                      };
-                    }
-                  });
-
-  public static SimpleDateFormat createFormat(String format, Optional<String> timezone) {
-    SimpleDateFormat sdf = new SimpleDateFormat(format);
-    if(timezone.isPresent()) {
-      sdf.setTimeZone(TimeZone.getTimeZone(timezone.get()));
-    }
-    return sdf;
+  public static TimestampParser createFormat(String format, Optional<String> timezone) {
+    return TimestampParser.ofSimpleDateFormat(format, timezone.orElse(null));
   }
 
   public static long getEpochTime(String date, String format, Optional<String> timezone) throws ExecutionException, ParseException {
-    TimezonedFormat fmt;
-    if(timezone.isPresent()) {
-      fmt = new TimezonedFormat(format, timezone.get());
-    } else {
-      fmt = new TimezonedFormat(format);
+    try {
+      return createFormat(format, timezone).parse(date);
+    } catch (DateTimeParseException e) {
+      throw (ParseException) new ParseException(e.getMessage(), e.getErrorIndex()).initCause(e);
+    } catch (IllegalArgumentException e) {
+      throw new ExecutionException(e.getMessage(), e);
     }
-    SimpleDateFormat sdf = formatCache.get(fmt).get();
-    return sdf.parse(date).getTime();
   }
 
-
   /**
    * Stellar Function: TO_EPOCH_TIMESTAMP
    */
   @Stellar( name="TO_EPOCH_TIMESTAMP"
-          , description="Returns the epoch timestamp of the dateTime in the specified format. " +
+          , description="Returns the epoch timestamp of the dateTime in the specified format (a SimpleDateFormat pattern). " +
                         "If the format does not have a timestamp and you wish to assume a " +
                         "given timestamp, you may specify the timezone optionally."
           , params = { "dateTime - DateTime in String format"
                      , "format - DateTime format as a String"
                      , "timezone - Optional timezone in String format"
                      }
-          , returns = "Epoch timestamp")
-  public static class ToTimestamp extends BaseStellarFunction {
+          , returns = "Epoch timestamp"
+          , deterministic = true)
+  public static class ToTimestamp extends BaseStellarFunction implements SpecializableFunction {
     @Override
     public Object apply(List<Object> objects) {
       Object dateObj = objects.get(0);
@@ -142,6 +86,38 @@ public class DateFunctions {
       }
       return null;
     }
+
+    /**
+     * Looks up a constant format and timezone once for the call.
+     */
+    @Override
+    public StellarFunction specialize(CallSite callSite, Context context) {
+      if(callSite.size() < 2 || callSite.size() > 3 || !callSite.isConstantFrom(1) || callSite.getConstant(1) == null) {
+        return null;
+      }
+      Object tzObj = callSite.size() == 3 ? callSite.getConstant(2) : null;
+      Optional<String> tz = (tzObj == null) ? Optional.empty() : Optional.of(tzObj.toString());
+      TimestampParser format;
+      try {
+        format = createFormat(callSite.getConstant(1).toString(), tz);
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+      return new BaseStellarFunction() {
+        @Override
+        public Object apply(List<Object> objects) {
+          Object dateObj = objects.get(0);
+          if(dateObj == null) {
+            return null;
+          }
+          try {
+            return format.parse(dateObj.toString());
+          } catch (DateTimeParseException e) {
+            return null;
+          }
+        }
+      };
+    }
   }
 
   /**
@@ -22,9 +22,11 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.hadoop.security.authorize.Service;
+import org.apache.metron.common.dsl.AsyncStellarFunction;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.ParseException;
 import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarAsyncExecutor;
 import org.apache.metron.common.dsl.StellarFunction;
 import org.apache.metron.common.utils.JSONUtils;
 import org.apache.metron.maas.config.Endpoint;
@@ -42,6 +44,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 public class MaaSFunctions {
@@ -91,7 +94,7 @@ public class MaaSFunctions {
                      }
           , returns = "The output of the model deployed as a REST endpoint in Map form.  Assumes REST endpoint returns a JSON Map."
           )
-  public static class ModelApply implements StellarFunction {
+  public static class ModelApply implements AsyncStellarFunction {
     private boolean isInitialized = false;
     private ServiceDiscoverer discoverer;
     private Cache<ModelCacheKey, Map<String, Object> > resultCache;
@@ -104,8 +107,47 @@ public class MaaSFunctions {
                             .build();
     }
 
+    /**
+     * A call to a model.
+     */
+    private static class ModelRequest {
+      ModelCacheKey cacheKey;
+      String modelUrl;
+      String modelFunction;
+      Map<String, String> modelArgs;
+    }
+
     @Override
     public Object apply(List<Object> args, Context context) throws ParseException {
+      ModelRequest request = getRequest(args);
+      if(request == null) {
+        return null;
+      }
+      Map<String, Object> ret = resultCache.getIfPresent(request.cacheKey);
+      return ret != null ? ret : call(request);
+    }
+
+    /**
+     * Calls the model on the asynchronous executor, unless its result is cached.
+     */
+    @Override
+    public CompletableFuture<Object> applyAsync(List<Object> args, Context context) {
+      ModelRequest request = getRequest(args);
+      if(request == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+      Map<String, Object> ret = resultCache.getIfPresent(request.cacheKey);
+      if(ret != null) {
+        return CompletableFuture.completedFuture(ret);
+      }
+      return CompletableFuture.supplyAsync(() -> call(request), StellarAsyncExecutor.get(context));
+    }
+
+    /**
+     * Determines the model and arguments of a call.
+     * @return The request, or null if the call returns null.
+     */
+    private ModelRequest getRequest(List<Object> args) {
       if(args.size() < 2) {
         throw new ParseException("Unable to execute model_apply. " +
                                  "Expected arguments: endpoint_map:map, " +
@@ -158,35 +200,42 @@ public class MaaSFunctions {
         ) {
         return null;
       }
-      ModelCacheKey cacheKey = new ModelCacheKey(modelName, modelVersion, modelFunction, modelArgs);
-      Map<String, Object> ret = resultCache.getIfPresent(cacheKey);
-      if(ret != null) {
-        return ret;
+      ModelRequest request = new ModelRequest();
+      request.cacheKey = new ModelCacheKey(modelName, modelVersion, modelFunction, modelArgs);
+      request.modelUrl = modelUrl;
+      request.modelFunction = modelFunction;
+      request.modelArgs = modelArgs;
+      return request;
+    }
+
+    /**
+     * Calls the REST endpoint of a model and caches the result.
+     * @return The result, or null if the call fails.
+     */
+    private Map<String, Object> call(ModelRequest request) {
+      String url = request.modelUrl;
+      String modelFunction = request.modelFunction;
+      if (url.endsWith("/")) {
+        url = url.substring(0, url.length() - 1);
       }
-      else {
-        String url = modelUrl;
-        if (url.endsWith("/")) {
-          url = url.substring(0, url.length() - 1);
-        }
-        if (modelFunction.startsWith("/")) {
-          modelFunction = modelFunction.substring(1);
-        }
-        try {
-          URL u = new URL(url + "/" + modelFunction);
+      if (modelFunction.startsWith("/")) {
+        modelFunction = modelFunction.substring(1);
+      }
+      try {
+        URL u = new URL(url + "/" + modelFunction);
 
-          String results = RESTUtil.INSTANCE.getRESTJSONResults(u, modelArgs);
-          ret = JSONUtils.INSTANCE.load(results, new TypeReference<Map<String, Object>>() {
-          });
-          resultCache.put(cacheKey, ret);
-          return ret;
-        } catch (Exception e) {
-          LOG.error(e.getMessage(), e);
-          if (discoverer != null) {
-            try {
-              URL u = new URL(modelUrl);
-              discoverer.blacklist(u);
-            } catch (MalformedURLException e1) {
-            }
+        String results = RESTUtil.INSTANCE.getRESTJSONResults(u, request.modelArgs);
+        Map<String, Object> ret = JSONUtils.INSTANCE.load(results, new TypeReference<Map<String, Object>>() {
+        });
+        resultCache.put(request.cacheKey, ret);
+        return ret;
+      } catch (Exception e) {
+        LOG.error(e.getMessage(), e);
+        if (discoverer != null) {
+          try {
+            URL u = new URL(request.modelUrl);
+            discoverer.blacklist(u);
+          } catch (MalformedURLException e1) {
           }
         }
       }
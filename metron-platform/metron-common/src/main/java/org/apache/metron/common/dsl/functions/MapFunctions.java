@@ -35,6 +35,7 @@ public class MapFunctions {
                      ,"map - The map to check for existence of the key"
                      }
           , returns = "True if the key is found in the map and false if otherwise."
+          , deterministic = true
           )
   public static class MapExists extends BaseStellarFunction {
 
@@ -61,6 +62,7 @@ public class MapFunctions {
                      ,"default - Optionally the default value to return if the key is not in the map."
                      }
           , returns = "The object associated with the key in the map.  If no value is associated with the key and default is specified, then default is returned. If no value is associated with the key or default, then null is returned."
+          , deterministic = true
           )
   public static class MapGet extends BaseStellarFunction {
     @Override
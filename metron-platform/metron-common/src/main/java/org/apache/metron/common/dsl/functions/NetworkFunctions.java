@@ -24,10 +24,16 @@ import com.google.common.collect.Iterables;
 import com.google.common.net.InternetDomainName;
 import org.apache.commons.net.util.SubnetUtils;
 import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.CallSite;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.SpecializableFunction;
 import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarFunction;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
@@ -39,8 +45,9 @@ public class NetworkFunctions {
                     ,"cidr+ - One or more IP ranges specified in CIDR notation (for example 192.168.0.0/24)"
                     }
           ,returns = "True if the IP address is within at least one of the network ranges and false if otherwise"
+          , deterministic = true
           )
-  public static class InSubnet extends BaseStellarFunction {
+  public static class InSubnet extends BaseStellarFunction implements SpecializableFunction {
 
     @Override
     public Object apply(List<Object> list) {
@@ -55,7 +62,7 @@ public class NetworkFunctions {
       }
       boolean inSubnet = false;
       for(int i = 1;i < list.size() && !inSubnet;++i) {
-        String cidr = (String) list.get(1);
+        String cidr = (String) list.get(i);
         if(cidr == null) {
           continue;
         }
@@ -64,6 +71,38 @@ public class NetworkFunctions {
 
       return inSubnet;
     }
+
+    /**
+     * Parses constant subnet ranges once for the call.
+     */
+    @Override
+    public StellarFunction specialize(CallSite callSite, Context context) {
+      if(callSite.size() < 2 || !callSite.isConstantFrom(1)) {
+        return null;
+      }
+      List<SubnetUtils.SubnetInfo> subnets = new ArrayList<>();
+      for(int i = 1;i < callSite.size();++i) {
+        String cidr = (String) callSite.getConstant(i);
+        if(cidr != null) {
+          subnets.add(new SubnetUtils(cidr).getInfo());
+        }
+      }
+      return new BaseStellarFunction() {
+        @Override
+        public Object apply(List<Object> list) {
+          String ip = (String) list.get(0);
+          if(ip == null) {
+            return false;
+          }
+          for(SubnetUtils.SubnetInfo subnet : subnets) {
+            if(subnet.isInRange(ip)) {
+              return true;
+            }
+          }
+          return false;
+        }
+      };
+    }
   }
 
   @Stellar(name="REMOVE_SUBDOMAINS"
@@ -74,8 +113,10 @@ public class NetworkFunctions {
                      }
           , returns = "The domain without the subdomains.  " +
                       "(for example, DOMAIN_REMOVE_SUBDOMAINS('mail.yahoo.com') yields 'yahoo.com')"
+          , deterministic = true
+          , cacheable = true
           )
-  public static class RemoveSubdomains extends BaseStellarFunction {
+  public static class RemoveSubdomains extends DomainFunction {
 
     @Override
     public Object apply(List<Object> objects) {
@@ -108,8 +149,10 @@ public class NetworkFunctions {
                      }
           , returns = "The domain without the TLD.  " +
                       "(for example, DOMAIN_REMOVE_TLD('mail.yahoo.co.uk') yields 'mail.yahoo')"
+          , deterministic = true
+          , cacheable = true
           )
-  public static class RemoveTLD extends BaseStellarFunction {
+  public static class RemoveTLD extends DomainFunction {
     @Override
     public Object apply(List<Object> objects) {
       Object dnObj = objects.get(0);
@@ -138,8 +181,10 @@ public class NetworkFunctions {
                      }
           , returns = "The TLD of the domain.  " +
                       "(for example, DOMAIN_TO_TLD('mail.yahoo.co.uk') yields 'co.uk')"
+          , deterministic = true
+          , cacheable = true
           )
-  public static class ExtractTLD extends BaseStellarFunction {
+  public static class ExtractTLD extends DomainFunction {
     @Override
     public Object apply(List<Object> objects) {
       Object dnObj = objects.get(0);
@@ -159,6 +204,8 @@ public class NetworkFunctions {
                       "url - URL in string form"
                      }
           , returns = "The port used in the URL as an integer (for example, URL_TO_PORT('http://www.yahoo.com/foo') would yield 80)"
+          , deterministic = true
+          , cacheable = true
           )
   public static class URLToPort extends BaseStellarFunction {
     @Override
@@ -178,7 +225,9 @@ public class NetworkFunctions {
           , params = {
                       "url - URL in String form"
                      }
-          , returns = "The path from the URL as a String.  e.g. URL_TO_PATH('http://www.yahoo.com/foo') would yield 'foo'")
+          , returns = "The path from the URL as a String.  e.g. URL_TO_PATH('http://www.yahoo.com/foo') would yield 'foo'"
+          , deterministic = true
+          , cacheable = true)
   public static class URLToPath extends BaseStellarFunction {
     @Override
     public Object apply(List<Object> objects) {
@@ -194,6 +243,8 @@ public class NetworkFunctions {
                       "url - URL in String form"
                      }
           , returns = "The hostname from the URL as a String.  e.g. URL_TO_HOST('http://www.yahoo.com/foo') would yield 'www.yahoo.com'"
+          , deterministic = true
+          , cacheable = true
           )
   public static class URLToHost extends BaseStellarFunction {
 
@@ -210,7 +261,9 @@ public class NetworkFunctions {
           , params = {
                       "url - URL in String form"
                      }
-          , returns = "The protocol from the URL as a String. e.g. URL_TO_PROTOCOL('http://www.yahoo.com/foo') would yield 'http'")
+          , returns = "The protocol from the URL as a String. e.g. URL_TO_PROTOCOL('http://www.yahoo.com/foo') would yield 'http'"
+          , deterministic = true
+          , cacheable = true)
   public static class URLToProtocol extends BaseStellarFunction {
 
     @Override
@@ -220,6 +273,26 @@ public class NetworkFunctions {
     }
   }
 
+  /**
+   * A function of a domain.  When the domain is a constant, the result is computed once for the call.
+   */
+  private abstract static class DomainFunction extends BaseStellarFunction implements SpecializableFunction {
+
+    @Override
+    public StellarFunction specialize(CallSite callSite, Context context) {
+      if(callSite.size() != 1 || !callSite.isConstant(0)) {
+        return null;
+      }
+      Object result = apply(Collections.singletonList(callSite.getConstant(0)));
+      return new BaseStellarFunction() {
+        @Override
+        public Object apply(List<Object> objects) {
+          return result;
+        }
+      };
+    }
+  }
+
   private static InternetDomainName toDomainName(Object dnObj) {
     if(dnObj != null) {
       if(dnObj instanceof String) {
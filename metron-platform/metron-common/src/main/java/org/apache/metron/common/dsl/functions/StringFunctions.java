@@ -22,11 +22,16 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
 import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.CallSite;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.SpecializableFunction;
 import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarFunction;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 public class StringFunctions {
 
@@ -36,8 +41,10 @@ public class StringFunctions {
              "string - The string to test"
             ,"pattern - The proposed regex pattern"
             }
-          , returns = "True if the regex pattern matches the string and false if otherwise.")
-  public static class RegexpMatch extends BaseStellarFunction {
+          , returns = "True if the regex pattern matches the string and false if otherwise."
+          , deterministic = true
+          , cacheable = true)
+  public static class RegexpMatch extends BaseStellarFunction implements SpecializableFunction {
 
     @Override
     public Object apply(List<Object> list) {
@@ -51,6 +58,24 @@ public class StringFunctions {
       }
       return str.matches(pattern);
     }
+
+    /**
+     * Compiles a constant pattern once for the call.
+     */
+    @Override
+    public StellarFunction specialize(CallSite callSite, Context context) {
+      if(callSite.size() != 2 || !callSite.isConstant(1) || !(callSite.getConstant(1) instanceof String)) {
+        return null;
+      }
+      Pattern pattern = Pattern.compile((String) callSite.getConstant(1));
+      return new BaseStellarFunction() {
+        @Override
+        public Object apply(List<Object> list) {
+          String str = (String) list.get(0);
+          return str != null && pattern.matcher(str).matches();
+        }
+      };
+    }
   }
 
   @Stellar(name="ENDS_WITH"
@@ -59,7 +84,8 @@ public class StringFunctions {
              "string - The string to test"
             ,"suffix - The proposed suffix"
             }
-          , returns = "True if the string ends with the specified suffix and false if otherwise")
+          , returns = "True if the string ends with the specified suffix and false if otherwise"
+          , deterministic = true)
   public static class EndsWith extends BaseStellarFunction {
     @Override
     public Object apply(List<Object> list) {
@@ -82,6 +108,7 @@ public class StringFunctions {
             ,"prefix - The proposed prefix"
             }
           , returns = "True if the string starts with the specified prefix and false if otherwise"
+          , deterministic = true
           )
   public static class StartsWith extends BaseStellarFunction {
 
@@ -103,6 +130,7 @@ public class StringFunctions {
           , description = "Transforms the first argument to a lowercase string"
           , params = { "input - String" }
           , returns = "Lowercase string"
+          , deterministic = true
           )
   public static class ToLower extends BaseStellarFunction {
     @Override
@@ -115,6 +143,7 @@ public class StringFunctions {
           , description = "Transforms the first argument to an uppercase string"
           , params = { "input - String" }
           , returns = "Uppercase string"
+          , deterministic = true
           )
   public static class ToUpper extends BaseStellarFunction {
     @Override
@@ -127,6 +156,7 @@ public class StringFunctions {
           , description = "Transforms the first argument to a string"
           , params = { "input - Object" }
           , returns = "String"
+          , deterministic = true
           )
   public static class ToString extends BaseStellarFunction {
     @Override
@@ -139,6 +169,7 @@ public class StringFunctions {
           , description = "Trims whitespace from both sides of a string."
           , params = { "input - String" }
           , returns = "String"
+          , deterministic = true
           )
   public static class Trim extends BaseStellarFunction {
     @Override
@@ -151,6 +182,7 @@ public class StringFunctions {
           , description="Joins the components in the list of strings with the specified delimiter."
           , params = { "list - List of strings", "delim - String delimiter"}
           , returns = "String"
+          , deterministic = true
           )
   public static class JoinFunction extends BaseStellarFunction {
     @Override
@@ -184,6 +216,7 @@ public class StringFunctions {
           , description="Returns the last element of the list"
           , params = { "input - List"}
           , returns = "Last element of the list"
+          , deterministic = true
           )
   public static class GetLast extends BaseStellarFunction {
     @Override
@@ -197,6 +230,7 @@ public class StringFunctions {
           , description="Returns the first element of the list"
           , params = { "input - List"}
           , returns = "First element of the list"
+          , deterministic = true
           )
   public static class GetFirst extends BaseStellarFunction {
     @Override
@@ -210,6 +244,7 @@ public class StringFunctions {
           , description="Returns the i'th element of the list "
           , params = { "input - List", "i - The index (0-based)"}
           , returns = "First element of the list"
+          , deterministic = true
           )
   public static class Get extends BaseStellarFunction {
     @Override
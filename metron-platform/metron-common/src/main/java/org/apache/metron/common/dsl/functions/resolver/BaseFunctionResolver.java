@@ -108,6 +108,16 @@ public abstract class BaseFunctionResolver implements FunctionResolver, Serializ
     return info.getFunction();
   }
 
+  /**
+   * Whether a function always returns the same result for the same arguments.
+   * @param functionName The name of the function.
+   */
+  @Override
+  public boolean isDeterministic(String functionName) {
+    StellarFunctionInfo info = functions.get().get(functionName);
+    return info != null && info.isDeterministic();
+  }
+
   /**
    * Performs the core process of function resolution.
    */
@@ -148,6 +158,9 @@ public abstract class BaseFunctionResolver implements FunctionResolver, Serializ
       Stellar annotation = clazz.getAnnotation(Stellar.class);
       String fullyQualifiedName = getNameFromAnnotation(annotation);
       StellarFunction function = createFunction(clazz);
+      if (function != null && annotation.cacheable()) {
+        function = new CachingStellarFunction(fullyQualifiedName, function);
+      }
 
       if (fullyQualifiedName != null && function != null) {
         info = new StellarFunctionInfo(
@@ -155,7 +168,8 @@ public abstract class BaseFunctionResolver implements FunctionResolver, Serializ
                 fullyQualifiedName,
                 annotation.params(),
                 annotation.returns(),
-                function);
+                function,
+                annotation.deterministic());
       }
     }
 
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl.functions.resolver;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.metron.common.dsl.CallSite;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.dsl.SpecializableFunction;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
+import org.apache.metron.common.utils.ConversionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the results of a cacheable Stellar function, one marked {@code @Stellar(cacheable=true)},
+ * so that repeated calls with the same arguments are not recomputed.
+ *
+ * The results are held in a bounded cache that evicts the least recently used results.  The cache
+ * belongs to the function resolver, so it is shared by every evaluation in the worker.  Only calls
+ * whose arguments are all null, strings, numbers, booleans or characters are cached, since other
+ * arguments may be mutated after the call.
+ *
+ * The size of the cache is given by the global configuration property stellar.function.cache.size;
+ * 10000 results by default.  A size of 0 disables caching.
+ */
+public class CachingStellarFunction implements SpecializableFunction {
+
+  public static final String CACHE_SIZE_KEY = "stellar.function.cache.size";
+  public static final int DEFAULT_CACHE_SIZE = 10000;
+
+  private final String name;
+  private final StellarFunction function;
+  private transient volatile Cache<List<Object>, Optional<Object>> cache;
+  private transient volatile boolean initialized;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param name The name of the function.
+   * @param function The function whose results are cached.
+   */
+  public CachingStellarFunction(String name, StellarFunction function) {
+    this.name = name;
+    this.function = function;
+  }
+
+  /**
+   * The function whose results are cached.
+   */
+  public StellarFunction getFunction() {
+    return function;
+  }
+
+  /**
+   * The number of calls whose result was found in the cache.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * The number of cacheable calls whose result was not found in the cache.
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  @Override
+  public Object apply(List<Object> args, Context context) throws ParseException {
+    return apply(args, context, function);
+  }
+
+  /**
+   * Returns the cached result of a call or computes it.
+   * @param args The arguments of the call.
+   * @param context The context of the evaluation.
+   * @param function Computes the result of the call when it is not cached.
+   */
+  private Object apply(List<Object> args, Context context, StellarFunction function) {
+    Cache<List<Object>, Optional<Object>> cache = this.cache;
+    if (cache == null || !isCacheable(args)) {
+      return function.apply(args, context);
+    }
+    StellarMetrics metrics = StellarMetrics.get(context);
+    Optional<Object> result = cache.getIfPresent(args);
+    if (result != null) {
+      hits.increment();
+      if (metrics != null) {
+        metrics.recordCacheHit(name);
+      }
+      return result.orElse(null);
+    }
+    misses.increment();
+    if (metrics != null) {
+      metrics.recordCacheMiss(name);
+    }
+    Object ret = function.apply(args, context);
+    cache.put(new ArrayList<>(args), Optional.ofNullable(ret));
+    return ret;
+  }
+
+  /**
+   * Specializes the function, if it can be, for a call.  The specialized call shares the cache
+   * and computes the results that are not cached with the specialized function.
+   */
+  @Override
+  public StellarFunction specialize(CallSite callSite, Context context) {
+    if (!(function instanceof SpecializableFunction)) {
+      return null;
+    }
+    StellarFunction specialized = ((SpecializableFunction) function).specialize(callSite, context);
+    if (specialized == null) {
+      return null;
+    }
+    return new StellarFunction() {
+      @Override
+      public Object apply(List<Object> args, Context context) throws ParseException {
+        return CachingStellarFunction.this.apply(args, context, specialized);
+      }
+
+      @Override
+      public void initialize(Context context) {
+      }
+
+      @Override
+      public boolean isInitialized() {
+        return true;
+      }
+    };
+  }
+
+  @Override
+  public void initialize(Context context) {
+    if (!function.isInitialized()) {
+      function.initialize(context);
+    }
+    int size = getCacheSize(context);
+    cache = size > 0 ? CacheBuilder.newBuilder().maximumSize(size).build() : null;
+    initialized = true;
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return initialized && function.isInitialized();
+  }
+
+  private static int getCacheSize(Context context) {
+    Optional<Object> config = context == null
+                            ? Optional.empty()
+                            : context.getCapability(Context.Capabilities.GLOBAL_CONFIG, false);
+    Object size = config.isPresent() ? ((Map<String, Object>) config.get()).get(CACHE_SIZE_KEY) : null;
+    Integer ret = size == null ? null : ConversionUtils.convert(size, Integer.class);
+    return ret == null ? DEFAULT_CACHE_SIZE : ret;
+  }
+
+  private static boolean isCacheable(List<Object> args) {
+    for (Object arg : args) {
+      if (arg != null
+       && !(arg instanceof String)
+       && !(arg instanceof Number)
+       && !(arg instanceof Boolean)
+       && !(arg instanceof Character)
+         ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return function.toString();
+  }
+}
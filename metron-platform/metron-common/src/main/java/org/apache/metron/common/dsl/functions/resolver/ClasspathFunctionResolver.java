@@ -20,26 +20,43 @@ package org.apache.metron.common.dsl.functions.resolver;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.Stellar;
 import org.apache.metron.common.dsl.StellarFunction;
 import org.reflections.Reflections;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.FilterBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.apache.metron.common.dsl.Context.Capabilities.STELLAR_CONFIG;
 
 /**
  * Performs function resolution for Stellar by searching the classpath.
  *
- * By default, the entire classpath will be searched for Stellar functions.  At times,
+ * Modules that are built with the `metron-stellar-index` annotation processor contain an index
+ * of their Stellar functions.  The functions of each jar or directory on the classpath that
+ * contains an index are read from its index; the rest of the classpath is searched.  The following
+ * property definition forces the whole classpath to be searched even when indexes are available.
+ *
+ *   stellar.function.resolver.index = false
+ *
+ * When searching, by default, the entire classpath will be searched for Stellar functions.  At times,
  * this can take quite a while.  To shorten the search time, a property can be
  * defined to either include or exclude certain packages.  The fewer packages there are
  * to search, the quicker the search will be.
@@ -66,6 +83,8 @@ import static org.apache.metron.common.dsl.Context.Capabilities.STELLAR_CONFIG;
  */
 public class ClasspathFunctionResolver extends BaseFunctionResolver {
 
+  protected static final Logger LOG = LoggerFactory.getLogger(ClasspathFunctionResolver.class);
+
   /**
    * The key for a global property that defines one or more regular expressions
    * that specify what should be included when searching for Stellar functions.
@@ -78,6 +97,18 @@ public class ClasspathFunctionResolver extends BaseFunctionResolver {
    */
   public static final String STELLAR_SEARCH_EXCLUDES_KEY = "stellar.function.resolver.excludes";
 
+  /**
+   * The key for a global property that defines whether the indexes of Stellar functions are used.  If false,
+   * the classpath is always searched.
+   */
+  public static final String STELLAR_SEARCH_INDEX_KEY = "stellar.function.resolver.index";
+
+  /**
+   * The resource that contains the index of the Stellar functions in each jar; one class name per line.  It is
+   * the service definition for StellarFunction so that it is merged when jars are shaded.
+   */
+  public static final String STELLAR_FUNCTION_INDEX = "META-INF/services/" + StellarFunction.class.getName();
+
   /**
    * The includes and excludes can include a list of multiple includes or excludes that
    * are delimited by these values.
@@ -96,9 +127,15 @@ public class ClasspathFunctionResolver extends BaseFunctionResolver {
    */
   private List<String> excludes;
 
+  /**
+   * Should the indexes of Stellar functions be used, when available?
+   */
+  private boolean useIndex;
+
   public ClasspathFunctionResolver() {
     this.includes = new ArrayList<>();
     this.excludes = new ArrayList<>();
+    this.useIndex = true;
   }
 
   /**
@@ -143,6 +180,10 @@ public class ClasspathFunctionResolver extends BaseFunctionResolver {
         if(StringUtils.isNotBlank(excludes)) {
           exclude(excludes.split(STELLAR_SEARCH_DELIMS));
         }
+
+        // handle the use of indexes
+        Object useIndex = stellarConfig.getOrDefault(STELLAR_SEARCH_INDEX_KEY, true);
+        this.useIndex = Boolean.parseBoolean(String.valueOf(useIndex));
       }
     }
   }
@@ -153,19 +194,97 @@ public class ClasspathFunctionResolver extends BaseFunctionResolver {
    */
   @Override
   protected Set<Class<? extends StellarFunction>> resolvables() {
+    return resolvables(getClass().getClassLoader());
+  }
 
-    ClassLoader classLoader = getClass().getClassLoader();
-    Collection<URL> searchPath = effectiveClassPathUrls(classLoader);
-
+  /**
+   * Finds the Stellar functions that can be loaded by a class loader.
+   */
+  Set<Class<? extends StellarFunction>> resolvables(ClassLoader classLoader) {
     FilterBuilder filterBuilder = new FilterBuilder();
     excludes.forEach(excl -> filterBuilder.exclude(excl));
     includes.forEach(incl -> filterBuilder.include(incl));
 
-    Reflections reflections = new Reflections(
-            new ConfigurationBuilder()
-                    .setUrls(searchPath)
-                    .filterInputsBy(filterBuilder));
-    return reflections.getSubTypesOf(StellarFunction.class);
+    Set<Class<? extends StellarFunction>> functions = new HashSet<>();
+    Collection<URL> searchPath = effectiveClassPathUrls(classLoader);
+    if(useIndex) {
+      Set<String> indexed = indexedFunctions(classLoader, filterBuilder, functions);
+      searchPath = searchPath.stream()
+                             .filter(url -> !indexed.contains(classpathEntry(url.toExternalForm())))
+                             .collect(Collectors.toList());
+      LOG.debug("Read the Stellar functions of {} indexed classpath entries; searching {} others", indexed.size(), searchPath.size());
+    }
+
+    if(!searchPath.isEmpty()) {
+      Reflections reflections = new Reflections(
+              new ConfigurationBuilder()
+                      .setUrls(searchPath)
+                      .addClassLoader(classLoader)
+                      .filterInputsBy(filterBuilder));
+      // the supertypes of a function may be in an indexed jar that is not searched, so functions
+      // are found by their annotation rather than as subtypes of StellarFunction
+      for(Class<?> clazz : reflections.getTypesAnnotatedWith(Stellar.class)) {
+        if(StellarFunction.class.isAssignableFrom(clazz)) {
+          functions.add(clazz.asSubclass(StellarFunction.class));
+        }
+      }
+    }
+    return functions;
+  }
+
+  /**
+   * Reads the Stellar functions from the indexes on the classpath.
+   * @param classLoader The class loader from which the indexes and functions are loaded.
+   * @param filter Filters the functions by class file name, in the same way as a classpath search.
+   * @param functions Receives the indexed functions.
+   * @return The classpath entries that contain an index; see {@link #classpathEntry(String)}.
+   */
+  private static Set<String> indexedFunctions(ClassLoader classLoader, FilterBuilder filter, Set<Class<? extends StellarFunction>> functions) {
+    Set<String> indexed = new HashSet<>();
+    Enumeration<URL> indexes;
+    try {
+      indexes = classLoader.getResources(STELLAR_FUNCTION_INDEX);
+    } catch (IOException e) {
+      LOG.warn("Unable to read the index of Stellar functions", e);
+      return indexed;
+    }
+
+    while(indexes.hasMoreElements()) {
+      URL index = indexes.nextElement();
+      String url = index.toExternalForm();
+      try(BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+        for(String line = reader.readLine(); line != null; line = reader.readLine()) {
+          String className = line.trim();
+          if(className.isEmpty() || className.startsWith("#") || !filter.apply(className + ".class")) {
+            continue;
+          }
+          try {
+            Class<?> clazz = Class.forName(className, false, classLoader);
+            if(StellarFunction.class.isAssignableFrom(clazz)) {
+              functions.add(clazz.asSubclass(StellarFunction.class));
+            }
+          } catch (ClassNotFoundException | LinkageError e) {
+            LOG.warn("Unable to load indexed Stellar function " + className + " from " + index, e);
+          }
+        }
+        indexed.add(classpathEntry(url.substring(0, url.length() - STELLAR_FUNCTION_INDEX.length())));
+      } catch (IOException e) {
+        LOG.warn("Unable to read the index of Stellar functions " + index, e);
+      }
+    }
+    return indexed;
+  }
+
+  /**
+   * Normalizes the URL of a jar or directory on the classpath, or of the root of a jar as in
+   * "jar:file:/lib/functions.jar!/", so that the two may be compared.
+   */
+  static String classpathEntry(String url) {
+    String entry = url;
+    if(entry.startsWith("jar:") && entry.endsWith("!/")) {
+      entry = entry.substring("jar:".length(), entry.length() - "!/".length());
+    }
+    return entry.endsWith("/") ? entry.substring(0, entry.length() - 1) : entry;
   }
 
   /**
@@ -38,6 +38,19 @@ public interface FunctionResolver extends Function<String, StellarFunction> {
    */
   Iterable<String> getFunctions();
 
+  /**
+   * Whether a function always returns the same result for the same arguments.
+   * @param functionName The name of the function.
+   */
+  default boolean isDeterministic(String functionName) {
+    for(StellarFunctionInfo info : getFunctionInfo()) {
+      if(info.getName().equals(functionName)) {
+        return info.isDeterministic();
+      }
+    }
+    return false;
+  }
+
   /**
    * Initialize the function resolver.
    * @param context Context used to initialize.
@@ -37,6 +37,7 @@ import java.util.function.Function;
                     "IANA Number"
                    }
         , returns = "The protocol name associated with the IANA number."
+        , deterministic = true
         )
 public class IPProtocolTransformation extends SimpleFieldTransformation implements StellarFunction {
 
@@ -22,9 +22,14 @@ import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.MapVariableResolver;
 import org.apache.metron.common.dsl.StellarFunctions;
 import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
 import org.apache.metron.common.stellar.StellarProcessor;
+import org.apache.metron.common.stellar.StellarProgram;
+import org.apache.metron.common.stellar.expression.ExpressionState;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -40,14 +45,15 @@ public class StellarTransformation implements FieldTransformation {
     Map<String, Object> ret = new HashMap<>();
     VariableResolver resolver = new MapVariableResolver(ret, input, sensorConfig);
     StellarProcessor processor = new StellarProcessor();
+    FunctionResolver functionResolver = StellarFunctions.FUNCTION_RESOLVER();
+
+    List<String> fields = new ArrayList<>(outputField.size());
+    List<String> rules = new ArrayList<>(outputField.size());
     for(String oField : outputField) {
       Object transformObj = fieldMappingConfig.get(oField);
       if(transformObj != null) {
         try {
-          Object o = processor.parse(transformObj.toString(), resolver, StellarFunctions.FUNCTION_RESOLVER(), context);
-          if (o != null) {
-            ret.put(oField, o);
-          }
+          processor.compile(transformObj.toString());
         }
         catch(Exception ex) {
           throw new IllegalStateException( "Unable to process transformation: " + transformObj.toString()
@@ -55,6 +61,28 @@ public class StellarTransformation implements FieldTransformation {
                                          , ex
                                          );
         }
+        fields.add(oField);
+        rules.add(transformObj.toString());
+      }
+    }
+
+    // the transformations are compiled together so that they share common sub-expressions;
+    // the output fields are assigned as the transformations are applied
+    StellarProgram program = processor.compile(rules, new HashSet<>(outputField), functionResolver, context);
+    ExpressionState state = program.createState(resolver, functionResolver, context);
+    for(int i = 0; i < program.size(); i++) {
+      String oField = fields.get(i);
+      try {
+        Object o = processor.evaluate(program.getStatement(i), state);
+        if (o != null) {
+          ret.put(oField, o);
+        }
+      }
+      catch(Exception ex) {
+        throw new IllegalStateException( "Unable to process transformation: " + rules.get(i)
+                                       + " for " + oField + " because " + ex.getMessage()
+                                       , ex
+                                       );
       }
     }
     return ret;
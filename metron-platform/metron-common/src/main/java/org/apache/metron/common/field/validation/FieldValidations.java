@@ -28,8 +28,10 @@ import org.apache.metron.common.field.validation.primitive.NotEmptyValidation;
 import org.apache.metron.common.field.validation.primitive.RegexValidation;
 import org.apache.metron.common.utils.ReflectionUtils;
 
+import java.util.function.Supplier;
+
 public enum FieldValidations {
-  STELLAR(new QueryValidation())
+  STELLAR(QueryValidation::new)
   ,IP(new IPValidation())
   ,DOMAIN(new DomainValidation())
   ,EMAIL(new EmailValidation())
@@ -39,13 +41,20 @@ public enum FieldValidations {
   ,REGEX_MATCH(new RegexValidation())
   ,NOT_EMPTY(new NotEmptyValidation())
   ;
-  private FieldValidation validation;
+  private Supplier<FieldValidation> validation;
   FieldValidations(FieldValidation validation) {
+    this(() -> validation);
+  }
+  /**
+   * @param validation Creates a new instance for each validator; for validations that hold
+   *                   state, such as a compiled expression, once initialized.
+   */
+  FieldValidations(Supplier<FieldValidation> validation) {
     this.validation = validation;
   }
   public static FieldValidation get(String validation) {
     try {
-      return FieldValidations.valueOf(validation).validation;
+      return FieldValidations.valueOf(validation).validation.get();
     }
     catch(Exception ex) {
       return ReflectionUtils.createInstance(validation);
@@ -21,10 +21,16 @@ package org.apache.metron.common.field.validation;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.MapVariableResolver;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.stellar.StellarExpression;
 import org.apache.metron.common.stellar.StellarPredicateProcessor;
 
 import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Validates messages with a Stellar predicate.  The predicate is compiled when the validation is
+ * initialized, so each validator holds its own instance.
+ */
 public class QueryValidation implements FieldValidation {
 
   private enum Config {
@@ -43,6 +49,9 @@ public class QueryValidation implements FieldValidation {
     }
   }
 
+  private String condition;
+  private StellarExpression expression;
+
   @Override
   public boolean isValid( Map<String, Object> input
                         , Map<String, Object> validationConfig
@@ -53,9 +62,13 @@ public class QueryValidation implements FieldValidation {
     if(condition == null) {
       return true;
     }
+    StellarPredicateProcessor processor = new StellarPredicateProcessor();
+    MapVariableResolver resolver = new MapVariableResolver(input, validationConfig, globalConfig);
+    if(expression != null && condition.equals(this.condition)) {
+      return processor.evaluate(expression, resolver, StellarFunctions.FUNCTION_RESOLVER(), context);
+    }
     else {
-      StellarPredicateProcessor processor = new StellarPredicateProcessor();
-      return processor.parse(condition, new MapVariableResolver(input, validationConfig, globalConfig), StellarFunctions.FUNCTION_RESOLVER(), context);
+      return processor.parse(condition, resolver, StellarFunctions.FUNCTION_RESOLVER(), context);
     }
   }
 
@@ -66,10 +79,25 @@ public class QueryValidation implements FieldValidation {
       throw new IllegalStateException("You must specify a condition.");
     }
     try {
-      new StellarPredicateProcessor().validate(condition);
+      StellarPredicateProcessor processor = new StellarPredicateProcessor();
+      processor.validate(condition);
+      this.expression = processor.compile(condition, StellarFunctions.FUNCTION_RESOLVER(), Context.EMPTY_CONTEXT());
+      this.condition = condition;
     }
     catch(Exception e) {
       throw new IllegalStateException("Invalid condition: " + condition, e);
     }
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return Objects.equals(condition, ((QueryValidation) o).condition);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(condition);
+  }
 }
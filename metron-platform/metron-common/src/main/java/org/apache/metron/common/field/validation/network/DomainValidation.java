@@ -35,7 +35,8 @@ public class DomainValidation extends SimpleValidation {
           ,params = {
               "address - The string to test"
                     }
-          , returns = "True if the string refers to a valid domain name and false if otherwise")
+          , returns = "True if the string refers to a valid domain name and false if otherwise"
+          , deterministic = true)
   public static class IS_DOMAIN extends Predicate2StellarFunction {
 
     public IS_DOMAIN() {
@@ -33,7 +33,8 @@ public class EmailValidation extends SimpleValidation {
           ,params = {
               "address - The string to test"
                     }
-          , returns = "True if the string is a valid email address and false if otherwise.")
+          , returns = "True if the string is a valid email address and false if otherwise."
+          , deterministic = true)
   public static class IS_EMAIL extends Predicate2StellarFunction {
 
     public IS_EMAIL() {
@@ -35,7 +35,8 @@ public class IPValidation implements FieldValidation, Predicate<List<Object>> {
               "ip - An object which we wish to test is an ip"
              ,"type (optional) - Object of string or collection type (e.g. list) one of IPV4 or IPV6 or both.  The default is IPV4."
                      }
-          , returns = "True if the string is an IP and false otherwise.")
+          , returns = "True if the string is an IP and false otherwise."
+          , deterministic = true)
   public static class IS_IP extends Predicate2StellarFunction {
 
     public IS_IP() {
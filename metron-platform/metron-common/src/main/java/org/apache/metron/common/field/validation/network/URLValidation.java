@@ -33,6 +33,7 @@ public class URLValidation extends SimpleValidation {
               "url - The string to test"
                     }
           , returns = "True if the string is a valid URL and false if otherwise."
+          , deterministic = true
           )
   public static class IS_URL extends Predicate2StellarFunction {
 
@@ -39,6 +39,7 @@ public class DateValidation implements FieldValidation, Predicate<List<Object>>
           , "format - The format of the date"
                     }
           ,returns = "True if the date is in the specified format and false if otherwise."
+          , deterministic = true
           )
   public static class IS_DATE extends Predicate2StellarFunction {
 
@@ -33,6 +33,7 @@ public class IntegerValidation extends SimpleValidation{
               "x - The object to test"
                      }
           , returns = "True if the object can be converted to an integer and false if otherwise."
+          , deterministic = true
           )
   public static class IS_INTEGER extends Predicate2StellarFunction {
 
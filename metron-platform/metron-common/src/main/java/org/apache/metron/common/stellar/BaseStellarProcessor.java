@@ -18,21 +18,63 @@
 
 package org.apache.metron.common.stellar;
 
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.TokenStream;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
 import org.apache.metron.common.dsl.*;
 import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
-import org.apache.metron.common.stellar.generated.StellarBaseListener;
+import org.apache.metron.common.stellar.expression.ArithmeticExpression;
+import org.apache.metron.common.stellar.expression.ExpressionState;
 import org.apache.metron.common.stellar.generated.StellarLexer;
 import org.apache.metron.common.stellar.generated.StellarParser;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 public class BaseStellarProcessor<T> {
+
+  /**
+   * The maximum number of compiled expressions that are retained.
+   */
+  public static final int EXPRESSION_CACHE_SIZE = 10000;
+
+  /**
+   * Compiled expressions keyed by the text of the expression.  Compiled expressions are
+   * immutable, so the cache is shared by every processor in the JVM.
+   */
+  private static final Cache<String, StellarExpression> EXPRESSION_CACHE = CacheBuilder.newBuilder()
+                                                                                       .maximumSize(EXPRESSION_CACHE_SIZE)
+                                                                                       .build();
+
+  /**
+   * Expressions optimized for a particular function resolver, keyed by the identity of the resolver and
+   * then the text of the expression and whether integer arithmetic is enabled, as constants are folded
+   * accordingly.  Resolvers that are no longer referenced are released.
+   */
+  private static final Cache<FunctionResolver, Cache<List<Object>, StellarExpression>> OPTIMIZED_CACHE = CacheBuilder.newBuilder()
+                                                                                                               .weakKeys()
+                                                                                                               .build();
+
+  /**
+   * Programs optimized for a particular function resolver, keyed by the identity of the resolver and
+   * then the statements and assigned variables of the program and whether integer arithmetic is enabled.
+   */
+  private static final Cache<FunctionResolver, Cache<List<Object>, StellarProgram>> PROGRAM_CACHE = CacheBuilder.newBuilder()
+                                                                                                               .weakKeys()
+                                                                                                               .build();
+
   Class<T> clazz;
   public BaseStellarProcessor(Class<T> clazz) {
     this.clazz = clazz;
@@ -42,28 +84,119 @@ public class BaseStellarProcessor<T> {
     if (rule == null || isEmpty(rule.trim())) {
       return null;
     }
+    return new HashSet<>(compile(rule).getVariablesUsed());
+  }
+
+  /**
+   * Compiles an expression, or returns the previously compiled expression from the cache.
+   * @param rule The expression to compile.
+   * @return The compiled expression.
+   * @throws ParseException If the expression is not valid Stellar.
+   */
+  public StellarExpression compile(String rule) throws ParseException {
+    if (rule == null || isEmpty(rule.trim())) {
+      throw new ParseException("Unable to compile an empty expression");
+    }
+    try {
+      return EXPRESSION_CACHE.get(rule, () -> compileExpression(rule));
+    }
+    catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ParseException("Unable to compile " + rule + ": " + cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Compiles an expression and optimizes it for the functions available from a resolver.  Calls to
+   * deterministic functions with constant arguments are folded and repeated calls are shared.
+   * @param rule The expression to compile.
+   * @param functionResolver The functions available to the expression.
+   * @param context The context used to initialize functions evaluated at compile time; its global configuration
+   *                decides whether arithmetic is integer arithmetic.
+   * @return The compiled expression.
+   * @throws ParseException If the expression is not valid Stellar.
+   */
+  public StellarExpression compile(String rule, FunctionResolver functionResolver, Context context) throws ParseException {
+    StellarExpression expression = compile(rule);
+    if (functionResolver == null) {
+      return ArithmeticExpression.isIntegerArithmetic(context) ? new StellarOptimizer(null, context).optimize(expression) : expression;
+    }
+    try {
+      return OPTIMIZED_CACHE.get(functionResolver, () -> CacheBuilder.newBuilder()
+                                                                     .maximumSize(EXPRESSION_CACHE_SIZE)
+                                                                     .build())
+                            .get(Arrays.asList(rule, ArithmeticExpression.isIntegerArithmetic(context))
+                                , () -> new StellarOptimizer(functionResolver, context).optimize(expression));
+    }
+    catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ParseException("Unable to compile " + rule + ": " + cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Compiles a group of statements that are evaluated together against each message into a single
+   * program.  Deterministic function calls that are repeated across the statements are evaluated once.
+   * @param rules The statements to compile.
+   * @param assignedVariables Variables whose values may change between statements.
+   * @param functionResolver The functions available to the statements.
+   * @param context The context used to initialize functions evaluated at compile time; its global configuration
+   *                decides whether arithmetic is integer arithmetic.
+   * @return The compiled program.
+   * @throws ParseException If a statement is not valid Stellar.
+   */
+  public StellarProgram compile( List<String> rules
+                               , Set<String> assignedVariables
+                               , FunctionResolver functionResolver
+                               , Context context
+                               ) throws ParseException
+  {
+    List<StellarExpression> statements = new ArrayList<>(rules.size());
+    for (String rule : rules) {
+      statements.add(compile(rule));
+    }
+    if (functionResolver == null) {
+      return new StellarOptimizer(null, context).optimize(statements, assignedVariables);
+    }
+    List<Object> key = Arrays.asList( ImmutableList.copyOf(rules)
+                                    , ImmutableSet.copyOf(assignedVariables)
+                                    , ArithmeticExpression.isIntegerArithmetic(context)
+                                    );
+    try {
+      return PROGRAM_CACHE.get(functionResolver, () -> CacheBuilder.newBuilder()
+                                                                   .maximumSize(EXPRESSION_CACHE_SIZE)
+                                                                   .build())
+                          .get(key, () -> new StellarOptimizer(functionResolver, context).optimize(statements, assignedVariables));
+    }
+    catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ParseException("Unable to compile " + rules + ": " + cause.getMessage(), cause);
+    }
+  }
+
+  private static StellarExpression compileExpression(String rule) {
     ANTLRInputStream input = new ANTLRInputStream(rule);
     StellarLexer lexer = new StellarLexer(input);
     lexer.removeErrorListeners();
     lexer.addErrorListener(new ErrorListener());
     TokenStream tokens = new CommonTokenStream(lexer);
     StellarParser parser = new StellarParser(tokens);
-    final Set<String> ret = new HashSet<>();
-    parser.addParseListener(new StellarBaseListener() {
-      @Override
-      public void exitVariable(StellarParser.VariableContext ctx) {
-        ret.add(ctx.getText());
-      }
-      @Override
-      public void exitExistsFunc(StellarParser.ExistsFuncContext ctx) {
-        String variable = ctx.getChild(2).getText();
-        ret.add(variable);
-      }
-    });
+
+    StellarCompiler compiler = new StellarCompiler(rule);
+    parser.addParseListener(compiler);
     parser.removeErrorListeners();
     parser.addErrorListener(new ErrorListener());
     parser.transformation();
-    return ret;
+    return new StellarOptimizer().optimize(compiler.getExpression());
   }
 
   public T parse( String rule
@@ -75,19 +208,62 @@ public class BaseStellarProcessor<T> {
     if (rule == null || isEmpty(rule.trim())) {
       return null;
     }
-    ANTLRInputStream input = new ANTLRInputStream(rule);
-    StellarLexer lexer = new StellarLexer(input);
-    lexer.removeErrorListeners();
-    lexer.addErrorListener(new ErrorListener());
-    TokenStream tokens = new CommonTokenStream(lexer);
-    StellarParser parser = new StellarParser(tokens);
+    return clazz.cast(compile(rule, functionResolver, context).apply(variableResolver, functionResolver, context));
+  }
 
-    StellarCompiler treeBuilder = new StellarCompiler(variableResolver, functionResolver, context);
-    parser.addParseListener(treeBuilder);
-    parser.removeErrorListeners();
-    parser.addErrorListener(new ErrorListener());
-    parser.transformation();
-    return clazz.cast(treeBuilder.getResult());
+  /**
+   * Evaluates an expression against each of a batch of messages.  Function lookup and compilation are
+   * done once for the batch, and calls to batch functions, such as ENRICHMENT_EXISTS, that every
+   * message reaches are applied once for the whole batch.
+   * @param rule The expression to evaluate.
+   * @param variableResolvers Resolves the variables of each message.
+   * @param functionResolver The functions available to the expression.
+   * @param context The Stellar context.
+   * @return The value of the expression for each message, in order.
+   */
+  public List<T> parse( String rule
+                      , List<VariableResolver> variableResolvers
+                      , FunctionResolver functionResolver
+                      , Context context
+                      )
+  {
+    List<T> results = new ArrayList<>(variableResolvers.size());
+    if (rule == null || isEmpty(rule.trim())) {
+      for (int i = 0; i < variableResolvers.size(); i++) {
+        results.add(null);
+      }
+      return results;
+    }
+    StellarExpression expression = compile(rule, functionResolver, context);
+    for (Object result : expression.apply(variableResolvers, functionResolver, context)) {
+      results.add(clazz.cast(result));
+    }
+    return results;
+  }
+
+  /**
+   * Evaluates a compiled expression against a single message.
+   * @param expression The compiled expression.
+   * @param variableResolver Resolves the variables of the message.
+   * @param functionResolver The functions available to the expression.
+   * @param context The Stellar context.
+   */
+  public T evaluate( StellarExpression expression
+                   , VariableResolver variableResolver
+                   , FunctionResolver functionResolver
+                   , Context context
+                   )
+  {
+    return clazz.cast(expression.apply(variableResolver, functionResolver, context));
+  }
+
+  /**
+   * Evaluates a compiled statement of a program.
+   * @param expression The compiled statement.
+   * @param state The state shared by the statements of the program.
+   */
+  public T evaluate(StellarExpression expression, ExpressionState state) {
+    return clazz.cast(expression.apply(state));
   }
 
   public boolean validate(String rule) throws ParseException {
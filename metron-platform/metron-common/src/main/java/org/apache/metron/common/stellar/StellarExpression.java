@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.budget.BudgetExceededException;
+import org.apache.metron.common.stellar.budget.StellarBudget;
+import org.apache.metron.common.stellar.expression.BatchPrefetch;
+import org.apache.metron.common.stellar.expression.Expression;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A compiled Stellar expression.
+ *
+ * The expression is parsed exactly once, when it is compiled.  The result is immutable
+ * and thread-safe; it may be evaluated any number of times, concurrently, against
+ * any variable resolver.
+ */
+public class StellarExpression implements Serializable {
+
+  private final String expression;
+  private final Expression root;
+  private final Set<String> variablesUsed;
+  private final int memoSize;
+  private final int variableSlots;
+
+  public StellarExpression(String expression, Expression root, Set<String> variablesUsed) {
+    this(expression, root, variablesUsed, 0, 0);
+  }
+
+  public StellarExpression(String expression, Expression root, Set<String> variablesUsed, int memoSize, int variableSlots) {
+    this.expression = expression;
+    this.root = root;
+    this.variablesUsed = ImmutableSet.copyOf(variablesUsed);
+    this.memoSize = memoSize;
+    this.variableSlots = variableSlots;
+  }
+
+  /**
+   * The text of the expression as it was compiled.
+   */
+  public String getExpression() {
+    return expression;
+  }
+
+  /**
+   * The root of the compiled expression tree.
+   */
+  public Expression getRoot() {
+    return root;
+  }
+
+  /**
+   * The names of the variables referenced by the expression.
+   */
+  public Set<String> getVariablesUsed() {
+    return variablesUsed;
+  }
+
+  /**
+   * The number of common sub-expression slots the expression requires.
+   */
+  public int getMemoSize() {
+    return memoSize;
+  }
+
+  /**
+   * The number of variable slots the expression requires.
+   */
+  public int getVariableSlots() {
+    return variableSlots;
+  }
+
+  /**
+   * Evaluates the expression.
+   * @param variableResolver Resolves the variables referenced by the expression.
+   * @param functionResolver Resolves the functions called by the expression.
+   * @param context The Stellar context.
+   * @return The value of the expression.
+   */
+  public Object apply(VariableResolver variableResolver, FunctionResolver functionResolver, Context context) {
+    return apply(createState(variableResolver, functionResolver, context));
+  }
+
+  /**
+   * Evaluates the expression against an existing state; for example, one shared by
+   * the statements of a {@link StellarProgram}.  If the state has a {@link StellarBudget}, the
+   * evaluation is limited by it.
+   * @param state The state of the evaluation.
+   * @return The value of the expression.
+   */
+  public Object apply(ExpressionState state) {
+    StellarBudget budget = state.getBudget();
+    if (budget != null) {
+      if (budget.isDisabled(expression)) {
+        state.clearPrefetched();
+        return null;
+      }
+      state.startBudget();
+    }
+    StellarMetrics metrics = state.getMetrics();
+    boolean sampled = metrics != null && metrics.sample();
+    long start = sampled ? System.nanoTime() : 0;
+    try {
+      Object ret = root.evaluate(state);
+      state.checkBudget();
+      return ret;
+    }
+    catch (BudgetExceededException e) {
+      if (budget == null) {
+        throw e;
+      }
+      return budget.onViolation(expression, e);
+    }
+    finally {
+      state.clearPrefetched();
+      if (metrics != null) {
+        metrics.recordExpression(expression, sampled ? System.nanoTime() - start : -1);
+      }
+    }
+  }
+
+  /**
+   * Evaluates the expression against each of a batch of messages.  Calls to batch functions that
+   * every message reaches are applied once for the whole batch.
+   * @param variableResolvers Resolves the variables of each message.
+   * @param functionResolver Resolves the functions called by the expression.
+   * @param context The Stellar context.
+   * @return The value of the expression for each message, in order.
+   */
+  public List<Object> apply(List<VariableResolver> variableResolvers, FunctionResolver functionResolver, Context context) {
+    List<ExpressionState> states = new ArrayList<>(variableResolvers.size());
+    for (VariableResolver variableResolver : variableResolvers) {
+      states.add(createState(variableResolver, functionResolver, context));
+    }
+    prefetch(states);
+    List<Object> results = new ArrayList<>(states.size());
+    for (ExpressionState state : states) {
+      results.add(apply(state));
+    }
+    return results;
+  }
+
+  /**
+   * Applies the calls to batch functions that every message reaches once for a batch of messages.
+   * Evaluating the expression against each of the states, with {@link #apply(ExpressionState)},
+   * then uses those results.  A caller that must handle the failure of each message separately
+   * can evaluate the states one at a time.
+   * @param states The state of the evaluation of each message.
+   */
+  public void prefetch(List<ExpressionState> states) {
+    BatchPrefetch.prefetch(root, states);
+  }
+
+  /**
+   * Creates the state for evaluating the expression against a single message.
+   */
+  public ExpressionState createState(VariableResolver variableResolver, FunctionResolver functionResolver, Context context) {
+    return new ExpressionState(variableResolver, functionResolver, context, memoSize, variableSlots);
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+}
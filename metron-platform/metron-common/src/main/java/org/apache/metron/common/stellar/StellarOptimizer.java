@@ -0,0 +1,507 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar;
+
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.dsl.functions.resolver.CachingStellarFunction;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.expression.ArithmeticExpression;
+import org.apache.metron.common.stellar.expression.CommonExpression;
+import org.apache.metron.common.stellar.expression.ComparisonExpression;
+import org.apache.metron.common.stellar.expression.ConditionalExpression;
+import org.apache.metron.common.stellar.expression.ConstantExpression;
+import org.apache.metron.common.stellar.expression.ExistsExpression;
+import org.apache.metron.common.stellar.expression.Expression;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+import org.apache.metron.common.stellar.expression.FunctionExpression;
+import org.apache.metron.common.stellar.expression.InExpression;
+import org.apache.metron.common.stellar.expression.ListExpression;
+import org.apache.metron.common.stellar.expression.LogicalExpression;
+import org.apache.metron.common.stellar.expression.MapExpression;
+import org.apache.metron.common.stellar.expression.NotExpression;
+import org.apache.metron.common.stellar.expression.VariableExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Optimizes compiled Stellar expressions.
+ *
+ * Constant folding replaces operators, conditionals and deterministic function calls whose
+ * operands are all constant with their value.  For example, "1 + 2" becomes "3" and
+ * "TO_UPPER('abc')" becomes "'ABC'".  The values of list literals on the right-hand side
+ * of "in" are collected into a set.
+ *
+ * Common sub-expression elimination evaluates each repeated call to a deterministic function
+ * only once per evaluation.  When a group of statements is optimized together, such as the
+ * rules of a threat triage configuration, a sub-expression is shared across all of them.
+ *
+ * Variables, other than those assigned between statements, are assigned slots so that each
+ * is resolved only once per evaluation no matter how often it is referenced.
+ *
+ * Function calls are only folded or shared when a function resolver is provided and the function
+ * is annotated as deterministic.  They are only folded if the function does not depend upon the
+ * context, since the optimized expression is cached for every context.
+ *
+ * Whether arithmetic keeps integer operands as integers is decided once, from the global configuration
+ * of the context that the optimizer is given, and is fixed in the optimized expression.  Arithmetic is
+ * only folded when a context is provided, as its result depends upon this.
+ */
+public class StellarOptimizer {
+
+  private final FunctionResolver functionResolver;
+  private final Context context;
+  private final boolean integerArithmetic;
+
+  /**
+   * Creates an optimizer that only performs optimizations which do not depend upon functions
+   * or the context.
+   */
+  public StellarOptimizer() {
+    this(null, null);
+  }
+
+  public StellarOptimizer(FunctionResolver functionResolver, Context context) {
+    this.functionResolver = functionResolver;
+    this.context = context;
+    this.integerArithmetic = ArithmeticExpression.isIntegerArithmetic(context);
+  }
+
+  /**
+   * Optimizes a single expression.
+   * @param expression The expression to optimize.
+   * @return The optimized expression.
+   */
+  public StellarExpression optimize(StellarExpression expression) {
+    return optimize(Collections.singletonList(expression), Collections.emptySet()).getStatement(0);
+  }
+
+  /**
+   * Optimizes a group of statements that are evaluated together against each message.
+   * @param statements The statements to optimize.
+   * @param assignedVariables Variables that may change value between statements; for example, the output
+   *                          fields of a field transformation.  Sub-expressions that reference these are only
+   *                          shared within a statement.
+   * @return The optimized program.
+   */
+  public StellarProgram optimize(List<StellarExpression> statements, Set<String> assignedVariables) {
+    List<Expression> folded = new ArrayList<>(statements.size());
+    for (StellarExpression statement : statements) {
+      folded.add(fold(statement.getRoot()));
+    }
+
+    // count the occurrences of each sub-expression that can be shared
+    Map<Object, Integer> occurrences = new HashMap<>();
+    for (int i = 0; i < folded.size(); i++) {
+      count(folded.get(i), i, assignedVariables, occurrences);
+    }
+
+    // replace the sub-expressions that occur more than once
+    Map<Object, Integer> slots = new HashMap<>();
+    List<Expression> shared = new ArrayList<>(folded.size());
+    for (int i = 0; i < folded.size(); i++) {
+      shared.add(share(folded.get(i), i, assignedVariables, occurrences, slots));
+    }
+
+    // assign slots to the variables that do not change between statements
+    Map<String, Integer> variableSlots = new LinkedHashMap<>();
+    List<Expression> slotted = new ArrayList<>(shared.size());
+    for (Expression root : shared) {
+      slotted.add(assignSlots(root, assignedVariables, variableSlots));
+    }
+
+    // all statements share the same memo and variable slots
+    List<StellarExpression> result = new ArrayList<>(statements.size());
+    for (int i = 0; i < statements.size(); i++) {
+      StellarExpression statement = statements.get(i);
+      result.add(new StellarExpression(statement.getExpression(), slotted.get(i), statement.getVariablesUsed(), slots.size(), variableSlots.size()));
+    }
+    return new StellarProgram(result, slots.size(), new ArrayList<>(variableSlots.keySet()));
+  }
+
+  /**
+   * Folds constant sub-expressions, from the leaves up.
+   */
+  private Expression fold(Expression expression) {
+    if (expression instanceof CommonExpression) {
+      // the expression has already been optimized; the memo and variable slots are reassigned
+      return fold(((CommonExpression) expression).getExpression());
+
+    } else if (expression instanceof VariableExpression) {
+      return new VariableExpression(((VariableExpression) expression).getName());
+
+    } else if (expression instanceof ExistsExpression) {
+      return new ExistsExpression(((ExistsExpression) expression).getName());
+    }
+
+    Expression node = transformChildren(expression, this::fold);
+
+    if (node instanceof ArithmeticExpression && context != null) {
+      ArithmeticExpression arithmetic = (ArithmeticExpression) node;
+      node = new ArithmeticExpression(arithmetic.getOperator(), arithmetic.getLeft(), arithmetic.getRight(), integerArithmetic);
+    }
+
+    if (node instanceof ConditionalExpression) {
+      ConditionalExpression conditional = (ConditionalExpression) node;
+      if (isConstant(conditional.getCondition())) {
+        Object condition = ((ConstantExpression) conditional.getCondition()).getValue();
+        if (condition instanceof Boolean) {
+          return (Boolean) condition ? conditional.getThenExpression() : conditional.getElseExpression();
+        }
+      }
+
+    } else if (node instanceof LogicalExpression) {
+      LogicalExpression logical = (LogicalExpression) node;
+      if (isConstant(logical.getLeft())) {
+        Object left = ((ConstantExpression) logical.getLeft()).getValue();
+        if (left instanceof Boolean && (Boolean) left == logical.getOperator().getShortCircuitValue()) {
+          return new ConstantExpression(left);
+        }
+      }
+
+    } else if (node instanceof InExpression) {
+      InExpression in = (InExpression) node;
+      if (in.getCollection() instanceof ListExpression && isConstantElements((ListExpression) in.getCollection())) {
+        Set<Object> values = new HashSet<>();
+        for (Expression element : ((ListExpression) in.getCollection()).getElements()) {
+          values.add(((ConstantExpression) element).getValue());
+        }
+        node = new InExpression(in.getKey(), new ConstantExpression(Collections.unmodifiableSet(values)), in.isNegated());
+      }
+    }
+
+    if (isFoldable(node) && isConstantValued(children(node))) {
+      return evaluate(node);
+    }
+    return node;
+  }
+
+  /**
+   * Can the expression be replaced by its value if all of its operands are constant?
+   */
+  private boolean isFoldable(Expression expression) {
+    if (expression instanceof FunctionExpression) {
+      return isDeterministic((FunctionExpression) expression) && isContextFree((FunctionExpression) expression);
+    }
+    if (expression instanceof ArithmeticExpression) {
+      return context != null;
+    }
+    return expression instanceof ComparisonExpression
+            || expression instanceof LogicalExpression
+            || expression instanceof NotExpression
+            || expression instanceof ConditionalExpression
+            || expression instanceof InExpression;
+  }
+
+  /**
+   * Evaluates an expression with constant operands.  If the expression cannot be evaluated
+   * or its value is not immutable, the expression is left as-is; any error will surface
+   * when the expression is evaluated against a message.
+   */
+  private Expression evaluate(Expression expression) {
+    try {
+      Object value = expression.evaluate(new ExpressionState(variable -> null, functionResolver, context));
+      if (value == null
+              || value instanceof String
+              || value instanceof Number
+              || value instanceof Boolean
+              || value instanceof Character) {
+        return new ConstantExpression(value);
+      }
+    } catch (Throwable t) {
+      // leave the expression to be evaluated at runtime
+    }
+    return expression;
+  }
+
+  private boolean isDeterministic(FunctionExpression function) {
+    return functionResolver != null && functionResolver.isDeterministic(function.getFunctionName());
+  }
+
+  /**
+   * Does the result of a call not depend upon the context?  An optimized expression is shared by
+   * every context that it is evaluated in, so only calls to functions that are neither initialized
+   * with nor applied to the context, those that extend {@link BaseStellarFunction}, are folded.
+   */
+  private boolean isContextFree(FunctionExpression function) {
+    StellarFunction resolved;
+    try {
+      resolved = functionResolver.apply(function.getFunctionName());
+    } catch (Exception e) {
+      return false;
+    }
+    if (resolved instanceof CachingStellarFunction) {
+      resolved = ((CachingStellarFunction) resolved).getFunction();
+    }
+    return resolved instanceof BaseStellarFunction;
+  }
+
+  /**
+   * Counts the occurrences of each sub-expression that can be shared.
+   */
+  private void count(Expression expression, int statement, Set<String> assignedVariables, Map<Object, Integer> occurrences) {
+    if (isShareable(expression)) {
+      occurrences.merge(shareKey(expression, statement, assignedVariables), 1, Integer::sum);
+    }
+    for (Expression child : children(expression)) {
+      count(child, statement, assignedVariables, occurrences);
+    }
+  }
+
+  /**
+   * Replaces sub-expressions that occur more than once with a common expression.
+   */
+  private Expression share(Expression expression,
+                           int statement,
+                           Set<String> assignedVariables,
+                           Map<Object, Integer> occurrences,
+                           Map<Object, Integer> slots) {
+    Expression node = transformChildren(expression, child -> share(child, statement, assignedVariables, occurrences, slots));
+    if (isShareable(expression)) {
+      Object key = shareKey(expression, statement, assignedVariables);
+      if (occurrences.getOrDefault(key, 0) > 1) {
+        Integer slot = slots.computeIfAbsent(key, k -> slots.size());
+        return new CommonExpression(slot, node);
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Assigns a slot to each reference to a variable that is not assigned between statements.
+   */
+  private static Expression assignSlots(Expression expression, Set<String> assignedVariables, Map<String, Integer> variableSlots) {
+    if (expression instanceof VariableExpression) {
+      String name = ((VariableExpression) expression).getName();
+      return new VariableExpression(name, slotFor(name, assignedVariables, variableSlots));
+
+    } else if (expression instanceof ExistsExpression) {
+      String name = ((ExistsExpression) expression).getName();
+      return new ExistsExpression(name, slotFor(name, assignedVariables, variableSlots));
+    }
+    return transformChildren(expression, child -> assignSlots(child, assignedVariables, variableSlots));
+  }
+
+  private static int slotFor(String name, Set<String> assignedVariables, Map<String, Integer> variableSlots) {
+    if (assignedVariables.contains(name)) {
+      return -1;
+    }
+    return variableSlots.computeIfAbsent(name, k -> variableSlots.size());
+  }
+
+  /**
+   * A sub-expression that references an assigned variable can only be shared within a single statement.
+   */
+  private Object shareKey(Expression expression, int statement, Set<String> assignedVariables) {
+    Set<String> variables = new HashSet<>();
+    variables(expression, variables);
+    if (Collections.disjoint(variables, assignedVariables)) {
+      return expression;
+    }
+    return Arrays.asList(statement, expression);
+  }
+
+  /**
+   * Is the expression worth sharing?  It must call at least one function and
+   * every function it calls must be deterministic.
+   */
+  private boolean isShareable(Expression expression) {
+    return isPure(expression) && callsFunction(expression);
+  }
+
+  private boolean isPure(Expression expression) {
+    if (expression instanceof FunctionExpression && !isDeterministic((FunctionExpression) expression)) {
+      return false;
+    }
+    for (Expression child : children(expression)) {
+      if (!isPure(child)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean callsFunction(Expression expression) {
+    if (expression instanceof FunctionExpression) {
+      return true;
+    }
+    for (Expression child : children(expression)) {
+      if (callsFunction(child)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void variables(Expression expression, Set<String> variables) {
+    if (expression instanceof VariableExpression) {
+      variables.add(((VariableExpression) expression).getName());
+    } else if (expression instanceof ExistsExpression) {
+      variables.add(((ExistsExpression) expression).getName());
+    }
+    for (Expression child : children(expression)) {
+      variables(child, variables);
+    }
+  }
+
+  private static boolean isConstant(Expression expression) {
+    return expression instanceof ConstantExpression;
+  }
+
+  /**
+   * Are all of the elements of a list literal constant?  A nested list or map literal is not; its
+   * value is a new mutable collection each time it is evaluated.
+   */
+  private static boolean isConstantElements(ListExpression list) {
+    for (Expression element : list.getElements()) {
+      if (!isConstant(element)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Is the value of each expression known at compile time?  This includes list
+   * and map literals whose contents are constant.
+   */
+  private static boolean isConstantValued(List<Expression> expressions) {
+    for (Expression expression : expressions) {
+      if (!isConstantValued(expression)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isConstantValued(Expression expression) {
+    if (expression instanceof ListExpression || expression instanceof MapExpression) {
+      return isConstantValued(children(expression));
+    }
+    return isConstant(expression);
+  }
+
+  /**
+   * Returns the direct children of an expression.
+   */
+  private static List<Expression> children(Expression expression) {
+    if (expression instanceof ArithmeticExpression) {
+      ArithmeticExpression e = (ArithmeticExpression) expression;
+      return Arrays.asList(e.getLeft(), e.getRight());
+
+    } else if (expression instanceof ComparisonExpression) {
+      ComparisonExpression e = (ComparisonExpression) expression;
+      return Arrays.asList(e.getLeft(), e.getRight());
+
+    } else if (expression instanceof LogicalExpression) {
+      LogicalExpression e = (LogicalExpression) expression;
+      return Arrays.asList(e.getLeft(), e.getRight());
+
+    } else if (expression instanceof NotExpression) {
+      return Collections.singletonList(((NotExpression) expression).getOperand());
+
+    } else if (expression instanceof ConditionalExpression) {
+      ConditionalExpression e = (ConditionalExpression) expression;
+      return Arrays.asList(e.getCondition(), e.getThenExpression(), e.getElseExpression());
+
+    } else if (expression instanceof InExpression) {
+      InExpression e = (InExpression) expression;
+      return Arrays.asList(e.getKey(), e.getCollection());
+
+    } else if (expression instanceof FunctionExpression) {
+      return ((FunctionExpression) expression).getArguments();
+
+    } else if (expression instanceof ListExpression) {
+      return ((ListExpression) expression).getElements();
+
+    } else if (expression instanceof MapExpression) {
+      MapExpression e = (MapExpression) expression;
+      List<Expression> children = new ArrayList<>(e.getKeys());
+      children.addAll(e.getValues());
+      return children;
+
+    } else if (expression instanceof CommonExpression) {
+      return Collections.singletonList(((CommonExpression) expression).getExpression());
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Rebuilds an expression after transforming each of its direct children.
+   */
+  private static Expression transformChildren(Expression expression, Function<Expression, Expression> f) {
+    if (expression instanceof ArithmeticExpression) {
+      ArithmeticExpression e = (ArithmeticExpression) expression;
+      return new ArithmeticExpression(e.getOperator(), f.apply(e.getLeft()), f.apply(e.getRight()), e.isIntegerArithmetic());
+
+    } else if (expression instanceof ComparisonExpression) {
+      ComparisonExpression e = (ComparisonExpression) expression;
+      return new ComparisonExpression(e.getOperator(), f.apply(e.getLeft()), f.apply(e.getRight()));
+
+    } else if (expression instanceof LogicalExpression) {
+      LogicalExpression e = (LogicalExpression) expression;
+      return new LogicalExpression(e.getOperator(), f.apply(e.getLeft()), f.apply(e.getRight()));
+
+    } else if (expression instanceof NotExpression) {
+      return new NotExpression(f.apply(((NotExpression) expression).getOperand()));
+
+    } else if (expression instanceof ConditionalExpression) {
+      ConditionalExpression e = (ConditionalExpression) expression;
+      return new ConditionalExpression(f.apply(e.getCondition()), f.apply(e.getThenExpression()), f.apply(e.getElseExpression()));
+
+    } else if (expression instanceof InExpression) {
+      InExpression e = (InExpression) expression;
+      return new InExpression(f.apply(e.getKey()), f.apply(e.getCollection()), e.isNegated());
+
+    } else if (expression instanceof FunctionExpression) {
+      FunctionExpression e = (FunctionExpression) expression;
+      return new FunctionExpression(e.getFunctionName(), transform(e.getArguments(), f));
+
+    } else if (expression instanceof ListExpression) {
+      return new ListExpression(transform(((ListExpression) expression).getElements(), f));
+
+    } else if (expression instanceof MapExpression) {
+      MapExpression e = (MapExpression) expression;
+      return new MapExpression(transform(e.getKeys(), f), transform(e.getValues(), f));
+
+    } else if (expression instanceof CommonExpression) {
+      CommonExpression e = (CommonExpression) expression;
+      return new CommonExpression(e.getSlot(), f.apply(e.getExpression()));
+    }
+    return expression;
+  }
+
+  private static List<Expression> transform(List<Expression> expressions, Function<Expression, Expression> f) {
+    List<Expression> transformed = new ArrayList<>(expressions.size());
+    for (Expression expression : expressions) {
+      transformed.add(f.apply(expression));
+    }
+    return transformed;
+  }
+}
@@ -22,6 +22,11 @@ package org.apache.metron.common.stellar;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
 import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
@@ -55,4 +60,47 @@ public class StellarPredicateProcessor extends BaseStellarProcessor<Boolean> {
       throw new IllegalArgumentException(String.format("The rule '%s' does not return a boolean value.", rule), e);
     }
   }
+
+  @Override
+  public List<Boolean> parse( String rule
+                            , List<VariableResolver> variableResolvers
+                            , FunctionResolver functionResolver
+                            , Context context
+                            )
+  {
+    if(rule == null || isEmpty(rule.trim())) {
+      return new ArrayList<>(Collections.nCopies(variableResolvers.size(), true));
+    }
+    try {
+      return super.parse(rule, variableResolvers, functionResolver, context);
+    } catch (ClassCastException e) {
+      // predicate must return boolean
+      throw new IllegalArgumentException(String.format("The rule '%s' does not return a boolean value.", rule), e);
+    }
+  }
+
+  @Override
+  public Boolean evaluate(StellarExpression expression, ExpressionState state) {
+    try {
+      return super.evaluate(expression, state);
+    } catch (ClassCastException e) {
+      // predicate must return boolean
+      throw new IllegalArgumentException(String.format("The rule '%s' does not return a boolean value.", expression.getExpression()), e);
+    }
+  }
+
+  @Override
+  public Boolean evaluate( StellarExpression expression
+                         , VariableResolver variableResolver
+                         , FunctionResolver functionResolver
+                         , Context context
+                         )
+  {
+    try {
+      return super.evaluate(expression, variableResolver, functionResolver, context);
+    } catch (ClassCastException e) {
+      // predicate must return boolean
+      throw new IllegalArgumentException(String.format("The rule '%s' does not return a boolean value.", expression.getExpression()), e);
+    }
+  }
 }
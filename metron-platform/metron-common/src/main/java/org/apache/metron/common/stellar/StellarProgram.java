@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A set of compiled Stellar statements that are evaluated together against the same message;
+ * for example, the field transformations of a sensor or the rules of a threat triage configuration.
+ *
+ * The statements share their common sub-expressions and the values of the variables that they
+ * reference.  To take advantage of that, create one state per message with
+ * {@link #createState(VariableResolver, FunctionResolver, Context)} and evaluate each statement
+ * against it.  Each variable is then resolved once per message, no matter how many statements
+ * reference it.
+ */
+public class StellarProgram implements Serializable {
+
+  private final List<StellarExpression> statements;
+  private final int memoSize;
+  private final List<String> variables;
+
+  /**
+   * @param statements The compiled statements.
+   * @param memoSize The number of common sub-expression slots shared by the statements.
+   * @param variables The names of the variables assigned to slots, in slot order.
+   */
+  public StellarProgram(List<StellarExpression> statements, int memoSize, List<String> variables) {
+    this.statements = ImmutableList.copyOf(statements);
+    this.memoSize = memoSize;
+    this.variables = ImmutableList.copyOf(variables);
+  }
+
+  public List<StellarExpression> getStatements() {
+    return statements;
+  }
+
+  public StellarExpression getStatement(int i) {
+    return statements.get(i);
+  }
+
+  public int size() {
+    return statements.size();
+  }
+
+  /**
+   * The number of common sub-expression slots shared by the statements.
+   */
+  public int getMemoSize() {
+    return memoSize;
+  }
+
+  /**
+   * The names of the variables that are assigned slots; the slot of a variable is its position.
+   */
+  public List<String> getVariables() {
+    return variables;
+  }
+
+  /**
+   * Creates the state for evaluating the statements of this program against a single message.
+   */
+  public ExpressionState createState(VariableResolver variableResolver, FunctionResolver functionResolver, Context context) {
+    return new ExpressionState(variableResolver, functionResolver, context, memoSize, variables.size());
+  }
+}
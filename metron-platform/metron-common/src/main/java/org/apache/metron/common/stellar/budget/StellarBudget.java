@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.budget;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.utils.ConversionUtils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An execution budget for each evaluation of a Stellar expression; the wall time that the
+ * evaluation may take and the number of functions that it may call.
+ *
+ * The budget is enforced for every evaluation whose {@link Context} has the
+ * {@link Context.Capabilities#STELLAR_BUDGET} capability.  It is checked before each function
+ * call and once the expression has been evaluated; a function call that is already running is
+ * never interrupted.  What happens to an evaluation that exceeds the budget is given by its
+ * {@link Action}.
+ *
+ * Budgets are enabled with the following global configuration properties.
+ * <ul>
+ *   <li>stellar.budget.max.time.ms - The wall time that an evaluation may take; unlimited by default.</li>
+ *   <li>stellar.budget.max.function.calls - The number of functions that an evaluation may call; unlimited by default.</li>
+ *   <li>stellar.budget.action - NULL, ERROR or DISABLE; NULL by default.</li>
+ *   <li>stellar.budget.disable.secs - How long an expression is disabled by the DISABLE action; 60 by default.</li>
+ * </ul>
+ */
+public class StellarBudget {
+
+  public static final String MAX_TIME_KEY = "stellar.budget.max.time.ms";
+  public static final String MAX_FUNCTION_CALLS_KEY = "stellar.budget.max.function.calls";
+  public static final String ACTION_KEY = "stellar.budget.action";
+  public static final String DISABLE_KEY = "stellar.budget.disable.secs";
+  public static final int DEFAULT_DISABLE_SECS = 60;
+
+  public enum Action {
+    /**
+     * The value of the expression is null.
+     */
+    NULL,
+    /**
+     * The evaluation fails with a {@link BudgetExceededException}, which routes the message to the error stream.
+     */
+    ERROR,
+    /**
+     * The value of the expression is null and the expression is not evaluated again, its value being
+     * null, until it has been disabled for a while.
+     */
+    DISABLE
+  }
+
+  private final long maxTimeNanos;
+  private final long maxFunctionCalls;
+  private final Action action;
+  private final long disableNanos;
+  private final ConcurrentMap<String, Long> disabled = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> violations = new ConcurrentHashMap<>();
+  private final LongAdder skipped = new LongAdder();
+
+  /**
+   * @param maxTimeMillis The wall time that an evaluation may take, or 0 if unlimited.
+   * @param maxFunctionCalls The number of functions that an evaluation may call, or 0 if unlimited.
+   * @param action What happens to an evaluation that exceeds the budget.
+   * @param disableSecs How long an expression is disabled by the {@link Action#DISABLE} action.
+   */
+  public StellarBudget(long maxTimeMillis, long maxFunctionCalls, Action action, long disableSecs) {
+    this.maxTimeNanos = TimeUnit.MILLISECONDS.toNanos(maxTimeMillis);
+    this.maxFunctionCalls = maxFunctionCalls;
+    this.action = action;
+    this.disableNanos = TimeUnit.SECONDS.toNanos(disableSecs);
+  }
+
+  /**
+   * Creates a budget as configured.
+   * @param config The global configuration.
+   * @return The budget, or null if neither the time nor the function calls of an evaluation are limited.
+   */
+  public static StellarBudget create(Map<String, Object> config) {
+    if (config == null) {
+      return null;
+    }
+    Long maxTime = ConversionUtils.convert(config.get(MAX_TIME_KEY), Long.class);
+    Long maxFunctionCalls = ConversionUtils.convert(config.get(MAX_FUNCTION_CALLS_KEY), Long.class);
+    maxTime = maxTime == null ? 0 : maxTime;
+    maxFunctionCalls = maxFunctionCalls == null ? 0 : maxFunctionCalls;
+    if (maxTime <= 0 && maxFunctionCalls <= 0) {
+      return null;
+    }
+    Object action = config.get(ACTION_KEY);
+    Integer disableSecs = ConversionUtils.convert(config.get(DISABLE_KEY), Integer.class);
+    return new StellarBudget( maxTime
+                            , maxFunctionCalls
+                            , action == null ? Action.NULL : Action.valueOf(action.toString().toUpperCase())
+                            , disableSecs == null ? DEFAULT_DISABLE_SECS : disableSecs
+                            );
+  }
+
+  /**
+   * The budget of a context.
+   * @return The budget, or null if the evaluations of the context are not limited.
+   */
+  public static StellarBudget get(Context context) {
+    if (context == null) {
+      return null;
+    }
+    return (StellarBudget) context.getCapability(Context.Capabilities.STELLAR_BUDGET, false).orElse(null);
+  }
+
+  /**
+   * Limits every evaluation with a context.
+   */
+  public void addTo(Context context) {
+    context.addCapability(Context.Capabilities.STELLAR_BUDGET, () -> this);
+  }
+
+  /**
+   * The wall time that an evaluation may take in nanoseconds, or 0 if unlimited.
+   */
+  public long getMaxTimeNanos() {
+    return maxTimeNanos;
+  }
+
+  /**
+   * The number of functions that an evaluation may call, or 0 if unlimited.
+   */
+  public long getMaxFunctionCalls() {
+    return maxFunctionCalls;
+  }
+
+  public Action getAction() {
+    return action;
+  }
+
+  /**
+   * Determines whether an expression has been disabled for exceeding its budget.  An evaluation of a
+   * disabled expression is counted as skipped.
+   * @param expression The text of the expression.
+   */
+  public boolean isDisabled(String expression) {
+    if (disabled.isEmpty()) {
+      return false;
+    }
+    Long until = disabled.get(expression);
+    if (until == null) {
+      return false;
+    }
+    if (System.nanoTime() - until >= 0) {
+      disabled.remove(expression, until);
+      return false;
+    }
+    skipped.increment();
+    return true;
+  }
+
+  /**
+   * Records that an evaluation of an expression exceeded the budget and takes the configured action.
+   * @param expression The text of the expression.
+   * @param e The violation.
+   * @return The value of the expression.
+   */
+  public Object onViolation(String expression, BudgetExceededException e) {
+    LongAdder count = violations.get(expression);
+    if (count == null) {
+      count = violations.computeIfAbsent(expression, k -> new LongAdder());
+    }
+    count.increment();
+    switch (action) {
+      case ERROR:
+        throw new BudgetExceededException("Unable to evaluate " + expression + ": " + e.getMessage(), e);
+      case DISABLE:
+        disabled.put(expression, System.nanoTime() + disableNanos);
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * The violations of the budget as a flat map; the number of violations of each expression,
+   * for example "violations.foo + 1", the total number of violations, the number of evaluations
+   * skipped because their expression was disabled and the number of expressions that are disabled.
+   * @param reset Whether to start counting afresh.
+   */
+  public Map<String, Object> getViolations(boolean reset) {
+    Map<String, Object> ret = new TreeMap<>();
+    long total = 0;
+    for (Map.Entry<String, LongAdder> kv : violations.entrySet()) {
+      long count = reset ? kv.getValue().sumThenReset() : kv.getValue().sum();
+      if (!reset || count > 0) {
+        ret.put("violations." + kv.getKey(), count);
+      }
+      total += count;
+    }
+    ret.put("violations", total);
+    ret.put("skipped", reset ? skipped.sumThenReset() : skipped.sum());
+    ret.put("disabled", disabled.size());
+    return ret;
+  }
+}
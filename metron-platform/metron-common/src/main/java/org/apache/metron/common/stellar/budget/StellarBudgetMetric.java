@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.budget;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.TopologyContext;
+
+import java.util.Map;
+
+/**
+ * Reports the violations of a {@link StellarBudget} as a Storm metric.  Each report holds the
+ * violations since the previous report.
+ */
+public class StellarBudgetMetric implements IMetric {
+
+  public static final String METRIC_NAME = "stellar.budget";
+
+  private final StellarBudget budget;
+
+  public StellarBudgetMetric(StellarBudget budget) {
+    this.budget = budget;
+  }
+
+  /**
+   * Limits the Stellar evaluations of a bolt, if a budget is configured by the global configuration,
+   * and registers the violations of the budget as a Storm metric.  The metric is reported as often
+   * as the Stellar metrics are.
+   * @param globalConfig The global configuration.
+   * @param stellarContext The context that the bolt evaluates Stellar with.
+   * @param topologyContext The topology context of the bolt.
+   * @return The budget, or null if none is configured.
+   */
+  public static StellarBudget register(Map<String, Object> globalConfig, Context stellarContext, TopologyContext topologyContext) {
+    StellarBudget budget = StellarBudget.create(globalConfig);
+    if (budget != null) {
+      if (stellarContext != null) {
+        budget.addTo(stellarContext);
+      }
+      topologyContext.registerMetric(METRIC_NAME, new StellarBudgetMetric(budget), StellarMetrics.getInterval(globalConfig));
+    }
+    return budget;
+  }
+
+  @Override
+  public Object getValueAndReset() {
+    return budget.getViolations(true);
+  }
+}
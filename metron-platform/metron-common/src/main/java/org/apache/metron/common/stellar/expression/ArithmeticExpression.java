@@ -0,0 +1,340 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.utils.ConversionUtils;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A binary arithmetic operation.  A null operand is treated as zero.
+ *
+ * By default, operands are converted to doubles and the result is a double.  When the global
+ * configuration property "stellar.arithmetic.integer" is true, integer and long operands keep
+ * their type instead, as in Java: the result is an integer if both operands are integers, a long
+ * if either is a long, and a double if either is a double.  Integer and long division truncates,
+ * an operation that overflows wraps around, and division of an integer or long by zero is an error.
+ *
+ * Whether integer arithmetic is enabled is decided when the expression is optimized for a context;
+ * see {@link org.apache.metron.common.stellar.StellarOptimizer}.
+ *
+ * The operation is computed with primitives.  The operands of nested operations are
+ * passed through the numeric register of the state rather than boxed, and constant
+ * operands are unboxed when the expression is compiled, so only the final value of
+ * an arithmetic expression is boxed.
+ */
+public class ArithmeticExpression implements Expression {
+
+  public static final String INTEGER_ARITHMETIC_KEY = "stellar.arithmetic.integer";
+
+  /**
+   * The type of a numeric value, in order of promotion.
+   */
+  public enum NumericType {
+    INTEGER, LONG, DOUBLE;
+
+    public static NumericType of(Number value) {
+      if (value == null || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+        return INTEGER;
+      }
+      if (value instanceof Long) {
+        return LONG;
+      }
+      return DOUBLE;
+    }
+
+    public NumericType promote(NumericType other) {
+      return compareTo(other) >= 0 ? this : other;
+    }
+  }
+
+  public enum Operator {
+    PLUS("+") {
+      @Override
+      NumericType apply(int l, int r, ExpressionState state) {
+        return integerResult(l + r, state);
+      }
+
+      @Override
+      NumericType apply(long l, long r, ExpressionState state) {
+        return longResult(l + r, state);
+      }
+
+      @Override
+      public double apply(double l, double r) {
+        return l + r;
+      }
+    }
+    , MINUS("-") {
+      @Override
+      NumericType apply(int l, int r, ExpressionState state) {
+        return integerResult(l - r, state);
+      }
+
+      @Override
+      NumericType apply(long l, long r, ExpressionState state) {
+        return longResult(l - r, state);
+      }
+
+      @Override
+      public double apply(double l, double r) {
+        return l - r;
+      }
+    }
+    , MUL("*") {
+      @Override
+      NumericType apply(int l, int r, ExpressionState state) {
+        return integerResult(l * r, state);
+      }
+
+      @Override
+      NumericType apply(long l, long r, ExpressionState state) {
+        return longResult(l * r, state);
+      }
+
+      @Override
+      public double apply(double l, double r) {
+        return l * r;
+      }
+    }
+    , DIV("/") {
+      @Override
+      NumericType apply(int l, int r, ExpressionState state) {
+        if (r == 0) {
+          throw divisionByZero(l);
+        }
+        return integerResult(l / r, state);
+      }
+
+      @Override
+      NumericType apply(long l, long r, ExpressionState state) {
+        if (r == 0) {
+          throw divisionByZero(l);
+        }
+        return longResult(l / r, state);
+      }
+
+      @Override
+      public double apply(double l, double r) {
+        return l / r;
+      }
+
+      private ParseException divisionByZero(long l) {
+        return new ParseException("Unable to operate on " + l + " / 0, division by zero");
+      }
+    };
+
+    private String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+
+    /**
+     * Computes the operation on integers, leaving the result in the numeric register of the state.
+     * @return The type of the result.
+     */
+    abstract NumericType apply(int l, int r, ExpressionState state);
+
+    /**
+     * Computes the operation on longs, leaving the result in the numeric register of the state.
+     * @return The type of the result.
+     */
+    abstract NumericType apply(long l, long r, ExpressionState state);
+
+    public abstract double apply(double l, double r);
+
+    private static NumericType integerResult(int value, ExpressionState state) {
+      state.longValue = value;
+      state.doubleValue = value;
+      return NumericType.INTEGER;
+    }
+
+    private static NumericType longResult(long value, ExpressionState state) {
+      state.longValue = value;
+      state.doubleValue = value;
+      return NumericType.LONG;
+    }
+
+  }
+
+  /**
+   * An operand whose value, if it is a numeric constant, is unboxed at compile time.
+   */
+  private static class Operand implements Serializable {
+    private final Expression expression;
+    private final NumericType constantType;
+    private final long longValue;
+    private final double doubleValue;
+
+    Operand(Expression expression) {
+      this.expression = expression;
+      Object value = expression instanceof ConstantExpression ? ((ConstantExpression) expression).getValue() : null;
+      if (value instanceof Number) {
+        this.constantType = NumericType.of((Number) value);
+        this.longValue = ((Number) value).longValue();
+        this.doubleValue = ((Number) value).doubleValue();
+      } else {
+        this.constantType = null;
+        this.longValue = 0;
+        this.doubleValue = 0;
+      }
+    }
+
+    /**
+     * Loads the value of the operand into the numeric register of the state.
+     * @return The type of the value.
+     */
+    NumericType load(ExpressionState state) {
+      if (constantType != null) {
+        state.longValue = longValue;
+        state.doubleValue = doubleValue;
+        return constantType;
+      }
+      if (expression instanceof ArithmeticExpression) {
+        return ((ArithmeticExpression) expression).compute(state);
+      }
+      Number value = (Number) expression.evaluate(state);
+      NumericType type = NumericType.of(value);
+      if (type == NumericType.DOUBLE) {
+        state.doubleValue = value.doubleValue();
+      } else {
+        state.longValue = value == null ? 0 : value.longValue();
+        state.doubleValue = state.longValue;
+      }
+      return type;
+    }
+  }
+
+  private final Operator operator;
+  private final Operand left;
+  private final Operand right;
+  private final boolean integerArithmetic;
+
+  public ArithmeticExpression(Operator operator, Expression left, Expression right) {
+    this(operator, left, right, false);
+  }
+
+  /**
+   * @param integerArithmetic Do integer and long operands keep their type?
+   */
+  public ArithmeticExpression(Operator operator, Expression left, Expression right, boolean integerArithmetic) {
+    this.operator = operator;
+    this.left = new Operand(left);
+    this.right = new Operand(right);
+    this.integerArithmetic = integerArithmetic;
+  }
+
+  /**
+   * Is integer arithmetic enabled by the global configuration of a context?
+   */
+  public static boolean isIntegerArithmetic(Context context) {
+    Optional<Object> config = context == null
+                            ? Optional.empty()
+                            : context.getCapability(Context.Capabilities.GLOBAL_CONFIG, false);
+    Object enabled = config.isPresent() ? ((Map<String, Object>) config.get()).get(INTEGER_ARITHMETIC_KEY) : null;
+    return enabled != null && Boolean.TRUE.equals(ConversionUtils.convert(enabled, Boolean.class));
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  public Expression getLeft() {
+    return left.expression;
+  }
+
+  public Expression getRight() {
+    return right.expression;
+  }
+
+  /**
+   * Do integer and long operands keep their type?
+   */
+  public boolean isIntegerArithmetic() {
+    return integerArithmetic;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    switch (compute(state)) {
+      case INTEGER:
+        return (int) state.longValue;
+      case LONG:
+        return state.longValue;
+      default:
+        return state.doubleValue;
+    }
+  }
+
+  /**
+   * Computes the operation, leaving the result in the numeric register of the state.
+   * @return The type of the result.
+   */
+  NumericType compute(ExpressionState state) {
+    NumericType leftType = left.load(state);
+    long leftLong = state.longValue;
+    double leftDouble = state.doubleValue;
+
+    NumericType rightType = right.load(state);
+    if (!integerArithmetic) {
+      state.doubleValue = operator.apply(leftDouble, state.doubleValue);
+      return NumericType.DOUBLE;
+    }
+    switch (leftType.promote(rightType)) {
+      case INTEGER:
+        return operator.apply((int) leftLong, (int) state.longValue, state);
+      case LONG:
+        return operator.apply(leftLong, state.longValue, state);
+      default:
+        state.doubleValue = operator.apply(leftDouble, state.doubleValue);
+        return NumericType.DOUBLE;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ArithmeticExpression that = (ArithmeticExpression) o;
+    return integerArithmetic == that.integerArithmetic &&
+           Objects.equals(operator, that.operator) &&
+           Objects.equals(left.expression, that.left.expression) &&
+           Objects.equals(right.expression, that.right.expression);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(operator, left.expression, right.expression, integerArithmetic);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + left.expression + " " + operator.getSymbol() + " " + right.expression + ")";
+  }
+}
@@ -0,0 +1,240 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import org.apache.metron.common.dsl.AsyncStellarFunction;
+import org.apache.metron.common.dsl.BatchStellarFunction;
+import org.apache.metron.common.dsl.StellarFunction;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Evaluates the calls to {@link BatchStellarFunction}s and {@link AsyncStellarFunction}s of an
+ * expression for a batch of messages at once, before the expression is evaluated against each message.
+ *
+ * Only calls that are evaluated for every message are prefetched; a call in a branch that is
+ * not always taken, such as the right operand of `and` or the branches of a conditional, is
+ * evaluated when, and if, it is reached.  A message whose arguments cannot be evaluated, or a
+ * batch that the function fails to apply, is simply not prefetched, so that any error surfaces
+ * exactly as it would without batching when the expression is evaluated.
+ *
+ * The calls are prefetched in rounds; a call is prefetched in the round after the calls nested in
+ * its arguments.  Every asynchronous call of a round, for every message, is started before any
+ * of them is waited for.
+ */
+public final class BatchPrefetch {
+
+  private BatchPrefetch() {}
+
+  /**
+   * Prefetches the batch and asynchronous function calls of an expression.
+   * @param root The expression.
+   * @param states The state of the evaluation for each message of the batch.  Calls are only
+   *               prefetched when all of the states use the same function resolver.
+   */
+  public static void prefetch(Expression root, List<ExpressionState> states) {
+    for (ExpressionState state : states) {
+      state.clearPrefetched();
+      state.startBudget();
+    }
+    if (states.size() < 2 || !shareResolver(states)) {
+      return;
+    }
+    Map<Expression, Integer> depths = new IdentityHashMap<>();
+    Map<Integer, List<FunctionExpression>> rounds = new TreeMap<>();
+    collect(root, rounds, depths);
+    for (List<FunctionExpression> round : rounds.values()) {
+      List<Runnable> pending = new ArrayList<>();
+      for (FunctionExpression call : round) {
+        Runnable complete = prefetch(call, states);
+        if (complete != null) {
+          pending.add(complete);
+        }
+      }
+      for (Runnable complete : pending) {
+        complete.run();
+      }
+    }
+  }
+
+  /**
+   * Prefetches a call.  A call to a batch function is applied immediately, while a call to an
+   * asynchronous function is started for every message.
+   * @return Waits for the asynchronous calls that were started to complete, or null if there are none.
+   */
+  private static Runnable prefetch(FunctionExpression call, List<ExpressionState> states) {
+    ExpressionState first = states.get(0);
+    StellarFunction function;
+    try {
+      function = call.bind(first);
+    }
+    catch (RuntimeException e) {
+      return null;
+    }
+    if (!(function instanceof BatchStellarFunction) && !(function instanceof AsyncStellarFunction)) {
+      return null;
+    }
+
+    List<ExpressionState> prefetched = new ArrayList<>(states.size());
+    List<List<Object>> args = new ArrayList<>(states.size());
+    for (ExpressionState state : states) {
+      try {
+        List<Object> callArgs = new ArrayList<>(call.getArguments().size());
+        for (Expression argument : call.getArguments()) {
+          callArgs.add(argument.evaluate(state));
+        }
+        args.add(callArgs);
+        prefetched.add(state);
+      }
+      catch (RuntimeException e) {
+        // the message is evaluated without batching, which surfaces the error
+      }
+    }
+    if (prefetched.size() < 2) {
+      return null;
+    }
+
+    if (function instanceof BatchStellarFunction) {
+      applyBatch(call, (BatchStellarFunction) function, args, prefetched);
+      return null;
+    }
+    return applyAsync(call, (AsyncStellarFunction) function, args, prefetched);
+  }
+
+  private static void applyBatch( FunctionExpression call
+                                , BatchStellarFunction function
+                                , List<List<Object>> args
+                                , List<ExpressionState> prefetched
+                                )
+  {
+    List<Object> results;
+    try {
+      results = function.applyBatch(args, prefetched.get(0).getContext());
+    }
+    catch (Throwable t) {
+      return;
+    }
+    if (results == null || results.size() != prefetched.size()) {
+      return;
+    }
+    for (int i = 0; i < prefetched.size(); i++) {
+      prefetched.get(i).prefetch(call, results.get(i));
+    }
+  }
+
+  private static Runnable applyAsync( FunctionExpression call
+                                    , AsyncStellarFunction function
+                                    , List<List<Object>> args
+                                    , List<ExpressionState> prefetched
+                                    )
+  {
+    List<CompletableFuture<Object>> futures = new ArrayList<>(prefetched.size());
+    for (int i = 0; i < prefetched.size(); i++) {
+      CompletableFuture<Object> future;
+      try {
+        future = function.applyAsync(args.get(i), prefetched.get(i).getContext());
+      }
+      catch (Throwable t) {
+        future = null;
+      }
+      futures.add(future);
+    }
+    return () -> {
+      for (int i = 0; i < prefetched.size(); i++) {
+        CompletableFuture<Object> future = futures.get(i);
+        if (future == null) {
+          continue;
+        }
+        try {
+          prefetched.get(i).prefetch(call, future.join());
+        }
+        catch (Throwable t) {
+          // the call is made again when the message is evaluated, which surfaces the error
+        }
+      }
+    };
+  }
+
+  private static boolean shareResolver(List<ExpressionState> states) {
+    ExpressionState first = states.get(0);
+    for (ExpressionState state : states) {
+      if (state.getFunctionResolver() != first.getFunctionResolver()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collects the function calls that are evaluated whenever the expression is, grouped by the
+   * depth to which calls are nested in their arguments.
+   * @return The depth of the calls in the expression; 0 if there are none.
+   */
+  private static int collect(Expression expression, Map<Integer, List<FunctionExpression>> rounds, Map<Expression, Integer> depths) {
+    Integer known = depths.get(expression);
+    if (known != null) {
+      return known;
+    }
+    int depth = 0;
+    if (expression instanceof FunctionExpression) {
+      FunctionExpression function = (FunctionExpression) expression;
+      for (Expression argument : function.getArguments()) {
+        depth = Math.max(depth, collect(argument, rounds, depths));
+      }
+      depth++;
+      rounds.computeIfAbsent(depth, k -> new ArrayList<>()).add(function);
+    } else if (expression instanceof ArithmeticExpression) {
+      ArithmeticExpression arithmetic = (ArithmeticExpression) expression;
+      depth = Math.max(collect(arithmetic.getLeft(), rounds, depths), collect(arithmetic.getRight(), rounds, depths));
+    } else if (expression instanceof ComparisonExpression) {
+      ComparisonExpression comparison = (ComparisonExpression) expression;
+      depth = Math.max(collect(comparison.getLeft(), rounds, depths), collect(comparison.getRight(), rounds, depths));
+    } else if (expression instanceof InExpression) {
+      InExpression in = (InExpression) expression;
+      depth = Math.max(collect(in.getKey(), rounds, depths), collect(in.getCollection(), rounds, depths));
+    } else if (expression instanceof LogicalExpression) {
+      // the right operand is not evaluated when the left operand decides the result
+      depth = collect(((LogicalExpression) expression).getLeft(), rounds, depths);
+    } else if (expression instanceof ConditionalExpression) {
+      // only one of the branches is evaluated
+      depth = collect(((ConditionalExpression) expression).getCondition(), rounds, depths);
+    } else if (expression instanceof NotExpression) {
+      depth = collect(((NotExpression) expression).getOperand(), rounds, depths);
+    } else if (expression instanceof ListExpression) {
+      for (Expression element : ((ListExpression) expression).getElements()) {
+        depth = Math.max(depth, collect(element, rounds, depths));
+      }
+    } else if (expression instanceof MapExpression) {
+      MapExpression map = (MapExpression) expression;
+      for (int i = 0; i < map.getKeys().size(); i++) {
+        depth = Math.max(depth, collect(map.getKeys().get(i), rounds, depths));
+        depth = Math.max(depth, collect(map.getValues().get(i), rounds, depths));
+      }
+    } else if (expression instanceof CommonExpression) {
+      depth = collect(((CommonExpression) expression).getExpression(), rounds, depths);
+    }
+    depths.put(expression, depth);
+    return depth;
+  }
+}
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.util.Objects;
+
+/**
+ * A sub-expression that occurs more than once in a statement or a program.  It is evaluated
+ * at most once per evaluation; later occurrences reuse the value stored in the evaluation's
+ * memo slot.
+ */
+public class CommonExpression implements Expression {
+
+  private final int slot;
+  private final Expression expression;
+
+  public CommonExpression(int slot, Expression expression) {
+    this.slot = slot;
+    this.expression = expression;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  public Expression getExpression() {
+    return expression;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    return state.memoize(slot, expression);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    CommonExpression that = (CommonExpression) o;
+    return slot == that.slot &&
+           Objects.equals(expression, that.expression);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(slot, expression);
+  }
+
+  @Override
+  public String toString() {
+    return "$" + slot + ":" + expression;
+  }
+}
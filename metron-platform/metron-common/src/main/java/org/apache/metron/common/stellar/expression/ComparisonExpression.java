@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import org.apache.metron.common.dsl.ParseException;
+
+import java.util.Objects;
+
+/**
+ * A comparison of two operands.  Numbers are compared numerically; integers and longs
+ * exactly, and otherwise with equality tested to within 1e-6.  Anything else is compared by its string form, with null
+ * treated as the empty string.
+ */
+public class ComparisonExpression implements Expression {
+
+  public enum Operator {
+    EQ("==")
+    , NEQ("!=")
+    , LT("<")
+    , LTE("<=")
+    , GT(">")
+    , GTE(">=");
+
+    private String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+
+    public static Operator fromSymbol(String symbol) {
+      for(Operator op : values()) {
+        if(op.symbol.equals(symbol)) {
+          return op;
+        }
+      }
+      throw new ParseException("Unknown comparison operator: " + symbol);
+    }
+
+    boolean test(int comparison) {
+      switch(this) {
+        case EQ:
+          return comparison == 0;
+        case NEQ:
+          return comparison != 0;
+        case LT:
+          return comparison < 0;
+        case LTE:
+          return comparison <= 0;
+        case GT:
+          return comparison > 0;
+        default:
+          return comparison >= 0;
+      }
+    }
+  }
+
+  private final Operator operator;
+  private final Expression left;
+  private final Expression right;
+
+  public ComparisonExpression(Operator operator, Expression left, Expression right) {
+    this.operator = operator;
+    this.left = left;
+    this.right = right;
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  public Expression getLeft() {
+    return left;
+  }
+
+  public Expression getRight() {
+    return right;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    Object l = left.evaluate(state);
+    Object r = right.evaluate(state);
+    if(l instanceof Number && r instanceof Number) {
+      if(isIntegral(l) && isIntegral(r)) {
+        return operator.test(Long.compare(((Number) l).longValue(), ((Number) r).longValue()));
+      }
+      return compareDouble(((Number) l).doubleValue(), ((Number) r).doubleValue());
+    }
+    String lStr = l == null ? "" : l.toString();
+    String rStr = r == null ? "" : r.toString();
+    return operator.test(lStr.compareTo(rStr));
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+  }
+
+  private boolean compareDouble(double l, double r) {
+    switch(operator) {
+      case EQ:
+        return Math.abs(l - r) < 1e-6;
+      case NEQ:
+        return Math.abs(l - r) >= 1e-6;
+      default:
+        return operator.test(Double.compare(l, r));
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ComparisonExpression that = (ComparisonExpression) o;
+    return Objects.equals(operator, that.operator) &&
+           Objects.equals(left, that.left) &&
+           Objects.equals(right, that.right);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(operator, left, right);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + left + " " + operator.getSymbol() + " " + right + ")";
+  }
+}
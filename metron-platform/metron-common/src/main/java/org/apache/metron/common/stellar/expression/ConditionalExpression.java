@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.util.Objects;
+
+/**
+ * The ternary operator; both `if c then a else b` and `c ? a : b`.  Only the
+ * branch selected by the condition is evaluated.
+ */
+public class ConditionalExpression implements Expression {
+
+  private final Expression condition;
+  private final Expression thenExpression;
+  private final Expression elseExpression;
+
+  public ConditionalExpression(Expression condition, Expression thenExpression, Expression elseExpression) {
+    this.condition = condition;
+    this.thenExpression = thenExpression;
+    this.elseExpression = elseExpression;
+  }
+
+  public Expression getCondition() {
+    return condition;
+  }
+
+  public Expression getThenExpression() {
+    return thenExpression;
+  }
+
+  public Expression getElseExpression() {
+    return elseExpression;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    boolean b = (Boolean) condition.evaluate(state);
+    return b ? thenExpression.evaluate(state) : elseExpression.evaluate(state);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ConditionalExpression that = (ConditionalExpression) o;
+    return Objects.equals(condition, that.condition) &&
+           Objects.equals(thenExpression, that.thenExpression) &&
+           Objects.equals(elseExpression, that.elseExpression);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(condition, thenExpression, elseExpression);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + condition + " ? " + thenExpression + " : " + elseExpression + ")";
+  }
+}
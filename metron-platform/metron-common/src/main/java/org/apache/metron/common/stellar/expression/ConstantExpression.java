@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.util.Objects;
+
+/**
+ * A literal value.
+ */
+public class ConstantExpression implements Expression {
+
+  private final Object value;
+
+  public ConstantExpression(Object value) {
+    this.value = value;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ConstantExpression that = (ConstantExpression) o;
+    return Objects.equals(value, that.value) &&
+           (value == null || value.getClass().equals(that.value.getClass()));
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(value);
+  }
+
+  @Override
+  public String toString() {
+    return value instanceof String ? "'" + value + "'" : String.valueOf(value);
+  }
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.util.Objects;
+
+/**
+ * The `exists(variable)` test.
+ */
+public class ExistsExpression implements Expression {
+
+  private final String name;
+  private final int slot;
+
+  public ExistsExpression(String name) {
+    this(name, -1);
+  }
+
+  /**
+   * @param name The name of the variable.
+   * @param slot The slot assigned to the variable, or -1 if its value must be resolved on every reference.
+   */
+  public ExistsExpression(String name, int slot) {
+    this.name = name;
+    this.slot = slot;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    return state.resolve(slot, name) != null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ExistsExpression that = (ExistsExpression) o;
+    return slot == that.slot && Objects.equals(name, that.name);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, slot);
+  }
+
+  @Override
+  public String toString() {
+    return "exists(" + name + ")";
+  }
+}
@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.io.Serializable;
+
+/**
+ * A node in a compiled Stellar expression tree.
+ *
+ * Expressions are immutable once compiled and hold no per-evaluation state, so a
+ * single tree can be shared and evaluated concurrently by any number of threads.
+ */
+public interface Expression extends Serializable {
+
+  /**
+   * Evaluates the expression.
+   * @param state The state (variables, functions and context) of this evaluation.
+   * @return The value of the expression.
+   */
+  Object evaluate(ExpressionState state);
+}
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import com.google.common.base.Joiner;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.budget.BudgetExceededException;
+import org.apache.metron.common.stellar.budget.StellarBudget;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * The state of a single evaluation of a compiled Stellar expression.
+ *
+ * A new state is created for each evaluation; it is never shared between threads.
+ */
+public class ExpressionState {
+
+  private VariableResolver variableResolver;
+  private FunctionResolver functionResolver;
+  private Context context;
+  private StellarMetrics metrics;
+  private StellarBudget budget;
+
+  /**
+   * The budget of the statement being evaluated; the time by which it must complete and
+   * the number of functions that it has called.
+   */
+  private long deadline;
+  private long functionCalls;
+
+  /**
+   * The values of common sub-expressions that have already been evaluated.
+   */
+  private Object[] memo;
+  private boolean[] memoized;
+
+  /**
+   * The values of variables that have been assigned slots, resolved on their first reference.
+   */
+  private Object[] variables;
+  private boolean[] resolved;
+
+  /**
+   * The results of function calls that were evaluated for a whole batch of messages.
+   */
+  private Map<Expression, Object> prefetched;
+
+  /**
+   * The numeric register; holds the primitive result of an arithmetic operation so that
+   * nested operations do not box their intermediate values.
+   */
+  long longValue;
+  double doubleValue;
+
+  public ExpressionState(VariableResolver variableResolver, FunctionResolver functionResolver, Context context) {
+    this(variableResolver, functionResolver, context, 0, 0);
+  }
+
+  /**
+   * @param memoSize The number of common sub-expression slots required by the expressions evaluated.
+   * @param variableSlots The number of variable slots required by the expressions evaluated.
+   */
+  public ExpressionState( VariableResolver variableResolver
+                        , FunctionResolver functionResolver
+                        , Context context
+                        , int memoSize
+                        , int variableSlots
+                        )
+  {
+    this.variableResolver = variableResolver;
+    this.functionResolver = functionResolver;
+    this.context = context;
+    this.metrics = StellarMetrics.get(context);
+    this.budget = StellarBudget.get(context);
+    this.memo = new Object[memoSize];
+    this.memoized = new boolean[memoSize];
+    this.variables = new Object[variableSlots];
+    this.resolved = new boolean[variableSlots];
+  }
+
+  public VariableResolver getVariableResolver() {
+    return variableResolver;
+  }
+
+  public FunctionResolver getFunctionResolver() {
+    return functionResolver;
+  }
+
+  public Context getContext() {
+    return context;
+  }
+
+  /**
+   * The metrics that the evaluation records, or null if it records none.
+   */
+  public StellarMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * The budget that limits the evaluation, or null if it is unlimited.
+   */
+  public StellarBudget getBudget() {
+    return budget;
+  }
+
+  /**
+   * Starts the budget of a statement.
+   */
+  public void startBudget() {
+    if (budget != null) {
+      deadline = System.nanoTime() + budget.getMaxTimeNanos();
+      functionCalls = 0;
+    }
+  }
+
+  /**
+   * Ensures that the statement being evaluated has not run out of time.
+   * @throws BudgetExceededException If it has.
+   */
+  public void checkBudget() {
+    if (budget != null && budget.getMaxTimeNanos() > 0 && System.nanoTime() - deadline > 0) {
+      throw new BudgetExceededException(format("Exceeded the time budget of %d ms"
+                                              , TimeUnit.NANOSECONDS.toMillis(budget.getMaxTimeNanos())));
+    }
+  }
+
+  /**
+   * Counts a function call against the budget of the statement being evaluated.
+   * @param functionName The name of the function about to be called.
+   * @throws BudgetExceededException If the statement may not call the function.
+   */
+  void chargeFunctionCall(String functionName) {
+    if (budget == null) {
+      return;
+    }
+    if (budget.getMaxFunctionCalls() > 0 && ++functionCalls > budget.getMaxFunctionCalls()) {
+      throw new BudgetExceededException(format("Exceeded the budget of %d function calls when calling %s"
+                                              , budget.getMaxFunctionCalls(), functionName));
+    }
+    checkBudget();
+  }
+
+  /**
+   * Resolves the value of a variable.
+   * @param variable The name of the variable.
+   */
+  public Object resolve(String variable) {
+    return variableResolver.resolve(variable);
+  }
+
+  /**
+   * Resolves the value of a variable that has been assigned a slot.  The variable is resolved
+   * on its first reference and served from its slot thereafter.
+   * @param slot The slot assigned to the variable, or -1 if it has none.
+   * @param variable The name of the variable.
+   */
+  public Object resolve(int slot, String variable) {
+    if (slot < 0 || slot >= variables.length) {
+      return resolve(variable);
+    }
+    if (!resolved[slot]) {
+      variables[slot] = resolve(variable);
+      resolved[slot] = true;
+    }
+    return variables[slot];
+  }
+
+  /**
+   * Returns the value of a common sub-expression, evaluating it only the first time it is needed.
+   * @param slot The memo slot assigned to the sub-expression.
+   * @param expression The sub-expression.
+   */
+  public Object memoize(int slot, Expression expression) {
+    if (!memoized[slot]) {
+      memo[slot] = expression.evaluate(this);
+      memoized[slot] = true;
+    }
+    return memo[slot];
+  }
+
+  /**
+   * Records the result of a function call that was evaluated ahead of time.
+   * @param call The function call.
+   * @param value The result of the call for this evaluation.
+   */
+  void prefetch(Expression call, Object value) {
+    if (prefetched == null) {
+      prefetched = new IdentityHashMap<>();
+    }
+    prefetched.put(call, value);
+  }
+
+  boolean isPrefetched(Expression call) {
+    return prefetched != null && prefetched.containsKey(call);
+  }
+
+  Object getPrefetched(Expression call) {
+    return prefetched.get(call);
+  }
+
+  /**
+   * Discards the results of function calls that were evaluated ahead of time.  The results are
+   * only valid for the evaluation of the statement that they were prefetched for.
+   */
+  public void clearPrefetched() {
+    prefetched = null;
+  }
+
+  /**
+   * Resolves a function by name and ensures that it has been initialized.
+   * @param functionName The name of the function.
+   */
+  public StellarFunction resolveFunction(String functionName) {
+    StellarFunction function;
+    try {
+      function = functionResolver.apply(functionName);
+
+    } catch (Exception e) {
+      String valid = Joiner.on(',').join(functionResolver.getFunctions());
+      String error = format("Unable to resolve function named '%s'.  Valid functions are %s", functionName, valid);
+      throw new ParseException(error, e);
+    }
+
+    try {
+      if (!function.isInitialized()) {
+        function.initialize(context);
+      }
+    } catch (Throwable t) {
+      String error = format("Unable to initialize function '%s'", functionName);
+      throw new ParseException(error, t);
+    }
+    return function;
+  }
+}
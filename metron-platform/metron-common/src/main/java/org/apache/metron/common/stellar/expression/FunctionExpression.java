@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import org.apache.metron.common.dsl.CallSite;
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.dsl.SpecializableFunction;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A call to a Stellar function.  The function is looked up by name in the
+ * evaluation's function resolver, so a compiled expression is not tied to any
+ * particular resolver.
+ *
+ * The function is bound to the call the first time it is evaluated with a resolver
+ * and reused while the same resolver is used.  A {@link SpecializableFunction} called
+ * with constant arguments is specialized for the call when it is bound.
+ *
+ * The result of a call to a {@link org.apache.metron.common.dsl.BatchStellarFunction}
+ * may have been evaluated ahead of time for a batch of messages; see {@link BatchPrefetch}.
+ */
+public class FunctionExpression implements Expression {
+
+  private static final String UNABLE_TO_EXECUTE = "Unable to execute: ";
+
+  /**
+   * The function bound to the call for a particular resolver.
+   */
+  private static class Binding {
+    private final WeakReference<FunctionResolver> functionResolver;
+    private final StellarFunction function;
+
+    Binding(FunctionResolver functionResolver, StellarFunction function) {
+      this.functionResolver = new WeakReference<>(functionResolver);
+      this.function = function;
+    }
+  }
+
+  private final String functionName;
+  private final List<Expression> arguments;
+
+  /**
+   * Binding is idempotent, so a race between threads only results in a redundant lookup.
+   */
+  private transient volatile Binding binding;
+
+  public FunctionExpression(String functionName, List<Expression> arguments) {
+    this.functionName = functionName;
+    this.arguments = ImmutableList.copyOf(arguments);
+  }
+
+  public String getFunctionName() {
+    return functionName;
+  }
+
+  public List<Expression> getArguments() {
+    return arguments;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    if (state.isPrefetched(this)) {
+      return state.getPrefetched(this);
+    }
+    StellarFunction function = bind(state);
+    List<Object> args = new ArrayList<>(arguments.size());
+    for(Expression argument : arguments) {
+      args.add(argument.evaluate(state));
+    }
+    state.chargeFunctionCall(functionName);
+    StellarMetrics metrics = state.getMetrics();
+    boolean sampled = metrics != null && metrics.sample();
+    long start = sampled ? System.nanoTime() : 0;
+    try {
+      return function.apply(args, state.getContext());
+    }
+    catch(Throwable t) {
+      // a function that evaluated another expression may have failed with a message that is already wrapped
+      if (t instanceof ParseException && t.getMessage() != null && t.getMessage().startsWith(UNABLE_TO_EXECUTE)) {
+        throw (ParseException) t;
+      }
+      throw new ParseException(UNABLE_TO_EXECUTE + t.getMessage(), t);
+    }
+    finally {
+      if (metrics != null) {
+        metrics.recordFunction(functionName, sampled ? System.nanoTime() - start : -1);
+      }
+    }
+  }
+
+  StellarFunction bind(ExpressionState state) {
+    Binding current = binding;
+    if (current != null && current.functionResolver.get() == state.getFunctionResolver()) {
+      return current.function;
+    }
+
+    StellarFunction function = state.resolveFunction(functionName);
+    if (function instanceof SpecializableFunction) {
+      StellarFunction specialized = specialize((SpecializableFunction) function, state);
+      if (specialized != null) {
+        function = specialized;
+      }
+    }
+    binding = new Binding(state.getFunctionResolver(), function);
+    return function;
+  }
+
+  private StellarFunction specialize(SpecializableFunction function, ExpressionState state) {
+    List<Object> constants = new ArrayList<>(arguments.size());
+    boolean[] constant = new boolean[arguments.size()];
+    boolean anyConstant = false;
+    for (int i = 0; i < arguments.size(); i++) {
+      Expression argument = arguments.get(i);
+      constant[i] = argument instanceof ConstantExpression;
+      constants.add(constant[i] ? ((ConstantExpression) argument).getValue() : null);
+      anyConstant |= constant[i];
+    }
+    if (!anyConstant) {
+      return null;
+    }
+    try {
+      return function.specialize(new CallSite(constants, constant), state.getContext());
+    }
+    catch(RuntimeException e) {
+      // the error, if any, will surface when the function is called
+      return null;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    FunctionExpression that = (FunctionExpression) o;
+    return Objects.equals(functionName, that.functionName) &&
+           Objects.equals(arguments, that.arguments);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(functionName, arguments);
+  }
+
+  @Override
+  public String toString() {
+    return functionName + "(" + Joiner.on(", ").join(arguments) + ")";
+  }
+}
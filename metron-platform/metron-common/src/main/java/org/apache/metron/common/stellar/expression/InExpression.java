@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * The `in` and `not in` membership tests.  A non-collection right hand side is
+ * treated as a singleton; a null left hand side is never a member.
+ *
+ * The collection is not evaluated at all when the key is null.  When the collection
+ * is a list literal, its elements are evaluated one at a time and evaluation stops at
+ * the first match.
+ */
+public class InExpression implements Expression {
+
+  private final Expression key;
+  private final Expression collection;
+  private final boolean negated;
+
+  public InExpression(Expression key, Expression collection, boolean negated) {
+    this.key = key;
+    this.collection = collection;
+    this.negated = negated;
+  }
+
+  public Expression getKey() {
+    return key;
+  }
+
+  public Expression getCollection() {
+    return collection;
+  }
+
+  public boolean isNegated() {
+    return negated;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    Object k = key.evaluate(state);
+    if (k == null) {
+      return negated;
+    }
+    if (collection instanceof ListExpression) {
+      return negated != containsLazily((ListExpression) collection, k, state);
+    }
+    return negated != contains(collection.evaluate(state), k);
+  }
+
+  private static boolean containsLazily(ListExpression list, Object key, ExpressionState state) {
+    for (Expression element : list.getElements()) {
+      if (key.equals(element.evaluate(state))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean contains(Object collection, Object key) {
+    if (collection instanceof Collection) {
+      return ((Collection<?>) collection).contains(key);
+    }
+    return key.equals(collection);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    InExpression that = (InExpression) o;
+    return Objects.equals(key, that.key) &&
+           Objects.equals(collection, that.collection) &&
+           Objects.equals(negated, that.negated);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, collection, negated);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + key + (negated ? " not in " : " in ") + collection + ")";
+  }
+}
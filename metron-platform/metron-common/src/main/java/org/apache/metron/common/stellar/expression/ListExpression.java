@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A list literal; e.g. `[ 'a', foo, TO_UPPER(bar) ]`.
+ */
+public class ListExpression implements Expression {
+
+  private final List<Expression> elements;
+
+  public ListExpression(List<Expression> elements) {
+    this.elements = ImmutableList.copyOf(elements);
+  }
+
+  public List<Expression> getElements() {
+    return elements;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    List<Object> ret = new ArrayList<>(elements.size());
+    for(Expression element : elements) {
+      ret.add(element.evaluate(state));
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ListExpression that = (ListExpression) o;
+    return Objects.equals(elements, that.elements);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(elements);
+  }
+
+  @Override
+  public String toString() {
+    return "[" + Joiner.on(", ").join(elements) + "]";
+  }
+}
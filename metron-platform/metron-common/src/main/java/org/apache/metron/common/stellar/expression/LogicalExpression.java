@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.stellar.BooleanOp;
+import org.apache.metron.common.utils.ConversionUtils;
+
+import java.util.Objects;
+
+/**
+ * The `and` and `or` operators.  Both short-circuit; the right operand is only
+ * evaluated when the left operand does not already determine the result.
+ */
+public class LogicalExpression implements Expression {
+
+  public enum Operator implements BooleanOp {
+    AND("&&", false) {
+      @Override
+      public boolean op(boolean left, boolean right) {
+        return left && right;
+      }
+    }
+    , OR("||", true) {
+      @Override
+      public boolean op(boolean left, boolean right) {
+        return left || right;
+      }
+    };
+
+    private String symbol;
+    private boolean shortCircuitValue;
+
+    Operator(String symbol, boolean shortCircuitValue) {
+      this.symbol = symbol;
+      this.shortCircuitValue = shortCircuitValue;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+
+    /**
+     * The value of the left operand that determines the result without evaluating the right operand.
+     */
+    public boolean getShortCircuitValue() {
+      return shortCircuitValue;
+    }
+  }
+
+  private final Operator operator;
+  private final Expression left;
+  private final Expression right;
+
+  public LogicalExpression(Operator operator, Expression left, Expression right) {
+    this.operator = operator;
+    this.left = left;
+    this.right = right;
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  public Expression getLeft() {
+    return left;
+  }
+
+  public Expression getRight() {
+    return right;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    Object lValue = left.evaluate(state);
+    Boolean l = ConversionUtils.convert(lValue, Boolean.class);
+    if (l == null) {
+      throw new ParseException("Unable to operate on " + lValue + " " + operator.getSymbol() + " " + right + ", null value");
+    }
+    if (l == operator.getShortCircuitValue()) {
+      return l;
+    }
+    Object rValue = right.evaluate(state);
+    Boolean r = ConversionUtils.convert(rValue, Boolean.class);
+    if (r == null) {
+      throw new ParseException("Unable to operate on " + lValue + " " + operator.getSymbol() + " " + rValue + ", null value");
+    }
+    return operator.op(l, r);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    LogicalExpression that = (LogicalExpression) o;
+    return Objects.equals(operator, that.operator) &&
+           Objects.equals(left, that.left) &&
+           Objects.equals(right, that.right);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(operator, left, right);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + left + " " + operator.getSymbol() + " " + right + ")";
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A map literal; e.g. `{ 'foo' : 1, 'bar' : bar }`.  Keys are converted to strings.
+ */
+public class MapExpression implements Expression {
+
+  private final List<Expression> keys;
+  private final List<Expression> values;
+
+  public MapExpression(List<Expression> keys, List<Expression> values) {
+    if(keys.size() != values.size()) {
+      throw new IllegalArgumentException("A map requires a value for each key.");
+    }
+    this.keys = ImmutableList.copyOf(keys);
+    this.values = ImmutableList.copyOf(values);
+  }
+
+  public List<Expression> getKeys() {
+    return keys;
+  }
+
+  public List<Expression> getValues() {
+    return values;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    Map<String, Object> ret = new HashMap<>();
+    for(int i = 0;i < keys.size();++i) {
+      ret.put(keys.get(i).evaluate(state) + "", values.get(i).evaluate(state));
+    }
+    return ret;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    MapExpression that = (MapExpression) o;
+    return Objects.equals(keys, that.keys) &&
+           Objects.equals(values, that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(keys, values);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder ret = new StringBuilder("{");
+    for(int i = 0;i < keys.size();++i) {
+      ret.append(i == 0 ? "" : ", ").append(keys.get(i)).append(" : ").append(values.get(i));
+    }
+    return ret.append("}").toString();
+  }
+}
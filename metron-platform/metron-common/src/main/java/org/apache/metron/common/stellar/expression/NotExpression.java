@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.expression;
+
+import java.util.Objects;
+
+/**
+ * Logical negation; `not(expression)`.
+ */
+public class NotExpression implements Expression {
+
+  private final Expression operand;
+
+  public NotExpression(Expression operand) {
+    this.operand = operand;
+  }
+
+  public Expression getOperand() {
+    return operand;
+  }
+
+  @Override
+  public Object evaluate(ExpressionState state) {
+    return !(Boolean) operand.evaluate(state);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    NotExpression that = (NotExpression) o;
+    return Objects.equals(operand, that.operand);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(operand);
+  }
+
+  @Override
+  public String toString() {
+    return "not(" + operand + ")";
+  }
+}
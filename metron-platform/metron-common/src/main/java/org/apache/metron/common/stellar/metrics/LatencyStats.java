@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The number of calls to an expression or function and a histogram of the latency of the calls
+ * that were sampled.
+ *
+ * The histogram has a bucket for each power of two microseconds, so percentiles are reported as
+ * the upper bound of the bucket that they fall in.  All updates are lock free.
+ */
+public class LatencyStats {
+
+  /**
+   * The number of histogram buckets; the last holds every latency of about half an hour or more.
+   */
+  static final int BUCKETS = 32;
+
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder sampled = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+  public LatencyStats() {
+    for (int i = 0; i < BUCKETS; i++) {
+      histogram[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a call.
+   * @param nanos The latency of the call, or a negative number if the call was not sampled.
+   */
+  public void record(long nanos) {
+    calls.increment();
+    if (nanos >= 0) {
+      sampled.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+      histogram[bucket(nanos)].increment();
+    }
+  }
+
+  static int bucket(long nanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  /**
+   * The upper bound of a bucket in microseconds.
+   */
+  static long upperBound(int bucket) {
+    return 1L << bucket;
+  }
+
+  /**
+   * The statistics recorded; the latencies are in microseconds.
+   * @param reset Whether to start counting afresh.
+   */
+  public Map<String, Object> snapshot(boolean reset) {
+    long count = reset ? calls.sumThenReset() : calls.sum();
+    long samples = reset ? sampled.sumThenReset() : sampled.sum();
+    long total = reset ? totalNanos.sumThenReset() : totalNanos.sum();
+    long max = reset ? maxNanos.getThenReset() : maxNanos.get();
+    long[] buckets = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = reset ? histogram[i].sumThenReset() : histogram[i].sum();
+    }
+
+    Map<String, Object> ret = new LinkedHashMap<>();
+    ret.put("count", count);
+    ret.put("sampled", samples);
+    ret.put("mean_us", samples == 0 ? 0.0 : total / 1000.0 / samples);
+    ret.put("max_us", TimeUnit.NANOSECONDS.toMicros(max));
+    ret.put("p50_us", percentile(buckets, samples, 0.50));
+    ret.put("p90_us", percentile(buckets, samples, 0.90));
+    ret.put("p99_us", percentile(buckets, samples, 0.99));
+    return ret;
+  }
+
+  private static long percentile(long[] buckets, long samples, double p) {
+    if (samples == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(p * samples);
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return upperBound(i);
+      }
+    }
+    return upperBound(buckets.length - 1);
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.metrics;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.TopologyContext;
+
+import java.util.Map;
+
+/**
+ * Reports {@link StellarMetrics} as a Storm metric.  Each report holds the metrics recorded since
+ * the previous report.
+ */
+public class StellarMetric implements IMetric {
+
+  public static final String METRIC_NAME = "stellar";
+
+  private final StellarMetrics metrics;
+
+  public StellarMetric(StellarMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Records the metrics of the Stellar evaluations of a bolt, if enabled by the global configuration,
+   * and registers them as a Storm metric.
+   * @param globalConfig The global configuration.
+   * @param stellarContext The context that the bolt evaluates Stellar with.
+   * @param topologyContext The topology context of the bolt.
+   * @return The metrics, or null if metrics are not enabled.
+   */
+  public static StellarMetrics register(Map<String, Object> globalConfig, Context stellarContext, TopologyContext topologyContext) {
+    StellarMetrics metrics = StellarMetrics.create(globalConfig);
+    if (metrics != null) {
+      if (stellarContext != null) {
+        metrics.addTo(stellarContext);
+      }
+      topologyContext.registerMetric(METRIC_NAME, new StellarMetric(metrics), StellarMetrics.getInterval(globalConfig));
+    }
+    return metrics;
+  }
+
+  @Override
+  public Object getValueAndReset() {
+    return metrics.getMetrics(true);
+  }
+}
@@ -0,0 +1,244 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.metrics;
+
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.utils.ConversionUtils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution metrics for Stellar; the number of times that each expression and each function is
+ * evaluated, the latency of a sample of those evaluations and the cache hits and misses of each
+ * cacheable function.
+ *
+ * Metrics are recorded for every evaluation whose {@link Context} has the
+ * {@link Context.Capabilities#STELLAR_METRICS} capability.  Every call is counted, but only a
+ * fraction of the calls, given by the sample rate, are timed so that the overhead stays small.
+ *
+ * Metrics are enabled with the following global configuration properties.
+ * <ul>
+ *   <li>stellar.metrics.enabled - Whether metrics are recorded; false by default.</li>
+ *   <li>stellar.metrics.sample.rate - The fraction of calls that are timed; 0.01 by default.</li>
+ *   <li>stellar.metrics.interval.secs - How often the metrics are reported, in seconds; 60 by default.</li>
+ * </ul>
+ */
+public class StellarMetrics {
+
+  public static final String METRICS_ENABLED_KEY = "stellar.metrics.enabled";
+  public static final String METRICS_SAMPLE_RATE_KEY = "stellar.metrics.sample.rate";
+  public static final String METRICS_INTERVAL_KEY = "stellar.metrics.interval.secs";
+  public static final double DEFAULT_SAMPLE_RATE = 0.01;
+  public static final int DEFAULT_INTERVAL_SECS = 60;
+
+  private final double sampleRate;
+  private final ConcurrentMap<String, LatencyStats> expressions = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LatencyStats> functions = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> cacheHits = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> cacheMisses = new ConcurrentHashMap<>();
+
+  /**
+   * @param sampleRate The fraction of calls that are timed; 1.0 times every call.
+   */
+  public StellarMetrics(double sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  /**
+   * Creates metrics as configured.
+   * @param config The global configuration.
+   * @return The metrics, or null if metrics are not enabled.
+   */
+  public static StellarMetrics create(Map<String, Object> config) {
+    if (config == null) {
+      return null;
+    }
+    Boolean enabled = ConversionUtils.convert(config.get(METRICS_ENABLED_KEY), Boolean.class);
+    if (enabled == null || !enabled) {
+      return null;
+    }
+    Double sampleRate = ConversionUtils.convert(config.get(METRICS_SAMPLE_RATE_KEY), Double.class);
+    return new StellarMetrics(sampleRate == null ? DEFAULT_SAMPLE_RATE : sampleRate);
+  }
+
+  /**
+   * How often the metrics are reported, in seconds.
+   * @param config The global configuration.
+   */
+  public static int getInterval(Map<String, Object> config) {
+    Integer interval = config == null ? null : ConversionUtils.convert(config.get(METRICS_INTERVAL_KEY), Integer.class);
+    return interval == null ? DEFAULT_INTERVAL_SECS : interval;
+  }
+
+  /**
+   * The metrics of a context.
+   * @return The metrics, or null if the context does not record metrics.
+   */
+  public static StellarMetrics get(Context context) {
+    if (context == null) {
+      return null;
+    }
+    return (StellarMetrics) context.getCapability(Context.Capabilities.STELLAR_METRICS, false).orElse(null);
+  }
+
+  /**
+   * Records the metrics of every evaluation with a context.
+   */
+  public void addTo(Context context) {
+    context.addCapability(Context.Capabilities.STELLAR_METRICS, () -> this);
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Decides whether a call is timed.
+   */
+  public boolean sample() {
+    return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+
+  /**
+   * Records an evaluation of an expression.
+   * @param expression The text of the expression.
+   * @param nanos The latency of the evaluation, or a negative number if it was not sampled.
+   */
+  public void recordExpression(String expression, long nanos) {
+    stats(expressions, expression).record(nanos);
+  }
+
+  /**
+   * Records a call to a function.
+   * @param function The name of the function.
+   * @param nanos The latency of the call, or a negative number if it was not sampled.
+   */
+  public void recordFunction(String function, long nanos) {
+    stats(functions, function).record(nanos);
+  }
+
+  /**
+   * Records a call to a cacheable function whose result was found in the cache.
+   * @param function The name of the function.
+   */
+  public void recordCacheHit(String function) {
+    counter(cacheHits, function).increment();
+  }
+
+  /**
+   * Records a call to a cacheable function whose result was not found in the cache.
+   * @param function The name of the function.
+   */
+  public void recordCacheMiss(String function) {
+    counter(cacheMisses, function).increment();
+  }
+
+  private static LongAdder counter(ConcurrentMap<String, LongAdder> counters, String name) {
+    LongAdder ret = counters.get(name);
+    if (ret == null) {
+      ret = counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+    return ret;
+  }
+
+  private static LatencyStats stats(ConcurrentMap<String, LatencyStats> stats, String name) {
+    LatencyStats ret = stats.get(name);
+    if (ret == null) {
+      ret = stats.computeIfAbsent(name, k -> new LatencyStats());
+    }
+    return ret;
+  }
+
+  /**
+   * The metrics of each expression, keyed by the text of the expression.
+   * @param reset Whether to start counting afresh.
+   */
+  public Map<String, Map<String, Object>> getExpressionMetrics(boolean reset) {
+    return snapshot(expressions, reset);
+  }
+
+  /**
+   * The metrics of each function, keyed by the name of the function.
+   * @param reset Whether to start counting afresh.
+   */
+  public Map<String, Map<String, Object>> getFunctionMetrics(boolean reset) {
+    return snapshot(functions, reset);
+  }
+
+  /**
+   * The cache hits and misses of each cacheable function, keyed by the name of the function.
+   * @param reset Whether to start counting afresh.
+   */
+  public Map<String, Map<String, Object>> getCacheMetrics(boolean reset) {
+    Map<String, Map<String, Object>> ret = new TreeMap<>();
+    count(cacheHits, "hits", reset, ret);
+    count(cacheMisses, "misses", reset, ret);
+    for (Map<String, Object> counts : ret.values()) {
+      counts.putIfAbsent("hits", 0L);
+      counts.putIfAbsent("misses", 0L);
+    }
+    return ret;
+  }
+
+  private static void count(ConcurrentMap<String, LongAdder> counters, String stat, boolean reset, Map<String, Map<String, Object>> ret) {
+    for (Map.Entry<String, LongAdder> kv : counters.entrySet()) {
+      long count = reset ? kv.getValue().sumThenReset() : kv.getValue().sum();
+      if (!reset || count > 0) {
+        ret.computeIfAbsent(kv.getKey(), k -> new TreeMap<>()).put(stat, count);
+      }
+    }
+  }
+
+  /**
+   * All of the metrics as a flat map; for example, "function.TO_UPPER.count", "expression.foo + 1.p99_us"
+   * or "cache.URL_TO_HOST.hits".
+   * @param reset Whether to start counting afresh.
+   */
+  public Map<String, Object> getMetrics(boolean reset) {
+    Map<String, Object> ret = new TreeMap<>();
+    flatten("expression.", getExpressionMetrics(reset), ret);
+    flatten("function.", getFunctionMetrics(reset), ret);
+    flatten("cache.", getCacheMetrics(reset), ret);
+    return ret;
+  }
+
+  private static void flatten(String prefix, Map<String, Map<String, Object>> metrics, Map<String, Object> ret) {
+    for (Map.Entry<String, Map<String, Object>> stats : metrics.entrySet()) {
+      for (Map.Entry<String, Object> stat : stats.getValue().entrySet()) {
+        ret.put(prefix + stats.getKey() + "." + stat.getKey(), stat.getValue());
+      }
+    }
+  }
+
+  private static Map<String, Map<String, Object>> snapshot(ConcurrentMap<String, LatencyStats> stats, boolean reset) {
+    Map<String, Map<String, Object>> ret = new TreeMap<>();
+    for (Map.Entry<String, LatencyStats> kv : stats.entrySet()) {
+      Map<String, Object> snapshot = kv.getValue().snapshot(reset);
+      if (!reset || (Long) snapshot.get("count") > 0) {
+        ret.put(kv.getKey(), snapshot);
+      }
+    }
+    return ret;
+  }
+}
@@ -34,6 +34,7 @@ import org.apache.metron.common.dsl.StellarFunctions;
 import org.apache.metron.common.dsl.VariableResolver;
 import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
 import org.apache.metron.common.stellar.StellarProcessor;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
 import org.apache.metron.common.utils.JSONUtils;
 import org.jboss.aesh.console.Console;
 
@@ -115,6 +116,11 @@ public class StellarExecutor {
    */
   private Context context;
 
+  /**
+   * The metrics of the expressions executed; every execution is timed.
+   */
+  private StellarMetrics metrics;
+
   private Console console;
 
   public enum OperationType {
@@ -168,6 +174,8 @@ public class StellarExecutor {
     this.variables = new HashMap<>();
     this.client = createClient(zookeeperUrl);
     this.context = createContext(properties);
+    this.metrics = new StellarMetrics(1.0);
+    this.metrics.addTo(this.context);
 
     // initialize the default function resolver
     StellarFunctions.initialize(this.context);
@@ -203,6 +211,7 @@ public class StellarExecutor {
     index.put("quit", AutoCompleteType.TOKEN);
     index.put(StellarShell.MAGIC_FUNCTIONS, AutoCompleteType.FUNCTION);
     index.put(StellarShell.MAGIC_VARS, AutoCompleteType.FUNCTION);
+    index.put(StellarShell.MAGIC_METRICS, AutoCompleteType.FUNCTION);
     return new PatriciaTrie<>(index);
   }
 
@@ -306,5 +315,9 @@ public class StellarExecutor {
   public Context getContext() {
     return context;
   }
+
+  public StellarMetrics getMetrics() {
+    return metrics;
+  }
 }
 
@@ -33,6 +33,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.StellarFunctionInfo;
 import org.apache.metron.common.dsl.functions.resolver.ClasspathFunctionResolver;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
 import org.apache.metron.common.utils.JSONUtils;
 import org.jboss.aesh.complete.CompleteOperation;
 import org.jboss.aesh.complete.Completion;
@@ -87,6 +88,7 @@ public class StellarShell extends AeshConsoleCallback implements Completion {
   public static final String MAGIC_PREFIX = "%";
   public static final String MAGIC_FUNCTIONS = MAGIC_PREFIX + "functions";
   public static final String MAGIC_VARS = MAGIC_PREFIX + "vars";
+  public static final String MAGIC_METRICS = MAGIC_PREFIX + "metrics";
   public static final String DOC_PREFIX = "?";
   public static final String STELLAR_PROPERTIES_FILENAME = "stellar.properties";
 
@@ -305,6 +307,15 @@ public class StellarShell extends AeshConsoleCallback implements Completion {
       executor.getVariables()
               .forEach((k,v) -> writeLine(String.format("%s = %s", k, v)));
 
+    } else if(MAGIC_METRICS.equals(expression)) {
+
+      // list the execution metrics of each expression and function
+      StellarMetrics metrics = executor.getMetrics();
+      metrics.getExpressionMetrics(false)
+              .forEach((k,v) -> writeLine(String.format("%s : %s", k, v)));
+      metrics.getFunctionMetrics(false)
+              .forEach((k,v) -> writeLine(String.format("%s() : %s", k, v)));
+
     } else {
       writeLine(ERROR_PROMPT + "undefined magic command: " + expression);
     }
@@ -0,0 +1,599 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.utils.timestamp;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.io.Serializable;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.TimeZone;
+
+/**
+ * Parses timestamps in a given format to milliseconds since the epoch.
+ *
+ * Formats are java.time patterns (see {@link DateTimeFormatter}), parsed and resolved leniently
+ * and case-insensitively in English.  Formats that are configured as SimpleDateFormat patterns are
+ * translated with {@link #ofSimpleDateFormat(String, ZoneId)}, so that they keep their meaning.  As with SimpleDateFormat, text after the timestamp is
+ * ignored, fields missing from the format default to 1970-01-01T00:00, and a day of the
+ * month that follows a space may be padded with a space, as syslog timestamps are.  A
+ * timestamp without a zone or offset of its own is in the zone of the parser.
+ *
+ * Parsers are immutable apart from their caches, thread-safe and shared; get one with
+ * {@link #of(String, ZoneId)}.  Messages tend to arrive in time order, so a parser remembers
+ * the minute of the last timestamp that it parsed.  A timestamp in the same minute is parsed by
+ * decoding only its seconds and fraction, provided that the format ends with the minutes,
+ * seconds and an optional fraction and has no zone or offset.
+ */
+public class TimestampParser implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final Locale LOCALE = Locale.ENGLISH;
+
+  /**
+   * Tokens translated from a SimpleDateFormat pattern that have no java.time pattern.  Braces are
+   * reserved in java.time patterns, so these cannot be confused with the tokens of one.
+   */
+  private static final String MILLIS = "{S}";
+  private static final String DAY_OF_WEEK = "{u}";
+  private static final String TWO_DIGIT_YEAR = "{yy}";
+
+  /**
+   * The letters of a SimpleDateFormat pattern.
+   */
+  private static final String SIMPLE_DATE_FORMAT_LETTERS = "GyYMLwWDdFEuaHkKhmsSzZX";
+
+  private static class Key {
+    private final String pattern;
+    private final ZoneId zone;
+    private final boolean simpleDateFormat;
+
+    Key(String pattern, ZoneId zone, boolean simpleDateFormat) {
+      this.pattern = pattern;
+      this.zone = zone;
+      this.simpleDateFormat = simpleDateFormat;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return pattern.equals(key.pattern) && zone.equals(key.zone) && simpleDateFormat == key.simpleDateFormat;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(pattern, zone, simpleDateFormat);
+    }
+  }
+
+  private static final LoadingCache<Key, TimestampParser> PARSERS =
+          CacheBuilder.newBuilder().maximumSize(1000).build(
+                  new CacheLoader<Key, TimestampParser>() {
+                    @Override
+                    public TimestampParser load(Key key) {
+                      return new TimestampParser(key.pattern, key.zone, key.simpleDateFormat);
+                    }
+                  });
+
+  /**
+   * A parsed minute and the text that it was parsed from.
+   */
+  private static class Minute {
+    private final String prefix;
+    private final long epochMillis;
+
+    Minute(String prefix, long epochMillis) {
+      this.prefix = prefix;
+      this.epochMillis = epochMillis;
+    }
+  }
+
+  private final String pattern;
+  private final ZoneId zone;
+  private final boolean simpleDateFormat;
+  private transient DateTimeFormatter formatter;
+
+  /**
+   * When the format ends with its minutes and seconds, the formatter of the text up to and
+   * including the minutes, the literals before the seconds and the fraction and the literal
+   * that ends the format; otherwise null.
+   */
+  private transient DateTimeFormatter minuteFormatter;
+  private transient String secondsSeparator;
+  private transient String fractionSeparator;
+  private transient boolean fractionInMillis;
+  private transient String suffix;
+  private transient volatile Minute lastMinute;
+
+  private TimestampParser(String pattern, ZoneId zone, boolean simpleDateFormat) {
+    this.pattern = pattern;
+    this.zone = zone;
+    this.simpleDateFormat = simpleDateFormat;
+    initialize();
+  }
+
+  /**
+   * @param pattern The format of the timestamps, a java.time pattern.
+   * @param zone The zone of timestamps without a zone or offset of their own.
+   * @throws IllegalArgumentException If the pattern is invalid.
+   */
+  public static TimestampParser of(String pattern, ZoneId zone) {
+    return get(new Key(pattern, zone, false));
+  }
+
+  /**
+   * @param pattern The format of the timestamps, a java.time pattern.
+   * @param timeZone The zone of timestamps without a zone or offset of their own, as understood
+   *                 by {@link TimeZone#getTimeZone(String)}, or null for the default zone.
+   * @throws IllegalArgumentException If the pattern is invalid.
+   */
+  public static TimestampParser of(String pattern, String timeZone) {
+    return of(pattern, toZone(timeZone));
+  }
+
+  /**
+   * Gets a parser of timestamps in a format given as a {@link java.text.SimpleDateFormat} pattern, as the
+   * formats of parser configurations and of TO_EPOCH_TIMESTAMP are.  The pattern is translated to
+   * java.time where the two differ: "S" is a number of milliseconds, so ".5" is 5 ms and not half a
+   * second, "u" is the number of the day of the week, "yy" is a year within 80 years before and
+   * 20 years after the present, and "[", "]", "#", "{" and "}" are literals.
+   * @param pattern The format of the timestamps, a SimpleDateFormat pattern.
+   * @param zone The zone of timestamps without a zone or offset of their own.
+   * @throws IllegalArgumentException If the pattern is invalid.
+   */
+  public static TimestampParser ofSimpleDateFormat(String pattern, ZoneId zone) {
+    return get(new Key(pattern, zone, true));
+  }
+
+  /**
+   * @param pattern The format of the timestamps, a SimpleDateFormat pattern.
+   * @param timeZone The zone of timestamps without a zone or offset of their own, as understood
+   *                 by {@link TimeZone#getTimeZone(String)}, or null for the default zone.
+   * @throws IllegalArgumentException If the pattern is invalid.
+   * @see #ofSimpleDateFormat(String, ZoneId)
+   */
+  public static TimestampParser ofSimpleDateFormat(String pattern, String timeZone) {
+    return ofSimpleDateFormat(pattern, toZone(timeZone));
+  }
+
+  private static TimestampParser get(Key key) {
+    try {
+      return PARSERS.getUnchecked(key);
+    }
+    catch(UncheckedExecutionException e) {
+      throw e.getCause() instanceof IllegalArgumentException ? (IllegalArgumentException) e.getCause() : e;
+    }
+  }
+
+  private static ZoneId toZone(String timeZone) {
+    return timeZone == null ? ZoneId.systemDefault() : TimeZone.getTimeZone(timeZone).toZoneId();
+  }
+
+  public String getPattern() {
+    return pattern;
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Is the pattern a SimpleDateFormat pattern rather than a java.time pattern?
+   */
+  public boolean isSimpleDateFormat() {
+    return simpleDateFormat;
+  }
+
+  /**
+   * @param text The timestamp.
+   * @return The timestamp in milliseconds since the epoch.
+   * @throws DateTimeParseException If the text is not a timestamp in the format of the parser.
+   */
+  public long parse(CharSequence text) {
+    Minute minute = lastMinute;
+    if (minute != null && startsWith(text, minute.prefix)) {
+      long millis = parseWithinMinute(text, minute);
+      if (millis >= 0) {
+        return millis;
+      }
+    }
+    long millis = parseFully(text);
+    if (minuteFormatter != null) {
+      rememberMinute(text, millis);
+    }
+    return millis;
+  }
+
+  /**
+   * Parses a timestamp without the cache of the last minute.
+   */
+  long parseFully(CharSequence text) {
+    TemporalAccessor parsed;
+    try {
+      parsed = formatter.parse(text, new ParsePosition(0));
+    }
+    catch(IndexOutOfBoundsException e) {
+      throw new DateTimeParseException("Unable to parse " + text, text, 0, e);
+    }
+    if (parsed == null) {
+      throw new DateTimeParseException("Unable to parse " + text, text, 0);
+    }
+    try {
+      if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+        return Instant.from(parsed).toEpochMilli();
+      }
+      ZoneId parsedZone = parsed.query(TemporalQueries.zone());
+      LocalDate date = parsed.query(TemporalQueries.localDate());
+      if (date == null) {
+        date = LocalDate.of( get(parsed, ChronoField.YEAR, 1970)
+                           , get(parsed, ChronoField.MONTH_OF_YEAR, 1)
+                           , get(parsed, ChronoField.DAY_OF_MONTH, 1)
+                           );
+      }
+      LocalTime time = parsed.query(TemporalQueries.localTime());
+      if (time == null) {
+        time = LocalTime.of( get(parsed, ChronoField.HOUR_OF_DAY, 0)
+                           , get(parsed, ChronoField.MINUTE_OF_HOUR, 0)
+                           , get(parsed, ChronoField.SECOND_OF_MINUTE, 0)
+                           , get(parsed, ChronoField.NANO_OF_SECOND, 0)
+                           );
+      }
+      return ZonedDateTime.of(date, time, parsedZone == null ? zone : parsedZone).toInstant().toEpochMilli();
+    }
+    catch(DateTimeException e) {
+      throw new DateTimeParseException(e.getMessage(), text, 0, e);
+    }
+  }
+
+  private static int get(TemporalAccessor parsed, ChronoField field, int defaultValue) {
+    return parsed.isSupported(field) ? parsed.get(field) : defaultValue;
+  }
+
+  /**
+   * Parses the seconds and fraction of a timestamp in a minute that has already been parsed.
+   * @return The timestamp, or -1 if the rest of the text is not simply seconds and a fraction.
+   */
+  private long parseWithinMinute(CharSequence text, Minute minute) {
+    int i = minute.prefix.length();
+    if (!regionMatches(text, i, secondsSeparator)) {
+      return -1;
+    }
+    i += secondsSeparator.length();
+    int secondsStart = i;
+    int seconds = 0;
+    while (i < text.length() && isDigit(text.charAt(i)) && i - secondsStart < 2) {
+      seconds = seconds * 10 + text.charAt(i++) - '0';
+    }
+    if (i == secondsStart || seconds > 59 || (i < text.length() && isDigit(text.charAt(i)))) {
+      return -1;
+    }
+    int millis = 0;
+    if (fractionSeparator != null) {
+      if (!regionMatches(text, i, fractionSeparator)) {
+        return -1;
+      }
+      i += fractionSeparator.length();
+      int fractionStart = i;
+      while (i < text.length() && isDigit(text.charAt(i))) {
+        if (i - fractionStart < 3) {
+          millis = millis * 10 + text.charAt(i) - '0';
+        }
+        i++;
+      }
+      int digits = i - fractionStart;
+      if (fractionInMillis) {
+        // more milliseconds than there are in a second roll over into the seconds
+        if (digits == 0 || digits > 3) {
+          return -1;
+        }
+      }
+      else {
+        if (digits == 0 || digits > 9) {
+          return -1;
+        }
+        for (int d = digits; d < 3; d++) {
+          millis *= 10;
+        }
+      }
+    }
+    if (!regionMatches(text, i, suffix)) {
+      return -1;
+    }
+    return minute.epochMillis + seconds * 1000L + millis;
+  }
+
+  private void rememberMinute(CharSequence text, long millis) {
+    try {
+      LocalDateTime minute = Instant.ofEpochMilli(millis).atZone(zone).toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+      String prefix = minuteFormatter.format(minute);
+      if (startsWith(text, prefix)) {
+        lastMinute = new Minute(prefix, minute.atZone(zone).toInstant().toEpochMilli());
+      }
+    }
+    catch(DateTimeException e) {
+      // the minute cannot be formatted; the timestamp is simply not cached
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean startsWith(CharSequence text, String prefix) {
+    return regionMatches(text, 0, prefix);
+  }
+
+  private static boolean regionMatches(CharSequence text, int offset, String s) {
+    if (offset + s.length() > text.length()) {
+      return false;
+    }
+    for (int i = 0; i < s.length(); i++) {
+      if (text.charAt(offset + i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void initialize() {
+    List<String> tokens = simpleDateFormat ? translate(pattern) : tokenize(pattern);
+    List<String> padded = new ArrayList<>(tokens.size());
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      if ((token.equals("d") || token.equals("dd")) && i > 0 && tokens.get(i - 1).equals(" ")) {
+        // a day of the month after a space may be padded with a space
+        padded.add("ppd");
+      }
+      else {
+        padded.add(token);
+      }
+    }
+    formatter = append(new DateTimeFormatterBuilder().parseCaseInsensitive().parseLenient(), padded)
+                      .toFormatter(LOCALE)
+                      .withResolverStyle(ResolverStyle.LENIENT);
+    initializeMinuteCache(padded);
+  }
+
+  /**
+   * Appends the tokens of a pattern, including those translated from a SimpleDateFormat pattern.
+   */
+  private static DateTimeFormatterBuilder append(DateTimeFormatterBuilder builder, List<String> tokens) {
+    for (String token : tokens) {
+      if (token.equals(MILLIS)) {
+        builder.appendValue(ChronoField.MILLI_OF_SECOND, 1, 9, SignStyle.NOT_NEGATIVE);
+      }
+      else if (token.equals(DAY_OF_WEEK)) {
+        builder.appendValue(ChronoField.DAY_OF_WEEK);
+      }
+      else if (token.equals(TWO_DIGIT_YEAR)) {
+        builder.appendValueReduced(ChronoField.YEAR, 2, 2, LocalDate.now().minusYears(80));
+      }
+      else {
+        builder.appendPattern(token);
+      }
+    }
+    return builder;
+  }
+
+  /**
+   * Splits a SimpleDateFormat pattern into the tokens of the equivalent java.time pattern.
+   */
+  private static List<String> translate(String pattern) {
+    List<String> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      int end = i + 1;
+      if (c == '\'') {
+        end = endOfQuote(pattern, end);
+        tokens.add(pattern.substring(i, end));
+      }
+      else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        if (SIMPLE_DATE_FORMAT_LETTERS.indexOf(c) < 0) {
+          throw new IllegalArgumentException("Illegal pattern character '" + c + "'");
+        }
+        while (end < pattern.length() && pattern.charAt(end) == c) {
+          end++;
+        }
+        String run = pattern.substring(i, end);
+        if (c == 'S') {
+          tokens.add(MILLIS);
+        }
+        else if (c == 'u') {
+          tokens.add(DAY_OF_WEEK);
+        }
+        else if (run.equals("yy")) {
+          tokens.add(TWO_DIGIT_YEAR);
+        }
+        else if (c == 'Z') {
+          // any number of Zs is an RFC 822 offset
+          tokens.add("Z");
+        }
+        else {
+          tokens.add(run);
+        }
+      }
+      else if ("[]#{}".indexOf(c) >= 0) {
+        tokens.add("'" + c + "'");
+      }
+      else {
+        tokens.add(String.valueOf(c));
+      }
+      i = end;
+    }
+    return tokens;
+  }
+
+  /**
+   * Enables the cache of the last minute, if the format ends with its minutes, then a literal and
+   * its seconds, then optionally a literal and a fraction of a second, then optionally a literal,
+   * and has no zone or offset.
+   */
+  private void initializeMinuteCache(List<String> tokens) {
+    int minutes = tokens.lastIndexOf("mm");
+    if (minutes < 0 || hasZone(tokens)) {
+      return;
+    }
+    int i = minutes + 1;
+    StringBuilder beforeSeconds = new StringBuilder();
+    while (i < tokens.size() && isLiteral(tokens.get(i))) {
+      beforeSeconds.append(literal(tokens.get(i++)));
+    }
+    if (beforeSeconds.length() == 0 || hasDigit(beforeSeconds) || i >= tokens.size() || !tokens.get(i++).equals("ss")) {
+      return;
+    }
+    String beforeFraction = null;
+    StringBuilder literal = new StringBuilder();
+    while (i < tokens.size() && isLiteral(tokens.get(i))) {
+      literal.append(literal(tokens.get(i++)));
+    }
+    if (i < tokens.size()) {
+      String fraction = tokens.get(i++);
+      if (literal.length() == 0 || hasDigit(literal) || !(fraction.matches("S{1,9}") || fraction.equals(MILLIS))) {
+        return;
+      }
+      fractionInMillis = fraction.equals(MILLIS);
+      beforeFraction = literal.toString();
+      literal.setLength(0);
+      while (i < tokens.size() && isLiteral(tokens.get(i))) {
+        literal.append(literal(tokens.get(i++)));
+      }
+      if (i < tokens.size()) {
+        return;
+      }
+    }
+    if (hasDigit(literal)) {
+      return;
+    }
+    minuteFormatter = append(new DateTimeFormatterBuilder(), tokens.subList(0, minutes + 1)).toFormatter(LOCALE);
+    secondsSeparator = beforeSeconds.toString();
+    fractionSeparator = beforeFraction;
+    suffix = literal.toString();
+  }
+
+  /**
+   * Splits a pattern into runs of the same pattern letter, quoted literals, single other
+   * characters and optional sections, which are kept whole.
+   */
+  private static List<String> tokenize(String pattern) {
+    List<String> tokens = new ArrayList<>();
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      int end = i + 1;
+      if (c == '\'') {
+        end = endOfQuote(pattern, end);
+      }
+      else if (c == '[') {
+        int depth = 1;
+        while (end < pattern.length() && depth > 0) {
+          char e = pattern.charAt(end++);
+          depth += e == '[' ? 1 : e == ']' ? -1 : 0;
+        }
+      }
+      else if (Character.isLetter(c)) {
+        while (end < pattern.length() && pattern.charAt(end) == c) {
+          end++;
+        }
+      }
+      tokens.add(pattern.substring(i, end));
+      i = end;
+    }
+    return tokens;
+  }
+
+  /**
+   * @param start The index after the opening quote.
+   * @return The index after the closing quote.
+   */
+  private static int endOfQuote(String pattern, int start) {
+    int end = start;
+    while (end < pattern.length()) {
+      if (pattern.charAt(end) == '\'') {
+        if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+          end += 2;
+          continue;
+        }
+        return end + 1;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  private static boolean isLiteral(String token) {
+    char c = token.charAt(0);
+    return c == '\'' || (!Character.isLetter(c) && c != '[' && c != '#' && c != '{' && c != '}');
+  }
+
+  private static String literal(String token) {
+    if (token.charAt(0) != '\'') {
+      return token;
+    }
+    return token.length() == 2 ? "'" : token.substring(1, token.length() - 1).replace("''", "'");
+  }
+
+  private static boolean hasZone(List<String> tokens) {
+    for (String token : tokens) {
+      char c = token.charAt(0);
+      if (c == '[' || c == 'V' || c == 'z' || c == 'O' || c == 'X' || c == 'x' || c == 'Z') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasDigit(CharSequence s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (isDigit(s.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Object readResolve() {
+    return simpleDateFormat ? ofSimpleDateFormat(pattern, zone) : of(pattern, zone);
+  }
+}
@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.configuration;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.dsl.AsyncStellarFunction;
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.BatchStellarFunction;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarAsyncExecutor;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.dsl.functions.resolver.SimpleFunctionResolver;
+import org.json.simple.JSONObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FieldTransformerProgramTest {
+
+  /**
+   * Looks up a value; counts the number of times it is applied to a single call and to a batch.
+   */
+  @Stellar(name="BATCH_LOOKUP")
+  public static class BatchLookup extends BaseStellarFunction implements BatchStellarFunction {
+    static int calls = 0;
+    static int batches = 0;
+
+    @Override
+    public Object apply(List<Object> args) {
+      calls++;
+      return "v:" + args.get(0);
+    }
+
+    @Override
+    public List<Object> applyBatch(List<List<Object>> args, Context context) {
+      batches++;
+      List<Object> ret = new ArrayList<>();
+      for(List<Object> callArgs : args) {
+        ret.add("v:" + callArgs.get(0));
+      }
+      return ret;
+    }
+  }
+
+  /**
+   * Looks up a value asynchronously; each call waits until the calls for the whole batch have started.
+   */
+  @Stellar(name="ASYNC_LOOKUP")
+  public static class AsyncLookup extends BaseStellarFunction implements AsyncStellarFunction {
+    static AtomicInteger calls = new AtomicInteger();
+    static CountDownLatch started;
+
+    @Override
+    public Object apply(List<Object> args) {
+      calls.incrementAndGet();
+      return "f:" + args.get(0);
+    }
+
+    @Override
+    public CompletableFuture<Object> applyAsync(List<Object> args, Context context) {
+      started.countDown();
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return started.await(10, TimeUnit.SECONDS) ? "f:" + args.get(0) : "timed out";
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }, StellarAsyncExecutor.get(context));
+    }
+  }
+
+  private FunctionResolver functionResolver;
+
+  @Before
+  public void setup() {
+    BatchLookup.calls = 0;
+    BatchLookup.batches = 0;
+    AsyncLookup.calls.set(0);
+    functionResolver = new SimpleFunctionResolver().withClass(BatchLookup.class)
+                                                   .withClass(AsyncLookup.class);
+  }
+
+  private static FieldTransformer stellar(Map<String, Object> config) {
+    FieldTransformer transformer = new FieldTransformer();
+    transformer.setTransformation("STELLAR");
+    transformer.setOutput(Arrays.asList(config.keySet().toArray()));
+    transformer.setConfig(new HashMap<>(config));
+    transformer.initAndValidate();
+    return transformer;
+  }
+
+  private static FieldTransformer remove(String field) {
+    FieldTransformer transformer = new FieldTransformer();
+    transformer.setTransformation("REMOVE");
+    transformer.setInput(field);
+    transformer.initAndValidate();
+    return transformer;
+  }
+
+  private static JSONObject transform(FieldTransformerProgram program, Map<String, Object> fields) {
+    JSONObject message = new JSONObject();
+    message.putAll(fields);
+    program.transformAndUpdate(message, new HashMap<>(), Context.EMPTY_CONTEXT());
+    return message;
+  }
+
+  @Test
+  public void testConsecutiveStellarTransformationsAreFused() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "a + 1")),
+            stellar(ImmutableMap.of("y", "x * 2", "a", "a + x"))
+    ));
+    Assert.assertEquals(1, program.size());
+    JSONObject message = transform(program, ImmutableMap.of("a", 1));
+    Assert.assertEquals(2.0, message.get("x"));
+    Assert.assertEquals(4.0, message.get("y"));
+    Assert.assertEquals(3.0, message.get("a"));
+  }
+
+  @Test
+  public void testNullResultsLeaveFieldsUnchanged() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("a", "missing")),
+            stellar(ImmutableMap.of("b", "a"))
+    ));
+    JSONObject message = transform(program, ImmutableMap.of("a", 1));
+    Assert.assertEquals(1, message.get("a"));
+    Assert.assertEquals(1, message.get("b"));
+  }
+
+  @Test
+  public void testOtherTransformationsAreAppliedInOrder() {
+    FieldTransformer restricted = stellar(ImmutableMap.of("z", "a"));
+    restricted.setInput(Arrays.asList("b"));
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "a + 1")),
+            remove("a"),
+            stellar(ImmutableMap.of("y", "x + 1")),
+            restricted
+    ));
+    Assert.assertEquals(4, program.size());
+    JSONObject message = transform(program, ImmutableMap.of("a", 1, "b", 5));
+    Assert.assertFalse(message.containsKey("a"));
+    Assert.assertEquals(2.0, message.get("x"));
+    Assert.assertEquals(3.0, message.get("y"));
+    Assert.assertFalse(message.containsKey("z"));
+  }
+
+  @Test
+  public void testBatchIsTransformedLikeEachMessage() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "a + 1")),
+            remove("b"),
+            stellar(ImmutableMap.of("y", "x * 2", "a", "a + x"))
+    ));
+    List<JSONObject> messages = new ArrayList<>();
+    for(int a = 1; a <= 3; a++) {
+      JSONObject message = new JSONObject();
+      message.put("a", a);
+      message.put("b", "b");
+      messages.add(message);
+    }
+    List<Throwable> errors = program.transformAndUpdate(messages, new HashMap<>(), Context.EMPTY_CONTEXT());
+    Assert.assertEquals(Arrays.asList(null, null, null), errors);
+    for(int a = 1; a <= 3; a++) {
+      Assert.assertEquals(transform(program, ImmutableMap.of("a", a, "b", "b")), messages.get(a - 1));
+    }
+    Assert.assertEquals(4.0, messages.get(0).get("y"));
+    Assert.assertFalse(messages.get(0).containsKey("b"));
+  }
+
+  @Test
+  public void testFailedMessagesDoNotAffectTheBatch() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "a + 1")),
+            remove("a")
+    ));
+    JSONObject good = new JSONObject(ImmutableMap.of("a", 1));
+    JSONObject bad = new JSONObject(ImmutableMap.of("a", "one"));
+    List<Throwable> errors = program.transformAndUpdate(Arrays.asList(good, bad), new HashMap<>(), Context.EMPTY_CONTEXT());
+    Assert.assertNull(errors.get(0));
+    Assert.assertTrue(errors.get(1) instanceof IllegalStateException);
+    Assert.assertEquals(2.0, good.get("x"));
+    Assert.assertFalse(good.containsKey("a"));
+    // the message is not transformed any further once it fails
+    Assert.assertEquals("one", bad.get("a"));
+  }
+
+  private static List<JSONObject> messages(int count) {
+    List<JSONObject> messages = new ArrayList<>();
+    for(int a = 1; a <= count; a++) {
+      JSONObject message = new JSONObject();
+      message.put("a", a);
+      messages.add(message);
+    }
+    return messages;
+  }
+
+  @Test
+  public void testBatchCallsAreMadeOncePerStatement() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "BATCH_LOOKUP(a)")),
+            stellar(ImmutableMap.of("y", "BATCH_LOOKUP(x)"))
+    ));
+    List<JSONObject> messages = messages(3);
+    List<Throwable> errors = program.transformAndUpdate(messages, new HashMap<>(), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(Arrays.asList(null, null, null), errors);
+    for(int a = 1; a <= 3; a++) {
+      Assert.assertEquals("v:" + a, messages.get(a - 1).get("x"));
+      Assert.assertEquals("v:v:" + a, messages.get(a - 1).get("y"));
+    }
+    Assert.assertEquals(2, BatchLookup.batches);
+    Assert.assertEquals(0, BatchLookup.calls);
+  }
+
+  @Test
+  public void testAsyncCallsAreConcurrent() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "ASYNC_LOOKUP(a)"))
+    ));
+    List<JSONObject> messages = messages(3);
+    AsyncLookup.started = new CountDownLatch(messages.size());
+    List<Throwable> errors = program.transformAndUpdate(messages, new HashMap<>(), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(Arrays.asList(null, null, null), errors);
+    for(int a = 1; a <= 3; a++) {
+      Assert.assertEquals("f:" + a, messages.get(a - 1).get("x"));
+    }
+    Assert.assertEquals(0, AsyncLookup.calls.get());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testInvalidTransformationFailsForEachMessage() {
+    FieldTransformerProgram program = new FieldTransformerProgram(Arrays.asList(
+            stellar(ImmutableMap.of("x", "a +"))
+    ));
+    transform(program, ImmutableMap.of("a", 1));
+  }
+}
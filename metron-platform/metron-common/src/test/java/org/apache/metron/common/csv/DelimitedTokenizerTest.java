@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.csv;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DelimitedTokenizerTest {
+
+  private static List<String> fields(DelimitedTokenizer tokenizer, String record) {
+    int count = tokenizer.tokenize(record);
+    Assert.assertNotEquals(DelimitedTokenizer.IRREGULAR, count);
+    List<String> fields = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      fields.add(tokenizer.get(i));
+    }
+    return fields;
+  }
+
+  @Test
+  public void testUnquoted() {
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    Assert.assertEquals(Arrays.asList("a", "b", "c"), fields(tokenizer, "a,b,c"));
+    Assert.assertEquals(Arrays.asList("a", "", " c", ""), fields(tokenizer, "a,, c,"));
+    Assert.assertEquals(Arrays.asList(""), fields(tokenizer, ""));
+    Assert.assertEquals(Arrays.asList("a|b", "c"), fields(new DelimitedTokenizer('\t'), "a|b\tc"));
+  }
+
+  @Test
+  public void testQuoted() {
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    Assert.assertEquals(Arrays.asList("a,b", "", "c"), fields(tokenizer, "\"a,b\",\"\",c"));
+    Assert.assertEquals(Arrays.asList("say \"hi\"", "x"), fields(tokenizer, "\"say \"\"hi\"\"\",x"));
+    Assert.assertEquals(Arrays.asList("a\"b\\c", "d"), fields(tokenizer, "\"a\\\"b\\\\c\",d"));
+    Assert.assertEquals(Arrays.asList("a", "b"), fields(tokenizer, "a,\"b\""));
+  }
+
+  @Test
+  public void testIrregular() {
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    for (String record : new String[] { "a,b\"c\",d", "a,\"b", "a,\"b\"c,d", "a, \"b\"", "a\\b,c", "\"a\\b\",c" }) {
+      Assert.assertEquals(record, DelimitedTokenizer.IRREGULAR, tokenizer.tokenize(record));
+    }
+  }
+
+  @Test
+  public void testProjection() {
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    // the fields after those of interest are not read, even if they would be irregular
+    String record = "a,b,c,d\"e";
+    Assert.assertEquals(2, tokenizer.tokenize(record, 0, record.length(), 2));
+    Assert.assertEquals("b", tokenizer.get(1));
+    Assert.assertEquals(3, tokenizer.tokenize(record, 2, 6, 10));
+    Assert.assertEquals("b", tokenizer.get(0));
+    Assert.assertEquals("", tokenizer.get(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingField() {
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    tokenizer.tokenize("a,b");
+    tokenizer.get(2);
+  }
+
+  @Test
+  public void testBytes() {
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    byte[] record = "x|caf\u00e9,\"\u00fcber, \"\"alles\"\"\",z|".getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(3, tokenizer.tokenize(record, 2, record.length - 1, Integer.MAX_VALUE));
+    Assert.assertEquals("caf\u00e9", tokenizer.get(0));
+    Assert.assertEquals("\u00fcber, \"alles\"", tokenizer.get(1));
+    Assert.assertEquals("z", tokenizer.get(2));
+  }
+
+  @Test
+  public void testManyFields() {
+    StringBuilder record = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      record.append(i == 0 ? "" : ",").append(i);
+    }
+    DelimitedTokenizer tokenizer = new DelimitedTokenizer(',');
+    Assert.assertEquals(100, tokenizer.tokenize(record));
+    Assert.assertEquals("99", tokenizer.get(99));
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.dsl.functions.resolver;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.dsl.functions.StringFunctions;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.apache.metron.common.stellar.metrics.StellarMetrics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the CachingStellarFunction class.
+ */
+public class CachingStellarFunctionTest {
+
+  private static final AtomicInteger CALLS = new AtomicInteger();
+
+  @Stellar(name="COUNTED", deterministic = true, cacheable = true)
+  public static class Counted extends BaseStellarFunction {
+    @Override
+    public Object apply(List<Object> args) {
+      CALLS.incrementAndGet();
+      return args.get(0) == null ? null : args.get(0).toString().length();
+    }
+  }
+
+  private SimpleFunctionResolver resolver;
+
+  @Before
+  public void setup() {
+    CALLS.set(0);
+    resolver = new SimpleFunctionResolver().withClass(Counted.class)
+                                           .withClass(StringFunctions.RegexpMatch.class);
+  }
+
+  private Object run(String rule, Object foo, Context context) {
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("foo", foo);
+    return new StellarProcessor().parse(rule, new MapVariableResolver(variables), resolver, context);
+  }
+
+  @Test
+  public void testCacheableFunctionIsWrapped() {
+    StellarFunction function = resolver.apply("COUNTED");
+    Assert.assertTrue(function instanceof CachingStellarFunction);
+    Assert.assertTrue(((CachingStellarFunction) function).getFunction() instanceof Counted);
+  }
+
+  @Test
+  public void testRepeatedCallsAreCached() {
+    Context context = new Context.Builder().build();
+    Assert.assertEquals(5, run("COUNTED(foo)", "casey", context));
+    Assert.assertEquals(5, run("COUNTED(foo)", "casey", context));
+    Assert.assertEquals(3, run("COUNTED(foo)", "bob", context));
+    Assert.assertEquals(2, CALLS.get());
+
+    CachingStellarFunction function = (CachingStellarFunction) resolver.apply("COUNTED");
+    Assert.assertEquals(1, function.getHits());
+    Assert.assertEquals(2, function.getMisses());
+  }
+
+  @Test
+  public void testNullResultsAreCached() {
+    Context context = new Context.Builder().build();
+    Assert.assertNull(run("COUNTED(foo)", null, context));
+    Assert.assertNull(run("COUNTED(foo)", null, context));
+    Assert.assertEquals(1, CALLS.get());
+  }
+
+  @Test
+  public void testUncacheableArgumentsAreNotCached() {
+    Context context = new Context.Builder().build();
+    run("COUNTED(foo)", Arrays.asList("a", "b"), context);
+    run("COUNTED(foo)", Arrays.asList("a", "b"), context);
+    Assert.assertEquals(2, CALLS.get());
+  }
+
+  @Test
+  public void testCacheCanBeDisabled() {
+    Context context = new Context.Builder()
+            .with(Context.Capabilities.GLOBAL_CONFIG, () -> ImmutableMap.of(CachingStellarFunction.CACHE_SIZE_KEY, 0))
+            .build();
+    run("COUNTED(foo)", "casey", context);
+    run("COUNTED(foo)", "casey", context);
+    Assert.assertEquals(2, CALLS.get());
+  }
+
+  @Test
+  public void testSpecializedCallsShareTheCache() {
+    Context context = new Context.Builder().build();
+    Assert.assertEquals(true, run("REGEXP_MATCH(foo, 'ca.*')", "casey", context));
+    Assert.assertEquals(true, run("REGEXP_MATCH(foo, 'ca.*')", "casey", context));
+    Assert.assertEquals(false, run("REGEXP_MATCH(foo, 'ca.*')", "bob", context));
+    CachingStellarFunction function = (CachingStellarFunction) resolver.apply("REGEXP_MATCH");
+    Assert.assertEquals(1, function.getHits());
+    Assert.assertEquals(2, function.getMisses());
+  }
+
+  @Test
+  public void testHitsAndMissesAreRecordedAsMetrics() {
+    StellarMetrics metrics = new StellarMetrics(1.0);
+    Context context = new Context.Builder().build();
+    metrics.addTo(context);
+    run("COUNTED(foo)", "casey", context);
+    run("COUNTED(foo)", "casey", context);
+    run("COUNTED(foo)", "casey", context);
+    Assert.assertEquals(2L, metrics.getMetrics(false).get("cache.COUNTED.hits"));
+    Assert.assertEquals(1L, metrics.getMetrics(false).get("cache.COUNTED.misses"));
+  }
+}
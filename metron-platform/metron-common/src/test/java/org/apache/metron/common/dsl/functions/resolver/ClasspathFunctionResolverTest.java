@@ -20,12 +20,23 @@ package org.apache.metron.common.dsl.functions.resolver;
 
 import com.google.common.collect.Lists;
 import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.StellarFunction;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ClasspathFunctionResolverTest {
 
@@ -106,4 +117,60 @@ public class ClasspathFunctionResolverTest {
     Assert.assertEquals(0, actual.size());
   }
 
+  @Test
+  public void testIndexMatchesClasspathSearch() {
+
+    // setup - search the classpath rather than using the index
+    Properties config = new Properties();
+    config.put(ClasspathFunctionResolver.STELLAR_SEARCH_INDEX_KEY, "false");
+    List<String> searched = Lists.newArrayList(create(config).getFunctions());
+
+    // execute - use the index
+    config.put(ClasspathFunctionResolver.STELLAR_SEARCH_INDEX_KEY, "true");
+    List<String> indexed = Lists.newArrayList(create(config).getFunctions());
+
+    // validate - both should have resolved the same functions
+    Collections.sort(searched);
+    Collections.sort(indexed);
+    Assert.assertEquals(searched, indexed);
+  }
+
+  @Test
+  public void testUnindexedClasspathEntryIsSearched() throws Exception {
+
+    // setup - a function compiled without an index, as in a third-party jar
+    File sources = Files.createTempDirectory("unindexed-src").toFile();
+    File classes = Files.createTempDirectory("unindexed").toFile();
+    sources.deleteOnExit();
+    classes.deleteOnExit();
+    File source = new File(sources, "Unindexed.java");
+    Files.write(source.toPath(), ("package org.example;\n" +
+            "import java.util.List;\n" +
+            "import org.apache.metron.common.dsl.BaseStellarFunction;\n" +
+            "import org.apache.metron.common.dsl.Stellar;\n" +
+            "@Stellar(name=\"UNINDEXED\")\n" +
+            "public class Unindexed extends BaseStellarFunction {\n" +
+            "  public Object apply(List<Object> args) { return null; }\n" +
+            "}\n").getBytes(StandardCharsets.UTF_8));
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int result = compiler.run(null, null, null, "-proc:none", "-d", classes.getAbsolutePath()
+            , "-classpath", System.getProperty("java.class.path"), source.getAbsolutePath());
+    Assert.assertEquals(0, result);
+    ClassLoader classLoader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, getClass().getClassLoader());
+
+    // execute
+    Set<Class<? extends StellarFunction>> functions = new ClasspathFunctionResolver().resolvables(classLoader);
+
+    // validate - the unindexed function is found along with the indexed functions
+    Set<String> classNames = functions.stream().map(Class::getName).collect(Collectors.toSet());
+    Assert.assertTrue(classNames.contains("org.example.Unindexed"));
+    Assert.assertTrue(classNames.size() > 1);
+  }
+
+  @Test
+  public void testClasspathEntry() {
+    Assert.assertEquals("file:/lib/functions.jar", ClasspathFunctionResolver.classpathEntry("jar:file:/lib/functions.jar!/"));
+    Assert.assertEquals("file:/lib/functions.jar", ClasspathFunctionResolver.classpathEntry("file:/lib/functions.jar"));
+    Assert.assertEquals("file:/target/classes", ClasspathFunctionResolver.classpathEntry("file:/target/classes/"));
+  }
 }
@@ -23,6 +23,7 @@ import org.adrianwalker.multilinestring.Multiline;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.metron.common.configuration.Configurations;
 import org.apache.metron.common.configuration.FieldValidator;
+import org.apache.metron.common.dsl.Context;
 import org.json.simple.JSONObject;
 import org.junit.Assert;
 import org.junit.Test;
@@ -92,6 +93,27 @@ public class QueryValidationTest extends BaseValidationTest{
   @Multiline
   public static String validQueryConfig_map;
 
+  /**
+   {
+    "fieldValidations" : [
+          {
+           "validation" : "STELLAR"
+          ,"config" : {
+                "condition" : "exists(field1)"
+                      }
+          }
+         ,{
+           "validation" : "STELLAR"
+          ,"config" : {
+                "condition" : "exists(field2)"
+                      }
+          }
+                         ]
+   }
+   */
+  @Multiline
+  public static String multipleQueryConfig;
+
   @Test
   public void testPositive() throws IOException {
     Assert.assertTrue(execute(validQueryConfig, ImmutableMap.of("field1", "foo")));
@@ -111,6 +133,15 @@ public class QueryValidationTest extends BaseValidationTest{
     Assert.assertFalse(execute(validQueryConfig, ImmutableMap.of("field2", "foo")));
   }
 
+  @Test
+  public void testMultipleValidations() throws IOException {
+    Configurations configurations = getConfiguration(multipleQueryConfig);
+    JSONObject input = new JSONObject(ImmutableMap.of("field1", "foo"));
+    Assert.assertEquals(2, configurations.getFieldValidations().size());
+    Assert.assertTrue(configurations.getFieldValidations().get(0).isValid(input, configurations.getGlobalConfig(), Context.EMPTY_CONTEXT()));
+    Assert.assertFalse(configurations.getFieldValidations().get(1).isValid(input, configurations.getGlobalConfig(), Context.EMPTY_CONTEXT()));
+  }
+
   @Test(expected=IllegalStateException.class)
   public void testInvalidConfig_missingConfig() throws IOException {
     getConfiguration(invalidQueryConfig1);
@@ -0,0 +1,242 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.dsl.AsyncStellarFunction;
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.BatchStellarFunction;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarAsyncExecutor;
+import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.dsl.functions.resolver.SimpleFunctionResolver;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StellarBatchTest {
+
+  /**
+   * Looks up a value; counts the number of times it is applied to a single call and to a batch.
+   */
+  @Stellar(name="LOOKUP")
+  public static class Lookup extends BaseStellarFunction implements BatchStellarFunction {
+    static int calls = 0;
+    static int batches = 0;
+
+    @Override
+    public Object apply(List<Object> args) {
+      calls++;
+      return "v:" + args.get(0);
+    }
+
+    @Override
+    public List<Object> applyBatch(List<List<Object>> args, Context context) {
+      batches++;
+      List<Object> ret = new ArrayList<>();
+      for(List<Object> callArgs : args) {
+        ret.add("v:" + callArgs.get(0));
+      }
+      return ret;
+    }
+  }
+
+  /**
+   * Divides integers; fails for a zero divisor.
+   */
+  @Stellar(name="DIVIDE")
+  public static class Divide extends BaseStellarFunction {
+    @Override
+    public Object apply(List<Object> args) {
+      int divisor = ((Number) args.get(1)).intValue();
+      if (divisor == 0) {
+        throw new IllegalArgumentException("Unable to divide by zero");
+      }
+      return ((Number) args.get(0)).intValue() / divisor;
+    }
+  }
+
+  /**
+   * Fetches a value asynchronously; each call waits until the calls of the whole batch have started.
+   */
+  @Stellar(name="FETCH")
+  public static class Fetch extends BaseStellarFunction implements AsyncStellarFunction {
+    static AtomicInteger calls = new AtomicInteger();
+    static CountDownLatch started;
+
+    @Override
+    public Object apply(List<Object> args) {
+      calls.incrementAndGet();
+      return "f:" + args.get(0);
+    }
+
+    @Override
+    public CompletableFuture<Object> applyAsync(List<Object> args, Context context) {
+      started.countDown();
+      return CompletableFuture.supplyAsync(() -> {
+        try {
+          return started.await(10, TimeUnit.SECONDS) ? "f:" + args.get(0) : "timed out";
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }, StellarAsyncExecutor.get(context));
+    }
+  }
+
+  private FunctionResolver functionResolver;
+
+  @Before
+  public void setup() {
+    Lookup.calls = 0;
+    Lookup.batches = 0;
+    Fetch.calls.set(0);
+    Fetch.started = new CountDownLatch(MESSAGES.size());
+    functionResolver = new SimpleFunctionResolver().withClass(Lookup.class)
+                                                   .withClass(Divide.class)
+                                                   .withClass(Fetch.class);
+  }
+
+  private static List<VariableResolver> resolvers(List<Map<String, Object>> messages) {
+    List<VariableResolver> ret = new ArrayList<>();
+    for(Map<String, Object> message : messages) {
+      ret.add(new MapVariableResolver(message));
+    }
+    return ret;
+  }
+
+  private static final List<Map<String, Object>> MESSAGES = ImmutableList.of(
+          ImmutableMap.of("ip", "10.0.0.1", "flag", true, "x", 1)
+        , ImmutableMap.of("ip", "10.0.0.2", "flag", false, "x", 2)
+        , ImmutableMap.of("ip", "10.0.0.3", "flag", true, "x", 0)
+        , ImmutableMap.of("ip", "10.0.0.4", "flag", false, "x", 4)
+  );
+
+  @Test
+  public void testAppliedOncePerBatch() {
+    List<Object> results = new StellarProcessor().parse("LOOKUP(ip)", resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(ImmutableList.of("v:10.0.0.1", "v:10.0.0.2", "v:10.0.0.3", "v:10.0.0.4"), results);
+    Assert.assertEquals(1, Lookup.batches);
+    Assert.assertEquals(0, Lookup.calls);
+  }
+
+  @Test
+  public void testNestedCalls() {
+    List<Object> results = new StellarProcessor().parse("LOOKUP(LOOKUP(ip))", resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals("v:v:10.0.0.1", results.get(0));
+    Assert.assertEquals("v:v:10.0.0.4", results.get(3));
+    Assert.assertEquals(2, Lookup.batches);
+    Assert.assertEquals(0, Lookup.calls);
+  }
+
+  @Test
+  public void testConditionalCallsAreNotPrefetched() {
+    List<Boolean> results = new StellarPredicateProcessor().parse("flag and LOOKUP(ip) == 'v:10.0.0.1'", resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(ImmutableList.of(true, false, false, false), results);
+    Assert.assertEquals(0, Lookup.batches);
+    Assert.assertEquals(2, Lookup.calls);
+
+    List<Object> values = new StellarProcessor().parse("if flag then LOOKUP(ip) else 'none'", resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(ImmutableList.of("v:10.0.0.1", "none", "v:10.0.0.3", "none"), values);
+    Assert.assertEquals(0, Lookup.batches);
+  }
+
+  @Test
+  public void testMatchesSingleEvaluation() {
+    String rule = "LOOKUP(ip) in [ 'v:10.0.0.1', 'v:10.0.0.4' ] or flag";
+    List<Boolean> results = new StellarPredicateProcessor().parse(rule, resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    for(int i = 0;i < MESSAGES.size();++i) {
+      Boolean expected = new StellarPredicateProcessor().parse(rule, new MapVariableResolver(MESSAGES.get(i)), functionResolver, Context.EMPTY_CONTEXT());
+      Assert.assertEquals(expected, results.get(i));
+    }
+  }
+
+  @Test
+  public void testErrorsSurfaceForEachMessage() {
+    StellarExpression expression = new StellarProcessor().compile("LOOKUP(DIVIDE(10, x))", functionResolver, Context.EMPTY_CONTEXT());
+    List<ExpressionState> states = new ArrayList<>();
+    for(VariableResolver resolver : resolvers(MESSAGES)) {
+      states.add(expression.createState(resolver, functionResolver, Context.EMPTY_CONTEXT()));
+    }
+    expression.prefetch(states);
+    Assert.assertEquals(1, Lookup.batches);
+    Assert.assertEquals("v:10", expression.apply(states.get(0)));
+    Assert.assertEquals("v:5", expression.apply(states.get(1)));
+    try {
+      expression.apply(states.get(2));
+      Assert.fail("Expected the division by zero to fail");
+    }
+    catch(ParseException e) {
+      Assert.assertTrue(e.getMessage().contains("zero"));
+    }
+    Assert.assertEquals("v:2", expression.apply(states.get(3)));
+    Assert.assertEquals(0, Lookup.calls);
+  }
+
+  @Test
+  public void testAsyncCallsAreConcurrent() {
+    List<Object> results = new StellarProcessor().parse("FETCH(ip)", resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(ImmutableList.of("f:10.0.0.1", "f:10.0.0.2", "f:10.0.0.3", "f:10.0.0.4"), results);
+    Assert.assertEquals(0, Fetch.calls.get());
+  }
+
+  @Test
+  public void testAsyncAndBatchCalls() {
+    List<Object> results = new StellarProcessor().parse("FETCH(LOOKUP(ip))", resolvers(MESSAGES), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals("f:v:10.0.0.1", results.get(0));
+    Assert.assertEquals("f:v:10.0.0.4", results.get(3));
+    Assert.assertEquals(1, Lookup.batches);
+    Assert.assertEquals(0, Lookup.calls);
+    Assert.assertEquals(0, Fetch.calls.get());
+  }
+
+  @Test
+  public void testAsyncFunctionIsSynchronousForOneMessage() {
+    Object result = new StellarProcessor().parse("FETCH(ip)", new MapVariableResolver(MESSAGES.get(0)), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals("f:10.0.0.1", result);
+    Assert.assertEquals(1, Fetch.calls.get());
+  }
+
+  @Test
+  public void testPrefetchedOnlyForOneEvaluation() {
+    StellarExpression expression = new StellarProcessor().compile("LOOKUP(ip)", functionResolver, Context.EMPTY_CONTEXT());
+    List<ExpressionState> states = new ArrayList<>();
+    for(VariableResolver resolver : resolvers(MESSAGES)) {
+      states.add(expression.createState(resolver, functionResolver, Context.EMPTY_CONTEXT()));
+    }
+    expression.prefetch(states);
+    expression.apply(states.get(0));
+    Assert.assertEquals(0, Lookup.calls);
+    expression.apply(states.get(0));
+    Assert.assertEquals(1, Lookup.calls);
+  }
+}
@@ -0,0 +1,310 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.ParseException;
+import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.dsl.functions.StringFunctions;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.dsl.functions.resolver.SimpleFunctionResolver;
+import org.apache.metron.common.stellar.expression.ArithmeticExpression;
+import org.apache.metron.common.stellar.expression.ConstantExpression;
+import org.apache.metron.common.stellar.expression.ExpressionState;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StellarOptimizerTest {
+
+  /**
+   * Counts the number of times that it is called.
+   */
+  @Stellar(name="COUNTED_LOWER", deterministic=true)
+  public static class CountedLower extends BaseStellarFunction {
+    static int calls = 0;
+
+    @Override
+    public Object apply(List<Object> args) {
+      calls++;
+      return args.get(0) == null ? null : args.get(0).toString().toLowerCase();
+    }
+  }
+
+  /**
+   * Not deterministic.
+   */
+  @Stellar(name="COUNTED_UPPER")
+  public static class CountedUpper extends BaseStellarFunction {
+    @Override
+    public Object apply(List<Object> args) {
+      return args.get(0) == null ? null : args.get(0).toString().toUpperCase();
+    }
+  }
+
+  /**
+   * Fails with a ParseException of its own.
+   */
+  @Stellar(name="REJECT")
+  public static class Reject extends BaseStellarFunction {
+    @Override
+    public Object apply(List<Object> args) {
+      throw new ParseException("Rejected " + args.get(0));
+    }
+  }
+
+  /**
+   * Fails as a function that evaluated another, failing expression would.
+   */
+  @Stellar(name="REJECT_WRAPPED")
+  public static class RejectWrapped extends BaseStellarFunction {
+    @Override
+    public Object apply(List<Object> args) {
+      throw new ParseException("Unable to execute: Rejected " + args.get(0));
+    }
+  }
+
+  /**
+   * Deterministic, but its result depends upon the context.
+   */
+  @Stellar(name="CONTEXT_PREFIX", deterministic=true)
+  public static class ContextPrefix implements StellarFunction {
+    @Override
+    public Object apply(List<Object> args, Context context) {
+      return context.getCapability("prefix", false).orElse("") + String.valueOf(args.get(0));
+    }
+
+    @Override
+    public void initialize(Context context) {
+    }
+
+    @Override
+    public boolean isInitialized() {
+      return true;
+    }
+  }
+
+  private FunctionResolver functionResolver;
+  private StellarProcessor processor;
+
+  @Before
+  public void setup() {
+    CountedLower.calls = 0;
+    functionResolver = new SimpleFunctionResolver()
+            .withClass(CountedLower.class)
+            .withClass(CountedUpper.class)
+            .withClass(Reject.class)
+            .withClass(RejectWrapped.class)
+            .withClass(ContextPrefix.class)
+            .withClass(StringFunctions.ToUpper.class)
+            .withClass(StringFunctions.JoinFunction.class)
+            .withClass(StringFunctions.SplitFunction.class);
+    processor = new StellarProcessor();
+  }
+
+  private StellarExpression optimize(String rule) {
+    return processor.compile(rule, functionResolver, Context.EMPTY_CONTEXT());
+  }
+
+  private Object constant(String rule) {
+    StellarExpression expression = optimize(rule);
+    Assert.assertTrue(rule + " was not folded: " + expression.getRoot(), expression.getRoot() instanceof ConstantExpression);
+    return ((ConstantExpression) expression.getRoot()).getValue();
+  }
+
+  @Test
+  public void testFoldConstants() {
+    Assert.assertEquals(7.0, constant("1 + 2*3"));
+    Assert.assertEquals(true, constant("1 < 2 and 'a' == 'a'"));
+    Assert.assertEquals("ABC", constant("TO_UPPER('abc')"));
+    Assert.assertEquals("a,b", constant("JOIN(['a', 'b'], ',')"));
+    Assert.assertEquals(true, constant("'b' in ['a', 'b']"));
+    Assert.assertEquals(false, constant("false and missing"));
+    Assert.assertEquals("yes", constant("if 1 < 2 then 'yes' else missing"));
+  }
+
+  @Test
+  public void testFoldIntegerArithmetic() {
+    Context context = new Context.Builder()
+            .with(Context.Capabilities.GLOBAL_CONFIG, () -> ImmutableMap.of(ArithmeticExpression.INTEGER_ARITHMETIC_KEY, true))
+            .build();
+    StellarExpression expression = processor.compile("1 + 2*3", functionResolver, context);
+    Assert.assertEquals(new ConstantExpression(7), expression.getRoot());
+    Assert.assertEquals(new ConstantExpression(3), processor.compile("7 / 2", functionResolver, context).getRoot());
+    Assert.assertEquals(7.0, constant("1 + 2*3"));
+  }
+
+  @Test
+  public void testInWithNestedLists() {
+    StellarExpression expression = optimize("x in [[1, 2], 3]");
+    Assert.assertEquals(true, expression.apply(new MapVariableResolver(ImmutableMap.of("x", ImmutableList.of(1, 2))), functionResolver, Context.EMPTY_CONTEXT()));
+    Assert.assertEquals(true, expression.apply(new MapVariableResolver(ImmutableMap.of("x", 3)), functionResolver, Context.EMPTY_CONTEXT()));
+    Assert.assertEquals(false, expression.apply(new MapVariableResolver(ImmutableMap.of("x", 1)), functionResolver, Context.EMPTY_CONTEXT()));
+  }
+
+  @Test
+  public void testContextDependentFunctionsAreNotFolded() {
+    // the optimized expression is shared by every context
+    Context first = new Context.Builder().with("prefix", () -> "first:").build();
+    Context second = new Context.Builder().with("prefix", () -> "second:").build();
+    StellarExpression expression = processor.compile("CONTEXT_PREFIX('abc')", functionResolver, first);
+    Assert.assertFalse(expression.getRoot() instanceof ConstantExpression);
+    Assert.assertEquals("first:abc", expression.apply(x -> null, functionResolver, first));
+    Assert.assertEquals("second:abc", processor.compile("CONTEXT_PREFIX('abc')", functionResolver, second)
+                                                .apply(x -> null, functionResolver, second));
+  }
+
+  @Test
+  public void testNonDeterministicFunctions() {
+    // a function that is not deterministic must be called on each evaluation
+    Assert.assertFalse(optimize("COUNTED_UPPER('abc')").getRoot() instanceof ConstantExpression);
+    Assert.assertEquals(0, optimize("COUNTED_UPPER(foo) == 'A' or COUNTED_UPPER(foo) == 'B'").getMemoSize());
+  }
+
+  @Test
+  public void testFoldingPreservesErrors() {
+    // the error is raised when the expression is evaluated, not when it is compiled
+    StellarExpression expression = optimize("JOIN('abc', ',')");
+    Assert.assertFalse(expression.getRoot() instanceof ConstantExpression);
+    try {
+      expression.apply(x -> null, functionResolver, Context.EMPTY_CONTEXT());
+      Assert.fail("Expected a ParseException");
+    } catch (ParseException e) {
+      Assert.assertTrue(e.getMessage().startsWith("Unable to execute"));
+    }
+  }
+
+  @Test
+  public void testFunctionFailuresAreWrappedOnce() {
+    StellarExpression expression = optimize("TO_UPPER(REJECT(foo))");
+    try {
+      expression.apply(x -> "abc", functionResolver, Context.EMPTY_CONTEXT());
+      Assert.fail("Expected a ParseException");
+    } catch (ParseException e) {
+      Assert.assertEquals("Unable to execute: Rejected abc", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testWrappedFailuresAreNotWrappedAgain() {
+    StellarExpression expression = optimize("TO_UPPER(REJECT_WRAPPED(foo))");
+    try {
+      expression.apply(x -> "abc", functionResolver, Context.EMPTY_CONTEXT());
+      Assert.fail("Expected a ParseException");
+    } catch (ParseException e) {
+      Assert.assertEquals("Unable to execute: Rejected abc", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testCommonSubExpression() {
+    String rule = "COUNTED_LOWER(foo) == 'abc' or COUNTED_LOWER(foo) == 'def' or COUNTED_LOWER(foo) == 'ghi'";
+    StellarExpression expression = optimize(rule);
+    Assert.assertEquals(1, expression.getMemoSize());
+
+    Map<String, Object> variables = ImmutableMap.of("foo", "GHI");
+    Object result = expression.apply(new MapVariableResolver(variables), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(true, result);
+    Assert.assertEquals(1, CountedLower.calls);
+  }
+
+  @Test
+  public void testCommonSubExpressionAcrossStatements() {
+    List<String> rules = ImmutableList.of(
+            "COUNTED_LOWER(foo) == 'abc'",
+            "COUNTED_LOWER(foo) == 'def'",
+            "COUNTED_LOWER(foo) != 'ghi'"
+    );
+    StellarProgram program = processor.compile(rules, Collections.emptySet(), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(1, program.getMemoSize());
+
+    Map<String, Object> variables = ImmutableMap.of("foo", "DEF");
+    ExpressionState state = program.createState(new MapVariableResolver(variables), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(false, program.getStatement(0).apply(state));
+    Assert.assertEquals(true, program.getStatement(1).apply(state));
+    Assert.assertEquals(1, CountedLower.calls);
+  }
+
+  @Test
+  public void testMutableResultsAreNotShared() {
+    // each statement's list may be written to a different field and modified there
+    Assert.assertFalse(optimize("SPLIT('a,b', ',')").getRoot() instanceof ConstantExpression);
+    List<String> rules = ImmutableList.of("SPLIT(foo, ',')", "SPLIT(foo, ',')");
+    StellarProgram program = processor.compile(rules, Collections.emptySet(), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(0, program.getMemoSize());
+
+    ExpressionState state = program.createState(new MapVariableResolver(ImmutableMap.of("foo", "a,b")), functionResolver, Context.EMPTY_CONTEXT());
+    List<Object> first = (List<Object>) program.getStatement(0).apply(state);
+    first.add("c");
+    Assert.assertEquals(ImmutableList.of("a", "b"), program.getStatement(1).apply(state));
+  }
+
+  @Test
+  public void testAssignedVariablesAreNotSharedAcrossStatements() {
+    List<String> rules = ImmutableList.of(
+            "COUNTED_LOWER(foo)",
+            "COUNTED_LOWER(foo) == COUNTED_LOWER(bar)",
+            "COUNTED_LOWER(bar)"
+    );
+    StellarProgram program = processor.compile(rules, ImmutableSet.of("foo"), functionResolver, Context.EMPTY_CONTEXT());
+
+    // 'COUNTED_LOWER(bar)' is shared across statements, 'COUNTED_LOWER(foo)' is not
+    Assert.assertEquals(1, program.getMemoSize());
+  }
+
+  @Test
+  public void testVariablesResolvedOnce() {
+    List<String> rules = ImmutableList.of(
+            "foo == 'abc' or bar == 'abc'",
+            "foo == 'def' and exists(bar)",
+            "COUNTED_UPPER(foo) == 'DEF'"
+    );
+    StellarProgram program = processor.compile(rules, Collections.emptySet(), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(ImmutableList.of("foo", "bar"), program.getVariables());
+
+    Map<String, Object> variables = ImmutableMap.of("foo", "def", "bar", "xyz");
+    Map<String, Integer> resolved = new HashMap<>();
+    ExpressionState state = program.createState(v -> {
+      resolved.merge(v, 1, Integer::sum);
+      return variables.get(v);
+    }, functionResolver, Context.EMPTY_CONTEXT());
+    for (StellarExpression statement : program.getStatements()) {
+      Assert.assertNotNull(statement.apply(state));
+    }
+    Assert.assertEquals(ImmutableMap.of("foo", 1, "bar", 1), resolved);
+  }
+
+  @Test
+  public void testAssignedVariablesAreResolvedOnEachReference() {
+    List<String> rules = ImmutableList.of("foo", "bar");
+    StellarProgram program = processor.compile(rules, ImmutableSet.of("foo"), functionResolver, Context.EMPTY_CONTEXT());
+    Assert.assertEquals(ImmutableList.of("bar"), program.getVariables());
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.CallSite;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.SpecializableFunction;
+import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.StellarFunction;
+import org.apache.metron.common.dsl.functions.DateFunctions;
+import org.apache.metron.common.dsl.functions.NetworkFunctions;
+import org.apache.metron.common.dsl.functions.StringFunctions;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.dsl.functions.resolver.SimpleFunctionResolver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class StellarSpecializationTest {
+
+  /**
+   * Prefixes a string; counts the number of times it is specialized.
+   */
+  @Stellar(name="PREFIX")
+  public static class Prefix extends BaseStellarFunction implements SpecializableFunction {
+    static int specializations = 0;
+
+    @Override
+    public Object apply(List<Object> args) {
+      return args.get(0) + "" + args.get(1);
+    }
+
+    @Override
+    public StellarFunction specialize(CallSite callSite, Context context) {
+      if(!callSite.isConstant(0)) {
+        return null;
+      }
+      specializations++;
+      String prefix = "" + callSite.getConstant(0);
+      return new BaseStellarFunction() {
+        @Override
+        public Object apply(List<Object> args) {
+          return prefix + args.get(1);
+        }
+      };
+    }
+  }
+
+  private FunctionResolver functionResolver;
+
+  @Before
+  public void setup() {
+    Prefix.specializations = 0;
+    functionResolver = new SimpleFunctionResolver()
+            .withClass(Prefix.class)
+            .withClass(StringFunctions.RegexpMatch.class)
+            .withClass(NetworkFunctions.InSubnet.class)
+            .withClass(NetworkFunctions.ExtractTLD.class)
+            .withClass(DateFunctions.ToTimestamp.class);
+  }
+
+  private Object run(String rule, Map<String, Object> variables) {
+    StellarExpression expression = new StellarProcessor().compile(rule);
+    return expression.apply(new MapVariableResolver(variables), functionResolver, Context.EMPTY_CONTEXT());
+  }
+
+  @Test
+  public void testSpecializedOncePerCall() {
+    StellarExpression expression = new StellarProcessor().compile("PREFIX('a', foo) == 'ab' or PREFIX(foo, 'a') == 'ba'");
+    for(String foo : new String[] { "b", "c", "d" }) {
+      expression.apply(new MapVariableResolver(ImmutableMap.of("foo", foo)), functionResolver, Context.EMPTY_CONTEXT());
+    }
+    Assert.assertEquals(1, Prefix.specializations);
+  }
+
+  @Test
+  public void testRegexpMatch() {
+    Assert.assertEquals(true, run("REGEXP_MATCH(foo, '^ca.*y$')", ImmutableMap.of("foo", "casey")));
+    Assert.assertEquals(false, run("REGEXP_MATCH(foo, '^ca.*y$')", ImmutableMap.of("foo", "david")));
+    Assert.assertEquals(false, run("REGEXP_MATCH(missing, '^ca.*y$')", ImmutableMap.of()));
+    Assert.assertEquals(true, run("REGEXP_MATCH(foo, pattern)", ImmutableMap.of("foo", "casey", "pattern", "c.*")));
+  }
+
+  @Test
+  public void testInSubnet() {
+    Assert.assertEquals(true, run("IN_SUBNET(ip, '192.168.0.0/24', '10.0.0.0/24')", ImmutableMap.of("ip", "10.0.0.1")));
+    Assert.assertEquals(false, run("IN_SUBNET(ip, '192.168.0.0/24', '11.0.0.0/24')", ImmutableMap.of("ip", "10.0.0.1")));
+    Assert.assertEquals(false, run("IN_SUBNET(missing, '192.168.0.0/24')", ImmutableMap.of()));
+  }
+
+  @Test
+  public void testDomain() {
+    Assert.assertEquals("co.uk", run("DOMAIN_TO_TLD('mail.yahoo.co.uk')", ImmutableMap.of()));
+  }
+
+  @Test
+  public void testToEpochTimestamp() {
+    Map<String, Object> variables = ImmutableMap.of("foo", "2016-01-05 17:02:30");
+    Assert.assertEquals(1452013350000L, run("TO_EPOCH_TIMESTAMP(foo, 'yyyy-MM-dd HH:mm:ss', 'UTC')", variables));
+    Assert.assertNull(run("TO_EPOCH_TIMESTAMP(foo, 'yyyy-MM-dd', 'UTC')", ImmutableMap.of("foo", "not a date")));
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.metron.common.dsl.Stellar;
 import org.apache.metron.common.dsl.StellarFunction;
 import org.apache.metron.common.dsl.StellarFunctions;
 import org.apache.metron.common.dsl.VariableResolver;
+import org.apache.metron.common.stellar.expression.ArithmeticExpression;
 import org.apache.metron.common.utils.SerDeUtils;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -43,6 +44,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import static org.apache.metron.common.dsl.functions.resolver.ClasspathFunctionResolver.effectiveClassPathUrls;
 
@@ -248,6 +250,74 @@ public class StellarTest {
     }
   }
 
+  @Test
+  public void testDivisionByZero() {
+    Assert.assertEquals(Double.POSITIVE_INFINITY, run("1 / zero", ImmutableMap.of("zero", 0)));
+  }
+
+  @Test
+  public void testIntegerArithmetic() {
+    Context context = new Context.Builder()
+            .with(Context.Capabilities.GLOBAL_CONFIG, () -> ImmutableMap.of(ArithmeticExpression.INTEGER_ARITHMETIC_KEY, true))
+            .build();
+    {
+      String query = "count + 1";
+      Assert.assertEquals(11, run(query, ImmutableMap.of("count", 10), context));
+      Assert.assertEquals(11L, run(query, ImmutableMap.of("count", 10L), context));
+      Assert.assertEquals(11.5, run(query, ImmutableMap.of("count", 10.5), context));
+      Assert.assertEquals(1, run(query, new HashMap<>(), context));
+    }
+    {
+      String query = "50 * (true == false ? 2 : 10) + 20";
+      Assert.assertEquals(520, run(query, new HashMap<>(), context));
+    }
+    {
+      // the type of the result follows the operands, and division truncates
+      Assert.assertEquals(3, run("6 / 2", new HashMap<>(), context));
+      Assert.assertEquals(3, run("7 / 2", new HashMap<>(), context));
+      Assert.assertEquals(-3, run("zero - 7 / 2", ImmutableMap.of("zero", 0), context));
+      Assert.assertEquals(3.5, run("7 / 2.0", new HashMap<>(), context));
+      Assert.assertEquals(2L, run("count / 2", ImmutableMap.of("count", 5L), context));
+    }
+    {
+      // overflow wraps around, as in Java
+      Assert.assertEquals(Integer.MIN_VALUE, run("count + 1", ImmutableMap.of("count", Integer.MAX_VALUE), context));
+      Assert.assertEquals(Integer.MAX_VALUE, run("count - 1", ImmutableMap.of("count", Integer.MIN_VALUE), context));
+      Assert.assertEquals(1, run("count * count", ImmutableMap.of("count", Integer.MAX_VALUE), context));
+      Assert.assertEquals(Integer.MIN_VALUE, run("count / (zero - 1)", ImmutableMap.of("count", Integer.MIN_VALUE, "zero", 0), context));
+      Assert.assertEquals(-2L, run("count * 2", ImmutableMap.of("count", Long.MAX_VALUE), context));
+    }
+    {
+      String query = "(count + 1) * 2 - one";
+      Assert.assertEquals(6000000001L, run(query, ImmutableMap.of("count", 3000000000L, "one", 1), context));
+    }
+    {
+      String query = "3000000000 + 1";
+      Assert.assertEquals(3000000001L, run(query, new HashMap<>(), context));
+    }
+    {
+      String query = "count == 9007199254740993";
+      Assert.assertEquals(false, run(query, ImmutableMap.of("count", 9007199254740992L), context));
+    }
+  }
+
+  @Test(expected = ParseException.class)
+  public void testIntegerDivisionByZero() {
+    Context context = new Context.Builder()
+            .with(Context.Capabilities.GLOBAL_CONFIG, () -> ImmutableMap.of(ArithmeticExpression.INTEGER_ARITHMETIC_KEY, true))
+            .build();
+    run("1 / zero", ImmutableMap.of("zero", 0), context);
+  }
+
+  @Test
+  public void testIntegerArithmeticIsDecidedAtCompileTime() {
+    Context context = new Context.Builder()
+            .with(Context.Capabilities.GLOBAL_CONFIG, () -> ImmutableMap.of(ArithmeticExpression.INTEGER_ARITHMETIC_KEY, true))
+            .build();
+    StellarExpression expression = new StellarProcessor().compile("count / 2", StellarFunctions.FUNCTION_RESOLVER(), context);
+    Assert.assertEquals(2, expression.apply(x -> 5, StellarFunctions.FUNCTION_RESOLVER(), Context.EMPTY_CONTEXT()));
+  }
+
   @Test
   public void testNumericOperations() {
     {
@@ -573,6 +643,28 @@ public class StellarTest {
     Assert.assertFalse(runPredicate("foo not in [ 'casey', 'david' ] and 'casey' == foo", v -> variableMap.get(v)));
   }
 
+  @Test
+  public void testShortCircuit() throws Exception {
+    final Map<String, Object> variableMap = new HashMap<String, Object>() {{
+      put("foo", "casey");
+      put("bar", "david");
+    }};
+    final Set<String> resolved = new HashSet<>();
+    VariableResolver resolver = v -> {
+      resolved.add(v);
+      return variableMap.get(v);
+    };
+    Assert.assertFalse(runPredicate("false and foo == 'casey'", resolver));
+    Assert.assertTrue(runPredicate("true or foo == 'casey'", resolver));
+    Assert.assertTrue(runPredicate("if true then true else foo == 'casey'", resolver));
+    Assert.assertTrue(runPredicate("false ? foo == 'casey' : true", resolver));
+    Assert.assertTrue(runPredicate("bar in [ 'david', foo ]", resolver));
+    Assert.assertFalse(runPredicate("missing in [ foo ]", resolver));
+    Assert.assertEquals(ImmutableSet.of("bar", "missing"), resolved);
+    Assert.assertFalse(runPredicate("false and missing", resolver));
+    Assert.assertTrue(runPredicate("exists(foo) or missing", resolver));
+  }
+
   @Test
   public void testExists() throws Exception {
     final Map<String, String> variableMap = new HashMap<String, String>() {{
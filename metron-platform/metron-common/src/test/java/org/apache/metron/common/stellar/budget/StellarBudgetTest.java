@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.budget;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.dsl.BaseStellarFunction;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.Stellar;
+import org.apache.metron.common.dsl.functions.StringFunctions;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.dsl.functions.resolver.SimpleFunctionResolver;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.apache.metron.common.utils.ConversionUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class StellarBudgetTest {
+
+  @Stellar(name="SLEEP", description="Sleeps and then returns its second argument", params={"millis", "value"}, returns="value")
+  public static class Sleep extends BaseStellarFunction {
+    @Override
+    public Object apply(List<Object> args) {
+      try {
+        Thread.sleep(ConversionUtils.convert(args.get(0), Long.class));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return args.get(1);
+    }
+  }
+
+  private FunctionResolver functionResolver;
+
+  @Before
+  public void setup() {
+    functionResolver = new SimpleFunctionResolver().withClass(StringFunctions.ToUpper.class)
+                                                   .withClass(Sleep.class);
+  }
+
+  private Object run(String rule, StellarBudget budget) {
+    Context context = new Context.Builder().build();
+    budget.addTo(context);
+    return new StellarProcessor().parse(rule, new MapVariableResolver(ImmutableMap.of("foo", "casey")), functionResolver, context);
+  }
+
+  @Test
+  public void testCreate() {
+    Assert.assertNull(StellarBudget.create(null));
+    Assert.assertNull(StellarBudget.create(ImmutableMap.of(StellarBudget.ACTION_KEY, "ERROR")));
+    StellarBudget budget = StellarBudget.create(ImmutableMap.of( StellarBudget.MAX_TIME_KEY, 250
+                                                               , StellarBudget.MAX_FUNCTION_CALLS_KEY, "100"
+                                                               , StellarBudget.ACTION_KEY, "disable"
+                                                               ));
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(250), budget.getMaxTimeNanos());
+    Assert.assertEquals(100, budget.getMaxFunctionCalls());
+    Assert.assertEquals(StellarBudget.Action.DISABLE, budget.getAction());
+  }
+
+  @Test
+  public void testFunctionCallBudget() {
+    StellarBudget budget = new StellarBudget(0, 2, StellarBudget.Action.NULL, 60);
+    Assert.assertEquals("CASEY", run("TO_UPPER(TO_UPPER(foo))", budget));
+    Assert.assertNull(run("TO_UPPER(TO_UPPER(TO_UPPER(foo)))", budget));
+    Assert.assertEquals(1L, budget.getViolations(false).get("violations"));
+    Assert.assertEquals(1L, budget.getViolations(false).get("violations.TO_UPPER(TO_UPPER(TO_UPPER(foo)))"));
+  }
+
+  @Test
+  public void testTimeBudget() {
+    StellarBudget budget = new StellarBudget(10, 0, StellarBudget.Action.NULL, 60);
+    Assert.assertEquals("CASEY", run("TO_UPPER(foo)", budget));
+    // the slow call is not interrupted, but the rest of the expression is abandoned
+    Assert.assertNull(run("TO_UPPER(SLEEP(50, foo))", budget));
+    // exceeding the budget in the last call still counts
+    Assert.assertNull(run("SLEEP(50, foo)", budget));
+    Assert.assertEquals(2L, budget.getViolations(false).get("violations"));
+  }
+
+  @Test(expected = BudgetExceededException.class)
+  public void testErrorAction() {
+    run("TO_UPPER(TO_UPPER(foo))", new StellarBudget(0, 1, StellarBudget.Action.ERROR, 60));
+  }
+
+  @Test
+  public void testDisableAction() {
+    StellarBudget budget = new StellarBudget(0, 1, StellarBudget.Action.DISABLE, 60);
+    Assert.assertNull(run("TO_UPPER(TO_UPPER(foo))", budget));
+    Assert.assertTrue(budget.isDisabled("TO_UPPER(TO_UPPER(foo))"));
+    Assert.assertNull(run("TO_UPPER(TO_UPPER(foo))", budget));
+    // other expressions are unaffected
+    Assert.assertEquals("CASEY", run("TO_UPPER(foo)", budget));
+
+    Map<String, Object> violations = budget.getViolations(true);
+    Assert.assertEquals(1L, violations.get("violations"));
+    Assert.assertEquals(2L, violations.get("skipped"));
+    Assert.assertEquals(1, violations.get("disabled"));
+    Assert.assertEquals(0L, budget.getViolations(true).get("violations"));
+  }
+
+  @Test
+  public void testDisabledExpressionIsRestored() {
+    StellarBudget budget = new StellarBudget(0, 1, StellarBudget.Action.DISABLE, 0);
+    Assert.assertNull(run("TO_UPPER(TO_UPPER(foo))", budget));
+    Assert.assertFalse(budget.isDisabled("TO_UPPER(TO_UPPER(foo))"));
+    Assert.assertEquals("CASEY", run("TO_UPPER(foo)", budget));
+  }
+}
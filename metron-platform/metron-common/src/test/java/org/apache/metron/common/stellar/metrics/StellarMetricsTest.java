@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.stellar.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
+import org.apache.metron.common.dsl.functions.StringFunctions;
+import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.dsl.functions.resolver.SimpleFunctionResolver;
+import org.apache.metron.common.stellar.StellarProcessor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class StellarMetricsTest {
+
+  private FunctionResolver functionResolver;
+
+  @Before
+  public void setup() {
+    functionResolver = new SimpleFunctionResolver().withClass(StringFunctions.ToUpper.class);
+  }
+
+  private void run(String rule, Context context, String foo) {
+    new StellarProcessor().parse(rule, new MapVariableResolver(ImmutableMap.of("foo", foo)), functionResolver, context);
+  }
+
+  @Test
+  public void testCountsAndTimes() {
+    StellarMetrics metrics = new StellarMetrics(1.0);
+    Context context = new Context.Builder().build();
+    metrics.addTo(context);
+    for(int i = 0;i < 3;++i) {
+      run("TO_UPPER(foo) == 'CASEY'", context, "casey");
+    }
+    Map<String, Object> expression = metrics.getExpressionMetrics(false).get("TO_UPPER(foo) == 'CASEY'");
+    Assert.assertEquals(3L, expression.get("count"));
+    Assert.assertEquals(3L, expression.get("sampled"));
+    Map<String, Object> function = metrics.getFunctionMetrics(false).get("TO_UPPER");
+    Assert.assertEquals(3L, function.get("count"));
+    Assert.assertEquals(3L, metrics.getMetrics(false).get("function.TO_UPPER.count"));
+  }
+
+  @Test
+  public void testReset() {
+    StellarMetrics metrics = new StellarMetrics(1.0);
+    Context context = new Context.Builder().build();
+    metrics.addTo(context);
+    run("TO_UPPER(foo)", context, "casey");
+    Assert.assertEquals(1L, metrics.getMetrics(true).get("function.TO_UPPER.count"));
+    Assert.assertTrue(metrics.getMetrics(true).isEmpty());
+  }
+
+  @Test
+  public void testSampling() {
+    StellarMetrics metrics = new StellarMetrics(0.0);
+    Context context = new Context.Builder().build();
+    metrics.addTo(context);
+    for(int i = 0;i < 10;++i) {
+      run("TO_UPPER(foo)", context, "casey");
+    }
+    Map<String, Object> function = metrics.getFunctionMetrics(false).get("TO_UPPER");
+    Assert.assertEquals(10L, function.get("count"));
+    Assert.assertEquals(0L, function.get("sampled"));
+  }
+
+  @Test
+  public void testNotRecordedWithoutCapability() {
+    StellarMetrics metrics = new StellarMetrics(1.0);
+    run("TO_UPPER(foo)", new Context.Builder().build(), "casey");
+    Assert.assertTrue(metrics.getMetrics(false).isEmpty());
+    Assert.assertNull(StellarMetrics.get(new Context.Builder().build()));
+  }
+
+  @Test
+  public void testCreate() {
+    Assert.assertNull(StellarMetrics.create(ImmutableMap.of()));
+    Assert.assertNull(StellarMetrics.create(ImmutableMap.of(StellarMetrics.METRICS_ENABLED_KEY, false)));
+    StellarMetrics metrics = StellarMetrics.create(ImmutableMap.of(StellarMetrics.METRICS_ENABLED_KEY, "true"));
+    Assert.assertNotNull(metrics);
+    Assert.assertEquals(StellarMetrics.DEFAULT_SAMPLE_RATE, metrics.getSampleRate(), 1e-9);
+    metrics = StellarMetrics.create(ImmutableMap.of(StellarMetrics.METRICS_ENABLED_KEY, true, StellarMetrics.METRICS_SAMPLE_RATE_KEY, 0.5));
+    Assert.assertEquals(0.5, metrics.getSampleRate(), 1e-9);
+    Assert.assertEquals(StellarMetrics.DEFAULT_INTERVAL_SECS, StellarMetrics.getInterval(ImmutableMap.of()));
+    Assert.assertEquals(10, StellarMetrics.getInterval(ImmutableMap.of(StellarMetrics.METRICS_INTERVAL_KEY, "10")));
+  }
+
+  @Test
+  public void testHistogram() {
+    LatencyStats stats = new LatencyStats();
+    for(int i = 0;i < 99;++i) {
+      stats.record(TimeUnit.MICROSECONDS.toNanos(3));
+    }
+    stats.record(TimeUnit.MILLISECONDS.toNanos(1));
+    stats.record(-1);
+    Map<String, Object> snapshot = stats.snapshot(false);
+    Assert.assertEquals(101L, snapshot.get("count"));
+    Assert.assertEquals(100L, snapshot.get("sampled"));
+    Assert.assertEquals(4L, snapshot.get("p50_us"));
+    Assert.assertEquals(4L, snapshot.get("p99_us"));
+    Assert.assertEquals(1000L, snapshot.get("max_us"));
+  }
+}
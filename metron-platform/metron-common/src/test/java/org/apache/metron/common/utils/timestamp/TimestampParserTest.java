@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.common.utils.timestamp;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.TimeZone;
+
+public class TimestampParserTest {
+
+  private static final ZoneId UTC = ZoneOffset.UTC;
+
+  @Test
+  public void testZone() {
+    Assert.assertEquals(1452013350000L, TimestampParser.of("yyyy-MM-dd HH:mm:ss", UTC).parse("2016-01-05 17:02:30"));
+    Assert.assertEquals(1452013350000L - 5 * 3600 * 1000L
+                       , TimestampParser.of("yyyy-MM-dd HH:mm:ss", "GMT+05:00").parse("2016-01-05 17:02:30")
+                       );
+  }
+
+  @Test
+  public void testParsedZoneOverridesParser() {
+    TimestampParser parser = TimestampParser.of("yyyy-MM-dd HH:mm:ss.S z", "GMT+05:00");
+    Assert.assertEquals(1452013350512L, parser.parse("2016-01-05 17:02:30.512 UTC"));
+    Assert.assertEquals(1452013350000L, TimestampParser.of("yyyy-MM-dd'T'HH:mm:ssXXX", UTC).parse("2016-01-05T18:02:30+01:00"));
+  }
+
+  @Test
+  public void testFraction() {
+    TimestampParser parser = TimestampParser.of("yyyy-MM-dd HH:mm:ss.S", UTC);
+    Assert.assertEquals(1452013350512L, parser.parse("2016-01-05 17:02:30.512"));
+    Assert.assertEquals(1452013350500L, parser.parse("2016-01-05 17:02:30.5"));
+    Assert.assertEquals(1452013350012L, parser.parse("2016-01-05 17:02:30.012345"));
+  }
+
+  @Test
+  public void testSameMinuteMatchesFullParse() {
+    TimestampParser parser = TimestampParser.of("yyyy-MM-dd HH:mm:ss.SSS", "America/New_York");
+    String[] timestamps = { "2016-01-05 17:02:30.512"
+                          , "2016-01-05 17:02:31.000"
+                          , "2016-01-05 17:02:59.999"
+                          , "2016-01-05 17:02:07.1"
+                          , "2016-01-05 17:02:60.000"
+                          , "2016-01-05 17:03:00.000"
+                          , "2016-01-05 17:02:30.512 trailing"
+                          };
+    for (String timestamp : timestamps) {
+      Assert.assertEquals(timestamp, parser.parseFully(timestamp), parser.parse(timestamp));
+    }
+    parser = TimestampParser.of("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", UTC);
+    Assert.assertEquals(1452013350123L, parser.parse("2016-01-05T17:02:30.123Z"));
+    Assert.assertEquals(1452013351456L, parser.parse("2016-01-05T17:02:31.456Z"));
+    try {
+      parser.parse("2016-01-05T17:02:31.456");
+      Assert.fail("A timestamp without its suffix should not parse");
+    }
+    catch(DateTimeParseException e) {
+    }
+  }
+
+  @Test
+  public void testDaylightSavingTime() {
+    TimestampParser parser = TimestampParser.of("yyyy-MM-dd HH:mm:ss", "America/New_York");
+    // 2016-03-13 03:30 EDT
+    Assert.assertEquals(1457854200000L, parser.parse("2016-03-13 03:30:00"));
+    Assert.assertEquals(1457854200000L + 1000, parser.parse("2016-03-13 03:30:01"));
+    // 2016-03-12 03:30 EST
+    Assert.assertEquals(1457771400000L, parser.parse("2016-03-12 03:30:00"));
+  }
+
+  @Test
+  public void testPaddedDay() {
+    TimestampParser parser = TimestampParser.of("yyyy MMM d HH:mm:ss", UTC);
+    Assert.assertEquals(1459875600000L, parser.parse("2016 Apr  5 17:00:00"));
+    Assert.assertEquals(1459875600000L, parser.parse("2016 Apr 5 17:00:00"));
+    Assert.assertEquals(1459875600000L, parser.parse("2016 APR 05 17:00:00"));
+    Assert.assertEquals(1460742448000L, TimestampParser.of("yyyy MMM dd HH:mm:ss", UTC).parse("2016 Apr 15 17:47:28"));
+  }
+
+  @Test
+  public void testMissingFieldsDefault() {
+    Assert.assertEquals(8 * 3600 * 1000L + 62000L, TimestampParser.of("HH:mm:ss", UTC).parse("08:01:02"));
+    Assert.assertEquals(1459814400000L, TimestampParser.of("yyyy-MM-dd", UTC).parse("2016-04-05"));
+  }
+
+  @Test
+  public void testTrailingTextIgnored() {
+    Assert.assertEquals(1452013350000L, TimestampParser.of("yyyy-MM-dd'T'HH:mm:ss", UTC).parse("2016-01-05T17:02:30.123Z"));
+  }
+
+  @Test(expected = DateTimeParseException.class)
+  public void testInvalid() {
+    TimestampParser.of("yyyy-MM-dd HH:mm:ss", UTC).parse("not a date");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPattern() {
+    TimestampParser.of("yyyy-MM-dd HH:mm:ss bbb", UTC);
+  }
+
+  @Test
+  public void testSimpleDateFormat() throws Exception {
+    String[][] cases = { { "yyyy-MM-dd HH:mm:ss.S", "2016-01-05 17:02:30.512" }
+                       , { "yyyy-MM-dd HH:mm:ss.S", "2016-01-05 17:02:30.5" }
+                       , { "yyyy-MM-dd HH:mm:ss.S", "2016-01-05 17:02:30.012345" }
+                       , { "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "2016-01-05T17:02:30.123Z" }
+                       , { "yy-MM-dd HH:mm", "99-01-05 17:02" }
+                       , { "EEE, d MMM yyyy HH:mm:ss Z", "Wed, 4 Jul 2001 12:08:56 -0700" }
+                       , { "yyyy-MM-dd'T'HH:mm:ss.SSSXXX", "2001-07-04T12:08:56.235-07:00" }
+                       , { "[yyyy-MM-dd HH:mm:ss]", "[2016-01-05 17:02:30]" }
+                       , { "yyyy MMM dd HH:mm:ss", "2016 Apr 15 17:47:28" }
+                       };
+    for (String[] c : cases) {
+      SimpleDateFormat format = new SimpleDateFormat(c[0]);
+      format.setTimeZone(TimeZone.getTimeZone("UTC"));
+      Assert.assertEquals(c[0] + " " + c[1], format.parse(c[1]).getTime(), TimestampParser.ofSimpleDateFormat(c[0], UTC).parse(c[1]));
+    }
+  }
+
+  @Test
+  public void testSimpleDateFormatSameMinute() {
+    TimestampParser parser = TimestampParser.ofSimpleDateFormat("yyyy-MM-dd HH:mm:ss.S", UTC);
+    Assert.assertEquals(1452013350512L, parser.parse("2016-01-05 17:02:30.512"));
+    Assert.assertEquals(1452013350005L, parser.parse("2016-01-05 17:02:30.5"));
+    Assert.assertEquals(1452013362345L, parser.parse("2016-01-05 17:02:30.012345"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSimpleDateFormat() {
+    // "n" is a java.time letter, but not a SimpleDateFormat one
+    TimestampParser.ofSimpleDateFormat("yyyy-MM-dd HH:mm:ss.n", UTC);
+  }
+
+  @Test
+  public void testShared() {
+    Assert.assertSame(TimestampParser.of("yyyy-MM-dd", UTC), TimestampParser.of("yyyy-MM-dd", UTC));
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    TimestampParser parser = TimestampParser.of("yyyy-MM-dd HH:mm:ss", UTC);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(parser);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      TimestampParser copy = (TimestampParser) in.readObject();
+      Assert.assertEquals(1452013350000L, copy.parse("2016-01-05 17:02:30"));
+    }
+  }
+
+  @Test
+  public void testSimpleDateFormatSerialization() throws Exception {
+    TimestampParser parser = TimestampParser.ofSimpleDateFormat("yyyy-MM-dd HH:mm:ss.S", UTC);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(parser);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      TimestampParser copy = (TimestampParser) in.readObject();
+      Assert.assertSame(parser, copy);
+      Assert.assertEquals(1452013350005L, copy.parse("2016-01-05 17:02:30.5"));
+    }
+  }
+}
@@ -35,6 +35,8 @@ public class CSVExtractor extends CSVConverter implements Extractor {
   private int typeColumn;
   private String type;
   private int indicatorColumn;
+  private String typeColumnName;
+  private String indicatorColumnName;
 
   private LookupConverter converter = LookupConverters.ENRICHMENT.getConverter();
 
@@ -56,24 +58,19 @@ public class CSVExtractor extends CSVConverter implements Extractor {
   }
   @Override
   public Iterable<LookupKV> extract(String line) throws IOException {
-    if(ignore(line)) {
-      return Collections.emptyList();
-    }
-    String[] tokens = parser.parseLine(line);
-
-    LookupKey key = converter.toKey(getType(tokens), tokens[indicatorColumn]);
     Map<String, Object> values = new HashMap<>();
-    for(Map.Entry<String, Integer> kv : columnMap.entrySet()) {
-      values.put(kv.getKey(), tokens[kv.getValue()]);
+    if(!toMap(line, values)) {
+      return Collections.emptyList();
     }
+    LookupKey key = converter.toKey(getType(values), (String) values.get(indicatorColumnName));
     return Arrays.asList(new LookupKV(key, converter.toValue(values)));
   }
 
 
 
-  private String getType(String[] tokens) {
+  private String getType(Map<String, Object> values) {
     if(type == null) {
-      return tokens[typeColumn];
+      return (String) values.get(typeColumnName);
     }
     else {
       return type;
@@ -82,18 +79,36 @@ public class CSVExtractor extends CSVConverter implements Extractor {
 
 
 
+  private String getColumnName(int position) {
+    for(Map.Entry<String, Integer> kv : columnMap.entrySet()) {
+      if(kv.getValue() == position) {
+        return kv.getKey();
+      }
+    }
+    return null;
+  }
+
   @Override
   public void initialize(Map<String, Object> config) {
     super.initialize(config);
 
     if(config.containsKey(INDICATOR_COLUMN_KEY)) {
-      indicatorColumn = columnMap.get(config.get(INDICATOR_COLUMN_KEY).toString());
+      indicatorColumnName = config.get(INDICATOR_COLUMN_KEY).toString();
+      indicatorColumn = columnMap.get(indicatorColumnName);
     }
     if(config.containsKey(TYPE_KEY)) {
       type = config.get(TYPE_KEY).toString();
     }
     else if(config.containsKey(TYPE_COLUMN_KEY)) {
-      typeColumn = columnMap.get(config.get(TYPE_COLUMN_KEY).toString());
+      typeColumnName = config.get(TYPE_COLUMN_KEY).toString();
+      typeColumn = columnMap.get(typeColumnName);
+    }
+    // without a configured column, the first column is used
+    if(indicatorColumnName == null) {
+      indicatorColumnName = getColumnName(indicatorColumn);
+    }
+    if(type == null && typeColumnName == null) {
+      typeColumnName = getColumnName(typeColumn);
     }
     if(config.containsKey(LOOKUP_CONVERTER)) {
       converter = LookupConverters.getConverter((String) config.get(LOOKUP_CONVERTER));
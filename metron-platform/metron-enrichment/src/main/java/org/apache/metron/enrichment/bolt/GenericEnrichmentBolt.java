@@ -34,6 +34,8 @@ import org.apache.metron.common.configuration.ConfigurationType;
 import org.apache.metron.common.configuration.enrichment.SensorEnrichmentConfig;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.stellar.budget.StellarBudgetMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetric;
 import org.apache.metron.common.utils.ErrorUtils;
 import org.apache.metron.enrichment.configuration.Enrichment;
 import org.apache.metron.enrichment.interfaces.EnrichmentAdapter;
@@ -154,6 +156,8 @@ public class GenericEnrichmentBolt extends ConfiguredEnrichmentBolt {
       throw new IllegalStateException("Could not initialize adapter...");
     }
     initializeStellar();
+    StellarMetric.register(getConfigurations().getGlobalConfig(), stellarContext, topologyContext);
+    StellarBudgetMetric.register(getConfigurations().getGlobalConfig(), stellarContext, topologyContext);
   }
 
   protected void initializeStellar() {
@@ -19,12 +19,17 @@ package org.apache.metron.enrichment.bolt;
 
 import org.apache.storm.task.TopologyContext;
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.metron.common.configuration.enrichment.SensorEnrichmentConfig;
 import org.apache.metron.common.configuration.enrichment.handler.ConfigHandler;
 import org.apache.metron.common.configuration.enrichment.threatintel.ThreatTriageConfig;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.stellar.budget.StellarBudgetMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetric;
 import org.apache.metron.common.utils.ConversionUtils;
 import org.apache.metron.common.utils.MessageUtils;
 import org.apache.metron.threatintel.triage.ThreatTriageProcessor;
@@ -34,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 public class ThreatIntelJoinBolt extends EnrichmentJoinBolt {
 
@@ -41,6 +47,12 @@ public class ThreatIntelJoinBolt extends EnrichmentJoinBolt {
   private FunctionResolver functionResolver;
   private org.apache.metron.common.dsl.Context stellarContext;
 
+  /**
+   * The triage processor of each sensor enrichment config, so that its rules are compiled once.  A config
+   * is replaced, rather than changed, when it is updated, and the processor of the old config is released.
+   */
+  private transient Cache<SensorEnrichmentConfig, ThreatTriageProcessor> threatTriageProcessors;
+
   public ThreatIntelJoinBolt(String zookeeperUrl) {
     super(zookeeperUrl);
   }
@@ -64,6 +76,8 @@ public class ThreatIntelJoinBolt extends EnrichmentJoinBolt {
   public void prepare(Map map, TopologyContext topologyContext) {
     super.prepare(map, topologyContext);
     initializeStellar();
+    StellarMetric.register(getConfigurations().getGlobalConfig(), stellarContext, topologyContext);
+    StellarBudgetMetric.register(getConfigurations().getGlobalConfig(), stellarContext, topologyContext);
   }
 
   protected void initializeStellar() {
@@ -72,6 +86,7 @@ public class ThreatIntelJoinBolt extends EnrichmentJoinBolt {
                                 .build();
     StellarFunctions.initialize(stellarContext);
     this.functionResolver = StellarFunctions.FUNCTION_RESOLVER();
+    this.threatTriageProcessors = CacheBuilder.newBuilder().weakKeys().build();
   }
 
   @Override
@@ -129,8 +144,7 @@ public class ThreatIntelJoinBolt extends EnrichmentJoinBolt {
           LOG.debug(sourceType + ": Empty rules!");
         }
 
-        ThreatTriageProcessor threatTriageProcessor = new ThreatTriageProcessor(config, functionResolver, stellarContext);
-        Double triageLevel = threatTriageProcessor.apply(ret);
+        Double triageLevel = getThreatTriageProcessor(config).apply(ret);
         if(LOG.isDebugEnabled()) {
           String rules = Joiner.on('\n').join(triageConfig.getRiskLevelRules().entrySet());
           LOG.debug("Marked " + sourceType + " as triage level " + triageLevel + " with rules " + rules);
@@ -147,4 +161,16 @@ public class ThreatIntelJoinBolt extends EnrichmentJoinBolt {
 
     return ret;
   }
+
+  private ThreatTriageProcessor getThreatTriageProcessor(SensorEnrichmentConfig config) {
+    try {
+      return threatTriageProcessors.get(config, () -> new ThreatTriageProcessor(config, functionResolver, stellarContext));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Unable to compile the threat triage rules: " + cause.getMessage(), cause);
+    }
+  }
 }
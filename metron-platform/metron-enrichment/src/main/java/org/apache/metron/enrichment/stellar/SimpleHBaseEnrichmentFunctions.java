@@ -23,21 +23,26 @@ import com.google.common.cache.CacheLoader;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.log4j.Logger;
+import org.apache.metron.common.dsl.BatchStellarFunction;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.ParseException;
 import org.apache.metron.common.dsl.Stellar;
-import org.apache.metron.common.dsl.StellarFunction;
 import org.apache.metron.enrichment.converter.EnrichmentKey;
 import org.apache.metron.enrichment.converter.EnrichmentValue;
 import org.apache.metron.enrichment.lookup.EnrichmentLookup;
 import org.apache.metron.enrichment.lookup.LookupKV;
 import org.apache.metron.enrichment.lookup.accesstracker.AccessTracker;
 import org.apache.metron.enrichment.lookup.accesstracker.AccessTrackers;
+import org.apache.metron.enrichment.lookup.handler.KeyWithContext;
 import org.apache.metron.hbase.HTableProvider;
 import org.apache.metron.hbase.TableProvider;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -119,6 +124,53 @@ public class SimpleHBaseEnrichmentFunctions {
     }
   }
 
+  private static EnrichmentLookup getLookup(Cache<Table, EnrichmentLookup> cache, Table key) throws ExecutionException {
+    return cache.get(key, () -> {
+        HTableInterface hTable = provider.getTable(HBaseConfiguration.create(), key.name);
+        return new EnrichmentLookup(hTable, key.columnFamily, tracker);
+      }
+    );
+  }
+
+  /**
+   * Groups the calls of a batch that have an enrichment type and indicator by the table that they
+   * look up, so that each table is queried once.
+   * @return The positions of the calls to look up in each table.
+   */
+  private static Map<Table, List<Integer>> groupByTable(List<List<Object>> args) {
+    Map<Table, List<Integer>> ret = new LinkedHashMap<>();
+    for(int call = 0;call < args.size();++call) {
+      List<Object> callArgs = args.get(call);
+      if(callArgs.size() < 2) {
+        throw new IllegalStateException("Requires at least an enrichment type and indicator");
+      }
+      int i = 0;
+      String enrichmentType = (String) callArgs.get(i++);
+      String indicator = (String) callArgs.get(i++);
+      String table = (String) callArgs.get(i++);
+      String cf = (String) callArgs.get(i++);
+      if(enrichmentType == null || indicator == null) {
+        continue;
+      }
+      ret.computeIfAbsent(new Table(table, cf), k -> new ArrayList<>()).add(call);
+    }
+    return ret;
+  }
+
+  private static List<KeyWithContext<EnrichmentKey, EnrichmentLookup.HBaseContext>> getKeys( List<List<Object>> args
+                                                                                             , List<Integer> calls
+                                                                                             , EnrichmentLookup.HBaseContext hbaseContext
+                                                                                             )
+  {
+    List<KeyWithContext<EnrichmentKey, EnrichmentLookup.HBaseContext>> ret = new ArrayList<>(calls.size());
+    for(int call : calls) {
+      List<Object> callArgs = args.get(call);
+      EnrichmentKey key = new EnrichmentKey((String) callArgs.get(0), (String) callArgs.get(1));
+      ret.add(new KeyWithContext<>(key, hbaseContext));
+    }
+    return ret;
+  }
+
   @Stellar(name="EXISTS"
           ,namespace="ENRICHMENT"
           ,description="Interrogates the HBase table holding the simple hbase enrichment data and returns whether the" +
@@ -131,7 +183,7 @@ public class SimpleHBaseEnrichmentFunctions {
                     }
           ,returns = "True if the enrichment indicator exists and false otherwise"
           )
-  public static class EnrichmentExists implements StellarFunction {
+  public static class EnrichmentExists implements BatchStellarFunction {
     boolean initialized = false;
     private static Cache<Table, EnrichmentLookup> enrichmentCollateralCache = CacheBuilder.newBuilder()
                                                                                         .build();
@@ -154,11 +206,7 @@ public class SimpleHBaseEnrichmentFunctions {
       final Table key = new Table(table, cf);
       EnrichmentLookup lookup = null;
       try {
-        lookup = enrichmentCollateralCache.get(key, () -> {
-            HTableInterface hTable = provider.getTable(HBaseConfiguration.create(), key.name);
-            return new EnrichmentLookup(hTable, key.columnFamily, tracker);
-          }
-        );
+        lookup = getLookup(enrichmentCollateralCache, key);
       } catch (ExecutionException e) {
         LOG.error("Unable to retrieve enrichmentLookup: " + e.getMessage(), e);
         return false;
@@ -172,6 +220,38 @@ public class SimpleHBaseEnrichmentFunctions {
       }
     }
 
+    /**
+     * Looks up the indicators of a batch of calls with a single request to each table.
+     */
+    @Override
+    public List<Object> applyBatch(List<List<Object>> args, Context context) throws ParseException {
+      List<Object> ret = new ArrayList<>(Collections.nCopies(args.size(), false));
+      if(!initialized) {
+        return ret;
+      }
+      for(Map.Entry<Table, List<Integer>> kv : groupByTable(args).entrySet()) {
+        Table key = kv.getKey();
+        List<Integer> calls = kv.getValue();
+        EnrichmentLookup lookup = null;
+        try {
+          lookup = getLookup(enrichmentCollateralCache, key);
+        } catch (ExecutionException e) {
+          LOG.error("Unable to retrieve enrichmentLookup: " + e.getMessage(), e);
+          continue;
+        }
+        EnrichmentLookup.HBaseContext hbaseContext = new EnrichmentLookup.HBaseContext(lookup.getTable(), key.columnFamily);
+        try {
+          Iterator<Boolean> exists = lookup.exists(getKeys(args, calls, hbaseContext), true).iterator();
+          for(int call : calls) {
+            ret.set(call, exists.next());
+          }
+        } catch (IOException e) {
+          LOG.error("Unable to call exists: " + e.getMessage(), e);
+        }
+      }
+      return ret;
+    }
+
     @Override
     public void initialize(Context context) {
       try {
@@ -208,7 +288,7 @@ public class SimpleHBaseEnrichmentFunctions {
                     }
           ,returns = "A Map associated with the indicator and enrichment type.  Empty otherwise."
           )
-  public static class EnrichmentGet implements StellarFunction {
+  public static class EnrichmentGet implements BatchStellarFunction {
     boolean initialized = false;
     private static Cache<Table, EnrichmentLookup> enrichmentCollateralCache = CacheBuilder.newBuilder()
                                                                                         .build();
@@ -231,11 +311,7 @@ public class SimpleHBaseEnrichmentFunctions {
       final Table key = new Table(table, cf);
       EnrichmentLookup lookup = null;
       try {
-        lookup = enrichmentCollateralCache.get(key, () -> {
-                  HTableInterface hTable = provider.getTable(HBaseConfiguration.create(), key.name);
-                  return new EnrichmentLookup(hTable, key.columnFamily, tracker);
-                }
-        );
+        lookup = getLookup(enrichmentCollateralCache, key);
       } catch (ExecutionException e) {
         LOG.error("Unable to retrieve enrichmentLookup: " + e.getMessage(), e);
         return new HashMap<String, Object>();
@@ -253,6 +329,45 @@ public class SimpleHBaseEnrichmentFunctions {
       }
     }
 
+    /**
+     * Retrieves the values of the indicators of a batch of calls with a single request to each table.
+     */
+    @Override
+    public List<Object> applyBatch(List<List<Object>> args, Context context) throws ParseException {
+      List<Object> ret = new ArrayList<>(args.size());
+      if(!initialized) {
+        ret.addAll(Collections.nCopies(args.size(), false));
+        return ret;
+      }
+      for(int i = 0;i < args.size();++i) {
+        ret.add(new HashMap<String, Object>());
+      }
+      for(Map.Entry<Table, List<Integer>> kv : groupByTable(args).entrySet()) {
+        Table key = kv.getKey();
+        List<Integer> calls = kv.getValue();
+        EnrichmentLookup lookup = null;
+        try {
+          lookup = getLookup(enrichmentCollateralCache, key);
+        } catch (ExecutionException e) {
+          LOG.error("Unable to retrieve enrichmentLookup: " + e.getMessage(), e);
+          continue;
+        }
+        EnrichmentLookup.HBaseContext hbaseContext = new EnrichmentLookup.HBaseContext(lookup.getTable(), key.columnFamily);
+        try {
+          Iterator<LookupKV<EnrichmentKey, EnrichmentValue>> values = lookup.get(getKeys(args, calls, hbaseContext), true).iterator();
+          for(int call : calls) {
+            LookupKV<EnrichmentKey, EnrichmentValue> value = values.next();
+            if (value != null && value.getValue() != null && value.getValue().getMetadata() != null) {
+              ret.set(call, value.getValue().getMetadata());
+            }
+          }
+        } catch (IOException e) {
+          LOG.error("Unable to call exists: " + e.getMessage(), e);
+        }
+      }
+      return ret;
+    }
+
     @Override
     public void initialize(Context context) {
       try {
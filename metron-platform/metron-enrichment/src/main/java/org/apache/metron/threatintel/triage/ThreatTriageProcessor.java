@@ -25,18 +25,38 @@ import org.apache.metron.common.configuration.enrichment.threatintel.ThreatTriag
 import org.apache.metron.common.dsl.*;
 import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
 import org.apache.metron.common.stellar.StellarPredicateProcessor;
+import org.apache.metron.common.stellar.StellarProgram;
+import org.apache.metron.common.stellar.expression.ExpressionState;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Scores a message with the risk level rules of a threat triage configuration.
+ *
+ * The rules are compiled once, when the processor is created, so a processor should be reused for
+ * every message scored with the same configuration.
+ */
 public class ThreatTriageProcessor implements Function<Map, Double> {
   private SensorEnrichmentConfig sensorConfig;
   private ThreatIntelConfig threatIntelConfig;
   private ThreatTriageConfig threatTriageConfig;
   private Context context;
   private FunctionResolver functionResolver;
+  private StellarPredicateProcessor predicateProcessor = new StellarPredicateProcessor();
+  private List<Number> levels = new ArrayList<>();
+  private StellarProgram program;
+
+  /**
+   * For each rule, its statement in the program, or -1 if the rule is empty and so always matches.
+   */
+  private int[] statements;
+
   public ThreatTriageProcessor( SensorEnrichmentConfig config
                               , FunctionResolver functionResolver
                               , Context context
@@ -47,17 +67,31 @@ public class ThreatTriageProcessor implements Function<Map, Double> {
     this.threatTriageConfig = config.getThreatIntel().getTriageConfig();
     this.functionResolver = functionResolver;
     this.context = context;
+
+    // the rules are compiled together so that they share common sub-expressions
+    List<String> rules = new ArrayList<>();
+    statements = new int[threatTriageConfig.getRiskLevelRules().size()];
+    for(Map.Entry<String, Number> kv : threatTriageConfig.getRiskLevelRules().entrySet()) {
+      String rule = kv.getKey();
+      statements[levels.size()] = isBlank(rule) ? -1 : rules.size();
+      if(!isBlank(rule)) {
+        rules.add(rule);
+      }
+      levels.add(kv.getValue());
+    }
+    program = predicateProcessor.compile(rules, Collections.emptySet(), functionResolver, context);
   }
 
   @Nullable
   @Override
   public Double apply(@Nullable Map input) {
     List<Number> scores = new ArrayList<>();
-    StellarPredicateProcessor predicateProcessor = new StellarPredicateProcessor();
     VariableResolver resolver = new MapVariableResolver(input, sensorConfig.getConfiguration(), threatIntelConfig.getConfig());
-    for(Map.Entry<String, Number> kv : threatTriageConfig.getRiskLevelRules().entrySet()) {
-      if(predicateProcessor.parse(kv.getKey(), resolver, functionResolver, context)) {
-        scores.add(kv.getValue());
+    ExpressionState state = program.createState(resolver, functionResolver, context);
+    for(int i = 0; i < statements.length; i++) {
+      // a rule that exceeds its Stellar budget evaluates to null and does not match
+      if(statements[i] < 0 || Boolean.TRUE.equals(predicateProcessor.evaluate(program.getStatement(statements[i]), state))) {
+        scores.add(levels.get(i));
       }
     }
     return threatTriageConfig.getAggregator().aggregate(scores, threatTriageConfig.getAggregationConfig());
@@ -18,11 +18,14 @@
 
 package org.apache.metron.enrichment.stellar;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.client.HTableInterface;
 import org.apache.metron.common.dsl.Context;
+import org.apache.metron.common.dsl.MapVariableResolver;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.dsl.VariableResolver;
 import org.apache.metron.common.stellar.StellarProcessor;
 import org.apache.metron.enrichment.converter.EnrichmentHelper;
 import org.apache.metron.enrichment.converter.EnrichmentKey;
@@ -37,6 +40,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class SimpleHBaseEnrichmentFunctionsTest {
@@ -111,4 +115,28 @@ public class SimpleHBaseEnrichmentFunctionsTest {
     Map<String, Object> out = (Map<String, Object>) result;
     Assert.assertTrue(out.isEmpty());
   }
+
+  @Test
+  public void testBatchExists() throws Exception {
+    String stellar = "ENRICHMENT_EXISTS('et', indicator, 'enrichments', 'cf')";
+    List<VariableResolver> resolvers = new ArrayList<>();
+    for(String indicator : new String[] { "indicator0", "indicator7", "indicator4" }) {
+      resolvers.add(new MapVariableResolver(ImmutableMap.of("indicator", indicator)));
+    }
+    List<Object> result = new StellarProcessor().parse(stellar, resolvers, StellarFunctions.FUNCTION_RESOLVER(), context);
+    Assert.assertEquals(ImmutableList.of(true, false, true), result);
+  }
+
+  @Test
+  public void testBatchGet() throws Exception {
+    String stellar = "ENRICHMENT_GET('et', indicator, 'enrichments', 'cf')";
+    List<VariableResolver> resolvers = new ArrayList<>();
+    for(String indicator : new String[] { "indicator0", "indicator7", "indicator4" }) {
+      resolvers.add(new MapVariableResolver(ImmutableMap.of("indicator", indicator)));
+    }
+    List<Object> result = new StellarProcessor().parse(stellar, resolvers, StellarFunctions.FUNCTION_RESOLVER(), context);
+    Assert.assertEquals("value0", ((Map<String, Object>) result.get(0)).get("key0"));
+    Assert.assertTrue(((Map<String, Object>) result.get(1)).isEmpty());
+    Assert.assertEquals("value4", ((Map<String, Object>) result.get(2)).get("key4"));
+  }
 }
@@ -190,6 +190,41 @@ public class ThreatTriageTest {
             1e-10);
   }
 
+  /**
+   * {
+   *    "threatIntel" : {
+   *      "triageConfig": {
+   *        "riskLevelRules": {
+   *          " " : 1,
+   *          "asset.type == 'web'" : 5
+   *        },
+   *        "aggregator" : "SUM"
+   *      }
+   *    }
+   * }
+   */
+  @Multiline
+  private static String testWithEmptyRule;
+
+  @Test
+  public void testEmptyRuleAlwaysMatches() throws Exception {
+    ThreatTriageProcessor threatTriageProcessor = getProcessor(testWithEmptyRule);
+    Assert.assertEquals(
+            6d,
+            threatTriageProcessor.apply(
+                    new HashMap<Object, Object>() {{
+                      put("asset.type", "web");
+                    }}),
+            1e-10);
+    Assert.assertEquals(
+            1d,
+            threatTriageProcessor.apply(
+                    new HashMap<Object, Object>() {{
+                      put("asset.type", "bar");
+                    }}),
+            1e-10);
+  }
+
   private static ThreatTriageProcessor getProcessor(String config) throws IOException {
     SensorEnrichmentConfig c = JSONUtils.INSTANCE.load(config, SensorEnrichmentConfig.class);
     return new ThreatTriageProcessor(c, StellarFunctions.FUNCTION_RESOLVER(), Context.EMPTY_CONTEXT());
@@ -20,12 +20,13 @@ package org.apache.metron.parsers;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import oi.thekraken.grok.api.Grok;
-import oi.thekraken.grok.api.Match;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.metron.common.Constants;
+import org.apache.metron.common.utils.timestamp.TimestampParser;
 import org.apache.metron.parsers.interfaces.MessageParser;
+import org.apache.metron.parsers.utils.GrokPatternSet;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,29 +36,42 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
 
 public class GrokParser implements MessageParser<JSONObject>, Serializable {
 
   protected static final Logger LOG = LoggerFactory.getLogger(GrokParser.class);
 
   protected transient Grok grok;
+  protected transient GrokPatternSet patternSet;
   protected String grokPath;
   protected String patternLabel;
+  protected List<String> patternLabels;
   protected List<String> timeFields = new ArrayList<>();
   protected String timestampField;
-  protected SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.S z");
+  protected String dateFormatPattern = "yyyy-MM-dd HH:mm:ss.S z";
+  protected TimestampParser dateFormat;
   protected String patternsCommonDir = "/patterns/common";
 
   @Override
   public void configure(Map<String, Object> parserConfig) {
     this.grokPath = (String) parserConfig.get("grokPath");
-    this.patternLabel = (String) parserConfig.get("patternLabel");
+    Object patternLabelParam = parserConfig.get("patternLabel");
+    if (patternLabelParam instanceof List) {
+      // an ordered set of patterns, any of which may match a message
+      this.patternLabels = new ArrayList<>();
+      for (Object label : (List<?>) patternLabelParam) {
+        this.patternLabels.add(label.toString());
+      }
+      this.patternLabel = this.patternLabels.isEmpty() ? null : this.patternLabels.get(0);
+    } else {
+      this.patternLabel = (String) patternLabelParam;
+      this.patternLabels = Collections.singletonList(this.patternLabel);
+    }
     this.timestampField = (String) parserConfig.get("timestampField");
     List<String> timeFieldsParam = (List<String>) parserConfig.get("timeFields");
     if (timeFieldsParam != null) {
@@ -65,16 +79,16 @@ public class GrokParser implements MessageParser<JSONObject>, Serializable {
     }
     String dateFormatParam = (String) parserConfig.get("dateFormat");
     if (dateFormatParam != null) {
-      this.dateFormat = new SimpleDateFormat(dateFormatParam);
+      this.dateFormatPattern = dateFormatParam;
     }
     String timeZoneParam = (String) parserConfig.get("timeZone");
     if (timeZoneParam != null) {
-      dateFormat.setTimeZone(TimeZone.getTimeZone(timeZoneParam));
       LOG.debug("Grok Parser using provided TimeZone: {}", timeZoneParam);
     } else {
-      dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+      timeZoneParam = "UTC";
       LOG.debug("Grok Parser using default TimeZone (UTC)");
     }
+    this.dateFormat = TimestampParser.ofSimpleDateFormat(dateFormatPattern, timeZoneParam);
   }
 
   public InputStream openInputStream(String streamName) throws IOException {
@@ -120,8 +134,9 @@ public class GrokParser implements MessageParser<JSONObject>, Serializable {
       String grokPattern = "%{" + patternLabel + "}";
 
       grok.compile(grokPattern);
+      patternSet = new GrokPatternSet(grok, patternLabels);
       if (LOG.isDebugEnabled()) {
-        LOG.debug("Compiled grok pattern" + grokPattern);
+        LOG.debug("Compiled grok patterns " + patternLabels);
       }
 
     } catch (Throwable e) {
@@ -143,10 +158,11 @@ public class GrokParser implements MessageParser<JSONObject>, Serializable {
       if (LOG.isDebugEnabled()) {
         LOG.debug("Grok parser parsing message: " + originalMessage);
       }
-      Match gm = grok.match(originalMessage);
-      gm.captures();
+      GrokPatternSet.Result result = patternSet.match(originalMessage);
       JSONObject message = new JSONObject();
-      message.putAll(gm.toMap());
+      if (result != null) {
+        message.putAll(result.getCaptures());
+      }
 
       if (message.size() == 0)
         throw new RuntimeException("Grok statement produced a null message. Original message was: "
@@ -163,7 +179,7 @@ public class GrokParser implements MessageParser<JSONObject>, Serializable {
       if (timestampField != null) {
         message.put(Constants.Fields.TIMESTAMP.getName(), formatTimestamp(message.get(timestampField)));
       }
-      message.remove(patternLabel);
+      message.remove(result.getLabel());
       postParse(message);
       messages.add(message);
       if (LOG.isDebugEnabled()) {
@@ -204,14 +220,19 @@ public class GrokParser implements MessageParser<JSONObject>, Serializable {
   protected long toEpoch(String datetime) throws ParseException {
 
     LOG.debug("Grok parser converting timestamp to epoch: {}", datetime);
-    LOG.debug("Grok parser's DateFormat has TimeZone: {}", dateFormat.getTimeZone());
+    LOG.debug("Grok parser's DateFormat has TimeZone: {}", dateFormat.getZone());
 
-    Date date = dateFormat.parse(datetime);
+    long epoch;
+    try {
+      epoch = dateFormat.parse(datetime);
+    } catch (DateTimeParseException e) {
+      throw (ParseException) new ParseException(e.getMessage(), e.getErrorIndex()).initCause(e);
+    }
     if (LOG.isDebugEnabled()) {
-      LOG.debug("Grok parser converted timestamp to epoch: " + date);
+      LOG.debug("Grok parser converted timestamp to epoch: " + epoch);
     }
 
-    return date.getTime();
+    return epoch;
   }
 
   protected long formatTimestamp(Object value) {
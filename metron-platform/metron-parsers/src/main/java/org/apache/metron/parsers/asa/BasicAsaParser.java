@@ -19,11 +19,12 @@ package org.apache.metron.parsers.asa;
 
 import com.google.common.collect.ImmutableMap;
 import oi.thekraken.grok.api.Grok;
-import oi.thekraken.grok.api.Match;
 import oi.thekraken.grok.api.exception.GrokException;
 import org.apache.metron.common.Constants;
 import org.apache.metron.parsers.BasicParser;
 import org.apache.metron.parsers.ParseException;
+import org.apache.metron.parsers.utils.GrokPatternSet;
+import org.apache.metron.parsers.utils.SyslogHeader;
 import org.apache.metron.parsers.utils.SyslogUtils;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
@@ -38,7 +39,7 @@ public class BasicAsaParser extends BasicParser {
 
     protected static final Logger LOG = LoggerFactory.getLogger(BasicAsaParser.class);
 
-    private Grok asaGrok;
+    private transient GrokPatternSet messagePatterns;
     protected Clock deviceClock;
 
     private static final Map<String, String> patternMap = ImmutableMap.<String, String>builder()
@@ -97,10 +98,11 @@ public class BasicAsaParser extends BasicParser {
 
     @Override
     public void init() {
-        asaGrok = new Grok();
+        Grok asaGrok = new Grok();
         InputStream patternStream = this.getClass().getClassLoader().getResourceAsStream("patterns/asa");
         try {
             asaGrok.addPatternFromReader(new InputStreamReader(patternStream));
+            messagePatterns = new GrokPatternSet(asaGrok, new ArrayList<>(new TreeSet<>(patternMap.values())));
         } catch (GrokException e) {
             LOG.error("[Metron] Failed to load grok patterns from jar", e);
             throw new RuntimeException(e.getMessage(), e);
@@ -111,11 +113,10 @@ public class BasicAsaParser extends BasicParser {
     @Override
     public List<JSONObject> parse(byte[] rawMessage) {
         String logLine = "";
-        String syslogPattern = "%{CISCO_TAGGED_SYSLOG}";
         String messagePattern = "";
         JSONObject metronJson = new JSONObject();
         List<JSONObject> messages = new ArrayList<>();
-        Map<String, Object> syslogJson = new HashMap<String, Object>();
+        SyslogHeader header;
 
         try {
             logLine = new String(rawMessage, "UTF-8");
@@ -127,25 +128,21 @@ public class BasicAsaParser extends BasicParser {
         try {
             LOG.debug("[Metron] Started parsing raw message: {}", logLine);
 
-            asaGrok.compile(syslogPattern);
-            Match syslogMatch = asaGrok.match(logLine);
-            syslogMatch.captures();
-            if(!syslogMatch.isNull()) {
-                syslogJson = syslogMatch.toMap();
-                LOG.trace("[Metron] Grok CISCO ASA syslog matches: {}", syslogMatch.toJson());
-
-                metronJson.put(Constants.Fields.ORIGINAL.getName(), logLine);
-                metronJson.put(Constants.Fields.TIMESTAMP.getName(),
-                        SyslogUtils.parseTimestampToEpochMillis((String) syslogJson.get("CISCOTIMESTAMP"), deviceClock));
-                metronJson.put("ciscotag", syslogJson.get("CISCOTAG"));
-                metronJson.put("syslog_severity", SyslogUtils.getSeverityFromPriority((int) syslogJson.get("syslog_pri")));
-                metronJson.put("syslog_facility", SyslogUtils.getFacilityFromPriority((int) syslogJson.get("syslog_pri")));
+            try {
+                header = SyslogHeader.scan(logLine);
+            } catch (ParseException e) {
+                throw new RuntimeException(String.format("[Metron] Message '%s' does not have a syslog header: %s", logLine, e.getMessage()), e);
             }
-            else
-                throw new RuntimeException(String.format("[Metron] Message '%s' does not match pattern '%s'", logLine, syslogPattern));
-        } catch (GrokException e) {
-            LOG.error(String.format("[Metron] Could not compile grok pattern '%s'", syslogPattern), e);
-            throw new RuntimeException(e.getMessage(), e);
+            if (header.getPriority() < 0 || header.getMessageId() == null || header.getVersion() >= 0)
+                throw new RuntimeException(String.format("[Metron] Message '%s' does not have a Cisco tagged syslog header", logLine));
+            LOG.trace("[Metron] CISCO ASA syslog header: timestamp '{}', ciscotag '{}'", header.getTimestamp(), header.getMessageId());
+
+            metronJson.put(Constants.Fields.ORIGINAL.getName(), logLine);
+            metronJson.put(Constants.Fields.TIMESTAMP.getName(),
+                    SyslogUtils.parseTimestampToEpochMillis(header.getTimestamp(), deviceClock));
+            metronJson.put("ciscotag", header.getMessageId());
+            metronJson.put("syslog_severity", SyslogUtils.getSeverityFromPriority(header.getPriority()));
+            metronJson.put("syslog_facility", SyslogUtils.getFacilityFromPriority(header.getPriority()));
         } catch (ParseException e) {
             LOG.error("[Metron] Could not parse message timestamp", e);
             throw new RuntimeException(e.getMessage(), e);
@@ -155,16 +152,14 @@ public class BasicAsaParser extends BasicParser {
         }
 
         try {
-            messagePattern = patternMap.get(syslogJson.get("CISCOTAG"));
+            messagePattern = patternMap.get(header.getMessageId());
             if (messagePattern == null)
-                LOG.info("[Metron] No pattern for ciscotag '{}'", syslogJson.get("CISCOTAG"));
+                LOG.info("[Metron] No pattern for ciscotag '{}'", header.getMessageId());
             else {
-                asaGrok.compile("%{" + messagePattern + "}");
-                Match messageMatch = asaGrok.match((String) syslogJson.get("message"));
-                messageMatch.captures();
-                if (!messageMatch.isNull()) {
-                    Map<String, Object> messageJson = messageMatch.toMap();
-                    LOG.trace("[Metron] Grok CISCO ASA message matches: {}", messageMatch.toJson());
+                // the message patterns expect the text after the tag, including its colon
+                Map<String, Object> messageJson = messagePatterns.match(messagePattern, logLine.substring(header.getTagEnd()));
+                if (messageJson != null) {
+                    LOG.trace("[Metron] Grok CISCO ASA message matches: {}", messageJson);
 
                     String src_ip = (String) messageJson.get("src_ip");
                     if (src_ip != null)
@@ -191,14 +186,11 @@ public class BasicAsaParser extends BasicParser {
                         metronJson.put("action", action.toLowerCase());
                 }
                 else
-                    LOG.warn("[Metron] Message '{}' did not match pattern for ciscotag '{}'", logLine, syslogJson.get("CISCOTAG"));
+                    LOG.warn("[Metron] Message '{}' did not match pattern for ciscotag '{}'", logLine, header.getMessageId());
             }
 
             LOG.debug("[Metron] Final normalized message: {}", metronJson.toString());
 
-        } catch (GrokException e) {
-            LOG.error(String.format("[Metron] Could not compile grok pattern '%s'", messagePattern), e);
-            throw new RuntimeException(e.getMessage(), e);
         } catch (RuntimeException e) {
             LOG.error(e.getMessage(), e);
             throw new RuntimeException(e.getMessage(), e);
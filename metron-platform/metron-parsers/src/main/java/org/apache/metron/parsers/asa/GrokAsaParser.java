@@ -18,10 +18,13 @@
 package org.apache.metron.parsers.asa;
 
 import oi.thekraken.grok.api.Grok;
-import oi.thekraken.grok.api.Match;
 import oi.thekraken.grok.api.exception.GrokException;
 import org.apache.commons.io.IOUtils;
 import org.apache.metron.parsers.BasicParser;
+import org.apache.metron.parsers.utils.GrokPatternSet;
+import org.apache.metron.parsers.utils.ParserUtils;
+import org.apache.metron.parsers.utils.SyslogHeader;
+import org.apache.metron.parsers.utils.SyslogUtils;
 import org.json.simple.JSONObject;
 
 import java.io.File;
@@ -29,7 +32,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Clock;
 import java.util.*;
 
 public class GrokAsaParser extends BasicParser {
@@ -37,7 +40,7 @@ public class GrokAsaParser extends BasicParser {
 	private static final long serialVersionUID = 945353287115350798L;
 	private transient  Grok  grok;
 	Map<String, String> patternMap;
-	private transient  Map<String, Grok> grokMap;
+	private transient  GrokPatternSet patternSet;
 	private transient  InputStream pattern_url;
 
 	public static final String PREFIX = "stream2file";
@@ -56,23 +59,21 @@ public class GrokAsaParser extends BasicParser {
 		// pattern_url = Resources.getResource("patterns/asa");
 
 		pattern_url = getClass().getClassLoader().getResourceAsStream(
-						"src/main/patterns/asa");
+						"patterns/asa");
 
 		File file = stream2file(pattern_url);
 		grok = Grok.create(file.getPath());
 
 		patternMap = getPatternMap();
-		grokMap = getGrokMap();
-
-		grok.compile("%{CISCO_TAGGED_SYSLOG}");
+		patternSet = getPatternSet();
 	}
 
 	public GrokAsaParser(String filepath) throws Exception {
 
 		grok = Grok.create(filepath);
-		// grok.getNamedRegexCollection().put("ciscotag","CISCOFW302013_302014_302015_302016");
-		grok.compile("%{CISCO_TAGGED_SYSLOG}");
 
+		patternMap = getPatternMap();
+		patternSet = getPatternSet();
 	}
 
 	public GrokAsaParser(String filepath, String pattern) throws Exception {
@@ -84,30 +85,27 @@ public class GrokAsaParser extends BasicParser {
 	private Map<String, Object> getMap(String pattern, String text)
 			throws GrokException {
 
-		Grok g = grokMap.get(pattern);
-		if (g != null) {
-			Match gm = g.match(text);
-			gm.captures();
-			return gm.toMap();
+		Map<String, Object> captures;
+		if (pattern != null) {
+			captures = patternSet.match(pattern, text);
+		} else {
+			// a tag without a pattern of its own; try whichever patterns the message could match
+			GrokPatternSet.Result result = patternSet.match(text);
+			captures = result == null ? null : result.getCaptures();
+		}
+		if (captures != null) {
+			return captures;
 		} else {
 			return new HashMap<String, Object>();
 		}
 
 	}
 
-	private Map<String, Grok> getGrokMap() throws GrokException, IOException {
-		Map<String, Grok> map = new HashMap<String, Grok>();
-
-		for (Map.Entry<String, String> entry : patternMap.entrySet()) {
-			File file = stream2file(pattern_url);
-			Grok grok = Grok.create(file.getPath());
-			grok.compile("%{" + entry.getValue() + "}");
-
-			map.put(entry.getValue(), grok);
-
-		}
-
-		return map;
+	/**
+	 * Compiles each of the message patterns once, against the patterns already loaded.
+	 */
+	private GrokPatternSet getPatternSet() throws GrokException {
+		return new GrokPatternSet(grok, new ArrayList<>(new TreeSet<>(patternMap.values())));
 	}
 
 	private Map<String, String> getPatternMap() {
@@ -158,33 +156,7 @@ public class GrokAsaParser extends BasicParser {
 
 	public static Long convertToEpoch(String m, String d, String ts,
 			boolean adjust_timezone) throws ParseException {
-		d = d.trim();
-
-		if (d.length() <= 2)
-			d = "0" + d;
-
-		Date date = new SimpleDateFormat("MMM", Locale.ENGLISH).parse(m);
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		String month = String.valueOf(cal.get(Calendar.MONTH));
-		int year = Calendar.getInstance().get(Calendar.YEAR);
-
-		if (month.length() <= 2)
-			month = "0" + month;
-
-		String coglomerated_ts = year + "-" + month + "-" + d + " " + ts;
-
-		System.out.println(coglomerated_ts);
-
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-		if (adjust_timezone)
-			sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-
-		date = sdf.parse(coglomerated_ts);
-		long timeInMillisSinceEpoch = date.getTime();
-
-		return timeInMillisSinceEpoch;
+		return ParserUtils.convertToEpoch(m, d, ts, adjust_timezone);
 	}
 
 	@Override
@@ -197,7 +169,7 @@ public class GrokAsaParser extends BasicParser {
 		// pattern_url = Resources.getResource("patterns/asa");
 
 				pattern_url = getClass().getClassLoader().getResourceAsStream(
-								"src/main/patterns/asa");
+								"patterns/asa");
 
 				File file = null;
 				try {
@@ -215,18 +187,37 @@ public class GrokAsaParser extends BasicParser {
 
 				patternMap = getPatternMap();
 				try {
-					grokMap = getGrokMap();
-				} catch (GrokException | IOException e1) {
+					patternSet = getPatternSet();
+				} catch (GrokException e1) {
 					// TODO Auto-generated catch block
 					e1.printStackTrace();
 				}
+	}
 
-				try {
-					grok.compile("%{CISCO_TAGGED_SYSLOG}");
-				} catch (GrokException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
+	/**
+	 * Adds the fields that the CISCO_TAGGED_SYSLOG pattern captures, except for those of
+	 * the timestamp and hostname that the parser replaces, from the scanned header.
+	 */
+	private static void putHeader(JSONObject json, String line, SyslogHeader header, String body) {
+		json.put("CISCO_TAGGED_SYSLOG", line);
+		if (header.getPriority() >= 0) {
+			json.put("syslog_pri", String.valueOf(header.getPriority()));
+		}
+		String timestamp = header.getTimestamp();
+		json.put("CISCOTIMESTAMP", timestamp);
+		if (timestamp != null && Character.isLetter(timestamp.charAt(0))) {
+			json.put("MONTH", timestamp.substring(0, timestamp.indexOf(' ')));
+		}
+		if (header.getHostname() != null) {
+			json.put("sysloghost", header.getHostname());
+		}
+		String tag = header.getMessageId();
+		if (tag != null) {
+			json.put("CISCOTAG", tag);
+			int severity = tag.indexOf('-') + 1;
+			json.put("INT", tag.substring(severity, tag.indexOf('-', severity)));
+		}
+		json.put("message", body);
 	}
 
 	@Override
@@ -239,37 +230,25 @@ public class GrokAsaParser extends BasicParser {
 
 			toParse = new String(raw_message, "UTF-8");
 
-			System.out.println("Received message: " + toParse);
-
-			Match gm = grok.match(toParse);
-			gm.captures();
+			// the header is scanned directly; only the message pattern for the tag is run, against the body
+			SyslogHeader header = SyslogHeader.scan(toParse);
+			String body = toParse.substring(header.getTagEnd());
 
 			toReturn = new JSONObject();
 
-			toReturn.putAll(gm.toMap());
+			putHeader(toReturn, toParse, header, body);
+			toReturn.put("ciscotag", header.getMessageId());
 
-			String str = toReturn.get("ciscotag").toString();
-			String pattern = patternMap.get(str);
+			String pattern = patternMap.get(header.getMessageId());
 
-			Map<String, Object> response = getMap(pattern, toParse);
+			Map<String, Object> response = getMap(pattern, body);
 
 			toReturn.putAll(response);
 
-			//System.out.println("*******I MAPPED: " + toReturn);
-			long timestamp = convertToEpoch(toReturn.get("MONTH").toString(), toReturn
-											.get("MONTHDAY").toString(),
-							toReturn.get("TIME").toString(),
-							true);
+			long timestamp = SyslogUtils.parseTimestampToEpochMillis(header.getTimestamp(), Clock.systemUTC());
 			toReturn.put("timestamp", timestamp);
-			
-			toReturn.remove("MONTHDAY");
-			toReturn.remove("TIME");
-			toReturn.remove("MINUTE");
-			toReturn.remove("HOUR");
-			toReturn.remove("YEAR");
-			toReturn.remove("SECOND");
-			
-			toReturn.put("ip_src_addr", toReturn.remove("IPORHOST"));
+
+			toReturn.put("ip_src_addr", header.getHostname());
 			toReturn.put("original_string", toParse);
 			messages.add(toReturn);
 			return messages;
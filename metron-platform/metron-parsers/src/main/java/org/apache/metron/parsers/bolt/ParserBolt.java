@@ -17,6 +17,9 @@
  */
 package org.apache.metron.parsers.bolt;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.storm.Config;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.task.TopologyContext;
 import org.apache.storm.topology.OutputFieldsDeclarer;
@@ -29,10 +32,13 @@ import org.apache.metron.common.configuration.FieldValidator;
 import org.apache.metron.common.configuration.SensorParserConfig;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.dsl.StellarFunctions;
+import org.apache.metron.common.stellar.budget.StellarBudgetMetric;
+import org.apache.metron.common.stellar.metrics.StellarMetric;
 import org.apache.metron.parsers.filters.Filters;
-import org.apache.metron.common.configuration.FieldTransformer;
+import org.apache.metron.common.configuration.FieldTransformerProgram;
 import org.apache.metron.parsers.filters.GenericMessageFilter;
 import org.apache.metron.common.utils.ErrorUtils;
+import org.apache.metron.common.utils.ReflectionUtils;
 import org.apache.metron.parsers.interfaces.MessageFilter;
 import org.apache.metron.parsers.interfaces.MessageParser;
 import org.json.simple.JSONObject;
@@ -41,15 +47,62 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 public class ParserBolt extends ConfiguredParserBolt implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(ParserBolt.class);
   private OutputCollector collector;
-  private MessageParser<JSONObject> parser;
-  private MessageFilter<JSONObject> filter = new GenericMessageFilter();
-  private WriterHandler writer;
   private org.apache.metron.common.dsl.Context stellarContext;
+
+  /**
+   * A sensor parsed by the bolt; its parser, filter and writer.
+   */
+  private static class Sensor implements Serializable {
+    private final String sensorType;
+    private final MessageParser<JSONObject> parser;
+    private final WriterHandler writer;
+    private MessageFilter<JSONObject> filter = new GenericMessageFilter();
+    private transient ThreadLocal<MessageParser<JSONObject>> parserCopies;
+
+    Sensor(String sensorType, MessageParser<JSONObject> parser, WriterHandler writer) {
+      this.sensorType = sensorType;
+      this.parser = parser;
+      this.writer = writer;
+    }
+  }
+
+  /**
+   * The sensor of the bolt, and any other sensors that it parses, by the spout that they are
+   * consumed from.  Tuples from any other source are parsed as the sensor of the bolt.
+   */
+  private Sensor sensor;
+  private Map<String, Sensor> sensorsBySource = new HashMap<>();
+
+  /**
+   * The parser config properties that enable micro-batching; the maximum number of tuples
+   * in a batch and the maximum time in milliseconds that a tuple waits in a batch.
+   */
+  public static final String BATCH_SIZE_CONF = "parserBatchSize";
+  public static final String BATCH_TIMEOUT_CONF = "parserBatchTimeout";
+  public static final long DEFAULT_BATCH_TIMEOUT = 1000;
+
+  /**
+   * The parser config property that sets the number of threads that parse the tuples of a batch.
+   */
+  public static final String PARSER_THREADS_CONF = "parserThreads";
+
+  private int batchSize = 1;
+  private long batchTimeout = DEFAULT_BATCH_TIMEOUT;
+  private int parserThreads = 1;
+  private transient List<Tuple> batch;
+  private transient long batchStart;
+  private transient ExecutorService parserPool;
+
   public ParserBolt( String zookeeperUrl
                    , String sensorType
                    , MessageParser<JSONObject> parser
@@ -57,43 +110,188 @@ public class ParserBolt extends ConfiguredParserBolt implements Serializable {
   )
   {
     super(zookeeperUrl, sensorType);
-    this.writer = writer;
-    this.parser = parser;
+    this.sensor = new Sensor(sensorType, parser, writer);
   }
 
 
   public ParserBolt withMessageFilter(MessageFilter<JSONObject> filter) {
-    this.filter = filter;
+    this.sensor.filter = filter;
     return this;
   }
 
+  /**
+   * Parses the tuples from a spout as another sensor.  This allows a single topology to parse
+   * several low-volume sensors; each sensor keeps its own parser config, transformations,
+   * filter and writer, while the bolt's batching and parser threads are shared.
+   * @param sourceComponent The spout that the sensor's tuples are consumed from.
+   * @param sensorType The sensor type.
+   * @param parser The sensor's parser.
+   * @param writer The sensor's writer.
+   */
+  public ParserBolt withSensor( String sourceComponent
+                              , String sensorType
+                              , MessageParser<JSONObject> parser
+                              , WriterHandler writer
+                              )
+  {
+    Sensor other = sensorType.equals(getSensorType()) ? sensor : new Sensor(sensorType, parser, writer);
+    sensorsBySource.put(sourceComponent, other);
+    return this;
+  }
+
+  /**
+   * The sensors parsed by the bolt, the bolt's own sensor first.
+   */
+  private Collection<Sensor> getSensors() {
+    Map<String, Sensor> sensors = new LinkedHashMap<>();
+    sensors.put(sensor.sensorType, sensor);
+    for(Sensor other : sensorsBySource.values()) {
+      sensors.putIfAbsent(other.sensorType, other);
+    }
+    return sensors.values();
+  }
+
+  /**
+   * Parses tuples in batches of up to this many tuples.  A batch size of 1, the default,
+   * parses each tuple as it arrives.
+   */
+  public ParserBolt withBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * The maximum time in milliseconds that a tuple waits for its batch to fill.
+   */
+  public ParserBolt withBatchTimeout(long batchTimeout) {
+    this.batchTimeout = batchTimeout;
+    return this;
+  }
+
+  /**
+   * Parses the tuples of each batch on a pool of this many threads.  Each thread parses with
+   * its own copy of the parser.  Only the parsing is done in parallel; the messages are
+   * transformed, validated, emitted and acked in order on the executor thread.  Requires a
+   * batch size greater than 1.
+   */
+  public ParserBolt withParserThreads(int parserThreads) {
+    this.parserThreads = parserThreads;
+    return this;
+  }
+
+  public int getParserThreads() {
+    return parserThreads;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public long getBatchTimeout() {
+    return batchTimeout;
+  }
+
+  @Override
+  public Map<String, Object> getComponentConfiguration() {
+    if(batchSize <= 1) {
+      return super.getComponentConfiguration();
+    }
+    // tick tuples flush a batch that has not filled when no more tuples arrive
+    Config conf = new Config();
+    conf.put(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS, (int) Math.max(1, (batchTimeout + 999) / 1000));
+    return conf;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public void prepare(Map stormConf, TopologyContext context, OutputCollector collector) {
     super.prepare(stormConf, context, collector);
     this.collector = collector;
     initializeStellar();
-    if(getSensorParserConfig() == null) {
-      filter = new GenericMessageFilter();
+    StellarMetric.register(getConfigurations().getGlobalConfig(), stellarContext, context);
+    StellarBudgetMetric.register(getConfigurations().getGlobalConfig(), stellarContext, context);
+    boolean parallel = batchSize > 1 && parserThreads > 1;
+    for(Sensor s : getSensors()) {
+      prepare(s, stormConf, parallel);
+    }
+    batch = new ArrayList<>();
+    if(parallel) {
+      initializeParserPool();
+    }
+  }
+
+  private void prepare(Sensor s, Map stormConf, boolean parallel) {
+    SensorParserConfig config = getSensorParserConfig(s.sensorType);
+    if(config == null) {
+      s.filter = new GenericMessageFilter();
     }
-    else if(filter == null) {
-      getSensorParserConfig().getParserConfig().putIfAbsent("stellarContext", stellarContext);
-      filter = Filters.get(getSensorParserConfig().getFilterClassName()
-              , getSensorParserConfig().getParserConfig()
+    else if(s.filter == null) {
+      config.getParserConfig().putIfAbsent("stellarContext", stellarContext);
+      s.filter = Filters.get(config.getFilterClassName()
+              , config.getParserConfig()
       );
     }
-    parser.init();
+    Supplier<MessageParser<JSONObject>> newParser = parallel ? parserFactory(s, config) : null;
+    s.parser.init();
 
-    writer.init(stormConf, collector, getConfigurations());
+    s.writer.init(stormConf, collector, getConfigurations());
 
-    SensorParserConfig config = getSensorParserConfig();
     if(config != null) {
       config.init();
     }
     else {
-      throw new IllegalStateException("Unable to retrieve a parser config for " + getSensorType());
+      throw new IllegalStateException("Unable to retrieve a parser config for " + s.sensorType);
+    }
+    s.parser.configure(config.getParserConfig());
+    if(parallel) {
+      initializeParserCopies(s, newParser, config.getParserConfig());
     }
-    parser.configure(config.getParserConfig());
+  }
+
+  /**
+   * Creates the uninitialized parsers that the threads that parse in parallel copy a sensor's
+   * parser from.  A parser of the class named by the sensor's config is created afresh.  Any
+   * other parser, such as one built in code, is copied from a snapshot serialized before it is
+   * initialized, so that it need not remain serializable once initialized.
+   */
+  private static Supplier<MessageParser<JSONObject>> parserFactory(Sensor s, SensorParserConfig config) {
+    String parserClassName = config == null ? null : config.getParserClassName();
+    if(s.parser.getClass().getName().equals(parserClassName)) {
+      return () -> ReflectionUtils.createInstance(parserClassName);
+    }
+    byte[] serialized = SerializationUtils.serialize(s.parser);
+    return () -> SerializationUtils.deserialize(serialized);
+  }
+
+  /**
+   * Each thread that parses in parallel lazily creates its own copy of a sensor's parser, then
+   * initializes and configures it just as the parser of the bolt was.
+   */
+  private static void initializeParserCopies(Sensor s, Supplier<MessageParser<JSONObject>> newParser, Map<String, Object> parserConfig) {
+    s.parserCopies = ThreadLocal.withInitial(() -> {
+      MessageParser<JSONObject> copy = newParser.get();
+      copy.init();
+      copy.configure(parserConfig);
+      return copy;
+    });
+  }
+
+  /**
+   * Creates the pool of threads that parse in parallel.
+   */
+  private void initializeParserPool() {
+    parserPool = Executors.newFixedThreadPool(parserThreads, new ThreadFactoryBuilder()
+                                                                  .setNameFormat("parser-" + getSensorType() + "-%d")
+                                                                  .setDaemon(true)
+                                                                  .build());
+  }
+
+  @Override
+  public void cleanup() {
+    if(parserPool != null) {
+      parserPool.shutdownNow();
+    }
+    super.cleanup();
   }
 
   protected void initializeStellar() {
@@ -104,53 +302,236 @@ public class ParserBolt extends ConfiguredParserBolt implements Serializable {
     StellarFunctions.initialize(stellarContext);
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public void execute(Tuple tuple) {
-    byte[] originalMessage = tuple.getBinary(0);
-    SensorParserConfig sensorParserConfig = getSensorParserConfig();
+    if(batchSize <= 1) {
+      handle(getSensor(tuple), Collections.singletonList(tuple));
+      return;
+    }
+    if(isTick(tuple)) {
+      flush();
+      return;
+    }
+    if(batch.isEmpty()) {
+      batchStart = System.currentTimeMillis();
+    }
+    batch.add(tuple);
+    if(batch.size() >= batchSize || System.currentTimeMillis() - batchStart >= batchTimeout) {
+      flush();
+    }
+  }
+
+  /**
+   * Parses the tuples that are waiting in the current batch; the tuples of each sensor are
+   * handled together, in the order that they arrived.
+   */
+  private void flush() {
+    if(batch.isEmpty()) {
+      return;
+    }
+    List<Tuple> tuples = batch;
+    batch = new ArrayList<>();
+    if(sensorsBySource.isEmpty()) {
+      handle(sensor, tuples);
+      return;
+    }
+    Map<Sensor, List<Tuple>> bySensor = new LinkedHashMap<>();
+    for(Tuple tuple : tuples) {
+      bySensor.computeIfAbsent(getSensor(tuple), s -> new ArrayList<>()).add(tuple);
+    }
+    bySensor.forEach(this::handle);
+  }
+
+  /**
+   * The sensor that a tuple is parsed as, according to the spout that it came from.
+   */
+  private Sensor getSensor(Tuple tuple) {
+    if(sensorsBySource.isEmpty()) {
+      return sensor;
+    }
+    return sensorsBySource.getOrDefault(tuple.getSourceComponent(), sensor);
+  }
+
+  /**
+   * Parses, transforms and validates the messages of a batch of tuples.  The configuration
+   * is looked up once for the batch, and the messages of the whole batch are transformed
+   * together, so that the calls to batch and asynchronous Stellar functions are made once for
+   * the batch.  A writer that handles acks receives the valid messages of the whole batch at
+   * once; otherwise each tuple's messages are written and the tuple acked in turn.  A tuple
+   * that fails is reported on the error stream and acked without affecting the others.
+   */
+  @SuppressWarnings("unchecked")
+  private void handle(Sensor sensor, List<Tuple> tuples) {
+    String sensorType = sensor.sensorType;
+    SensorParserConfig sensorParserConfig;
+    List<FieldValidator> fieldValidations;
+    FieldTransformerProgram transformations;
     try {
-      //we want to ack the tuple in the situation where we have are not doing a bulk write
-      //otherwise we want to defer to the writerComponent who will ack on bulk commit.
-      boolean ackTuple = !writer.handleAck();
-      int numWritten = 0;
-      if(sensorParserConfig != null) {
-        List<FieldValidator> fieldValidations = getConfigurations().getFieldValidations();
-        Optional<List<JSONObject>> messages = parser.parseOptional(originalMessage);
-        for (JSONObject message : messages.orElse(Collections.emptyList())) {
-          message.put(Constants.SENSOR_TYPE, getSensorType());
-          for (FieldTransformer handler : sensorParserConfig.getFieldTransformations()) {
-            if (handler != null) {
-              handler.transformAndUpdate(message, sensorParserConfig.getParserConfig(), stellarContext);
-            }
-          }
-          if (parser.validate(message) && filter != null && filter.emitTuple(message, stellarContext)) {
+      sensorParserConfig = getSensorParserConfig(sensorType);
+      fieldValidations = getConfigurations().getFieldValidations();
+      transformations = sensorParserConfig == null ? null : sensorParserConfig.getFieldTransformerProgram();
+    } catch (Throwable ex) {
+      tuples.forEach(tuple -> handleError(sensorType, tuple, ex));
+      return;
+    }
+    //we want to ack the tuple in the situation where we have are not doing a bulk write
+    //otherwise we want to defer to the writerComponent who will ack on bulk commit.
+    boolean ackTuple = !sensor.writer.handleAck();
+    List<Tuple> bulkTuples = new ArrayList<>();
+    List<JSONObject> bulkMessages = new ArrayList<>();
+    Throwable[] errors = new Throwable[tuples.size()];
+    List<List<JSONObject>> parsed;
+    if(sensorParserConfig == null) {
+      parsed = Collections.nCopies(tuples.size(), Collections.<JSONObject>emptyList());
+    }
+    else {
+      parsed = parse(sensor, tuples, errors);
+      transform(transformations, sensorParserConfig, parsed, errors);
+    }
+    for(int i = 0; i < tuples.size(); i++) {
+      Tuple tuple = tuples.get(i);
+      if(errors[i] != null) {
+        handleError(sensorType, tuple, errors[i]);
+        continue;
+      }
+      try {
+        int numWritten = 0;
+        List<JSONObject> valid = new ArrayList<>();
+        for (JSONObject message : parsed.get(i)) {
+          if (sensor.parser.validate(message) && sensor.filter != null && sensor.filter.emitTuple(message, stellarContext)) {
             numWritten++;
             if(!isGloballyValid(message, fieldValidations)) {
-              message.put(Constants.SENSOR_TYPE, getSensorType()+ ".invalid");
+              message.put(Constants.SENSOR_TYPE, sensorType + ".invalid");
               collector.emit(Constants.INVALID_STREAM, new Values(message));
             }
+            else if(ackTuple) {
+              sensor.writer.write(sensorType, tuple, message, getConfigurations());
+            }
             else {
-              writer.write(getSensorType(), tuple, message, getConfigurations());
+              valid.add(message);
             }
           }
         }
+        for(JSONObject message : valid) {
+          bulkTuples.add(tuple);
+          bulkMessages.add(message);
+        }
+        //if we are supposed to ack the tuple OR if we've never passed this tuple to the bulk writer
+        //(meaning that none of the messages are valid either globally or locally)
+        //then we want to handle the ack ourselves.
+        if(ackTuple || numWritten == 0) {
+          collector.ack(tuple);
+        }
+      } catch (Throwable ex) {
+        handleError(sensorType, tuple, ex);
+      }
+    }
+    if(!bulkTuples.isEmpty()) {
+      try {
+        sensor.writer.write(sensorType, bulkTuples, bulkMessages, getConfigurations());
+      } catch (Throwable ex) {
+        for(Tuple tuple : new LinkedHashSet<>(bulkTuples)) {
+          handleError(sensorType, tuple, ex);
+        }
       }
-      //if we are supposed to ack the tuple OR if we've never passed this tuple to the bulk writer
-      //(meaning that none of the messages are valid either globally or locally)
-      //then we want to handle the ack ourselves.
-      if(ackTuple || numWritten == 0) {
-        collector.ack(tuple);
+    }
+  }
+
+  /**
+   * Parses each tuple of a batch, in parallel when there is a parser pool.
+   * @param errors Set to the exception that each tuple failed to parse with.
+   * @return The messages parsed from each tuple, in the order of the tuples; none for a tuple that failed.
+   */
+  private List<List<JSONObject>> parse(Sensor sensor, List<Tuple> tuples, Throwable[] errors) {
+    List<Future<Optional<List<JSONObject>>>> futures = null;
+    if(parserPool != null && tuples.size() > 1) {
+      futures = parseInParallel(sensor, tuples);
+    }
+    List<List<JSONObject>> parsed = new ArrayList<>(tuples.size());
+    for(int i = 0; i < tuples.size(); i++) {
+      List<JSONObject> messages = Collections.emptyList();
+      try {
+        Optional<List<JSONObject>> ret = futures == null ? sensor.parser.parseOptional(tuples.get(i).getBinary(0)) : get(futures.get(i));
+        messages = ret.orElse(Collections.emptyList());
+        for(JSONObject message : messages) {
+          message.put(Constants.SENSOR_TYPE, sensor.sensorType);
+        }
+      } catch (Throwable ex) {
+        errors[i] = ex;
+      }
+      parsed.add(messages);
+    }
+    return parsed;
+  }
+
+  /**
+   * Applies the field transformations to the messages of every tuple of a batch at once.
+   * @param errors Set to the exception of the first message of each tuple that fails to transform.
+   */
+  private void transform( FieldTransformerProgram transformations
+                        , SensorParserConfig sensorParserConfig
+                        , List<List<JSONObject>> parsed
+                        , Throwable[] errors
+                        )
+  {
+    List<JSONObject> messages = new ArrayList<>();
+    List<Integer> tupleIndices = new ArrayList<>();
+    for(int i = 0; i < parsed.size(); i++) {
+      for(JSONObject message : parsed.get(i)) {
+        messages.add(message);
+        tupleIndices.add(i);
       }
-    } catch (Throwable ex) {
-      ErrorUtils.handleError( collector
-                            , ex
-                            , Constants.ERROR_STREAM
-                            , Optional.of(getSensorType())
-                            , Optional.ofNullable(originalMessage)
-                            );
-      collector.ack(tuple);
     }
+    List<Throwable> failures = transformations.transformAndUpdate(messages, sensorParserConfig.getParserConfig(), stellarContext);
+    for(int j = 0; j < failures.size(); j++) {
+      int i = tupleIndices.get(j);
+      if(failures.get(j) != null && errors[i] == null) {
+        errors[i] = failures.get(j);
+      }
+    }
+  }
+
+  /**
+   * Submits each tuple of a batch to the parser pool.
+   * @return The messages parsed from each tuple, in the order of the tuples.
+   */
+  private List<Future<Optional<List<JSONObject>>>> parseInParallel(Sensor sensor, List<Tuple> tuples) {
+    List<Future<Optional<List<JSONObject>>>> parsed = new ArrayList<>(tuples.size());
+    for(Tuple tuple : tuples) {
+      byte[] originalMessage = tuple.getBinary(0);
+      parsed.add(parserPool.submit(() -> sensor.parserCopies.get().parseOptional(originalMessage)));
+    }
+    return parsed;
+  }
+
+  /**
+   * Waits for a tuple to be parsed.
+   * @throws Throwable The exception thrown by the parser, if it failed.
+   */
+  private static <T> T get(Future<T> future) throws Throwable {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw e.getCause();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+
+  private void handleError(String sensorType, Tuple tuple, Throwable ex) {
+    ErrorUtils.handleError( collector
+                          , ex
+                          , Constants.ERROR_STREAM
+                          , Optional.of(sensorType)
+                          , Optional.ofNullable(tuple.getBinary(0))
+                          );
+    collector.ack(tuple);
+  }
+
+  private static boolean isTick(Tuple tuple) {
+    return org.apache.storm.Constants.SYSTEM_COMPONENT_ID.equals(tuple.getSourceComponent())
+        && org.apache.storm.Constants.SYSTEM_TICK_STREAM_ID.equals(tuple.getSourceStreamId());
   }
 
   private boolean isGloballyValid(JSONObject input, List<FieldValidator> validators) {
@@ -33,6 +33,7 @@ import org.json.simple.JSONObject;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -84,6 +85,30 @@ public class WriterHandler implements Serializable {
     writerComponent.write(sensorType, tuple, message, messageWriter, writerTransformer.apply(configurations));
   }
 
+  /**
+   * Writes the messages of a batch of tuples.  A bulk writer receives the whole batch at once,
+   * along with any messages already waiting to be written; a writer of single messages writes
+   * each message in turn.
+   * @param sensorType The sensor type.
+   * @param tuples The tuple of each message; a tuple appears once for each of its messages.
+   * @param messages The messages to write.
+   * @param configurations The parser configurations.
+   */
+  public void write( String sensorType
+                   , List<Tuple> tuples
+                   , List<JSONObject> messages
+                   , ParserConfigurations configurations
+                   ) throws Exception {
+    WriterConfiguration writerConfiguration = writerTransformer.apply(configurations);
+    if(isBulk) {
+      writerComponent.write(sensorType, tuples, messages, messageWriter, writerConfiguration);
+      return;
+    }
+    for(int i = 0; i < tuples.size(); i++) {
+      writerComponent.write(sensorType, tuples.get(i), messages.get(i), messageWriter, writerConfiguration);
+    }
+  }
+
   public void errorAll(String sensorType, Throwable e) {
     writerComponent.errorAll(sensorType, e);
   }
@@ -22,6 +22,8 @@ import com.google.common.collect.ImmutableList;
 import org.apache.metron.common.csv.CSVConverter;
 import org.apache.metron.common.utils.ConversionUtils;
 import org.apache.metron.parsers.BasicParser;
+import org.apache.metron.parsers.interfaces.ByteMessageParser;
+import org.apache.metron.parsers.utils.ByteFields;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,11 +33,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
-public class CSVParser extends BasicParser {
+public class CSVParser extends BasicParser implements ByteMessageParser<JSONObject> {
   protected static final Logger LOG = LoggerFactory.getLogger(CSVParser.class);
   public static final String TIMESTAMP_FORMAT_CONF = "timestampFormat";
   private transient CSVConverter converter;
   private SimpleDateFormat timestampFormat;
+
   @Override
   public void configure(Map<String, Object> parserConfig) {
     converter = new CSVConverter();
@@ -53,9 +56,11 @@ public class CSVParser extends BasicParser {
 
 
   @Override
-  public List<JSONObject> parse(byte[] rawMessage) {
+  public List<JSONObject> parse(byte[] buffer, int offset, int length) {
+    String msg = null;
     try {
-      String msg = new String(rawMessage, "UTF-8");
+      // the record is decoded once, as it is emitted whole; only the configured columns are split out of it
+      msg = ByteFields.toString(buffer, offset, offset + length);
       Map<String, String> value = converter.toMap(msg);
       if(value != null) {
         value.put("original_string", msg);
@@ -87,7 +92,7 @@ public class CSVParser extends BasicParser {
         return Collections.emptyList();
       }
     } catch (Throwable e) {
-      String message = "Unable to parse " + new String(rawMessage) + ": " + e.getMessage();
+      String message = "Unable to parse " + (msg == null ? ByteFields.toString(buffer, offset, offset + length) : msg) + ": " + e.getMessage();
       LOG.error(message, e);
       throw new IllegalStateException(message, e);
     }
@@ -20,6 +20,7 @@ package org.apache.metron.parsers.filters;
 
 import org.apache.metron.common.dsl.*;
 import org.apache.metron.common.dsl.functions.resolver.FunctionResolver;
+import org.apache.metron.common.stellar.StellarExpression;
 import org.apache.metron.common.stellar.StellarPredicateProcessor;
 import org.apache.metron.parsers.interfaces.MessageFilter;
 import org.json.simple.JSONObject;
@@ -30,6 +31,7 @@ public class QueryFilter implements MessageFilter<JSONObject> {
   public static final String QUERY_STRING_CONF = "filter.query";
   private StellarPredicateProcessor processor = new StellarPredicateProcessor();
   private String query;
+  private StellarExpression expression;
   private FunctionResolver functionResolver = StellarFunctions.FUNCTION_RESOLVER();
 
   public QueryFilter()
@@ -48,11 +50,17 @@ public class QueryFilter implements MessageFilter<JSONObject> {
       stellarContext = Context.EMPTY_CONTEXT();
     }
     processor.validate(query, true, stellarContext);
+    if(query != null && !query.trim().isEmpty()) {
+      expression = processor.compile(query, functionResolver, stellarContext);
+    }
   }
 
   @Override
   public boolean emitTuple(JSONObject message, Context context) {
+    if(expression == null) {
+      return true;
+    }
     VariableResolver resolver = new MapVariableResolver(message);
-    return processor.parse(query, resolver, functionResolver, context);
+    return processor.evaluate(expression, resolver, functionResolver, context);
   }
 }
@@ -17,10 +17,7 @@
  */
 package org.apache.metron.parsers.fireeye;
 
-import com.google.common.base.Joiner;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Multimap;
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.ImmutableMap;
 import org.apache.metron.parsers.utils.ParserUtils;
 import org.apache.metron.parsers.BasicParser;
 import org.json.simple.JSONObject;
@@ -29,7 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -42,21 +39,35 @@ public class BasicFireEyeParser extends BasicParser {
 					.getLogger(BasicFireEyeParser.class);
 
 
-	String tsRegex ="([a-zA-Z]{3})\\s+(\\d+)\\s+(\\d+\\:\\d+\\:\\d+)\\s+(\\d+\\.\\d+\\.\\d+\\.\\d+)";
-	
-	
-	Pattern tsPattern = Pattern.compile(tsRegex);
-	// private transient static MetronGrok grok;
-	// private transient static InputStream pattern_url;
+	private static final Pattern TIMESTAMP_PATTERN =
+					Pattern.compile("([a-zA-Z]{3})\\s+(\\d+)\\s+(\\d+\\:\\d+\\:\\d+)\\s+(\\d+\\.\\d+\\.\\d+\\.\\d+)");
+
+	/**
+	 * The CEF keys that are renamed, and their new names; all are renamed in a single pass, with
+	 * the same result as when each name was replaced in turn.  So a "dmac" or "smac" running into
+	 * a "cn3", "cs5" or "cs1" is left as is, and "cn3=" becomes "dst_potimestamp=", as "rt=" was
+	 * replaced after "cn3".
+	 */
+	private static final Pattern RENAMED_PATTERN =
+					Pattern.compile("[ds]ma(?=c(?:n3|s5|s1))|cn3=|cn3|cs5|proto|rt=|cs1|dst=|shost|dmac|smac|spt|\\bsrc\\b");
+	private static final Map<String, String> RENAMES = ImmutableMap.<String, String>builder()
+					.put("dma", "dma")
+					.put("sma", "sma")
+					.put("cn3=", "dst_potimestamp=")
+					.put("cn3", "dst_port")
+					.put("cs5", "cncHost")
+					.put("proto", "protocol")
+					.put("rt=", "timestamp=")
+					.put("cs1", "malware")
+					.put("dst=", "dst_ip=")
+					.put("shost", "src_hostname")
+					.put("dmac", "dst_mac")
+					.put("smac", "src_mac")
+					.put("spt", "src_port")
+					.put("src", "src_ip")
+					.build();
 
 	public BasicFireEyeParser() throws Exception {
-		// pattern_url = getClass().getClassLoader().getResourceAsStream(
-		// "patterns/fireeye");
-		//
-		// File file = ParserUtils.stream2file(pattern_url);
-		// grok = MetronGrok.create(file.getPath());
-		//
-		// grok.compile("%{FIREEYE_BASE}");
 	}
 
 	@Override
@@ -77,25 +88,9 @@ public class BasicFireEyeParser extends BasicParser {
 
 			toParse = new String(raw_message, "UTF-8");
 
-			// String[] mTokens = toParse.split(" ");
-
-			String positveIntPattern = "<[1-9][0-9]*>";
-			Pattern p = Pattern.compile(positveIntPattern);
-			Matcher m = p.matcher(toParse);
-
-			String delimiter = "";
-
-			while (m.find()) {
-				delimiter = m.group();
-
-			}
-
-			if (!StringUtils.isBlank(delimiter)) {
-				String[] tokens = toParse.split(delimiter);
-
-				if (tokens.length > 1)
-					toParse = delimiter + tokens[1];
-
+			String delimiter = lastPriority(toParse);
+			if (!delimiter.isEmpty()) {
+				toParse = fromPriority(toParse, delimiter);
 			}
 
 			JSONObject toReturn = parseMessage(toParse);
@@ -111,13 +106,56 @@ public class BasicFireEyeParser extends BasicParser {
 
 	}
 
+	/**
+	 * Finds the last syslog priority, such as "&lt;164&gt;", in a message.
+	 *
+	 * @return The priority, or an empty string if the message has none.
+	 */
+	private static String lastPriority(String message) {
+		for (int i = message.lastIndexOf('<'); i >= 0; i = message.lastIndexOf('<', i - 1)) {
+			int end = i + 1;
+			if (end < message.length() && message.charAt(end) >= '1' && message.charAt(end) <= '9') {
+				do {
+					end++;
+				} while (end < message.length() && isDigit(message.charAt(end)));
+				if (end < message.length() && message.charAt(end) == '>') {
+					return message.substring(i, end + 1);
+				}
+			}
+		}
+		return "";
+	}
+
+	/**
+	 * Takes the text between the first and the second occurrences of a priority, prefixed with
+	 * the priority.  The message is left as is if only repeats of the priority follow its first
+	 * occurrence.
+	 */
+	private static String fromPriority(String message, String priority) {
+		int start = message.indexOf(priority) + priority.length();
+		int end = message.indexOf(priority, start);
+		if (end < 0) {
+			end = message.length();
+		}
+		if (end == start) {
+			int i = start;
+			while (message.startsWith(priority, i)) {
+				i += priority.length();
+			}
+			if (i == message.length()) {
+				return message;
+			}
+		}
+		return priority + message.substring(start, end);
+	}
+
 	private long getTimeStamp(String toParse,String delimiter) throws ParseException {
 		
 		long ts = 0;
 		String month = null;
 		String day = null;
 		String time = null;
-		Matcher tsMatcher = tsPattern.matcher(toParse);
+		Matcher tsMatcher = TIMESTAMP_PATTERN.matcher(toParse);
 		if (tsMatcher.find()) {
 			month = tsMatcher.group(1);
 			day = tsMatcher.group(2);
@@ -134,19 +172,10 @@ public class BasicFireEyeParser extends BasicParser {
 
 	private JSONObject parseMessage(String toParse) {
 
-		// System.out.println("Received message: " + toParse);
-
-		// MetronMatch gm = grok.match(toParse);
-		// gm.captures();
-
 		JSONObject toReturn = new JSONObject();
-		//toParse = toParse.replaceAll("  ", " ");
-		String[] mTokens = toParse.split("\\s+");
-	 //mTokens = toParse.split(" ");
+		List<String> mTokens = splitOnWhitespace(toParse);
 
-		// toReturn.putAll(gm.toMap());
-
-		String id = mTokens[4];
+		String id = mTokens.get(4);
 
 		// We are not parsing the fedata for multi part message as we cannot
 		// determine how we can split the message and how many multi part
@@ -156,15 +185,10 @@ public class BasicFireEyeParser extends BasicParser {
 		String[] tokens = id.split("\\.");
 		if (tokens.length == 2) {
 
-			String[] array = Arrays.copyOfRange(mTokens, 1, mTokens.length - 1);
-			String syslog = Joiner.on(" ").join(array);
-
-			Multimap<String, String> multiMap = formatMain(syslog);
-
-			for (String key : multiMap.keySet()) {
+			String syslog = String.join(" ", mTokens.subList(1, mTokens.size() - 1));
 
-				String value = Joiner.on(",").join(multiMap.get(key));
-				toReturn.put(key, value.trim());
+			for (Map.Entry<String, String> field : formatMain(syslog).entrySet()) {
+				toReturn.put(field.getKey(), field.getValue().trim());
 			}
 
 		}
@@ -185,40 +209,137 @@ public class BasicFireEyeParser extends BasicParser {
 		if (ip_dst_port != null)
 			toReturn.put("ip_dst_port", ip_dst_port);
 
-		System.out.println(toReturn);
-
 		return toReturn;
 	}
 
-	private Multimap<String, String> formatMain(String in) {
-		Multimap<String, String> multiMap = ArrayListMultimap.create();
-		String input = in.replaceAll("cn3", "dst_port")
-				.replaceAll("cs5", "cncHost").replaceAll("proto", "protocol")
-				.replaceAll("rt=", "timestamp=").replaceAll("cs1", "malware")
-				.replaceAll("dst=", "dst_ip=")
-				.replaceAll("shost", "src_hostname")
-				.replaceAll("dmac", "dst_mac").replaceAll("smac", "src_mac")
-				.replaceAll("spt", "src_port")
-				.replaceAll("\\bsrc\\b", "src_ip");
+	/**
+	 * Splits a message on runs of whitespace, as String.split("\\s+") does.
+	 */
+	private static List<String> splitOnWhitespace(String message) {
+		List<String> tokens = new ArrayList<>();
+		int length = message.length();
+		if (length > 0 && isWhitespace(message.charAt(0))) {
+			tokens.add("");
+		}
+		int i = 0;
+		while (i < length) {
+			while (i < length && isWhitespace(message.charAt(i))) {
+				i++;
+			}
+			int start = i;
+			while (i < length && !isWhitespace(message.charAt(i))) {
+				i++;
+			}
+			if (i > start) {
+				tokens.add(message.substring(start, i));
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Extracts the fields of the CEF extension, the key=value pairs after the last '|'.  The
+	 * values of a repeated key are joined with ','.
+	 */
+	private Map<String, String> formatMain(String in) {
+		Map<String, String> fields = new HashMap<>();
+		String input = rename(in);
 		String[] tokens = input.split("\\|");
 
 		if (tokens.length > 0) {
 			String message = tokens[tokens.length - 1];
 
-			String pattern = "([\\w\\d]+)=([^=]*)(?=\\s*\\w+=|\\s*$) ";
-			Pattern p = Pattern.compile(pattern);
-			Matcher m = p.matcher(message);
+			int i = 0;
+			while (i < message.length()) {
+				if (!isWordChar(message.charAt(i))) {
+					i++;
+					continue;
+				}
+				int keyEnd = i;
+				while (keyEnd < message.length() && isWordChar(message.charAt(keyEnd))) {
+					keyEnd++;
+				}
+				if (keyEnd == message.length() || message.charAt(keyEnd) != '=') {
+					i = keyEnd;
+					continue;
+				}
+				int valueEnd = valueEnd(message, keyEnd + 1);
+				if (valueEnd < 0) {
+					i = keyEnd + 1;
+					continue;
+				}
+				fields.merge(message.substring(i, keyEnd), message.substring(keyEnd + 1, valueEnd),
+								(value, next) -> value + " ," + next);
+				i = valueEnd + 1;
+			}
 
-			while (m.find()) {
-				String[] str = m.group().split("=");
-				multiMap.put(str[0], str[1]);
+		}
+		return fields;
+	}
 
+	/**
+	 * Finds the end of a value, as the pattern "([\\w\\d]+)=([^=]*)(?=\\s*\\w+=|\\s*$) " did; a
+	 * value ends at the last space before the next key, or, of the last value, at the last space
+	 * of the trailing whitespace.
+	 *
+	 * @return The index of the space that ends the value, or -1 if the value does not end.
+	 */
+	private static int valueEnd(String message, int start) {
+		int end = message.indexOf('=', start);
+		if (end < 0) {
+			end = message.length();
+			if (end > start && isFinalLineTerminator(message.charAt(end - 1))) {
+				end--;
+			}
+		} else {
+			int key = end;
+			while (key > start && isWordChar(message.charAt(key - 1))) {
+				key--;
+			}
+			if (key == end) {
+				return -1;
 			}
+			end = key;
+		}
+		for (int i = end - 1; i >= start && isWhitespace(message.charAt(i)); i--) {
+			if (message.charAt(i) == ' ') {
+				return i;
+			}
+		}
+		return -1;
+	}
 
+	private static String rename(String in) {
+		Matcher m = RENAMED_PATTERN.matcher(in);
+		if (!m.find()) {
+			return in;
 		}
-		return multiMap;
+		StringBuilder renamed = new StringBuilder(in.length() + 32);
+		int last = 0;
+		do {
+			renamed.append(in, last, m.start()).append(RENAMES.get(m.group()));
+			last = m.end();
+		} while (m.find());
+		return renamed.append(in, last, in.length()).toString();
 	}
 
-	
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+	}
+
+	/**
+	 * The line terminators, other than the whitespace, that a regex '$' may precede.
+	 */
+	private static boolean isFinalLineTerminator(char c) {
+		return c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
 
 }
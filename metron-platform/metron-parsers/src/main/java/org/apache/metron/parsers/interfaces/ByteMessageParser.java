@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.interfaces;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A message parser that works directly on a region of a byte buffer.
+ *
+ * Parsers that implement this interface locate their fields within the raw bytes and only
+ * convert a field to a String when it is emitted, rather than decoding the whole message and
+ * then splitting the decoded String.  See {@link org.apache.metron.parsers.utils.ByteFields}.
+ */
+public interface ByteMessageParser<T> extends MessageParser<T> {
+
+  /**
+   * Take a region of raw data and convert it to a list of messages.
+   *
+   * @param buffer The buffer that holds the raw data.
+   * @param offset The offset of the raw data within the buffer.
+   * @param length The length of the raw data.
+   * @return If null is returned, this is treated as an empty list.
+   */
+  List<T> parse(byte[] buffer, int offset, int length);
+
+  /**
+   * Take a region of raw data and convert it to an optional list of messages.
+   *
+   * @param buffer The buffer that holds the raw data.
+   * @param offset The offset of the raw data within the buffer.
+   * @param length The length of the raw data.
+   * @return If null is returned, this is treated as an empty list.
+   */
+  default Optional<List<T>> parseOptional(byte[] buffer, int offset, int length) {
+    return Optional.ofNullable(parse(buffer, offset, length));
+  }
+
+  @Override
+  default List<T> parse(byte[] rawMessage) {
+    return parse(rawMessage, 0, rawMessage.length);
+  }
+}
@@ -22,6 +22,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Parses the raw messages of a sensor.
+ *
+ * A parser instance is only ever used by one thread at a time and need not be thread-safe.
+ * When the parser bolt parses in parallel, each of its threads parses with its own copy of
+ * the parser.  The copy is a new instance of the parser class named by the sensor's config or,
+ * for a parser built in code, is deserialized from the parser as it was before {@link #init()}.
+ * The copy is then initialized with {@link #init()} and configured with {@link #configure(Map)}.
+ * State that cannot be serialized, such as compiled patterns, should be transient and created
+ * in init().
+ */
 public interface MessageParser<T> extends Configurable {
   /**
    * Initialize the message parser.  This is done once.
@@ -17,37 +17,57 @@
  */
 package org.apache.metron.parsers.json;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
-import org.apache.metron.common.utils.JSONUtils;
 import org.apache.metron.parsers.BasicParser;
+import org.apache.metron.parsers.interfaces.ByteMessageParser;
 import org.json.simple.JSONObject;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class JSONMapParser extends BasicParser {
+public class JSONMapParser extends BasicParser implements ByteMessageParser<JSONObject> {
   private static interface Handler {
     JSONObject handle(String key, Map value, JSONObject obj);
   }
+  private static interface StreamHandler {
+    void handle(String key, JsonParser parser, JSONObject obj) throws IOException;
+  }
   public static enum MapStrategy implements Handler {
-     DROP((key, value, obj) -> obj)
+     DROP((key, value, obj) -> obj
+         ,(key, parser, obj) -> parser.skipChildren()
+         )
     ,UNFOLD( (key, value, obj) -> {
       return recursiveUnfold(key,value,obj);
-    })
+    }
+         ,(key, parser, obj) -> streamingUnfold(key, parser, obj)
+         )
     ,ALLOW((key, value, obj) -> {
       obj.put(key, value);
       return obj;
-    })
+    }
+         ,(key, parser, obj) -> obj.put(key, readValue(parser))
+         )
     ,ERROR((key, value, obj) -> {
       throw new IllegalStateException("Unable to process " + key + " => " + value + " because value is a map.");
+    }
+         ,(key, parser, obj) -> {
+      throw new IllegalStateException("Unable to process " + key + " => " + readValue(parser) + " because value is a map.");
     })
     ;
     Handler handler;
-    MapStrategy(Handler handler) {
+    StreamHandler streamHandler;
+    MapStrategy(Handler handler, StreamHandler streamHandler) {
       this.handler = handler;
+      this.streamHandler = streamHandler;
     }
 
     private static JSONObject recursiveUnfold(String key, Map value, JSONObject obj){
@@ -62,13 +82,37 @@ public class JSONMapParser extends BasicParser {
       }
       return obj;
     }
+
+    private static void streamingUnfold(String key, JsonParser parser, JSONObject obj) throws IOException {
+      while(parser.nextToken() == JsonToken.FIELD_NAME) {
+        String newKey = key + "." + parser.getCurrentName();
+        if(parser.nextToken() == JsonToken.START_OBJECT) {
+          streamingUnfold(newKey, parser, obj);
+        }
+        else {
+          obj.put(newKey, readValue(parser));
+        }
+      }
+    }
+
     @Override
     public JSONObject handle(String key, Map value, JSONObject obj) {
       return handler.handle(key, value, obj);
     }
 
+    /**
+     * Handles a map as it is parsed.
+     * @param key The key of the map.
+     * @param parser The parser, positioned at the start of the map.  The map is consumed.
+     * @param obj The message to write to.
+     */
+    public void handle(String key, JsonParser parser, JSONObject obj) throws IOException {
+      streamHandler.handle(key, parser, obj);
+    }
+
   }
   public static final String MAP_STRATEGY_CONFIG = "mapStrategy";
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
   private MapStrategy mapStrategy = MapStrategy.DROP;
 
   @Override
@@ -86,49 +130,85 @@ public class JSONMapParser extends BasicParser {
   }
 
   /**
-   * Take raw data and convert it to a list of messages.
+   * Take raw data and convert it to a list of messages.  The JSON is read as a stream of
+   * tokens, directly from the bytes, and its fields are written into the message as they
+   * are read; sub-maps are handled by the MapStrategy as they are encountered.
    *
-   * @param rawMessage
+   * @param buffer
+   * @param offset
+   * @param length
    * @return If null is returned, this is treated as an empty list.
    */
   @Override
-  public List<JSONObject> parse(byte[] rawMessage) {
-    try {
-      String originalString = new String(rawMessage);
-      //convert the JSON blob into a String -> Object map
-      Map<String, Object> rawMap = JSONUtils.INSTANCE.load(originalString, new TypeReference<Map<String, Object>>() {
-      });
-      JSONObject ret = normalizeJSON(rawMap);
-      ret.put("original_string", originalString );
+  public List<JSONObject> parse(byte[] buffer, int offset, int length) {
+    try (JsonParser parser = JSON_FACTORY.createParser(buffer, offset, length)) {
+      if(parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalStateException("Expected a JSON object, but found " + parser.getCurrentToken());
+      }
+      JSONObject ret = new JSONObject();
+      while(parser.nextToken() == JsonToken.FIELD_NAME) {
+        String key = parser.getCurrentName();
+        if(parser.nextToken() == JsonToken.START_OBJECT) {
+          mapStrategy.handle(key, parser, ret);
+        }
+        else {
+          ret.put(key, readValue(parser));
+        }
+      }
+      ret.put("original_string", new String(buffer, offset, length, StandardCharsets.UTF_8));
       if(!ret.containsKey("timestamp")) {
         //we have to ensure that we have a timestamp.  This is one of the pre-requisites for the parser.
         ret.put("timestamp", System.currentTimeMillis());
       }
       return ImmutableList.of(ret);
     } catch (Throwable e) {
-      String message = "Unable to parse " + new String(rawMessage) + ": " + e.getMessage();
+      String message = "Unable to parse " + new String(buffer, offset, length, StandardCharsets.UTF_8) + ": " + e.getMessage();
       LOG.error(message, e);
       throw new IllegalStateException(message, e);
     }
   }
 
   /**
-   * Process all sub-maps via the MapHandler.  We have standardized on one-dimensional maps as our data model..
+   * Reads the value at the current token, consuming it.  Values are read as Jackson would
+   * read them into a Map; objects become maps, arrays become lists, integers become the
+   * smallest of Integer, Long or BigInteger that holds them and decimals become doubles.
    *
-   * @param map
+   * @param parser
    * @return
    */
-  private JSONObject normalizeJSON(Map<String, Object> map) {
-    JSONObject ret = new JSONObject();
-    for(Map.Entry<String, Object> kv : map.entrySet()) {
-      if(kv.getValue() instanceof Map) {
-        mapStrategy.handle(kv.getKey(), (Map) kv.getValue(), ret);
+  private static Object readValue(JsonParser parser) throws IOException {
+    switch(parser.getCurrentToken()) {
+      case START_OBJECT: {
+        Map<String, Object> map = new LinkedHashMap<>();
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+          String key = parser.getCurrentName();
+          parser.nextToken();
+          map.put(key, readValue(parser));
+        }
+        return map;
       }
-      else {
-        ret.put(kv.getKey(), kv.getValue());
+      case START_ARRAY: {
+        List<Object> list = new ArrayList<>();
+        while(parser.nextToken() != JsonToken.END_ARRAY) {
+          list.add(readValue(parser));
+        }
+        return list;
       }
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case VALUE_NULL:
+        return null;
+      default:
+        throw new IllegalStateException("Unexpected token " + parser.getCurrentToken());
     }
-    return ret;
   }
 
 }
@@ -18,15 +18,15 @@
 
 package org.apache.metron.parsers.lancope;
 
+import org.apache.metron.common.utils.timestamp.TimestampParser;
 import org.apache.metron.parsers.BasicParser;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -38,9 +38,17 @@ public class BasicLancopeParser extends BasicParser {
 	private static final Logger _LOG = LoggerFactory.getLogger(BasicLancopeParser
 					.class);
 
+	private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
+
+	private TimestampParser timestampParser = TimestampParser.ofSimpleDateFormat(TIMESTAMP_FORMAT, ZoneId.systemDefault());
+
 	@Override
 	public void configure(Map<String, Object> parserConfig) {
-
+		// the timestamps of StealthWatch events are read in the local time zone unless configured otherwise
+		String timeZone = (String) parserConfig.get("timeZone");
+		if (timeZone != null) {
+			timestampParser = TimestampParser.ofSimpleDateFormat(TIMESTAMP_FORMAT, timeZone);
+		}
 	}
 
 	@Override
@@ -63,20 +71,11 @@ public class BasicLancopeParser extends BasicParser {
 			
 
 			String message = payload.get("message").toString();
-			String[] parts = message.split(" ");
-			payload.put("ip_src_addr", parts[6]);
-			payload.put("ip_dst_addr", parts[7]);
-
-			String fixed_date = parts[5].replace('T', ' ');
-			fixed_date = fixed_date.replace('Z', ' ').trim();
-
-			SimpleDateFormat formatter = new SimpleDateFormat(
-					"yyyy-MM-dd HH:mm:ss");
+			String[] parts = fields(message, 5, 7);
+			payload.put("ip_src_addr", parts[1]);
+			payload.put("ip_dst_addr", parts[2]);
 
-			Date date;
-
-			date = formatter.parse(fixed_date);
-			long timestamp = date.getTime();
+			long timestamp = timestampParser.parse(parts[0]);
 			payload.put("timestamp", timestamp);
 
 			payload.remove("@timestamp");
@@ -92,5 +91,37 @@ public class BasicLancopeParser extends BasicParser {
 		}
 	}
 
-	
+	/**
+	 * Finds the fields of a message at the indices from first to last, as message.split(" ")
+	 * would, without splitting the remainder of the message.
+	 *
+	 * @throws IllegalArgumentException If the message has fewer fields.
+	 */
+	private static String[] fields(String message, int first, int last) {
+		String[] fields = new String[last - first + 1];
+		int start = 0;
+		for (int i = 0; i <= last; i++) {
+			int end = message.indexOf(' ', start);
+			if (end < 0) {
+				end = message.length();
+			}
+			if (i >= first) {
+				fields[i - first] = message.substring(start, end);
+			}
+			if (end == message.length() && i < last) {
+				throw new IllegalArgumentException("Expected at least " + (last + 1) + " fields, but found " + (i + 1));
+			}
+			if (i < last) {
+				start = end + 1;
+			}
+		}
+		// as with split, empty fields that only spaces follow do not count
+		for (int i = start; i < message.length(); i++) {
+			if (message.charAt(i) != ' ') {
+				return fields;
+			}
+		}
+		throw new IllegalArgumentException("Expected at least " + (last + 1) + " fields, but found fewer");
+	}
+
 }
@@ -17,20 +17,29 @@
  */
 package org.apache.metron.parsers.logstash;
 
+import org.apache.metron.common.utils.timestamp.TimestampParser;
 import org.apache.metron.parsers.BasicParser;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public class BasicLogstashParser extends BasicParser {
 
+	private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
+	private TimestampParser timestampParser = TimestampParser.ofSimpleDateFormat(TIMESTAMP_FORMAT, ZoneId.systemDefault());
+
 	@Override
 	public void configure(Map<String, Object> parserConfig) {
-
+		// the 'Z' of a logstash timestamp is not read; it is in the local time zone unless configured otherwise
+		String timeZone = (String) parserConfig.get("timeZone");
+		if (timeZone != null) {
+			timestampParser = TimestampParser.ofSimpleDateFormat(TIMESTAMP_FORMAT, timeZone);
+		}
 	}
 
 	@Override
@@ -84,10 +93,8 @@ public class BasicLogstashParser extends BasicParser {
 		return json;
 	}
 	
-	private long LogstashToEpoch(String timestamp) throws java.text.ParseException {
-		SimpleDateFormat logstashDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-		return logstashDateFormat.parse(timestamp).getTime();
-		
+	private long LogstashToEpoch(String timestamp) {
+		return timestampParser.parse(timestamp);
 	}
 
 	
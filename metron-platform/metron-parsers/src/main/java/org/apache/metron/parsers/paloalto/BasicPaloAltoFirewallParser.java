@@ -18,6 +18,7 @@
 package org.apache.metron.parsers.paloalto;
 
 
+import org.apache.metron.common.csv.DelimitedTokenizer;
 import org.apache.metron.parsers.BasicParser;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
@@ -91,6 +92,13 @@ public class BasicPaloAltoFirewallParser extends BasicParser {
   public static final String PktsSent = "pkts_sent";
   public static final String PktsReceived = "pkts_received";
 
+  /**
+   * The number of fields read from a record; the fields of traffic logs after these are unused.
+   */
+  private static final int MAX_FIELDS = 46;
+
+  private transient DelimitedTokenizer tokenizer;
+
   @Override
   public void configure(Map<String, Object> parserConfig) {
 
@@ -135,80 +143,90 @@ public class BasicPaloAltoFirewallParser extends BasicParser {
   @SuppressWarnings("unchecked")
   private void parseMessage(String message, JSONObject outputMessage) {
 
-    String[] tokens = message.split(",");
+    if (tokenizer == null) {
+      // a backslash is not an escape character, as user names of the form domain\name are unquoted
+      tokenizer = new DelimitedTokenizer(',', DelimitedTokenizer.DEFAULT_QUOTE, DelimitedTokenizer.DEFAULT_QUOTE);
+    }
+    String[] tokens = null;
+    if (tokenizer.tokenize(message, 0, message.length(), MAX_FIELDS) == DelimitedTokenizer.IRREGULAR) {
+      // records with stray quotes are split as they always have been
+      tokens = message.split(",");
+    }
 
-    String type = tokens[3].trim();
+    String type = field(tokens, 3);
 
     //populate common objects
-    outputMessage.put(PaloAltoDomain, tokens[0].trim());
-    outputMessage.put(ReceiveTime, tokens[1].trim());
-    outputMessage.put(SerialNum, tokens[2].trim());
+    outputMessage.put(PaloAltoDomain, field(tokens, 0));
+    outputMessage.put(ReceiveTime, field(tokens, 1));
+    outputMessage.put(SerialNum, field(tokens, 2));
     outputMessage.put(Type, type);
-    outputMessage.put(ThreatContentType, tokens[4].trim());
-    outputMessage.put(ConfigVersion, tokens[5].trim());
-    outputMessage.put(GenerateTime, tokens[6].trim());
-    outputMessage.put(SourceAddress, tokens[7].trim());
-    outputMessage.put(DestinationAddress, tokens[8].trim());
-    outputMessage.put(NATSourceIP, tokens[9].trim());
-    outputMessage.put(NATDestinationIP, tokens[10].trim());
-    outputMessage.put(Rule, tokens[11].trim());
-    outputMessage.put(SourceUser, tokens[12].trim());
-    outputMessage.put(DestinationUser, tokens[13].trim());
-    outputMessage.put(Application, tokens[14].trim());
-    outputMessage.put(VirtualSystem, tokens[15].trim());
-    outputMessage.put(SourceZone, tokens[16].trim());
-    outputMessage.put(DestinationZone, tokens[17].trim());
-    outputMessage.put(InboundInterface, tokens[18].trim());
-    outputMessage.put(OutboundInterface, tokens[19].trim());
-    outputMessage.put(LogAction, tokens[20].trim());
-    outputMessage.put(TimeLogged, tokens[21].trim());
-    outputMessage.put(SessionID, tokens[22].trim());
-    outputMessage.put(RepeatCount, tokens[23].trim());
-    outputMessage.put(SourcePort, tokens[24].trim());
-    outputMessage.put(DestinationPort, tokens[25].trim());
-    outputMessage.put(NATSourcePort, tokens[26].trim());
-    outputMessage.put(NATDestinationPort, tokens[27].trim());
-    outputMessage.put(Flags, tokens[28].trim());
-    outputMessage.put(IPProtocol, tokens[29].trim());
-    outputMessage.put(Action, tokens[30].trim());
+    outputMessage.put(ThreatContentType, field(tokens, 4));
+    outputMessage.put(ConfigVersion, field(tokens, 5));
+    outputMessage.put(GenerateTime, field(tokens, 6));
+    outputMessage.put(SourceAddress, field(tokens, 7));
+    outputMessage.put(DestinationAddress, field(tokens, 8));
+    outputMessage.put(NATSourceIP, field(tokens, 9));
+    outputMessage.put(NATDestinationIP, field(tokens, 10));
+    outputMessage.put(Rule, field(tokens, 11));
+    outputMessage.put(SourceUser, field(tokens, 12));
+    outputMessage.put(DestinationUser, field(tokens, 13));
+    outputMessage.put(Application, field(tokens, 14));
+    outputMessage.put(VirtualSystem, field(tokens, 15));
+    outputMessage.put(SourceZone, field(tokens, 16));
+    outputMessage.put(DestinationZone, field(tokens, 17));
+    outputMessage.put(InboundInterface, field(tokens, 18));
+    outputMessage.put(OutboundInterface, field(tokens, 19));
+    outputMessage.put(LogAction, field(tokens, 20));
+    outputMessage.put(TimeLogged, field(tokens, 21));
+    outputMessage.put(SessionID, field(tokens, 22));
+    outputMessage.put(RepeatCount, field(tokens, 23));
+    outputMessage.put(SourcePort, field(tokens, 24));
+    outputMessage.put(DestinationPort, field(tokens, 25));
+    outputMessage.put(NATSourcePort, field(tokens, 26));
+    outputMessage.put(NATDestinationPort, field(tokens, 27));
+    outputMessage.put(Flags, field(tokens, 28));
+    outputMessage.put(IPProtocol, field(tokens, 29));
+    outputMessage.put(Action, field(tokens, 30));
 
 
     if ("THREAT".equals(type.toUpperCase())) {
-      outputMessage.put(URL, tokens[31].trim());
+      outputMessage.put(URL, field(tokens, 31));
       try {
-        URL url = new URL(tokens[31].trim());
+        URL url = new URL(field(tokens, 31));
         outputMessage.put(HOST, url.getHost());
       } catch (MalformedURLException e) {
       }
-      outputMessage.put(ThreatContentName, tokens[32].trim());
-      outputMessage.put(Category, tokens[33].trim());
-      outputMessage.put(Direction, tokens[34].trim());
-      outputMessage.put(Seqno, tokens[35].trim());
-      outputMessage.put(ActionFlags, tokens[36].trim());
-      outputMessage.put(SourceCountry, tokens[37].trim());
-      outputMessage.put(DestinationCountry, tokens[38].trim());
-      outputMessage.put(Cpadding, tokens[39].trim());
-      outputMessage.put(ContentType, tokens[40].trim());
+      outputMessage.put(ThreatContentName, field(tokens, 32));
+      outputMessage.put(Category, field(tokens, 33));
+      outputMessage.put(Direction, field(tokens, 34));
+      outputMessage.put(Seqno, field(tokens, 35));
+      outputMessage.put(ActionFlags, field(tokens, 36));
+      outputMessage.put(SourceCountry, field(tokens, 37));
+      outputMessage.put(DestinationCountry, field(tokens, 38));
+      outputMessage.put(Cpadding, field(tokens, 39));
+      outputMessage.put(ContentType, field(tokens, 40));
 
     } else {
-      outputMessage.put(Bytes, tokens[31].trim());
-      outputMessage.put(BytesSent, tokens[32].trim());
-      outputMessage.put(BytesReceived, tokens[33].trim());
-      outputMessage.put(Packets, tokens[34].trim());
-      outputMessage.put(StartTime, tokens[35].trim());
-      outputMessage.put(ElapsedTimeInSec, tokens[36].trim());
-      outputMessage.put(Category, tokens[37].trim());
-      outputMessage.put(Padding, tokens[38].trim());
-      outputMessage.put(Seqno, tokens[39].trim());
-      outputMessage.put(ActionFlags, tokens[40].trim());
-      outputMessage.put(SourceCountry, tokens[41].trim());
-      outputMessage.put(DestinationCountry, tokens[42].trim());
-      outputMessage.put(Cpadding, tokens[43].trim());
-      outputMessage.put(PktsSent, tokens[44].trim());
-      outputMessage.put(PktsReceived, tokens[45].trim());
+      outputMessage.put(Bytes, field(tokens, 31));
+      outputMessage.put(BytesSent, field(tokens, 32));
+      outputMessage.put(BytesReceived, field(tokens, 33));
+      outputMessage.put(Packets, field(tokens, 34));
+      outputMessage.put(StartTime, field(tokens, 35));
+      outputMessage.put(ElapsedTimeInSec, field(tokens, 36));
+      outputMessage.put(Category, field(tokens, 37));
+      outputMessage.put(Padding, field(tokens, 38));
+      outputMessage.put(Seqno, field(tokens, 39));
+      outputMessage.put(ActionFlags, field(tokens, 40));
+      outputMessage.put(SourceCountry, field(tokens, 41));
+      outputMessage.put(DestinationCountry, field(tokens, 42));
+      outputMessage.put(Cpadding, field(tokens, 43));
+      outputMessage.put(PktsSent, field(tokens, 44));
+      outputMessage.put(PktsReceived, field(tokens, 45));
     }
 
   }
 
-
+  private String field(String[] tokens, int field) {
+    return (tokens == null ? tokenizer.get(field) : tokens[field]).trim();
+  }
 }
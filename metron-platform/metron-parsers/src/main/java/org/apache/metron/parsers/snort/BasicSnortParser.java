@@ -22,10 +22,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.metron.common.Constants;
 import org.apache.metron.common.csv.CSVConverter;
 import org.apache.metron.parsers.BasicParser;
+import org.apache.metron.parsers.interfaces.ByteMessageParser;
+import org.apache.metron.parsers.utils.ByteFields;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -36,7 +39,7 @@ import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings("serial")
-public class BasicSnortParser extends BasicParser {
+public class BasicSnortParser extends BasicParser implements ByteMessageParser<JSONObject> {
 
   private static final Logger _LOG = LoggerFactory.getLogger(BasicSnortParser.class);
 
@@ -83,6 +86,7 @@ public class BasicSnortParser extends BasicParser {
 
   private static String defaultDateFormat = "MM/dd/yy-HH:mm:ss.SSSSSS";
   private transient DateTimeFormatter dateTimeFormatter;
+  private transient int[] fieldStarts;
 
   public BasicSnortParser() {
 
@@ -133,41 +137,22 @@ public class BasicSnortParser extends BasicParser {
   }
 
   @Override
-  public List<JSONObject> parse(byte[] rawMessage) {
+  public List<JSONObject> parse(byte[] buffer, int offset, int length) {
 
     JSONObject jsonMessage = new JSONObject();
     List<JSONObject> messages = new ArrayList<>();
+    // the original message is decoded once; it is both emitted and used to report errors
+    String csvMessage = ByteFields.toString(buffer, offset, offset + length);
     try {
-      // snort alerts expected as csv records
-      String csvMessage = new String(rawMessage, "UTF-8");
-      Map<String, String> records = null;
-      try {
-         records = converter.toMap(csvMessage);
+      int end = offset + length;
+      char delimiter = recordDelimiter.charAt(0);
+      if(delimiter < 0x80 && !ByteFields.containsAny(buffer, offset, end, (byte) '"', (byte) '\\')) {
+        // snort alerts without quoted fields are split on their bytes
+        putFields(buffer, offset, end, (byte) delimiter, csvMessage, jsonMessage);
       }
-      catch(ArrayIndexOutOfBoundsException aioob) {
-        throw new IllegalArgumentException("Unexpected number of fields, expected: " + fieldNames.length + " in " + csvMessage);
-      }
-
-      // validate the number of fields
-      if (records.size() != fieldNames.length) {
-        throw new IllegalArgumentException("Unexpected number of fields, expected: " + fieldNames.length + " got: " + records.size());
-      }
-      long timestamp = 0L;
-      // build the json record from each field
-      for (Map.Entry<String, String> kv : records.entrySet()) {
-
-        String field = kv.getKey();
-        String record = kv.getValue();
-
-        if("timestamp".equals(field)) {
-
-          // convert the timestamp to epoch
-          timestamp = toEpoch(record);
-          jsonMessage.put("timestamp", timestamp);
-
-        } else {
-          jsonMessage.put(field, record);
-        }
+      else {
+        // snort alerts expected as csv records
+        putFields(csvMessage, jsonMessage);
       }
 
       // add original msg; required by 'checkForSchemaCorrectness'
@@ -175,7 +160,7 @@ public class BasicSnortParser extends BasicParser {
       jsonMessage.put("is_alert", "true");
       messages.add(jsonMessage);
     } catch (Exception e) {
-      String message = "Unable to parse message: " + (rawMessage == null?"null" : new String(rawMessage));
+      String message = "Unable to parse message: " + csvMessage;
       _LOG.error(message, e);
       throw new IllegalStateException(message, e);
     }
@@ -183,6 +168,71 @@ public class BasicSnortParser extends BasicParser {
     return messages;
   }
 
+  private void putFields(byte[] buffer, int start, int end, byte delimiter, String csvMessage, JSONObject jsonMessage) {
+    if(fieldStarts == null || fieldStarts.length != fieldNames.length + 1) {
+      fieldStarts = new int[fieldNames.length + 1];
+    }
+    int count = ByteFields.split(buffer, start, end, delimiter, fieldStarts);
+    if (count < fieldNames.length) {
+      throw new IllegalArgumentException("Unexpected number of fields, expected: " + fieldNames.length + " in " + csvMessage);
+    }
+    for (int i = 0; i < fieldNames.length; i++) {
+      int fieldEnd = ByteFields.fieldEnd(fieldStarts, count, i, end);
+      if("timestamp".equals(fieldNames[i])) {
+
+        // convert the timestamp to epoch
+        jsonMessage.put("timestamp", toEpoch(buffer, fieldStarts[i], fieldEnd));
+
+      } else {
+        jsonMessage.put(fieldNames[i], ByteFields.toString(buffer, fieldStarts[i], fieldEnd));
+      }
+    }
+  }
+
+  private void putFields(String csvMessage, JSONObject jsonMessage) throws IOException, ParseException {
+    Map<String, String> records = null;
+    try {
+       records = converter.toMap(csvMessage);
+    }
+    catch(ArrayIndexOutOfBoundsException aioob) {
+      throw new IllegalArgumentException("Unexpected number of fields, expected: " + fieldNames.length + " in " + csvMessage);
+    }
+
+    // validate the number of fields
+    if (records.size() != fieldNames.length) {
+      throw new IllegalArgumentException("Unexpected number of fields, expected: " + fieldNames.length + " got: " + records.size());
+    }
+    // build the json record from each field
+    for (Map.Entry<String, String> kv : records.entrySet()) {
+
+      String field = kv.getKey();
+      String record = kv.getValue();
+
+      if("timestamp".equals(field)) {
+
+        // convert the timestamp to epoch
+        jsonMessage.put("timestamp", toEpoch(record));
+
+      } else {
+        jsonMessage.put(field, record);
+      }
+    }
+  }
+
+  /**
+   * Parses Snort's default date-time representation directly from the message bytes and
+   * converts to epoch.
+   * @return epoch time
+   */
+  private long toEpoch(byte[] buffer, int start, int end) {
+    start = ByteFields.trimStart(buffer, start, end);
+    end = ByteFields.trimEnd(buffer, start, end);
+    CharSequence snortDatetime = ByteFields.isAscii(buffer, start, end)
+                               ? ByteFields.asciiSequence(buffer, start, end)
+                               : ByteFields.toString(buffer, start, end);
+    return ZonedDateTime.parse(snortDatetime, dateTimeFormatter).toInstant().toEpochMilli();
+  }
+
   /**
    * Parses Snort's default date-time representation and
    * converts to epoch.
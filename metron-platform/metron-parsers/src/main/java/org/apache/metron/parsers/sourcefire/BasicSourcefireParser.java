@@ -36,11 +36,12 @@ public class BasicSourcefireParser extends BasicParser {
 					.getLogger(BasicSourcefireParser.class);
 
 	public static final String hostkey = "host";
-	String domain_name_regex = "([^\\.]+)\\.([a-z]{2}|[a-z]{3}|([a-z]{2}\\.[a-z]{2}))$";
-	String sidRegex = "(.*)(\\[[0-9]+:[0-9]+:[0-9]\\])(.*)$";
-	//String sidRegex = "(\\[[0-9]+:[0-9]+:[0-9]\\])(.*)$";
-	Pattern sidPattern = Pattern.compile(sidRegex);	
-	Pattern pattern = Pattern.compile(domain_name_regex);
+
+	/**
+	 * Finds the last signature id of a message, such as "[1:2013504:3]"; only used for
+	 * messages of more than one line, as the others are scanned for it.
+	 */
+	private static final Pattern SID_PATTERN = Pattern.compile("(.*)(\\[[0-9]+:[0-9]+:[0-9]\\])(.*)$");
 
 	@Override
 	public void configure(Map<String, Object> parserConfig) {
@@ -61,7 +62,7 @@ public class BasicSourcefireParser extends BasicParser {
 		try {
 
 			toParse = new String(msg, "UTF-8");
-			_LOG.debug("Received message: " + toParse);
+			_LOG.debug("Received message: {}", toParse);
 
 			String tmp = toParse.substring(toParse.lastIndexOf("{"));
 			payload.put("key", tmp);
@@ -101,10 +102,15 @@ public class BasicSourcefireParser extends BasicParser {
 			long timestamp = System.currentTimeMillis();
 			payload.put("timestamp", timestamp);
 			
-			Matcher sidMatcher = sidPattern.matcher(toParse);
 			String originalString = null;
 			String signatureId = "";
-			if (sidMatcher.find()) {
+			Matcher sidMatcher = isSingleLine(toParse) ? null : SID_PATTERN.matcher(toParse);
+			int sid = sidMatcher == null ? lastSignatureId(toParse) : -1;
+			if (sid >= 0) {
+				int end = toParse.indexOf(']', sid) + 1;
+				signatureId = toParse.substring(sid, end);
+				originalString = toParse.substring(0, sid) + " " + signatureId + " " + toParse.substring(end);
+			} else if (sidMatcher != null && sidMatcher.find()) {
 				signatureId = sidMatcher.group(2);
 				originalString = sidMatcher.group(1) +" "+ sidMatcher.group(2) + " " + sidMatcher.group(3);
 			} else {
@@ -122,7 +128,58 @@ public class BasicSourcefireParser extends BasicParser {
 		}
 	}
 
-	
+	/**
+	 * Scans for the start of the last signature id, "[gid:sid:rev]", in a single line message.
+	 *
+	 * @return The index of the '[' that starts the signature id, or -1 if there is none.
+	 */
+	private static int lastSignatureId(String message) {
+		for (int i = message.lastIndexOf('['); i >= 0; i = message.lastIndexOf('[', i - 1)) {
+			int end = digits(message, i + 1);
+			if (end < 0 || message.charAt(end) != ':') {
+				continue;
+			}
+			end = digits(message, end + 1);
+			if (end < 0 || message.charAt(end) != ':') {
+				continue;
+			}
+			end++;
+			if (end + 1 < message.length() && isDigit(message.charAt(end)) && message.charAt(end + 1) == ']') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Skips the digits at an index of a message.
+	 *
+	 * @return The index after the digits, provided that there is at least one and that the
+	 * message continues after them; otherwise -1.
+	 */
+	private static int digits(String message, int start) {
+		int end = start;
+		while (end < message.length() && isDigit(message.charAt(end))) {
+			end++;
+		}
+		return end > start && end < message.length() ? end : -1;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
 
+	/**
+	 * Whether a message has no line terminators, which '.' in a regex does not match.
+	 */
+	private static boolean isSingleLine(String message) {
+		for (int i = 0; i < message.length(); i++) {
+			char c = message.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return false;
+			}
+		}
+		return true;
+	}
 
 }
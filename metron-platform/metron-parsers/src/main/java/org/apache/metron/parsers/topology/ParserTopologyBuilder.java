@@ -17,6 +17,9 @@
  */
 package org.apache.metron.parsers.topology;
 
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import org.apache.storm.topology.BoltDeclarer;
 import org.apache.storm.topology.TopologyBuilder;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.metron.common.Constants;
@@ -28,6 +31,7 @@ import org.apache.metron.common.writer.BulkMessageWriter;
 import org.apache.metron.common.writer.MessageWriter;
 import org.apache.metron.common.spout.kafka.SpoutConfig;
 import org.apache.metron.common.spout.kafka.SpoutConfigOptions;
+import org.apache.metron.common.utils.ConversionUtils;
 import org.apache.metron.common.utils.ReflectionUtils;
 import org.apache.metron.parsers.bolt.ParserBolt;
 import org.apache.metron.parsers.bolt.WriterBolt;
@@ -40,18 +44,30 @@ import org.apache.storm.kafka.KafkaSpout;
 import org.apache.storm.kafka.ZkHosts;
 
 import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
- * Builds a Storm topology that parses telemetry data received from a sensor.
+ * Builds a Storm topology that parses telemetry data received from a sensor.  A single topology
+ * may also parse several sensors; each sensor's topic is consumed by its own spout, and one
+ * parser bolt parses each tuple with the parser, configuration and writer of its sensor.
  */
 public class ParserTopologyBuilder {
 
+  /**
+   * The separator of the sensor types in the name of a topology that parses several sensors.
+   */
+  public static final String TOPOLOGY_NAME_SEPARATOR = "__";
+
   /**
    * Builds a Storm topology that parses telemetry data received from an external sensor.
    *
    * @param zookeeperUrl             Zookeeper URL
    * @param brokerUrl                Kafka Broker URL
-   * @param sensorType               Type of sensor
+   * @param sensorType               Type of sensor, or a comma-separated list of the sensors that a single topology parses
    * @param offset                   Kafka topic offset where the topology will start; BEGINNING, END, WHERE_I_LEFT_OFF
    * @param spoutParallelism         Parallelism hint for the spout
    * @param spoutNumTasks            Number of tasks for the spout
@@ -82,19 +98,33 @@ public class ParserTopologyBuilder {
 
     // fetch configuration from zookeeper
     ParserConfigurations configs = new ParserConfigurations();
-    SensorParserConfig parserConfig = getSensorParserConfig(zookeeperUrl, sensorType, configs);
+    List<String> sensorTypes = getSensorTypes(sensorType);
+    Map<String, SensorParserConfig> parserConfigs = getSensorParserConfigs(zookeeperUrl, sensorTypes, configs);
+    validateSharedSettings(parserConfigs);
+    sensorType = sensorTypes.get(0);
+    SensorParserConfig parserConfig = parserConfigs.get(sensorType);
 
-    // create the spout
+    // create a spout for each sensor
     TopologyBuilder builder = new TopologyBuilder();
-    KafkaSpout kafkaSpout = createKafkaSpout(zookeeperUrl, sensorType, offset, kafkaSpoutConfig, parserConfig);
-    builder.setSpout("kafkaSpout", kafkaSpout, spoutParallelism)
-            .setNumTasks(spoutNumTasks);
+    for (String type : sensorTypes) {
+      KafkaSpout kafkaSpout = createKafkaSpout(zookeeperUrl, type, offset, kafkaSpoutConfig, parserConfigs.get(type));
+      builder.setSpout(getSpoutId(type, sensorTypes), kafkaSpout, spoutParallelism)
+              .setNumTasks(spoutNumTasks);
+    }
 
-    // create the parser bolt
+    // create the parser bolt; the sensors share their batching and parser threads
     ParserBolt parserBolt = createParserBolt(zookeeperUrl, brokerUrl, sensorType, configs, parserConfig);
-    builder.setBolt("parserBolt", parserBolt, parserParallelism)
-            .setNumTasks(parserNumTasks)
-            .shuffleGrouping("kafkaSpout");
+    if (sensorTypes.size() > 1) {
+      for (String type : sensorTypes) {
+        parserBolt.withSensor(getSpoutId(type, sensorTypes), type, createParser(parserConfigs.get(type)),
+                createWriterHandler(brokerUrl, type, configs, parserConfigs.get(type)));
+      }
+    }
+    BoltDeclarer parserBoltDeclarer = builder.setBolt("parserBolt", parserBolt, parserParallelism)
+            .setNumTasks(parserNumTasks);
+    for (String type : sensorTypes) {
+      parserBoltDeclarer.shuffleGrouping(getSpoutId(type, sensorTypes));
+    }
 
     // create the error bolt, if needed
     if (errorWriterNumTasks > 0) {
@@ -115,6 +145,82 @@ public class ParserTopologyBuilder {
     return builder;
   }
 
+  /**
+   * The sensors that a topology parses.
+   *
+   * @param sensorType Type of sensor, or a comma-separated list of the sensors that a single topology parses
+   * @return The types of sensor, in the order given
+   * @throws IllegalArgumentException If no sensor type is given, or one is given more than once
+   */
+  public static List<String> getSensorTypes(String sensorType) {
+    List<String> sensorTypes = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(sensorType);
+    if (sensorTypes.isEmpty()) {
+      throw new IllegalArgumentException("At least one sensor type is required.");
+    }
+    if (new HashSet<>(sensorTypes).size() < sensorTypes.size()) {
+      throw new IllegalArgumentException("A sensor type may only be given once: " + sensorType);
+    }
+    return sensorTypes;
+  }
+
+  /**
+   * The name of the topology that parses the given sensors.  A topology that parses a single sensor
+   * is named after the sensor; one that parses several is named after all of them, in the order
+   * given, separated by {@link #TOPOLOGY_NAME_SEPARATOR}.  For example, "bro, yaf" is "bro__yaf".
+   *
+   * @param sensorType Type of sensor, or a comma-separated list of the sensors that a single topology parses
+   */
+  public static String getTopologyName(String sensorType) {
+    return Joiner.on(TOPOLOGY_NAME_SEPARATOR).join(getSensorTypes(sensorType));
+  }
+
+  /**
+   * Ensures that the sensors that a topology parses agree on the settings that the topology applies
+   * to all of them; the batching and parser threads of the parser bolt and the error and invalid
+   * message writers.
+   *
+   * @param parserConfigs The configuration of each sensor
+   * @throws IllegalArgumentException If the sensors' settings differ
+   */
+  static void validateSharedSettings(Map<String, SensorParserConfig> parserConfigs) {
+    Map<String, Function<SensorParserConfig, Object>> settings = new LinkedHashMap<>();
+    settings.put(ParserBolt.BATCH_SIZE_CONF, ParserTopologyBuilder::getBatchSize);
+    settings.put(ParserBolt.BATCH_TIMEOUT_CONF, ParserTopologyBuilder::getBatchTimeout);
+    settings.put(ParserBolt.PARSER_THREADS_CONF, ParserTopologyBuilder::getParserThreads);
+    settings.put("errorWriterClassName", SensorParserConfig::getErrorWriterClassName);
+    settings.put("invalidWriterClassName", SensorParserConfig::getInvalidWriterClassName);
+    for (Map.Entry<String, Function<SensorParserConfig, Object>> setting : settings.entrySet()) {
+      Map<String, Object> values = new LinkedHashMap<>();
+      parserConfigs.forEach((sensorType, parserConfig) -> values.put(sensorType, setting.getValue().apply(parserConfig)));
+      if (new HashSet<>(values.values()).size() > 1) {
+        throw new IllegalArgumentException("The sensors parsed by one topology must have the same " + setting.getKey()
+                + ", but found " + values + ".  Parse them in separate topologies, or give them the same setting.");
+      }
+    }
+  }
+
+  private static int getBatchSize(SensorParserConfig parserConfig) {
+    return ConversionUtils.convert(parserConfig.getParserConfig().getOrDefault(ParserBolt.BATCH_SIZE_CONF, 1), Integer.class);
+  }
+
+  private static long getBatchTimeout(SensorParserConfig parserConfig) {
+    return ConversionUtils.convert(parserConfig.getParserConfig().getOrDefault(ParserBolt.BATCH_TIMEOUT_CONF, ParserBolt.DEFAULT_BATCH_TIMEOUT), Long.class);
+  }
+
+  private static int getParserThreads(SensorParserConfig parserConfig) {
+    return ConversionUtils.convert(parserConfig.getParserConfig().getOrDefault(ParserBolt.PARSER_THREADS_CONF, 1), Integer.class);
+  }
+
+  /**
+   * The id of the spout that consumes a sensor's topic.
+   *
+   * @param sensorType  Type of sensor
+   * @param sensorTypes All of the sensors that the topology parses
+   */
+  private static String getSpoutId(String sensorType, List<String> sensorTypes) {
+    return sensorTypes.size() == 1 ? "kafkaSpout" : "kafkaSpout-" + sensorType;
+  }
+
   /**
    * Create a spout that consumes tuples from a Kafka topic.
    *
@@ -145,9 +251,38 @@ public class ParserTopologyBuilder {
    */
   private static ParserBolt createParserBolt(String zookeeperUrl, String brokerUrl, String sensorType, ParserConfigurations configs, SensorParserConfig parserConfig) {
 
-    // create message parser
+    MessageParser<JSONObject> parser = createParser(parserConfig);
+    WriterHandler writerHandler = createWriterHandler(brokerUrl, sensorType, configs, parserConfig);
+
+    // micro-batching and parallel parsing are enabled by the parser config
+    return new ParserBolt(zookeeperUrl, sensorType, parser, writerHandler)
+            .withBatchSize(getBatchSize(parserConfig))
+            .withBatchTimeout(getBatchTimeout(parserConfig))
+            .withParserThreads(getParserThreads(parserConfig));
+  }
+
+  /**
+   * Create the message parser of a sensor.
+   *
+   * @param parserConfig Configuration for the parser
+   * @return The configured parser
+   */
+  private static MessageParser<JSONObject> createParser(SensorParserConfig parserConfig) {
     MessageParser<JSONObject> parser = ReflectionUtils.createInstance(parserConfig.getParserClassName());
     parser.configure(parserConfig.getParserConfig());
+    return parser;
+  }
+
+  /**
+   * Create the writer handler that writes the parsed messages of a sensor.
+   *
+   * @param brokerUrl    Kafka Broker URL
+   * @param sensorType   Type of sensor that is being consumed.
+   * @param configs
+   * @param parserConfig
+   * @return A writer handler
+   */
+  private static WriterHandler createWriterHandler(String brokerUrl, String sensorType, ParserConfigurations configs, SensorParserConfig parserConfig) {
 
     // create writer - if not configured uses a sensible default
     AbstractWriter writer = parserConfig.getWriterClassName() == null ?
@@ -156,9 +291,7 @@ public class ParserTopologyBuilder {
     writer.configure(sensorType, new ParserWriterConfiguration(configs));
 
     // create a writer handler
-    WriterHandler writerHandler = createWriterHandler(writer);
-
-    return new ParserBolt(zookeeperUrl, sensorType, parser, writerHandler);
+    return createWriterHandler(writer);
   }
 
   /**
@@ -208,25 +341,29 @@ public class ParserTopologyBuilder {
   }
 
   /**
-   * Fetch the parser configuration from Zookeeper.
+   * Fetch the parser configurations from Zookeeper.
    *
    * @param zookeeperUrl Zookeeper URL
-   * @param sensorType   Type of sensor
+   * @param sensorTypes  Types of sensor
    * @param configs
-   * @return
+   * @return The configuration of each sensor, in the order given
    * @throws Exception
    */
-  private static SensorParserConfig getSensorParserConfig(String zookeeperUrl, String sensorType, ParserConfigurations configs) throws Exception {
+  private static Map<String, SensorParserConfig> getSensorParserConfigs(String zookeeperUrl, List<String> sensorTypes, ParserConfigurations configs) throws Exception {
     CuratorFramework client = ConfigurationsUtils.getClient(zookeeperUrl);
     client.start();
     ConfigurationsUtils.updateParserConfigsFromZookeeper(configs, client);
-    SensorParserConfig parserConfig = configs.getSensorParserConfig(sensorType);
-    if (parserConfig == null) {
-      throw new IllegalStateException("Cannot find the parser configuration in zookeeper for " + sensorType + "." +
-              "  Please check that it exists in zookeeper by using the 'zk_load_configs.sh -m DUMP' command.");
+    Map<String, SensorParserConfig> parserConfigs = new LinkedHashMap<>();
+    for (String sensorType : sensorTypes) {
+      SensorParserConfig parserConfig = configs.getSensorParserConfig(sensorType);
+      if (parserConfig == null) {
+        throw new IllegalStateException("Cannot find the parser configuration in zookeeper for " + sensorType + "." +
+                "  Please check that it exists in zookeeper by using the 'zk_load_configs.sh -m DUMP' command.");
+      }
+      parserConfigs.put(sensorType, parserConfig);
     }
     client.close();
-    return parserConfig;
+    return parserConfigs;
   }
 
   /**
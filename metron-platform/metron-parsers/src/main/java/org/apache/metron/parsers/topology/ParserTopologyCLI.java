@@ -62,7 +62,7 @@ public class ParserTopologyCLI {
       return o;
     }),
     SENSOR_TYPE("s", code -> {
-      Option o = new Option(code, "sensor", true, "Sensor Type");
+      Option o = new Option(code, "sensor", true, "Sensor Type, or a comma separated list of sensor types to parse in one topology");
       o.setArgName("SENSOR_TYPE");
       o.setRequired(true);
       return o;
@@ -309,15 +309,16 @@ public class ParserTopologyCLI {
               spoutConfig
       );
       Config stormConf = ParserOptions.getConfig(cmd);
+      String topologyName = ParserTopologyBuilder.getTopologyName(sensorType);
 
       if (ParserOptions.TEST.has(cmd)) {
         stormConf.put(Config.TOPOLOGY_DEBUG, true);
         LocalCluster cluster = new LocalCluster();
-        cluster.submitTopology(sensorType, stormConf, builder.createTopology());
+        cluster.submitTopology(topologyName, stormConf, builder.createTopology());
         Utils.sleep(300000);
         cluster.shutdown();
       } else {
-        StormSubmitter.submitTopology(sensorType, stormConf, builder.createTopology());
+        StormSubmitter.submitTopology(topologyName, stormConf, builder.createTopology());
       }
     } catch (Exception e) {
       e.printStackTrace();
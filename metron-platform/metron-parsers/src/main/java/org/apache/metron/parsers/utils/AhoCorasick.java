@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds which of a set of keywords occur in a text, in a single pass over the text.
+ *
+ * The keywords are compiled to a deterministic automaton (Aho-Corasick), so the cost of a
+ * search depends on the length of the text, not on the number of keywords.  An instance is
+ * immutable once built and may be shared between threads.
+ */
+public class AhoCorasick {
+
+  /**
+   * The characters that appear in the keywords are mapped to classes 1..n; every other
+   * character is class 0.
+   */
+  private final int[] asciiClasses = new int[128];
+  private final Map<Character, Integer> otherClasses = new HashMap<>();
+
+  /**
+   * transitions[state][class] is the next state.
+   */
+  private final int[][] transitions;
+
+  /**
+   * The keywords that end at each state, or null if none do.
+   */
+  private final BitSet[] outputs;
+
+  /**
+   * @param keywords The keywords; a null or empty keyword never matches.
+   */
+  public AhoCorasick(List<String> keywords) {
+    int classes = 1;
+    for(String keyword : keywords) {
+      if(keyword == null) {
+        continue;
+      }
+      for(int i = 0; i < keyword.length(); i++) {
+        char c = keyword.charAt(i);
+        if(classOf(c) == 0) {
+          if(c < 128) {
+            asciiClasses[c] = classes++;
+          }
+          else {
+            otherClasses.put(c, classes++);
+          }
+        }
+      }
+    }
+
+    // build the trie of the keywords
+    List<int[]> trie = new ArrayList<>();
+    List<BitSet> found = new ArrayList<>();
+    trie.add(new int[classes]);
+    found.add(null);
+    for(int k = 0; k < keywords.size(); k++) {
+      String keyword = keywords.get(k);
+      if(keyword == null || keyword.isEmpty()) {
+        continue;
+      }
+      int state = 0;
+      for(int i = 0; i < keyword.length(); i++) {
+        int cls = classOf(keyword.charAt(i));
+        if(trie.get(state)[cls] == 0) {
+          trie.get(state)[cls] = trie.size();
+          trie.add(new int[classes]);
+          found.add(null);
+        }
+        state = trie.get(state)[cls];
+      }
+      if(found.get(state) == null) {
+        found.set(state, new BitSet());
+      }
+      found.get(state).set(k);
+    }
+
+    // resolve the failure links, breadth first, into a complete transition table
+    transitions = trie.toArray(new int[trie.size()][]);
+    outputs = found.toArray(new BitSet[found.size()]);
+    int[] failure = new int[transitions.length];
+    Deque<Integer> queue = new ArrayDeque<>();
+    for(int cls = 0; cls < classes; cls++) {
+      if(transitions[0][cls] != 0) {
+        queue.add(transitions[0][cls]);
+      }
+    }
+    while(!queue.isEmpty()) {
+      int state = queue.poll();
+      if(outputs[failure[state]] != null) {
+        if(outputs[state] == null) {
+          outputs[state] = new BitSet();
+        }
+        outputs[state].or(outputs[failure[state]]);
+      }
+      for(int cls = 0; cls < classes; cls++) {
+        int next = transitions[state][cls];
+        if(next != 0) {
+          failure[next] = transitions[failure[state]][cls];
+          queue.add(next);
+        }
+        else {
+          transitions[state][cls] = transitions[failure[state]][cls];
+        }
+      }
+    }
+  }
+
+  private int classOf(char c) {
+    if(c < 128) {
+      return asciiClasses[c];
+    }
+    Integer cls = otherClasses.get(c);
+    return cls == null ? 0 : cls;
+  }
+
+  /**
+   * @param text The text to search.
+   * @return The indices of the keywords that occur in the text.
+   */
+  public BitSet find(CharSequence text) {
+    BitSet matches = new BitSet();
+    int state = 0;
+    for(int i = 0; i < text.length(); i++) {
+      state = transitions[state][classOf(text.charAt(i))];
+      if(outputs[state] != null) {
+        matches.or(outputs[state]);
+      }
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,221 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers for locating and decoding the fields of a raw message without creating
+ * intermediate Strings.
+ *
+ * A field is a region of a buffer, from an inclusive start to an exclusive end.  The
+ * separators that these helpers search for are ASCII, so they may be used with UTF-8
+ * encoded messages; no byte of a multi-byte UTF-8 character is ever ASCII.
+ */
+public class ByteFields {
+
+  private ByteFields() {
+  }
+
+  /**
+   * @return The position of the first occurrence of a byte in a region, or -1 if there is none.
+   */
+  public static int indexOf(byte[] buffer, int start, int end, byte b) {
+    for(int i = start; i < end; i++) {
+      if(buffer[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return True if the region contains any of the given bytes.
+   */
+  public static boolean containsAny(byte[] buffer, int start, int end, byte... bytes) {
+    for(int i = start; i < end; i++) {
+      for(byte b : bytes) {
+        if(buffer[i] == b) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Splits a region into the fields between a separator.  The start of field i is written to
+   * starts[i]; it ends where the next field starts, less the separator, or at the end of the
+   * region for the last field.  See {@link #fieldEnd(int[], int, int, int)}.
+   *
+   * @param starts Receives the start of each field.  Fields beyond its length are counted but not recorded.
+   * @return The number of fields in the region.
+   */
+  public static int split(byte[] buffer, int start, int end, byte separator, int[] starts) {
+    int count = 0;
+    if(starts.length > 0) {
+      starts[0] = start;
+    }
+    count++;
+    for(int i = start; i < end; i++) {
+      if(buffer[i] == separator) {
+        if(count < starts.length) {
+          starts[count] = i + 1;
+        }
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param starts The field starts written by {@link #split(byte[], int, int, byte, int[])}.
+   * @param count The number of fields returned by the split.
+   * @param field The field.
+   * @param end The end of the region that was split.
+   * @return The end of the field.
+   */
+  public static int fieldEnd(int[] starts, int count, int field, int end) {
+    return field + 1 < count ? starts[field + 1] - 1 : end;
+  }
+
+  /**
+   * @return The start of the region without its leading whitespace.
+   */
+  public static int trimStart(byte[] buffer, int start, int end) {
+    while(start < end && (buffer[start] & 0xff) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  /**
+   * @return The end of the region without its trailing whitespace.
+   */
+  public static int trimEnd(byte[] buffer, int start, int end) {
+    while(end > start && (buffer[end - 1] & 0xff) <= ' ') {
+      end--;
+    }
+    return end;
+  }
+
+  /**
+   * @return True if every byte of the region is 7-bit ASCII.
+   */
+  public static boolean isAscii(byte[] buffer, int start, int end) {
+    for(int i = start; i < end; i++) {
+      if(buffer[i] < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decodes a field as a long.
+   * @throws NumberFormatException If the field is not a decimal integer.
+   */
+  public static long parseLong(byte[] buffer, int start, int end) {
+    int i = start;
+    boolean negative = false;
+    if(i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+      negative = buffer[i] == '-';
+      i++;
+    }
+    if(i == end || end - i > 18) {
+      // empty, or possibly too large to accumulate without overflow
+      return Long.parseLong(toString(buffer, start, end));
+    }
+    long value = 0;
+    for(; i < end; i++) {
+      int digit = buffer[i] - '0';
+      if(digit < 0 || digit > 9) {
+        throw new NumberFormatException("For input string: \"" + toString(buffer, start, end) + "\"");
+      }
+      value = value * 10 + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Decodes a field as an int.
+   * @throws NumberFormatException If the field is not a decimal integer in the range of an int.
+   */
+  public static int parseInt(byte[] buffer, int start, int end) {
+    long value = parseLong(buffer, start, end);
+    if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new NumberFormatException("Value out of range: \"" + toString(buffer, start, end) + "\"");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Views an ASCII field as a CharSequence, so that it may be handed to APIs such as
+   * java.time's DateTimeFormatter without first being copied into a String.
+   * @see #isAscii(byte[], int, int)
+   */
+  public static CharSequence asciiSequence(byte[] buffer, int start, int end) {
+    return new AsciiSequence(buffer, start, end);
+  }
+
+  /**
+   * Decodes a UTF-8 field as a String; for when it is emitted.
+   */
+  public static String toString(byte[] buffer, int start, int end) {
+    return new String(buffer, start, end - start, StandardCharsets.UTF_8);
+  }
+
+  private static class AsciiSequence implements CharSequence {
+    private final byte[] buffer;
+    private final int start;
+    private final int end;
+
+    AsciiSequence(byte[] buffer, int start, int end) {
+      this.buffer = buffer;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if(index < 0 || index >= length()) {
+        throw new IndexOutOfBoundsException("index " + index + ", length " + length());
+      }
+      return (char) buffer[start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      if(from < 0 || to > length() || from > to) {
+        throw new IndexOutOfBoundsException("begin " + from + ", end " + to + ", length " + length());
+      }
+      return new AsciiSequence(buffer, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      return new String(buffer, start, end - start, StandardCharsets.US_ASCII);
+    }
+  }
+}
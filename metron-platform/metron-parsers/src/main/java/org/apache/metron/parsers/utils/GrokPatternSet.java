@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import oi.thekraken.grok.api.Grok;
+import oi.thekraken.grok.api.Match;
+import oi.thekraken.grok.api.exception.GrokException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered set of Grok patterns, any of which may match a message.
+ *
+ * Each pattern is compiled once, and the longest literal that every match of the pattern
+ * must contain is taken as its anchor.  The anchors of all of the patterns are searched for
+ * in a single pass over the message, and only the patterns whose anchor occurs are candidates
+ * to be matched with their regular expression.  Patterns without an anchor are always candidates.
+ *
+ * The candidates are tried in the configured order, so a message that several patterns can
+ * match is always matched by the first of them, as it would be without the prefilter.
+ */
+public class GrokPatternSet {
+
+  protected static final Logger LOG = LoggerFactory.getLogger(GrokPatternSet.class);
+
+  /**
+   * Anchors shorter than this are not selective enough to be worth searching for.
+   */
+  public static final int MIN_ANCHOR_LENGTH = 2;
+
+  /**
+   * The values captured by the pattern that matched a message.
+   */
+  public static class Result {
+    private final String label;
+    private final Map<String, Object> captures;
+
+    public Result(String label, Map<String, Object> captures) {
+      this.label = label;
+      this.captures = captures;
+    }
+
+    /**
+     * The label of the pattern that matched.
+     */
+    public String getLabel() {
+      return label;
+    }
+
+    public Map<String, Object> getCaptures() {
+      return captures;
+    }
+  }
+
+  private final List<String> labels;
+  private final List<Grok> groks = new ArrayList<>();
+  private final Map<String, Integer> indices = new HashMap<>();
+  private final List<String> anchors = new ArrayList<>();
+  private final AhoCorasick prefilter;
+
+  /**
+   * @param dictionary A Grok holding the pattern definitions that the labels refer to.
+   * @param labels The labels of the patterns, in order.
+   */
+  public GrokPatternSet(Grok dictionary, List<String> labels) throws GrokException {
+    this.labels = new ArrayList<>(labels);
+    for(String label : this.labels) {
+      Grok grok = new Grok();
+      for(Map.Entry<String, String> pattern : dictionary.getPatterns().entrySet()) {
+        grok.addPattern(pattern.getKey(), pattern.getValue());
+      }
+      grok.compile("%{" + label + "}");
+      String anchor = RegexLiterals.longestRequired(grok.getNamedRegex());
+      if(anchor != null && anchor.length() < MIN_ANCHOR_LENGTH) {
+        anchor = null;
+      }
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Grok pattern " + label + " is anchored by " + (anchor == null ? "nothing" : "'" + anchor + "'"));
+      }
+      indices.put(label, groks.size());
+      groks.add(grok);
+      anchors.add(anchor);
+    }
+    prefilter = new AhoCorasick(anchors);
+  }
+
+  public List<String> getLabels() {
+    return labels;
+  }
+
+  /**
+   * Matches a message against the patterns of the set.
+   *
+   * @param text The message.
+   * @return The values captured by the first candidate pattern to match, or null if none do.
+   */
+  public Result match(String text) {
+    BitSet found = prefilter.find(text);
+    for(int i = 0; i < groks.size(); i++) {
+      if(isCandidate(i, found)) {
+        Map<String, Object> captures = match(i, text);
+        if(captures != null) {
+          return new Result(labels.get(i), captures);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Matches a message against one pattern of the set, without prefiltering.
+   *
+   * @param label The label of the pattern.
+   * @param text The message.
+   * @return The values captured by the pattern, or null if it does not match or is not in the set.
+   */
+  public Map<String, Object> match(String label, String text) {
+    Integer i = indices.get(label);
+    return i == null ? null : match(i, text);
+  }
+
+  private boolean isCandidate(int i, BitSet found) {
+    return anchors.get(i) == null || found.get(i);
+  }
+
+  private Map<String, Object> match(int i, String text) {
+    Match gm = groks.get(i).match(text);
+    gm.captures();
+    Map<String, Object> captures = gm.toMap();
+    return captures.isEmpty() ? null : captures;
+  }
+}
@@ -23,20 +23,24 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.metron.common.utils.timestamp.TimestampParser;
 import org.json.simple.JSONObject;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
-import java.util.TimeZone;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 
 public class ParserUtils {
 
   public static final String PREFIX = "stream2file";
   public static final String SUFFIX = ".tmp";
 
+  private static final String SYSLOG_TIMESTAMP_FORMAT = "yyyy MMM d HH:mm:ss";
+  private static final TimestampParser SYSLOG_TIMESTAMP_GMT = TimestampParser.ofSimpleDateFormat(SYSLOG_TIMESTAMP_FORMAT, ZoneOffset.UTC);
+  private static final TimestampParser SYSLOG_TIMESTAMP_LOCAL = TimestampParser.ofSimpleDateFormat(SYSLOG_TIMESTAMP_FORMAT, ZoneId.systemDefault());
+
   public static File stream2file(InputStream in) throws IOException {
     final File tempFile = File.createTempFile(PREFIX, SUFFIX);
     tempFile.deleteOnExit();
@@ -46,27 +50,23 @@ public class ParserUtils {
     return tempFile;
   }
 
+  /**
+   * Converts a timestamp without a year, such as that of a syslog header, to milliseconds since
+   * the epoch; the timestamp is assumed to be in the current year.
+   * @param m The abbreviated name of the month.
+   * @param d The day of the month.
+   * @param ts The time of day, HH:mm:ss.
+   * @param adjust_timezone True if the timestamp is in GMT, false if it is in the local time zone.
+   */
   public static Long convertToEpoch(String m, String d, String ts,
                                     boolean adjust_timezone) throws ParseException {
-    d = d.trim();
-    if (d.length() <= 2) {
-      d = "0" + d;
-    }
-    Date date = new SimpleDateFormat("MMM", Locale.ENGLISH).parse(m);
-    Calendar cal = Calendar.getInstance();
-    cal.setTime(date);
-    String month = String.valueOf(cal.get(Calendar.MONTH));
-    int year = Calendar.getInstance().get(Calendar.YEAR);
-    if (month.length() <= 2) {
-      month = "0" + month;
+    String timestamp = Year.now().getValue() + " " + m.trim() + " " + d.trim() + " " + ts.trim();
+    TimestampParser parser = adjust_timezone ? SYSLOG_TIMESTAMP_GMT : SYSLOG_TIMESTAMP_LOCAL;
+    try {
+      return parser.parse(timestamp);
+    } catch (DateTimeParseException e) {
+      throw (ParseException) new ParseException(e.getMessage(), e.getErrorIndex()).initCause(e);
     }
-    String coglomerated_ts = year + "-" + month + "-" + d + " " + ts;
-    SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-    if (adjust_timezone) {
-      sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-    }
-    date = sdf.parse(coglomerated_ts);
-    long timeInMillisSinceEpoch = date.getTime();
-    return timeInMillisSinceEpoch;
   }
+
 }
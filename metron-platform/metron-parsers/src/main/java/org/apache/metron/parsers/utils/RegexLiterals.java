@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the literal strings that every match of a regular expression must contain.
+ *
+ * The analysis is conservative; a literal is only reported if it is certain to appear in
+ * every match.  Literals are not collected from alternations, optional or repeated atoms
+ * beyond their first occurrence, character classes or lookarounds.  A regular expression
+ * that uses inline flags, which may make it case-insensitive, yields no literals.
+ */
+public class RegexLiterals {
+
+  private static class UnsupportedRegexException extends RuntimeException {
+  }
+
+  private RegexLiterals() {
+  }
+
+  /**
+   * @param regex The regular expression.
+   * @return The literals that every match must contain; empty if there are none or they cannot be determined.
+   */
+  public static List<String> required(String regex) {
+    List<String> literals = new ArrayList<>();
+    try {
+      sequence(regex, 0, regex.length(), literals);
+    }
+    catch(UnsupportedRegexException | StringIndexOutOfBoundsException e) {
+      return Collections.emptyList();
+    }
+    return literals;
+  }
+
+  /**
+   * @param regex The regular expression.
+   * @return The longest literal that every match must contain, or null if there is none.
+   */
+  public static String longestRequired(String regex) {
+    String longest = null;
+    for(String literal : required(regex)) {
+      if(longest == null || literal.length() > longest.length()) {
+        longest = literal;
+      }
+    }
+    return longest;
+  }
+
+  /**
+   * Collects the literals of a sequence of atoms.
+   */
+  private static void sequence(String regex, int from, int to, List<String> literals) {
+    if(hasAlternation(regex, from, to)) {
+      return;
+    }
+    StringBuilder run = new StringBuilder();
+    int i = from;
+    while(i < to) {
+      char c = regex.charAt(i);
+      String literal = null;
+      int groupContent = -1;
+      int groupEnd = -1;
+      int next;
+      switch(c) {
+        case '\\':
+          if(regex.charAt(i + 1) == 'Q') {
+            int quoteEnd = regex.indexOf("\\E", i + 2);
+            boolean closed = quoteEnd >= 0 && quoteEnd < to;
+            literal = regex.substring(i + 2, closed ? quoteEnd : to);
+            next = closed ? quoteEnd + 2 : to;
+          }
+          else {
+            next = endOfEscape(regex, i);
+            literal = escapedLiteral(regex, i);
+          }
+          break;
+        case '[':
+          next = endOfClass(regex, i);
+          break;
+        case '(':
+          groupEnd = endOfGroup(regex, i);
+          groupContent = groupContent(regex, i);
+          next = groupEnd + 1;
+          break;
+        case '.':
+        case '^':
+        case '$':
+          next = i + 1;
+          break;
+        case ')':
+        case '*':
+        case '+':
+        case '?':
+        case '{':
+          throw new UnsupportedRegexException();
+        default:
+          literal = String.valueOf(c);
+          next = i + 1;
+      }
+
+      // the quantifier, if any, that applies to the atom
+      boolean optional = false;
+      boolean repeated = false;
+      char q = next < to ? regex.charAt(next) : 0;
+      if(q == '?' || q == '*' || q == '+' || q == '{') {
+        if(q == '{') {
+          int close = regex.indexOf('}', next);
+          String[] bounds = regex.substring(next + 1, close).split(",", -1);
+          int min = Integer.parseInt(bounds[0].trim());
+          optional = min == 0;
+          repeated = bounds.length > 1 || min > 1;
+          next = close + 1;
+        }
+        else {
+          optional = q != '+';
+          repeated = q != '?';
+          next++;
+        }
+        // lazy and possessive quantifiers
+        if(next < to && (regex.charAt(next) == '?' || regex.charAt(next) == '+')) {
+          next++;
+        }
+      }
+
+      if(literal != null) {
+        if(optional) {
+          // only the last character is optional
+          run.append(literal, 0, literal.length() - Math.min(1, literal.length()));
+          flush(run, literals);
+        }
+        else {
+          run.append(literal);
+          if(repeated) {
+            flush(run, literals);
+          }
+        }
+      }
+      else {
+        flush(run, literals);
+        if(groupContent >= 0 && !optional) {
+          sequence(regex, groupContent, groupEnd, literals);
+        }
+      }
+      i = next;
+    }
+    flush(run, literals);
+  }
+
+  private static void flush(StringBuilder run, List<String> literals) {
+    if(run.length() > 0) {
+      literals.add(run.toString());
+      run.setLength(0);
+    }
+  }
+
+  /**
+   * @return The start of the content of a group whose content must match, or -1 for a lookaround.
+   */
+  private static int groupContent(String regex, int open) {
+    if(regex.charAt(open + 1) != '?') {
+      return open + 1;
+    }
+    char kind = regex.charAt(open + 2);
+    if(kind == ':' || kind == '>') {
+      return open + 3;
+    }
+    if(kind == '=' || kind == '!') {
+      return -1;
+    }
+    if(kind == '<') {
+      char next = regex.charAt(open + 3);
+      if(next == '=' || next == '!') {
+        return -1;
+      }
+      // a named group
+      return regex.indexOf('>', open) + 1;
+    }
+    // inline flags
+    throw new UnsupportedRegexException();
+  }
+
+  private static String escapedLiteral(String regex, int backslash) {
+    char c = regex.charAt(backslash + 1);
+    switch(c) {
+      case 't': return "\t";
+      case 'n': return "\n";
+      case 'r': return "\r";
+      case 'f': return "\f";
+      case 'a': return "\u0007";
+      case 'e': return "\u001B";
+      default:
+        return Character.isLetterOrDigit(c) ? null : String.valueOf(c);
+    }
+  }
+
+  private static int endOfEscape(String regex, int backslash) {
+    int i = backslash + 1;
+    char c = regex.charAt(i);
+    switch(c) {
+      case 'x':
+        return regex.charAt(i + 1) == '{' ? regex.indexOf('}', i) + 1 : i + 3;
+      case 'u':
+        return i + 5;
+      case 'c':
+        return i + 2;
+      case 'p':
+      case 'P':
+        return regex.charAt(i + 1) == '{' ? regex.indexOf('}', i) + 1 : i + 2;
+      case 'k':
+        return regex.indexOf('>', i) + 1;
+      default:
+        if(Character.isDigit(c)) {
+          int end = i + 1;
+          while(end < regex.length() && Character.isDigit(regex.charAt(end))) {
+            end++;
+          }
+          return end;
+        }
+        return i + 1;
+    }
+  }
+
+  private static int endOfClass(String regex, int open) {
+    int i = open + 1;
+    if(regex.charAt(i) == '^') {
+      i++;
+    }
+    if(regex.charAt(i) == ']') {
+      i++;
+    }
+    while(true) {
+      char c = regex.charAt(i);
+      if(c == '\\') {
+        i = endOfEscape(regex, i);
+      }
+      else if(c == '[') {
+        i = endOfClass(regex, i);
+      }
+      else if(c == ']') {
+        return i + 1;
+      }
+      else {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * @return The position of the parenthesis that closes a group.
+   */
+  private static int endOfGroup(String regex, int open) {
+    int depth = 0;
+    int i = open;
+    while(true) {
+      char c = regex.charAt(i);
+      if(c == '\\') {
+        i = regex.charAt(i + 1) == 'Q' ? endOfQuote(regex, i, regex.length()) : endOfEscape(regex, i);
+        continue;
+      }
+      if(c == '[') {
+        i = endOfClass(regex, i);
+        continue;
+      }
+      if(c == '(') {
+        depth++;
+      }
+      else if(c == ')' && --depth == 0) {
+        return i;
+      }
+      i++;
+    }
+  }
+
+  private static boolean hasAlternation(String regex, int from, int to) {
+    int i = from;
+    while(i < to) {
+      char c = regex.charAt(i);
+      if(c == '\\') {
+        i = regex.charAt(i + 1) == 'Q' ? endOfQuote(regex, i, to) : endOfEscape(regex, i);
+      }
+      else if(c == '[') {
+        i = endOfClass(regex, i);
+      }
+      else if(c == '(') {
+        i = endOfGroup(regex, i) + 1;
+      }
+      else if(c == '|') {
+        return true;
+      }
+      else {
+        i++;
+      }
+    }
+    return false;
+  }
+
+  private static int endOfQuote(String regex, int backslash, int to) {
+    int quoteEnd = regex.indexOf("\\E", backslash + 2);
+    return quoteEnd < 0 || quoteEnd > to ? to : quoteEnd + 2;
+  }
+}
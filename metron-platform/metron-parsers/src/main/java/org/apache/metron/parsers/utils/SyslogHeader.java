@@ -0,0 +1,397 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.metron.parsers.utils;
+
+import org.apache.metron.parsers.ParseException;
+
+/**
+ * The header of a syslog message, read in a single pass without regular expressions.
+ *
+ * Three forms of header are recognized:
+ * <ul>
+ *   <li>RFC5424: {@code <PRI>VERSION TIMESTAMP HOSTNAME APP-NAME PROCID MSGID STRUCTURED-DATA MSG}</li>
+ *   <li>RFC3164: {@code <PRI>Mmm dd hh:mm:ss HOSTNAME TAG[PID]: MSG}</li>
+ *   <li>Cisco ASA: {@code <PRI>Mmm dd[ yyyy] hh:mm:ss[:][ HOSTNAME] %ASA-6-302015: MSG}, as matched by
+ *   the CISCO_TAGGED_SYSLOG grok pattern.</li>
+ * </ul>
+ * The priority is optional, except before an RFC5424 version.  An RFC3164 or ASA timestamp may
+ * also be an ISO 8601 timestamp.  In these forms the hostname and tag are both optional; a word
+ * after the timestamp is taken to be the hostname unless it is a tag, that is, unless it ends with
+ * a colon or starts with '%'.
+ *
+ * The timestamp is returned as it appears in the message; see
+ * {@link SyslogUtils#parseTimestampToEpochMillis(String, java.time.Clock)}.
+ */
+public class SyslogHeader {
+
+  private int priority = -1;
+  private int version = -1;
+  private String timestamp;
+  private String hostname;
+  private String appName;
+  private String procId;
+  private String messageId;
+  private String structuredData;
+  private int tagEnd;
+  private int messageOffset;
+
+  private SyslogHeader() {
+  }
+
+  /**
+   * Reads the header of a syslog message.
+   *
+   * @param line The message.
+   * @return The header.
+   * @throws ParseException If the message does not start with a syslog header.
+   */
+  public static SyslogHeader scan(String line) throws ParseException {
+    SyslogHeader header = new SyslogHeader();
+    int end = line.length();
+    int pos = 0;
+    if(pos < end && line.charAt(pos) == '<') {
+      int close = digitsEnd(line, pos + 1, end);
+      if(close == pos + 1 || close - pos - 1 > 9 || close == end || line.charAt(close) != '>') {
+        throw new ParseException(String.format("Invalid syslog priority at position %d: '%s'", pos, line));
+      }
+      header.priority = toInt(line, pos + 1, close);
+      pos = close + 1;
+      int versionEnd = digitsEnd(line, pos, end);
+      if(versionEnd > pos && versionEnd - pos <= 2 && versionEnd < end && line.charAt(versionEnd) == ' ') {
+        header.version = toInt(line, pos, versionEnd);
+        header.scanRfc5424(line, versionEnd + 1, end);
+        return header;
+      }
+    }
+    header.scanRfc3164(line, pos, end);
+    return header;
+  }
+
+  /**
+   * @return The priority, or -1 if the message has none.
+   */
+  public int getPriority() {
+    return priority;
+  }
+
+  /**
+   * @return The RFC5424 version, or -1 if the message is not in RFC5424 form.
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  /**
+   * @return The timestamp, or null if an RFC5424 message has the nil timestamp.
+   */
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  public String getHostname() {
+    return hostname;
+  }
+
+  /**
+   * @return The application name; in RFC3164, the tag without its process id.
+   */
+  public String getAppName() {
+    return appName;
+  }
+
+  public String getProcId() {
+    return procId;
+  }
+
+  /**
+   * @return The RFC5424 MSGID, or the Cisco tag without its '%', as in "ASA-6-302015".
+   */
+  public String getMessageId() {
+    return messageId;
+  }
+
+  /**
+   * @return The RFC5424 structured data, including its brackets, or null if there is none.
+   */
+  public String getStructuredData() {
+    return structuredData;
+  }
+
+  /**
+   * @return The position just after the tag or message id; the rest of the message is the
+   * text that the CISCO_TAGGED_SYSLOG grok pattern captures as its message.
+   */
+  public int getTagEnd() {
+    return tagEnd;
+  }
+
+  /**
+   * @return The position of the free-form message, after the header and its separators.
+   */
+  public int getMessageOffset() {
+    return messageOffset;
+  }
+
+  private void scanRfc5424(String line, int pos, int end) throws ParseException {
+    String[] fields = new String[5];
+    for(int i = 0; i < fields.length; i++) {
+      int fieldEnd = line.indexOf(' ', pos);
+      if(fieldEnd < 0) {
+        throw new ParseException(String.format("Truncated RFC5424 header at position %d: '%s'", pos, line));
+      }
+      fields[i] = nil(line, pos, fieldEnd);
+      pos = fieldEnd + 1;
+    }
+    timestamp = fields[0];
+    hostname = fields[1];
+    appName = fields[2];
+    procId = fields[3];
+    messageId = fields[4];
+    if(pos < end && line.charAt(pos) == '-') {
+      pos++;
+    } else if(pos < end && line.charAt(pos) == '[') {
+      int start = pos;
+      while(pos < end && line.charAt(pos) == '[') {
+        pos = elementEnd(line, pos, end);
+        if(pos < 0) {
+          throw new ParseException(String.format("Unterminated structured data at position %d: '%s'", start, line));
+        }
+      }
+      structuredData = line.substring(start, pos);
+    } else {
+      throw new ParseException(String.format("Missing structured data at position %d: '%s'", pos, line));
+    }
+    tagEnd = pos;
+    if(pos < end && line.charAt(pos) == ' ') {
+      pos++;
+    }
+    if(pos < end && line.charAt(pos) == '\uFEFF') {
+      pos++;
+    }
+    messageOffset = pos;
+  }
+
+  private void scanRfc3164(String line, int pos, int end) throws ParseException {
+    int timestampEnd = timestampEnd(line, pos, end);
+    if(timestampEnd < 0) {
+      throw new ParseException(String.format("No syslog timestamp at position %d: '%s'", pos, line));
+    }
+    timestamp = line.substring(pos, timestampEnd);
+    // an ASA that does not log its hostname follows the timestamp with a colon
+    pos = spacesEnd(line, timestampEnd, end);
+    if(pos < end && line.charAt(pos) == ':') {
+      pos = spacesEnd(line, pos + 1, end);
+    }
+    int wordEnd = wordEnd(line, pos, end);
+    if(wordEnd > pos && line.charAt(pos) != '%') {
+      int next = spacesEnd(line, wordEnd, end);
+      if(line.charAt(wordEnd - 1) != ':') {
+        hostname = line.substring(pos, wordEnd);
+        pos = next < end && line.charAt(next) == ':' ? spacesEnd(line, next + 1, end) : next;
+      } else if(wordEnd - 1 > pos && next < end && line.charAt(next) == '%') {
+        // "host: %ASA-..."
+        hostname = line.substring(pos, wordEnd - 1);
+        pos = next;
+      }
+    }
+    scanTag(line, pos, end);
+  }
+
+  private void scanTag(String line, int pos, int end) {
+    if(pos < end && line.charAt(pos) == '%') {
+      int ciscoTagEnd = ciscoTagEnd(line, pos + 1, end);
+      if(ciscoTagEnd > 0) {
+        messageId = line.substring(pos + 1, ciscoTagEnd);
+        tagEnd = ciscoTagEnd;
+        messageOffset = separatorEnd(line, ciscoTagEnd, end);
+        return;
+      }
+    }
+    int wordEnd = wordEnd(line, pos, end);
+    if(wordEnd > pos && line.charAt(wordEnd - 1) == ':') {
+      int nameEnd = wordEnd - 1;
+      if(nameEnd > pos && line.charAt(nameEnd - 1) == ']') {
+        int open = line.lastIndexOf('[', nameEnd - 1);
+        if(open >= pos) {
+          procId = line.substring(open + 1, nameEnd - 1);
+          nameEnd = open;
+        }
+      }
+      appName = line.substring(pos, nameEnd);
+      tagEnd = wordEnd - 1;
+      messageOffset = separatorEnd(line, tagEnd, end);
+    } else {
+      tagEnd = pos;
+      messageOffset = pos;
+    }
+  }
+
+  /**
+   * @return The end of a timestamp of the form "Mmm dd[ yyyy] hh:mm:ss[.fff]", where the day may
+   * be preceded by several spaces, the year may have two digits, the hour and second may have one
+   * and the fraction may follow a '.', ',' or ':'; or of an ISO 8601 timestamp; or -1 if there is
+   * neither.
+   */
+  private static int timestampEnd(String line, int pos, int end) {
+    if(digitsEnd(line, pos, end) == pos + 4 && pos + 4 < end && line.charAt(pos + 4) == '-') {
+      return wordEnd(line, pos, end);
+    }
+    int i = pos;
+    while(i < end && isLetter(line.charAt(i))) {
+      i++;
+    }
+    if(i - pos < 3 || i == end || line.charAt(i) != ' ') {
+      return -1;
+    }
+    i = spacesEnd(line, i, end);
+    int dayEnd = digitsEnd(line, i, end);
+    if(dayEnd == i || dayEnd - i > 2 || dayEnd == end || line.charAt(dayEnd) != ' ') {
+      return -1;
+    }
+    i = dayEnd + 1;
+    int yearEnd = digitsEnd(line, i, end);
+    if((yearEnd == i + 2 || yearEnd == i + 4) && yearEnd < end && line.charAt(yearEnd) == ' ') {
+      i = yearEnd + 1;
+    }
+    int hourEnd = digitsEnd(line, i, end);
+    if(hourEnd == i || hourEnd - i > 2 || !isTwoDigits(line, hourEnd, ':', end) || hourEnd + 3 == end || line.charAt(hourEnd + 3) != ':') {
+      return -1;
+    }
+    int secondEnd = digitsEnd(line, hourEnd + 4, end);
+    if(secondEnd == hourEnd + 4 || secondEnd - hourEnd - 4 > 2) {
+      return -1;
+    }
+    i = secondEnd;
+    if(i + 1 < end && (line.charAt(i) == '.' || line.charAt(i) == ',' || line.charAt(i) == ':') && isDigit(line.charAt(i + 1))) {
+      i = digitsEnd(line, i + 1, end);
+    }
+    return i < end && isDigit(line.charAt(i)) ? -1 : i;
+  }
+
+  /**
+   * @return True if a separator at pos is followed by two digits.
+   */
+  private static boolean isTwoDigits(String line, int pos, char separator, int end) {
+    return pos + 2 < end && line.charAt(pos) == separator && isDigit(line.charAt(pos + 1)) && isDigit(line.charAt(pos + 2));
+  }
+
+  /**
+   * @return The end of a tag such as "ASA-6-302015", or -1 if there is none.  As in the CISCOTAG
+   * grok pattern, the severity may be signed.
+   */
+  private static int ciscoTagEnd(String line, int pos, int end) {
+    int i = pos;
+    while(i < end && isTagChar(line.charAt(i), false)) {
+      i++;
+    }
+    if(i == pos || i == end || line.charAt(i) != '-') {
+      return -1;
+    }
+    i++;
+    if(i < end && (line.charAt(i) == '+' || line.charAt(i) == '-')) {
+      i++;
+    }
+    int severityEnd = digitsEnd(line, i, end);
+    if(severityEnd == i || severityEnd == end || line.charAt(severityEnd) != '-') {
+      return -1;
+    }
+    i = severityEnd + 1;
+    int start = i;
+    while(i < end && isTagChar(line.charAt(i), true)) {
+      i++;
+    }
+    return i == start ? -1 : i;
+  }
+
+  /**
+   * @return The position after the colon and space, if any, that follow a tag.
+   */
+  private static int separatorEnd(String line, int pos, int end) {
+    if(pos < end && line.charAt(pos) == ':') {
+      pos++;
+    }
+    if(pos < end && line.charAt(pos) == ' ') {
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * @return The end of a bracketed RFC5424 structured data element starting at pos, or -1 if it
+   * is not terminated.
+   */
+  private static int elementEnd(String line, int pos, int end) {
+    boolean quoted = false;
+    for(int i = pos + 1; i < end; i++) {
+      char c = line.charAt(i);
+      if(quoted && c == '\\') {
+        i++;
+      } else if(c == '"') {
+        quoted = !quoted;
+      } else if(!quoted && c == ']') {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private static String nil(String line, int start, int end) {
+    return end - start == 1 && line.charAt(start) == '-' ? null : line.substring(start, end);
+  }
+
+  private static int toInt(String line, int start, int end) {
+    int value = 0;
+    for(int i = start; i < end; i++) {
+      value = value * 10 + line.charAt(i) - '0';
+    }
+    return value;
+  }
+
+  private static int digitsEnd(String line, int pos, int end) {
+    while(pos < end && isDigit(line.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int spacesEnd(String line, int pos, int end) {
+    while(pos < end && line.charAt(pos) == ' ') {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int wordEnd(String line, int pos, int end) {
+    while(pos < end && !Character.isWhitespace(line.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private static boolean isTagChar(char c, boolean underscore) {
+    return (c >= 'A' && c <= 'Z') || isDigit(c) || (underscore && c == '_');
+  }
+}
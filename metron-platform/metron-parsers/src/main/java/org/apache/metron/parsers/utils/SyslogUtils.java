@@ -24,22 +24,22 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
-import java.util.regex.Pattern;
 
 import static java.time.temporal.ChronoField.*;
 
 public class SyslogUtils {
 
+    private static final DateTimeFormatter RFC3164_FORMAT = DateTimeFormatter.ofPattern("MMM ppd HH:mm:ss");
+    private static final DateTimeFormatter CISCO_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm:ss");
+
     public static long parseTimestampToEpochMillis(String logTimestamp, Clock deviceClock) throws ParseException {
         ZoneId deviceTimeZone = deviceClock.getZone();
 
         // RFC3164 (standard syslog timestamp; no year)
         // MMM ppd HH:mm:ss
         // Oct  9 2015 13:42:11
-        if (Pattern.matches("[A-Z][a-z]{2}(?:(?:\\s{2}\\d)|(?:\\s\\d{2}))\\s\\d{2}:\\d{2}:\\d{2}", logTimestamp)) {
-            DateTimeFormatter inputFormat = DateTimeFormatter.ofPattern("MMM ppd HH:mm:ss").withZone(deviceTimeZone);
-
-            TemporalAccessor inputDate = inputFormat.parse(logTimestamp);
+        if (matchesShape(logTimestamp, "Aaa  9 99:99:99") || matchesShape(logTimestamp, "Aaa 99 99:99:99")) {
+            TemporalAccessor inputDate = RFC3164_FORMAT.parse(logTimestamp);
             int inputMonth = inputDate.get(MONTH_OF_YEAR);
             int inputDay = inputDate.get(DAY_OF_MONTH);
             int inputHour = inputDate.get(HOUR_OF_DAY);
@@ -65,18 +65,68 @@ public class SyslogUtils {
         // CISCO timestamp (standard syslog + year)
         // MMM dd yyyy HH:mm:ss
         // Oct 09 2015 13:42:11
-        else if (Pattern.matches("[A-Z][a-z]{2}\\s\\d{2}\\s\\d{4}\\s\\d{2}:\\d{2}:\\d{2}", logTimestamp))
-            return convertToEpochMillis(logTimestamp, DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm:ss").withZone(deviceTimeZone));
+        else if (matchesShape(logTimestamp, "Aaa 99 9999 99:99:99"))
+            return convertToEpochMillis(logTimestamp, CISCO_FORMAT.withZone(deviceTimeZone));
 
         // RFC5424 (ISO timestamp)
         // 2015-10-09T13:42:11.52Z or 2015-10-09T13:42:11.52-04:00
-        else if (Pattern.matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2})", logTimestamp))
+        else if (isIsoOffsetTimestamp(logTimestamp))
             return convertToEpochMillis(logTimestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
 
         else
             throw new ParseException(String.format("Unsupported date format: '%s'", logTimestamp));
     }
 
+    /**
+     * Checks a timestamp against a shape, in which 'A' stands for an upper case letter, 'a' for a
+     * lower case letter, '9' for a digit and ' ' for any whitespace; other characters stand for
+     * themselves.
+     */
+    private static boolean matchesShape(String logTimestamp, String shape) {
+        return logTimestamp.length() == shape.length() && matchesShape(logTimestamp, 0, shape);
+    }
+
+    private static boolean matchesShape(String logTimestamp, int start, String shape) {
+        if (start + shape.length() > logTimestamp.length())
+            return false;
+        for (int i = 0; i < shape.length(); i++) {
+            char c = logTimestamp.charAt(start + i);
+            boolean matches;
+            switch (shape.charAt(i)) {
+                case 'A': matches = c >= 'A' && c <= 'Z'; break;
+                case 'a': matches = c >= 'a' && c <= 'z'; break;
+                case '9': matches = c >= '0' && c <= '9'; break;
+                case ' ': matches = c == ' ' || (c >= '\t' && c <= '\r'); break;
+                default: matches = c == shape.charAt(i);
+            }
+            if (!matches)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return True for a timestamp of the form 9999-99-99T99:99:99[.9+](Z|+99:99|-99:99).
+     */
+    private static boolean isIsoOffsetTimestamp(String logTimestamp) {
+        if (!matchesShape(logTimestamp, 0, "9999-99-99T99:99:99"))
+            return false;
+        int i = 19;
+        int length = logTimestamp.length();
+        if (i < length && logTimestamp.charAt(i) == '.') {
+            int fractionStart = ++i;
+            while (i < length && matchesShape(logTimestamp, i, "9"))
+                i++;
+            if (i == fractionStart)
+                return false;
+        }
+        if (i < length && logTimestamp.charAt(i) == 'Z')
+            return i + 1 == length;
+        return i + 6 == length
+                && (logTimestamp.charAt(i) == '+' || logTimestamp.charAt(i) == '-')
+                && matchesShape(logTimestamp, i + 1, "99:99");
+    }
+
     private static long convertToEpochMillis(String logTimestamp, DateTimeFormatter logTimeFormat) {
         ZonedDateTime timestamp = ZonedDateTime.parse(logTimestamp, logTimeFormat);
         return timestamp.toInstant().toEpochMilli();
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.log4j.Level;
+import org.apache.metron.test.utils.UnitTestHelper;
+import org.json.simple.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MultiPatternGrokParserTest {
+
+  private GrokParser createParser() {
+    return createParser(ImmutableList.of("LOGIN_EVENT", "LOGOUT_EVENT", "SESSION_EVENT"));
+  }
+
+  private GrokParser createParser(List<String> patternLabels) {
+    Map<String, Object> parserConfig = new HashMap<>();
+    parserConfig.put("grokPath", "../metron-parsers/src/test/resources/patterns/multi");
+    parserConfig.put("patternLabel", patternLabels);
+    parserConfig.put("timestampField", "timestamp");
+    GrokParser parser = new GrokParser();
+    parser.configure(parserConfig);
+    parser.init();
+    return parser;
+  }
+
+  @Test
+  public void testEachPatternMatches() {
+    GrokParser parser = createParser();
+    for (int i = 0; i < 2; i++) {
+      List<JSONObject> login = parser.parse("1453994987000 user alice logged in from 10.0.0.1".getBytes());
+      Assert.assertEquals(1, login.size());
+      Assert.assertEquals("alice", login.get(0).get("username"));
+      Assert.assertEquals("10.0.0.1", login.get(0).get("ip_src_addr"));
+      Assert.assertEquals(1453994987000L, login.get(0).get("timestamp"));
+      Assert.assertFalse(login.get(0).containsKey("LOGIN_EVENT"));
+
+      JSONObject logout = parser.parse("1453994988000 user bob logged out".getBytes()).get(0);
+      Assert.assertEquals("bob", logout.get("username"));
+      Assert.assertNull(logout.get("ip_src_addr"));
+      Assert.assertFalse(logout.containsKey("LOGOUT_EVENT"));
+
+      JSONObject session = parser.parse("1453994989000 session 42 closed".getBytes()).get(0);
+      Assert.assertEquals("42", session.get("session_id"));
+      Assert.assertFalse(session.containsKey("SESSION_EVENT"));
+    }
+  }
+
+  @Test
+  public void testPatternsAreTriedInConfiguredOrder() {
+    GrokParser parser = createParser(ImmutableList.of("LOGIN_EVENT", "ANY_EVENT"));
+    for (int i = 0; i < 2; i++) {
+      JSONObject any = parser.parse("1453994989000 session 42 closed".getBytes()).get(0);
+      Assert.assertEquals("session 42 closed", any.get("event"));
+      // the previous message was matched by ANY_EVENT, but LOGIN_EVENT is listed first
+      JSONObject login = parser.parse("1453994987000 user alice logged in from 10.0.0.1".getBytes()).get(0);
+      Assert.assertEquals("alice", login.get("username"));
+      Assert.assertFalse(login.containsKey("event"));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoPatternMatches() {
+    GrokParser parser = createParser();
+    UnitTestHelper.setLog4jLevel(GrokParser.class, Level.FATAL);
+    try {
+      parser.parse("1453994987000 something else entirely".getBytes());
+    }
+    finally {
+      UnitTestHelper.setLog4jLevel(GrokParser.class, Level.ERROR);
+    }
+  }
+}
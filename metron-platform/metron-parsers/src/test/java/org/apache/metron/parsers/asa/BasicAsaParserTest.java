@@ -17,6 +17,7 @@
  */
 package org.apache.metron.parsers.asa;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.log4j.Level;
 import org.apache.metron.test.utils.UnitTestHelper;
 import org.json.simple.JSONObject;
@@ -151,6 +152,18 @@ public class BasicAsaParserTest {
         assertTrue((long) asaJson.get("timestamp") == 1452005555000L);
     }
 
+    @Test
+    public void testSerializeInitializedParser() {
+        // the parser bolt copies a parser by serialization after initializing it
+        BasicAsaParser copy = SerializationUtils.deserialize(SerializationUtils.serialize(asaParser));
+        copy.init();
+        copy.configure(new HashMap<>());
+        String rawMessage = "<164>Aug 05 2016 01:01:34: %ASA-4-106023: Deny tcp src Inside:10.30.9.121/54580 dst Outside:192.168.135.51/42028 by access-group \"Inside_access_in\" [0x962df600, 0x0]";
+        JSONObject asaJson = copy.parse(rawMessage.getBytes()).get(0);
+        assertEquals("10.30.9.121", asaJson.get("ip_src_addr"));
+        assertEquals(1470358894000L, asaJson.get("timestamp"));
+    }
+
     @Rule
     public ExpectedException thrown = ExpectedException.none();
 
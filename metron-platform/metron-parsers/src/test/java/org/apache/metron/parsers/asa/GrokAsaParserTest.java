@@ -27,6 +27,7 @@ import org.json.simple.parser.ParseException;
 
 import org.apache.metron.parsers.AbstractConfigTest;
 import org.junit.Assert;
+import org.junit.Test;
 
 
 /**
@@ -129,6 +130,28 @@ public class GrokAsaParserTest extends AbstractConfigTest{
 			}
 		}
 
+		@Test
+		public void testHeaderFields() throws Exception {
+			String rawMessage = "<174>Jan  5 14:52:35 10.22.8.212 %ASA-6-302015: Built inbound UDP connection 76245506 for outside:10.22.8.110/49886 (10.22.8.110/49886) to inside:192.111.72.8/8612 (192.111.72.8/8612) (user.name)";
+			JSONObject parsed = new GrokAsaParser().parse(rawMessage.getBytes()).get(0);
+
+			// the fields of the CISCO_TAGGED_SYSLOG pattern
+			Assert.assertEquals(rawMessage, parsed.get("CISCO_TAGGED_SYSLOG"));
+			Assert.assertEquals("174", parsed.get("syslog_pri"));
+			Assert.assertEquals("Jan  5 14:52:35", parsed.get("CISCOTIMESTAMP"));
+			Assert.assertEquals("Jan", parsed.get("MONTH"));
+			Assert.assertEquals("10.22.8.212", parsed.get("sysloghost"));
+			Assert.assertEquals("ASA-6-302015", parsed.get("CISCOTAG"));
+			Assert.assertEquals("6", parsed.get("INT"));
+			Assert.assertEquals(rawMessage.substring(rawMessage.indexOf(": Built")), parsed.get("message"));
+			Assert.assertFalse(parsed.containsKey("MONTHDAY"));
+			Assert.assertFalse(parsed.containsKey("TIME"));
+
+			Assert.assertEquals("ASA-6-302015", parsed.get("ciscotag"));
+			Assert.assertEquals("10.22.8.212", parsed.get("ip_src_addr"));
+			Assert.assertEquals(rawMessage, parsed.get("original_string"));
+		}
+
 		/**
 		 * Returns GrokAsa Input String
 		 */
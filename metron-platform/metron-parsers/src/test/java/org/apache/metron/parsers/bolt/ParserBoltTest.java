@@ -17,10 +17,12 @@
  */
 package org.apache.metron.parsers.bolt;
 
+import org.apache.metron.common.Constants;
 import org.apache.metron.common.configuration.SensorParserConfig;
 
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
 import com.google.common.collect.ImmutableList;
 import org.apache.metron.common.configuration.ParserConfigurations;
 import org.apache.metron.common.configuration.writer.ParserWriterConfiguration;
@@ -28,10 +30,12 @@ import org.apache.metron.common.configuration.writer.WriterConfiguration;
 import org.apache.metron.common.dsl.Context;
 import org.apache.metron.common.writer.BulkMessageWriter;
 import org.adrianwalker.multilinestring.Multiline;
+import org.apache.commons.lang3.SerializationUtils;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.metron.common.configuration.ParserConfigurations;
 import org.apache.metron.common.configuration.SensorParserConfig;
 import org.apache.metron.common.utils.ErrorUtils;
+import org.apache.metron.common.utils.ReflectionUtils;
 import org.apache.metron.common.writer.BulkWriterResponse;
 import org.apache.metron.parsers.BasicParser;
 import org.apache.metron.parsers.csv.CSVParser;
@@ -45,7 +49,9 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mock;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -88,6 +94,7 @@ public class ParserBoltTest extends BaseBoltTest {
 
   private static class RecordingWriter implements BulkMessageWriter<JSONObject> {
     List<JSONObject> records = new ArrayList<>();
+    int writes = 0;
 
     @Override
     public void init(Map stormConf, WriterConfiguration config) throws Exception {
@@ -96,6 +103,7 @@ public class ParserBoltTest extends BaseBoltTest {
 
     @Override
     public BulkWriterResponse write(String sensorType, WriterConfiguration configurations, Iterable<Tuple> tuples, List<JSONObject> messages) throws Exception {
+      writes++;
       records.addAll(messages);
       BulkWriterResponse ret = new BulkWriterResponse();
       ret.addAllSuccesses(tuples);
@@ -113,6 +121,66 @@ public class ParserBoltTest extends BaseBoltTest {
   }
 
 
+  private static class CopyingParser implements MessageParser<JSONObject> {
+    static Set<Integer> copies = Collections.synchronizedSet(new HashSet<>());
+
+    @Override
+    public void init() {
+      copies.add(System.identityHashCode(this));
+    }
+
+    @Override
+    public List<JSONObject> parse(byte[] rawMessage) {
+      JSONObject message = new JSONObject();
+      message.put("value", new String(rawMessage));
+      return ImmutableList.of(message);
+    }
+
+    @Override
+    public boolean validate(JSONObject message) {
+      return true;
+    }
+
+    @Override
+    public void configure(Map<String, Object> config) {
+
+    }
+  }
+
+  /**
+   * A parser that can no longer be serialized once it is initialized.
+   */
+  public static class InitializedStateParser implements MessageParser<JSONObject> {
+    static Set<Integer> copies = Collections.synchronizedSet(new HashSet<>());
+    private Object state;
+
+    @Override
+    public void init() {
+      if(state != null) {
+        throw new IllegalStateException("Copied an initialized parser");
+      }
+      state = new Object();
+      copies.add(System.identityHashCode(this));
+    }
+
+    @Override
+    public List<JSONObject> parse(byte[] rawMessage) {
+      JSONObject message = new JSONObject();
+      message.put("value", new String(rawMessage));
+      return ImmutableList.of(message);
+    }
+
+    @Override
+    public boolean validate(JSONObject message) {
+      return true;
+    }
+
+    @Override
+    public void configure(Map<String, Object> config) {
+
+    }
+  }
+
   @Test
   public void testEmpty() throws Exception {
     String sensorType = "yaf";
@@ -478,6 +546,280 @@ public void testImplicitBatchOfOne() throws Exception {
     verify(outputCollector, times(1)).ack(t5);
 
   }
+  @Test
+  public void testMicroBatch() throws Exception {
+
+    String sensorType = "yaf";
+    RecordingWriter recordingWriter = new RecordingWriter();
+    ParserBolt parserBolt = new ParserBolt("zookeeperUrl", sensorType, parser, new WriterHandler(recordingWriter)) {
+      @Override
+      protected ParserConfigurations defaultConfigurations() {
+        return new ParserConfigurations() {
+          @Override
+          public SensorParserConfig getSensorParserConfig(String sensorType) {
+            return new SensorParserConfig() {
+              @Override
+              public Map<String, Object> getParserConfig() {
+                return new HashMap<String, Object>() {{
+                }};
+              }
+            };
+          }
+        };
+      }
+    }.withBatchSize(3).withBatchTimeout(60000);
+    Assert.assertNotNull(parserBolt.getComponentConfiguration());
+    parserBolt.setCuratorFramework(client);
+    parserBolt.setTreeCache(cache);
+    parserBolt.prepare(new HashMap(), topologyContext, outputCollector);
+    when(parser.validate(any())).thenReturn(true);
+    when(parser.parseOptional(any())).thenAnswer(invocation -> Optional.of(ImmutableList.of(new JSONObject())));
+    when(filter.emitTuple(any(), any(Context.class))).thenReturn(true);
+    parserBolt.withMessageFilter(filter);
+
+    // nothing is parsed until the batch fills
+    parserBolt.execute(t1);
+    parserBolt.execute(t2);
+    Assert.assertEquals(0, recordingWriter.getRecords().size());
+    verify(outputCollector, times(0)).ack(t1);
+    parserBolt.execute(t3);
+    Assert.assertEquals(3, recordingWriter.getRecords().size());
+    // the batch is passed to the writer in a single write
+    Assert.assertEquals(1, recordingWriter.writes);
+    verify(outputCollector, times(1)).ack(t1);
+    verify(outputCollector, times(1)).ack(t2);
+    verify(outputCollector, times(1)).ack(t3);
+
+    // a tick flushes a partial batch
+    when(t5.getSourceComponent()).thenReturn(org.apache.storm.Constants.SYSTEM_COMPONENT_ID);
+    when(t5.getSourceStreamId()).thenReturn(org.apache.storm.Constants.SYSTEM_TICK_STREAM_ID);
+    parserBolt.execute(t4);
+    parserBolt.execute(t5);
+    Assert.assertEquals(4, recordingWriter.getRecords().size());
+    verify(outputCollector, times(1)).ack(t4);
+    verify(outputCollector, times(0)).ack(t5);
+  }
+
+  /**
+   {
+     "sensorTopic":"yaf"
+    ,"fieldTransformations" : [
+       {
+         "transformation" : "STELLAR"
+        ,"output" : [ "x" ]
+        ,"config" : {
+           "x" : "a + 1"
+                    }
+       }
+                              ]
+   }
+   */
+  @Multiline
+  public static String stellarFieldTransformations;
+
+  @Test
+  public void testMicroBatchWithFailedTransformation() throws Exception {
+
+    String sensorType = "yaf";
+    RecordingWriter recordingWriter = new RecordingWriter();
+    SensorParserConfig config = SensorParserConfig.fromBytes(Bytes.toBytes(stellarFieldTransformations));
+    ParserBolt parserBolt = new ParserBolt("zookeeperUrl", sensorType, parser, new WriterHandler(recordingWriter)) {
+      @Override
+      protected ParserConfigurations defaultConfigurations() {
+        return new ParserConfigurations() {
+          @Override
+          public SensorParserConfig getSensorParserConfig(String sensorType) {
+            return config;
+          }
+        };
+      }
+    }.withBatchSize(3).withBatchTimeout(60000);
+    parserBolt.setCuratorFramework(client);
+    parserBolt.setTreeCache(cache);
+    parserBolt.prepare(new HashMap(), topologyContext, outputCollector);
+    when(parser.validate(any())).thenReturn(true);
+    when(parser.parseOptional(any())).thenAnswer(invocation -> {
+      String a = new String((byte[]) invocation.getArguments()[0]);
+      JSONObject message = new JSONObject();
+      message.put("a", a.equals("one") ? a : Integer.parseInt(a));
+      return Optional.of(ImmutableList.of(message));
+    });
+    when(filter.emitTuple(any(), any(Context.class))).thenReturn(true);
+    parserBolt.withMessageFilter(filter);
+    when(t1.getBinary(0)).thenReturn("1".getBytes());
+    when(t2.getBinary(0)).thenReturn("one".getBytes());
+    when(t3.getBinary(0)).thenReturn("3".getBytes());
+
+    // the batch is transformed together, but only the tuple that fails is reported
+    parserBolt.execute(t1);
+    parserBolt.execute(t2);
+    parserBolt.execute(t3);
+    Assert.assertEquals(2, recordingWriter.getRecords().size());
+    Assert.assertEquals(2.0, recordingWriter.getRecords().get(0).get("x"));
+    Assert.assertEquals(4.0, recordingWriter.getRecords().get(1).get("x"));
+    verify(outputCollector, times(1)).emit(eq(Constants.ERROR_STREAM), any(Values.class));
+    verify(outputCollector, times(1)).ack(t1);
+    verify(outputCollector, times(1)).ack(t2);
+    verify(outputCollector, times(1)).ack(t3);
+  }
+
+  @Test
+  public void testParallelParsing() throws Exception {
+
+    String sensorType = "yaf";
+    RecordingWriter recordingWriter = new RecordingWriter();
+    ParserBolt parserBolt = new ParserBolt("zookeeperUrl", sensorType, new CopyingParser(), new WriterHandler(recordingWriter)) {
+      @Override
+      protected ParserConfigurations defaultConfigurations() {
+        return new ParserConfigurations() {
+          @Override
+          public SensorParserConfig getSensorParserConfig(String sensorType) {
+            return new SensorParserConfig() {
+              @Override
+              public Map<String, Object> getParserConfig() {
+                return new HashMap<String, Object>() {{
+                }};
+              }
+            };
+          }
+        };
+      }
+    }.withBatchSize(4).withBatchTimeout(60000).withParserThreads(2);
+    parserBolt.setCuratorFramework(client);
+    parserBolt.setTreeCache(cache);
+    parserBolt.prepare(new HashMap(), topologyContext, outputCollector);
+    CopyingParser.copies.clear();
+    List<Tuple> tuples = ImmutableList.of(t1, t2, t3, t4);
+    for(int i = 0; i < tuples.size(); i++) {
+      when(tuples.get(i).getBinary(0)).thenReturn(("message" + i).getBytes());
+      parserBolt.execute(tuples.get(i));
+    }
+    parserBolt.cleanup();
+
+    // the messages are written in the order of the tuples, although parsed by copies of the parser
+    Assert.assertEquals(4, recordingWriter.getRecords().size());
+    for(int i = 0; i < tuples.size(); i++) {
+      Assert.assertEquals("message" + i, recordingWriter.getRecords().get(i).get("value"));
+      verify(outputCollector, times(1)).ack(tuples.get(i));
+    }
+    Assert.assertFalse(CopyingParser.copies.isEmpty());
+  }
+
+  @Test
+  public void testParallelParsingWithNewParsers() throws Exception {
+    // the copies are new instances of the parser class named by the config
+    parseInParallel(InitializedStateParser.class.getName());
+  }
+
+  @Test
+  public void testParallelParsingWithParserSnapshot() throws Exception {
+    // the copies are deserialized from the parser as it was before it was initialized
+    parseInParallel(null);
+  }
+
+  private void parseInParallel(String parserClassName) throws Exception {
+    RecordingWriter recordingWriter = new RecordingWriter();
+    ParserBolt parserBolt = new ParserBolt("zookeeperUrl", "yaf", new InitializedStateParser(), new WriterHandler(recordingWriter)) {
+      @Override
+      protected ParserConfigurations defaultConfigurations() {
+        return new ParserConfigurations() {
+          @Override
+          public SensorParserConfig getSensorParserConfig(String sensorType) {
+            SensorParserConfig config = new SensorParserConfig() {
+              @Override
+              public Map<String, Object> getParserConfig() {
+                return new HashMap<String, Object>() {{
+                }};
+              }
+            };
+            config.setParserClassName(parserClassName);
+            return config;
+          }
+        };
+      }
+    }.withBatchSize(4).withBatchTimeout(60000).withParserThreads(2);
+    parserBolt.setCuratorFramework(client);
+    parserBolt.setTreeCache(cache);
+    parserBolt.prepare(new HashMap(), topologyContext, outputCollector);
+    InitializedStateParser.copies.clear();
+    List<Tuple> tuples = ImmutableList.of(t1, t2, t3, t4);
+    for(int i = 0; i < tuples.size(); i++) {
+      when(tuples.get(i).getBinary(0)).thenReturn(("message" + i).getBytes());
+      parserBolt.execute(tuples.get(i));
+    }
+    parserBolt.cleanup();
+
+    Assert.assertEquals(4, recordingWriter.getRecords().size());
+    for(int i = 0; i < tuples.size(); i++) {
+      Assert.assertEquals("message" + i, recordingWriter.getRecords().get(i).get("value"));
+      verify(outputCollector, times(1)).ack(tuples.get(i));
+    }
+    Assert.assertFalse(InitializedStateParser.copies.isEmpty());
+  }
+
+  @Test
+  public void testParsersInTreeCanBeCopied() throws Exception {
+    File[] configs = new File("src/main/config/zookeeper/parsers").listFiles();
+    Assert.assertNotNull(configs);
+    for(File configFile : configs) {
+      SensorParserConfig config = SensorParserConfig.fromBytes(Files.readAllBytes(configFile.toPath()));
+      MessageParser<JSONObject> parser = ReflectionUtils.createInstance(config.getParserClassName());
+      parser.configure(config.getParserConfig());
+      // a parser built in code is copied from a snapshot taken before it is initialized
+      MessageParser<JSONObject> copy = SerializationUtils.deserialize(SerializationUtils.serialize(parser));
+      Assert.assertEquals(configFile.getName(), parser.getClass(), copy.getClass());
+    }
+  }
+
+  @Test
+  public void testMultipleSensors() throws Exception {
+
+    RecordingWriter yafWriter = new RecordingWriter();
+    RecordingWriter broWriter = new RecordingWriter();
+    ParserBolt parserBolt = new ParserBolt("zookeeperUrl", "yaf", new CopyingParser(), new WriterHandler(yafWriter)) {
+      @Override
+      protected ParserConfigurations defaultConfigurations() {
+        return new ParserConfigurations() {
+          @Override
+          public SensorParserConfig getSensorParserConfig(String sensorType) {
+            return new SensorParserConfig() {
+              @Override
+              public Map<String, Object> getParserConfig() {
+                return new HashMap<String, Object>() {{
+                }};
+              }
+            };
+          }
+        };
+      }
+    }.withSensor("kafkaSpout-yaf", "yaf", new CopyingParser(), new WriterHandler(yafWriter))
+     .withSensor("kafkaSpout-bro", "bro", new CopyingParser(), new WriterHandler(broWriter))
+     .withBatchSize(4)
+     .withBatchTimeout(60000);
+    parserBolt.setCuratorFramework(client);
+    parserBolt.setTreeCache(cache);
+    parserBolt.prepare(new HashMap(), topologyContext, outputCollector);
+    List<Tuple> tuples = ImmutableList.of(t1, t2, t3, t4);
+    for(int i = 0; i < tuples.size(); i++) {
+      when(tuples.get(i).getBinary(0)).thenReturn(("message" + i).getBytes());
+      when(tuples.get(i).getSourceComponent()).thenReturn(i % 2 == 0 ? "kafkaSpout-yaf" : "kafkaSpout-bro");
+      parserBolt.execute(tuples.get(i));
+    }
+
+    // each tuple is parsed and written as the sensor of the spout that it came from
+    Assert.assertEquals(2, yafWriter.getRecords().size());
+    Assert.assertEquals(2, broWriter.getRecords().size());
+    for(int i = 0; i < 2; i++) {
+      Assert.assertEquals("message" + (2 * i), yafWriter.getRecords().get(i).get("value"));
+      Assert.assertEquals("yaf", yafWriter.getRecords().get(i).get(Constants.SENSOR_TYPE));
+      Assert.assertEquals("message" + (2 * i + 1), broWriter.getRecords().get(i).get("value"));
+      Assert.assertEquals("bro", broWriter.getRecords().get(i).get(Constants.SENSOR_TYPE));
+    }
+    for(Tuple tuple : tuples) {
+      verify(outputCollector, times(1)).ack(tuple);
+    }
+  }
+
   private static void writeNonBatch(OutputCollector collector, ParserBolt bolt, Tuple t) {
     bolt.execute(t);
   }
@@ -28,6 +28,7 @@ import org.json.simple.parser.ParseException;
 
 import org.apache.metron.parsers.AbstractConfigTest;
 import org.junit.Assert;
+import org.junit.Test;
 
 /**
  * <ul>
@@ -128,6 +129,30 @@ public class BasicFireEyeParserTest extends AbstractConfigTest
 		}
 	}
 
+	@Test
+	public void testParseExtension() throws Exception {
+		BasicFireEyeParser parser = new BasicFireEyeParser();
+		String message = "<164>Feb  9 08:56:45 10.1.2.3 fe.alert CEF:0|FireEye|CMS|7.2.1.244420|DM|domain-match|1|"
+						+ "rt=Feb 09 2015 00:27:43 UTC dvc=10.201.78.190 shost=dev001srv02.example.com proto=udp "
+						+ "cs5=mfdclk001.org spt=61395 dvc=10.100.25.16 smac=00:00:0c:07:ac:00 cs1Label=sname cs1=Trojan.Generic.DNS end";
+		JSONObject parsed = parser.parse(("<13>truncated " + message).getBytes()).get(0);
+
+		// the message starts at its last syslog priority
+		Assert.assertEquals(message, parsed.get("original_string"));
+		Assert.assertEquals("dev001srv02.example.com", parsed.get("src_hostname"));
+		Assert.assertEquals("udp", parsed.get("protocol"));
+		Assert.assertEquals("mfdclk001.org", parsed.get("cncHost"));
+		Assert.assertEquals("61395", parsed.get("src_port"));
+		Assert.assertEquals("61395", parsed.get("ip_src_port"));
+		Assert.assertEquals("00:00:0c:07:ac:00", parsed.get("src_mac"));
+		Assert.assertEquals("sname", parsed.get("malwareLabel"));
+		Assert.assertEquals("10.201.78.190 ,10.100.25.16", parsed.get("dvc"));
+		Assert.assertEquals("10.201.78.190 ,10.100.25.16", parsed.get("ip_src_addr"));
+		// getTimeStamp only converts a timestamp when the message has none to find, so a message
+		// with a syslog timestamp gets 0, as it always has
+		Assert.assertEquals(0L, parsed.get("timestamp"));
+	}
+
 	/**
 	 * Returns Input String
 	 */
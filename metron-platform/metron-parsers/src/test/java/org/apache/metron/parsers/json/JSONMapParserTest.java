@@ -17,6 +17,7 @@
  */
 package org.apache.metron.parsers.json;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.adrianwalker.multilinestring.Multiline;
 import org.apache.log4j.Level;
@@ -140,4 +141,76 @@ public class JSONMapParserTest {
     Assert.assertNotNull(message.get("timestamp"));
     Assert.assertTrue(message.get("timestamp") instanceof Number );
   }
+
+  /**
+   {
+    "string" : "foo"
+   ,"int" : 7
+   ,"long" : 5000000000
+   ,"double" : 2.5
+   ,"bool" : true
+   ,"null" : null
+   ,"list" : [ 1, "two", { "three" : 3 }, [ 4 ] ]
+   ,"collection" : { "blah" : 7, "inner" : { "list" : [ "a" ] } }
+   }
+   */
+  @Multiline
+  static String typesJSON;
+
+  @Test
+  public void testValueTypes() {
+    JSONMapParser parser = new JSONMapParser();
+    parser.configure(ImmutableMap.of(JSONMapParser.MAP_STRATEGY_CONFIG, JSONMapParser.MapStrategy.ALLOW.name()));
+    JSONObject message = parser.parse(typesJSON.getBytes()).get(0);
+    Assert.assertEquals("foo", message.get("string"));
+    Assert.assertEquals(7, message.get("int"));
+    Assert.assertEquals(5000000000L, message.get("long"));
+    Assert.assertEquals(2.5, message.get("double"));
+    Assert.assertEquals(true, message.get("bool"));
+    Assert.assertTrue(message.containsKey("null"));
+    Assert.assertNull(message.get("null"));
+    Assert.assertEquals(ImmutableList.of(1, "two", ImmutableMap.of("three", 3), ImmutableList.of(4)), message.get("list"));
+    Assert.assertEquals(ImmutableMap.of("blah", 7, "inner", ImmutableMap.of("list", ImmutableList.of("a"))), message.get("collection"));
+    Assert.assertEquals(typesJSON, message.get("original_string"));
+  }
+
+  @Test
+  public void testDropSkipsNestedCollections() {
+    JSONMapParser parser = new JSONMapParser();
+    JSONObject message = parser.parse(typesJSON.getBytes()).get(0);
+    Assert.assertFalse(message.containsKey("collection"));
+    Assert.assertEquals(ImmutableList.of(1, "two", ImmutableMap.of("three", 3), ImmutableList.of(4)), message.get("list"));
+    Assert.assertEquals("foo", message.get("string"));
+  }
+
+  @Test
+  public void testUnfoldKeepsListsWhole() {
+    JSONMapParser parser = new JSONMapParser();
+    parser.configure(ImmutableMap.of(JSONMapParser.MAP_STRATEGY_CONFIG, JSONMapParser.MapStrategy.UNFOLD.name()));
+    JSONObject message = parser.parse(typesJSON.getBytes()).get(0);
+    Assert.assertEquals(7, message.get("collection.blah"));
+    Assert.assertEquals(ImmutableList.of("a"), message.get("collection.inner.list"));
+    Assert.assertFalse(message.containsKey("collection"));
+  }
+
+  @Test
+  public void testParseRegion() {
+    JSONMapParser parser = new JSONMapParser();
+    byte[] buffer = "xx{\"foo\" : \"bar\"}yy".getBytes();
+    JSONObject message = parser.parse(buffer, 2, buffer.length - 4).get(0);
+    Assert.assertEquals("bar", message.get("foo"));
+    Assert.assertEquals("{\"foo\" : \"bar\"}", message.get("original_string"));
+  }
+
+  @Test(expected=IllegalStateException.class)
+  public void testMalformedJSON() {
+    JSONMapParser parser = new JSONMapParser();
+    UnitTestHelper.setLog4jLevel(BasicParser.class, Level.FATAL);
+    try {
+      parser.parse("{ \"foo\" : ".getBytes());
+    }
+    finally {
+      UnitTestHelper.setLog4jLevel(BasicParser.class, Level.ERROR);
+    }
+  }
 }
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.metron.parsers.lancope;
+
+import com.google.common.collect.ImmutableMap;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Checks which fields of a StealthWatch message {@link BasicLancopeParser} reads: the fields are
+ * those of message.split(" "), the timestamp being field 5 and the addresses fields 6 and 7.
+ */
+public class BasicLancopeParserFieldsTest {
+
+  private static final String HEADER = "<131>Jul 17 15:59:01 smc-01 StealthWatch[12365]: ";
+
+  private BasicLancopeParser parser;
+
+  @Before
+  public void setUp() {
+    parser = new BasicLancopeParser();
+    parser.configure(ImmutableMap.<String, Object>of("timeZone", "UTC"));
+    parser.init();
+  }
+
+  private List<JSONObject> parse(String message) {
+    JSONObject payload = new JSONObject();
+    payload.put("message", message);
+    payload.put("@version", "1");
+    payload.put("@timestamp", "2014-07-17T15:56:05.992Z");
+    payload.put("type", "syslog");
+    return parser.parse(JSONValue.toJSONString(payload).getBytes());
+  }
+
+  @Test
+  public void testFields() {
+    String message = HEADER + "2014-07-17T15:58:30Z 10.40.10.254 0.0.0.0 Minor High Concern Index";
+    List<JSONObject> parsed = parse(message);
+    Assert.assertEquals(1, parsed.size());
+    JSONObject json = parsed.get(0);
+    Assert.assertEquals(1405612710000L, json.get("timestamp"));
+    Assert.assertEquals("10.40.10.254", json.get("ip_src_addr"));
+    Assert.assertEquals("0.0.0.0", json.get("ip_dst_addr"));
+    Assert.assertEquals(message, json.get("original_string"));
+    Assert.assertEquals("syslog", json.get("type"));
+    Assert.assertFalse(json.containsKey("message"));
+    Assert.assertFalse(json.containsKey("@timestamp"));
+  }
+
+  @Test
+  public void testLastFieldEndsTheMessage() {
+    JSONObject json = parse(HEADER + "2014-07-17T15:58:30Z 10.40.10.254 0.0.0.0").get(0);
+    Assert.assertEquals("10.40.10.254", json.get("ip_src_addr"));
+    Assert.assertEquals("0.0.0.0", json.get("ip_dst_addr"));
+  }
+
+  @Test
+  public void testConsecutiveSpacesMakeEmptyFields() {
+    JSONObject json = parse(HEADER + "2014-07-17T15:58:30Z  0.0.0.0 Minor").get(0);
+    Assert.assertEquals("", json.get("ip_src_addr"));
+    Assert.assertEquals("0.0.0.0", json.get("ip_dst_addr"));
+  }
+
+  @Test
+  public void testTrailingEmptyFieldsDoNotCount() {
+    // split(" ") drops trailing empty strings, so field 7 is missing here
+    Assert.assertNull(parse(HEADER + "2014-07-17T15:58:30Z 10.40.10.254 "));
+    Assert.assertNull(parse(HEADER + "2014-07-17T15:58:30Z 10.40.10.254   "));
+    Assert.assertNull(parse(HEADER + "2014-07-17T15:58:30Z 10.40.10.254"));
+  }
+}
@@ -27,6 +27,7 @@ import org.json.simple.parser.ParseException;
 
 import org.apache.metron.parsers.AbstractConfigTest;
 import org.junit.Assert;
+import org.junit.Test;
 
 public class BasicPaloAltoFirewallParserTest extends AbstractConfigTest {
     /**
@@ -119,6 +120,47 @@ public class BasicPaloAltoFirewallParserTest extends AbstractConfigTest {
 			}
 		}
 
+		private static final String THREAT = "<11>Jan  5 05:38:59 PAN1.exampleCustomer.com 1,2015/01/05 05:38:58,0006C110285,THREAT,vulnerability,1,2015/01/05 05:38:58,10.0.0.115,216.0.10.198,0.0.0.0,0.0.0.0,EX-Allow,example\\user.name,,web-browsing,vsys1,internal,external,ethernet1/2,ethernet1/1,LOG-Default,2015/01/05 05:38:58,12031,1,54180,80,0,0,0x80004000,tcp,reset-both,%s,HTTP: IIS Denial Of Service Attempt(40019),any,high,client-to-server,347368099,0x0,10.0.0.0-10.255.255.255,US,0,,1200568889751109656,, ";
+
+		private static final String TRAFFIC = "<14>Jan  5 12:51:34 PAN1.exampleCustomer.com 1,2015/01/05 12:51:33,0011C103117,TRAFFIC,end,1,2015/01/05 12:51:33,10.0.0.39,10.1.0.163,0.0.0.0,0.0.0.0,EX-Allow,,example\\user.name,ms-ds-smb,vsys1,v_dmz-external,v_dmz-internal,ethernet1/4,ethernet1/3,LOG-Default,2015/01/05 12:51:33,33760927,1,52688,445,0,0,0x401a,tcp,allow,2229,1287,942,10,2015/01/05 12:51:01,30,any,0,17754932062,0x0,10.0.0.0-10.255.255.255,";
+
+		@Test
+		public void testQuotedFields() {
+			BasicPaloAltoFirewallParser parser = new BasicPaloAltoFirewallParser();
+
+			// a quoted field is read without its quotes
+			JSONObject parsed = parser.parse(String.format(THREAT, "\"ad.aspx?f=300x250&id=12\"").getBytes()).get(0);
+			Assert.assertEquals("ad.aspx?f=300x250&id=12", parsed.get("url"));
+			Assert.assertEquals("example\\user.name", parsed.get("source_user"));
+
+			// a comma within quotes does not split the field, so the fields after it are in place
+			parsed = parser.parse(String.format(THREAT, "\"ad.aspx?f=300x250,id=12 \"\"x\"\"\"").getBytes()).get(0);
+			Assert.assertEquals("ad.aspx?f=300x250,id=12 \"x\"", parsed.get("url"));
+			Assert.assertEquals("HTTP: IIS Denial Of Service Attempt(40019)", parsed.get("threat_content_name"));
+			Assert.assertEquals("any", parsed.get("category"));
+			Assert.assertEquals("high", parsed.get("direction"));
+			Assert.assertEquals("US", parsed.get("cpadding"));
+
+			// a stray quote is split on every comma, as before
+			parsed = parser.parse(String.format(THREAT, "ad.aspx?f=\"300x250").getBytes()).get(0);
+			Assert.assertEquals("ad.aspx?f=\"300x250", parsed.get("url"));
+		}
+
+		@Test
+		public void testTrailingEmptyFields() {
+			BasicPaloAltoFirewallParser parser = new BasicPaloAltoFirewallParser();
+			JSONObject parsed = parser.parse((TRAFFIC + ",,,").getBytes()).get(0);
+			Assert.assertEquals("10.0.0.39", parsed.get("ip_src_addr"));
+			Assert.assertEquals("17754932062", parsed.get("seqno"));
+			Assert.assertEquals("10.0.0.0-10.255.255.255", parsed.get("source_country"));
+			Assert.assertEquals("", parsed.get("destination_country"));
+			Assert.assertEquals("", parsed.get("pkts_sent"));
+			Assert.assertEquals("", parsed.get("pkts_received"));
+
+			// a record without all of the fields still fails
+			Assert.assertNull(parser.parse(TRAFFIC.getBytes()));
+		}
+
 		/**
 		 * Returns  Input String
 		 */
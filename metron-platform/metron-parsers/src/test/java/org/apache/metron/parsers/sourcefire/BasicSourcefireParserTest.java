@@ -28,6 +28,7 @@ import org.json.simple.parser.ParseException;
 
 import org.apache.metron.parsers.AbstractConfigTest;
 import org.junit.Assert;
+import org.junit.Test;
 
 /**
  * <ul>
@@ -121,6 +122,30 @@ public class BasicSourcefireParserTest extends AbstractConfigTest
 		}
 	}
 
+	@Test
+	public void testParseSignatureId() throws Exception {
+		BasicSourcefireParser parser = new BasicSourcefireParser();
+		String message = "SFIMS: [1:2013504:3] ET POLICY GNU/Linux APT User-Agent Outbound [Priority: 1] [1:2:3x] "
+						+ "{TCP} 10.0.0.1:33405 -> 10.0.0.2:80";
+		JSONObject parsed = parser.parse(message.getBytes()).get(0);
+		Assert.assertEquals("[1:2013504:3]", parsed.get("signature_id"));
+		Assert.assertEquals("SFIMS:  [1:2013504:3]  ET POLICY GNU/Linux APT User-Agent Outbound [Priority: 1] [1:2:3x] "
+						+ "{TCP} 10.0.0.1:33405 -> 10.0.0.2:80", parsed.get("original_string"));
+		Assert.assertEquals("tcp", parsed.get("protocol"));
+		Assert.assertEquals("10.0.0.1", parsed.get("ip_src_addr"));
+		Assert.assertEquals("33405", parsed.get("ip_src_port"));
+		Assert.assertEquals("10.0.0.2", parsed.get("ip_dst_addr"));
+		Assert.assertEquals("80", parsed.get("ip_dst_port"));
+
+		// the last of several signature ids is taken
+		message = "SFIMS: [1:1:1] first [1:2:2] second {UDP} 10.0.0.1 -> 10.0.0.2";
+		parsed = parser.parse(message.getBytes()).get(0);
+		Assert.assertEquals("[1:2:2]", parsed.get("signature_id"));
+		Assert.assertEquals("SFIMS: [1:1:1] first  [1:2:2]  second {UDP} 10.0.0.1 -> 10.0.0.2", parsed.get("original_string"));
+		Assert.assertEquals("10.0.0.2", parsed.get("ip_dst_addr"));
+		Assert.assertNull(parsed.get("ip_dst_port"));
+	}
+
 	/**
 	 * Returns SourceFire Input String
 	 */
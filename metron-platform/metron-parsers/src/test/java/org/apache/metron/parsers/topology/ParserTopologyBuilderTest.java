@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.metron.parsers.topology;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.metron.common.configuration.SensorParserConfig;
+import org.apache.metron.parsers.bolt.ParserBolt;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ParserTopologyBuilderTest {
+
+  private static SensorParserConfig parserConfig(Map<String, Object> config) {
+    SensorParserConfig parserConfig = new SensorParserConfig();
+    parserConfig.setParserConfig(new HashMap<>(config));
+    return parserConfig;
+  }
+
+  @Test
+  public void testSensorTypes() {
+    Assert.assertEquals(ImmutableList.of("bro"), ParserTopologyBuilder.getSensorTypes("bro"));
+    Assert.assertEquals(ImmutableList.of("bro", "yaf"), ParserTopologyBuilder.getSensorTypes(" bro, yaf,"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoSensorTypes() {
+    ParserTopologyBuilder.getSensorTypes(" , ");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRepeatedSensorType() {
+    ParserTopologyBuilder.getSensorTypes("bro,yaf,bro");
+  }
+
+  @Test
+  public void testTopologyName() {
+    Assert.assertEquals("bro", ParserTopologyBuilder.getTopologyName("bro"));
+    Assert.assertEquals("bro__yaf", ParserTopologyBuilder.getTopologyName("bro, yaf"));
+  }
+
+  @Test
+  public void testSharedSettingsThatAgree() {
+    Map<String, SensorParserConfig> parserConfigs = new LinkedHashMap<>();
+    parserConfigs.put("bro", parserConfig(ImmutableMap.of(ParserBolt.BATCH_SIZE_CONF, 10)));
+    parserConfigs.put("yaf", parserConfig(ImmutableMap.of(ParserBolt.BATCH_SIZE_CONF, "10", ParserBolt.PARSER_THREADS_CONF, 1)));
+    ParserTopologyBuilder.validateSharedSettings(parserConfigs);
+  }
+
+  @Test
+  public void testSharedSettingsThatConflict() {
+    Map<String, SensorParserConfig> parserConfigs = new LinkedHashMap<>();
+    parserConfigs.put("bro", parserConfig(ImmutableMap.of(ParserBolt.BATCH_SIZE_CONF, 10)));
+    parserConfigs.put("yaf", parserConfig(ImmutableMap.of()));
+    try {
+      ParserTopologyBuilder.validateSharedSettings(parserConfigs);
+      Assert.fail("Expected the conflicting batch sizes to be rejected");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains(ParserBolt.BATCH_SIZE_CONF));
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("{bro=10, yaf=1}"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConflictingErrorWriters() {
+    Map<String, SensorParserConfig> parserConfigs = new LinkedHashMap<>();
+    parserConfigs.put("bro", parserConfig(ImmutableMap.of()));
+    parserConfigs.put("yaf", parserConfig(ImmutableMap.of()));
+    parserConfigs.get("yaf").setErrorWriterClassName("org.apache.metron.writer.NoopWriter");
+    ParserTopologyBuilder.validateSharedSettings(parserConfigs);
+  }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class AhoCorasickTest {
+
+  private static BitSet bits(int... indices) {
+    BitSet bits = new BitSet();
+    for(int i : indices) {
+      bits.set(i);
+    }
+    return bits;
+  }
+
+  @Test
+  public void testFind() {
+    AhoCorasick ac = new AhoCorasick(Arrays.asList("he", "she", "his", "hers"));
+    Assert.assertEquals(bits(0, 1, 3), ac.find("ushers"));
+    Assert.assertEquals(bits(2), ac.find("this"));
+    Assert.assertEquals(bits(), ac.find("nothing to see"));
+  }
+
+  @Test
+  public void testOverlappingAndNestedKeywords() {
+    AhoCorasick ac = new AhoCorasick(Arrays.asList("connection", "connection for", "for", "aab"));
+    Assert.assertEquals(bits(0, 1, 2), ac.find("Built connection for outside"));
+    // the failure links must find "aab" after a partial match of "aa"
+    Assert.assertEquals(bits(3), ac.find("aaab"));
+  }
+
+  @Test
+  public void testNullAndEmptyKeywordsNeverMatch() {
+    AhoCorasick ac = new AhoCorasick(Arrays.asList(null, "", "caf\u00e9"));
+    Assert.assertEquals(bits(2), ac.find("un caf\u00e9"));
+    Assert.assertEquals(bits(), ac.find(""));
+  }
+}
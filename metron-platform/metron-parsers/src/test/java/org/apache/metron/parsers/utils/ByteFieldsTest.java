@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+
+public class ByteFieldsTest {
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testSplit() {
+    byte[] buffer = bytes("xx,foo,,b\u00e4r,grok");
+    // split the region after the leading "xx,"
+    int[] starts = new int[5];
+    int count = ByteFields.split(buffer, 3, buffer.length, (byte) ',', starts);
+    Assert.assertEquals(4, count);
+    Assert.assertEquals("foo", ByteFields.toString(buffer, starts[0], ByteFields.fieldEnd(starts, count, 0, buffer.length)));
+    Assert.assertEquals("", ByteFields.toString(buffer, starts[1], ByteFields.fieldEnd(starts, count, 1, buffer.length)));
+    Assert.assertEquals("b\u00e4r", ByteFields.toString(buffer, starts[2], ByteFields.fieldEnd(starts, count, 2, buffer.length)));
+    Assert.assertEquals("grok", ByteFields.toString(buffer, starts[3], ByteFields.fieldEnd(starts, count, 3, buffer.length)));
+  }
+
+  @Test
+  public void testSplitCountsFieldsBeyondStarts() {
+    byte[] buffer = bytes("a,b,c,d");
+    int[] starts = new int[2];
+    int count = ByteFields.split(buffer, 0, buffer.length, (byte) ',', starts);
+    Assert.assertEquals(4, count);
+    Assert.assertEquals("a", ByteFields.toString(buffer, starts[0], ByteFields.fieldEnd(starts, count, 0, buffer.length)));
+  }
+
+  @Test
+  public void testTrim() {
+    byte[] buffer = bytes(" \t foo \r\n");
+    int start = ByteFields.trimStart(buffer, 0, buffer.length);
+    int end = ByteFields.trimEnd(buffer, start, buffer.length);
+    Assert.assertEquals("foo", ByteFields.toString(buffer, start, end));
+    byte[] blank = bytes("   ");
+    Assert.assertEquals(blank.length, ByteFields.trimStart(blank, 0, blank.length));
+  }
+
+  @Test
+  public void testParseNumbers() {
+    byte[] buffer = bytes("12,-345,+6,9223372036854775807");
+    Assert.assertEquals(12, ByteFields.parseInt(buffer, 0, 2));
+    Assert.assertEquals(-345L, ByteFields.parseLong(buffer, 3, 7));
+    Assert.assertEquals(6, ByteFields.parseInt(buffer, 8, 10));
+    Assert.assertEquals(Long.MAX_VALUE, ByteFields.parseLong(buffer, 11, buffer.length));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseInvalidNumber() {
+    byte[] buffer = bytes("12a");
+    ByteFields.parseLong(buffer, 0, buffer.length);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseIntOutOfRange() {
+    byte[] buffer = bytes("4294967296");
+    ByteFields.parseInt(buffer, 0, buffer.length);
+  }
+
+  @Test
+  public void testAsciiSequence() {
+    byte[] buffer = bytes("ts=01/27/16-16:01:04.877970;");
+    Assert.assertTrue(ByteFields.isAscii(buffer, 0, buffer.length));
+    Assert.assertFalse(ByteFields.isAscii(bytes("b\u00e4r"), 0, 4));
+    CharSequence ts = ByteFields.asciiSequence(buffer, 3, buffer.length - 1);
+    Assert.assertEquals("01/27/16-16:01:04.877970", ts.toString());
+    Assert.assertEquals("01/27", ts.subSequence(0, 5).toString());
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yy-HH:mm:ss.SSSSSS").withZone(ZoneOffset.UTC);
+    Assert.assertEquals(1453910464877L, ZonedDateTime.parse(ts, formatter).toInstant().toEpochMilli());
+  }
+}
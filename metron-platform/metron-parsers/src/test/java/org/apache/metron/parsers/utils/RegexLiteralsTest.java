@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.parsers.utils;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class RegexLiteralsTest {
+
+  @Test
+  public void testLiteralRuns() {
+    Assert.assertEquals(ImmutableList.of("user ", " logged in from "), RegexLiterals.required("user \\w+ logged in from \\S+"));
+    Assert.assertEquals(ImmutableList.of("a.b"), RegexLiterals.required("^a\\.b$"));
+  }
+
+  @Test
+  public void testQuantifiers() {
+    // an optional character ends the run before it
+    Assert.assertEquals(ImmutableList.of("colo", "r"), RegexLiterals.required("colou?r"));
+    // a repeated character is present at least once, but may repeat
+    Assert.assertEquals(ImmutableList.of("ab", "c"), RegexLiterals.required("ab+c"));
+    Assert.assertEquals(ImmutableList.of("x", "y"), RegexLiterals.required("x[0-9]{0,3}y"));
+    Assert.assertEquals(ImmutableList.of("x", "y"), RegexLiterals.required("xz*?y"));
+  }
+
+  @Test
+  public void testGroups() {
+    // required groups are descended into, optional groups and lookarounds are not
+    Assert.assertEquals(ImmutableList.of("%", "ASA-"), RegexLiterals.required("(?<name0>%(?:ASA-)[0-9]+)"));
+    Assert.assertEquals(ImmutableList.of("to ", "/"), RegexLiterals.required("(?: duration \\d+)?to (?<ip>[^/]+)/(?=\\d)"));
+    Assert.assertEquals(ImmutableList.of("built"), RegexLiterals.required("(?>built)+"));
+  }
+
+  @Test
+  public void testAlternationsYieldNothing() {
+    Assert.assertEquals(ImmutableList.of(" connection"), RegexLiterals.required("(?:Built|Teardown) connection"));
+    Assert.assertEquals(Collections.emptyList(), RegexLiterals.required("foo|bar"));
+  }
+
+  @Test
+  public void testUnsupported() {
+    // inline flags may make the expression case-insensitive
+    Assert.assertEquals(Collections.emptyList(), RegexLiterals.required("(?i)connection"));
+    Assert.assertNull(RegexLiterals.longestRequired("(?i)connection"));
+  }
+
+  @Test
+  public void testEscapes() {
+    Assert.assertEquals(ImmutableList.of("a(b)"), RegexLiterals.required("\\Qa(b)\\E"));
+    Assert.assertEquals(ImmutableList.of("[", "]"), RegexLiterals.required("\\[\\d+\\]"));
+    Assert.assertEquals(ImmutableList.of(":", " "), RegexLiterals.required(":\\x20?\\p{Alpha} "));
+    Assert.assertEquals(" connection ", RegexLiterals.longestRequired("\\b\\w+ connection [a-z\\]]+ "));
+  }
+}
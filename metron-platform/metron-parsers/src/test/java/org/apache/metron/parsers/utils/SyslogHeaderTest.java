@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.metron.parsers.utils;
+
+import org.apache.metron.parsers.ParseException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SyslogHeaderTest {
+
+  @Test
+  public void testCiscoHeaderWithYear() throws ParseException {
+    String line = "<164>Aug 05 2016 01:01:34: %ASA-4-106023: Deny tcp src Inside:10.30.9.121/54580";
+    SyslogHeader header = SyslogHeader.scan(line);
+    assertEquals(164, header.getPriority());
+    assertEquals(-1, header.getVersion());
+    assertEquals("Aug 05 2016 01:01:34", header.getTimestamp());
+    assertNull(header.getHostname());
+    assertEquals("ASA-4-106023", header.getMessageId());
+    assertEquals(": Deny tcp src Inside:10.30.9.121/54580", line.substring(header.getTagEnd()));
+    assertEquals("Deny tcp src Inside:10.30.9.121/54580", line.substring(header.getMessageOffset()));
+  }
+
+  @Test
+  public void testCiscoHeaderWithHostname() throws ParseException {
+    String line = "<174>Jan  5 14:52:35 10.22.8.212 %ASA-6-302015: Built inbound UDP connection";
+    SyslogHeader header = SyslogHeader.scan(line);
+    assertEquals(174, header.getPriority());
+    assertEquals("Jan  5 14:52:35", header.getTimestamp());
+    assertEquals("10.22.8.212", header.getHostname());
+    assertEquals("ASA-6-302015", header.getMessageId());
+    assertEquals("Built inbound UDP connection", line.substring(header.getMessageOffset()));
+  }
+
+  @Test
+  public void testRfc3164Header() throws ParseException {
+    String line = "<34>Oct 11 22:14:15 mymachine su[1234]: 'su root' failed for lonvick on /dev/pts/8";
+    SyslogHeader header = SyslogHeader.scan(line);
+    assertEquals(34, header.getPriority());
+    assertEquals("Oct 11 22:14:15", header.getTimestamp());
+    assertEquals("mymachine", header.getHostname());
+    assertEquals("su", header.getAppName());
+    assertEquals("1234", header.getProcId());
+    assertNull(header.getMessageId());
+    assertEquals("'su root' failed for lonvick on /dev/pts/8", line.substring(header.getMessageOffset()));
+
+    line = "Oct 11 22:14:15 su: failed";
+    header = SyslogHeader.scan(line);
+    assertEquals(-1, header.getPriority());
+    assertNull(header.getHostname());
+    assertEquals("su", header.getAppName());
+    assertNull(header.getProcId());
+    assertEquals("failed", line.substring(header.getMessageOffset()));
+  }
+
+  @Test
+  public void testRfc5424Header() throws ParseException {
+    String line = "<165>1 2003-10-11T22:14:15.003Z mymachine.example.com evntslog - ID47 "
+            + "[exampleSDID@32473 iut=\"3\" eventSource=\"Application\" note=\"a \\] b\"] An application event";
+    SyslogHeader header = SyslogHeader.scan(line);
+    assertEquals(165, header.getPriority());
+    assertEquals(1, header.getVersion());
+    assertEquals("2003-10-11T22:14:15.003Z", header.getTimestamp());
+    assertEquals("mymachine.example.com", header.getHostname());
+    assertEquals("evntslog", header.getAppName());
+    assertNull(header.getProcId());
+    assertEquals("ID47", header.getMessageId());
+    assertEquals("[exampleSDID@32473 iut=\"3\" eventSource=\"Application\" note=\"a \\] b\"]", header.getStructuredData());
+    assertEquals("An application event", line.substring(header.getMessageOffset()));
+
+    line = "<34>1 - - - - - -";
+    header = SyslogHeader.scan(line);
+    assertNull(header.getTimestamp());
+    assertNull(header.getStructuredData());
+    assertEquals(line.length(), header.getMessageOffset());
+  }
+
+  @Test(expected = ParseException.class)
+  public void testNoHeader() throws ParseException {
+    SyslogHeader.scan("-- MARK --");
+  }
+
+  @Test(expected = ParseException.class)
+  public void testInvalidTime() throws ParseException {
+    SyslogHeader.scan("<34>Oct 11 22:1:15 mymachine su: failed");
+  }
+}
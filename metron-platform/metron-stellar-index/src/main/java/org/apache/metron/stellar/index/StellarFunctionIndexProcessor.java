@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.stellar.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An annotation processor that writes an index of the Stellar functions defined in a module.
+ *
+ * The index lists the binary name of each class annotated with `@Stellar`, one per line.  It is
+ * written as the service definition for `StellarFunction` so that the shade plugin merges the indexes
+ * of each module into an uber jar.  The `ClasspathFunctionResolver` reads the indexes rather than
+ * searching the classpath.
+ *
+ * To index the functions in a module, add this module as a `provided` dependency.
+ *
+ * An incremental compilation only processes the classes that it recompiles, so the index that is
+ * already in the output is merged with the functions found.  An existing entry is kept as long as
+ * its class can still be found and is still annotated with `@Stellar`.
+ */
+@SupportedAnnotationTypes(StellarFunctionIndexProcessor.STELLAR_ANNOTATION)
+public class StellarFunctionIndexProcessor extends AbstractProcessor {
+
+  /**
+   * The annotation that marks a Stellar function.
+   */
+  public static final String STELLAR_ANNOTATION = "org.apache.metron.common.dsl.Stellar";
+
+  /**
+   * The resource to which the index is written.
+   */
+  public static final String INDEX_RESOURCE = "META-INF/services/org.apache.metron.common.dsl.StellarFunction";
+
+  /**
+   * The binary names of the functions found in each round.
+   */
+  private final Set<String> functions = new TreeSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+    for (TypeElement annotation : annotations) {
+      for (Element element : round.getElementsAnnotatedWith(annotation)) {
+        if (element.getKind() == ElementKind.CLASS) {
+          functions.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+        }
+      }
+    }
+
+    if (round.processingOver() && !functions.isEmpty()) {
+      writeIndex();
+    }
+
+    // other processors may also handle the annotation
+    return false;
+  }
+
+  /**
+   * Reads the entries of an index written by an earlier compilation that still name Stellar functions.
+   */
+  private Set<String> readExistingIndex() {
+    Set<String> existing = new TreeSet<>();
+    try {
+      FileObject index = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openInputStream(), StandardCharsets.UTF_8))) {
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+          String function = line.trim();
+          if (!function.isEmpty() && isFunction(function)) {
+            existing.add(function);
+          }
+        }
+      }
+    } catch (IOException e) {
+      // there is no index from an earlier compilation
+    }
+    return existing;
+  }
+
+  /**
+   * @param binaryName The binary name of a class.
+   * @return True if the class exists and is annotated with `@Stellar`.
+   */
+  private boolean isFunction(String binaryName) {
+    TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+    if (type == null) {
+      return false;
+    }
+    for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+      if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(STELLAR_ANNOTATION)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeIndex() {
+    functions.addAll(readExistingIndex());
+    try {
+      FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+      try (Writer writer = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (String function : functions) {
+          writer.write(function);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write the Stellar function index: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.metron.stellar.index;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class StellarFunctionIndexProcessorTest {
+
+  private static class Source extends SimpleJavaFileObject {
+    private final String code;
+
+    Source(String className, String code) {
+      super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+      this.code = code;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return code;
+    }
+  }
+
+  private File output;
+
+  @Before
+  public void setup() throws Exception {
+    output = Files.createTempDirectory("stellar-index").toFile();
+    output.deleteOnExit();
+  }
+
+  private boolean compile(Source... sources) {
+    return compile(Arrays.asList("-d", output.getAbsolutePath(), "-proc:only"), sources);
+  }
+
+  /**
+   * Compiles to class files, with the output of earlier compilations on the classpath.
+   */
+  private boolean compileClasses(Source... sources) {
+    return compile(Arrays.asList("-d", output.getAbsolutePath(), "-classpath", output.getAbsolutePath()), sources);
+  }
+
+  private boolean compile(List<String> options, Source... sources) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, Arrays.asList(sources));
+    task.setProcessors(Collections.singletonList(new StellarFunctionIndexProcessor()));
+    return task.call();
+  }
+
+  private static final Source STELLAR = new Source("org.apache.metron.common.dsl.Stellar",
+          "package org.apache.metron.common.dsl;\n" +
+          "public @interface Stellar { String name(); }\n");
+
+  @Test
+  public void testIndex() throws Exception {
+    Source functions = new Source("org.example.Functions",
+            "package org.example;\n" +
+            "import org.apache.metron.common.dsl.Stellar;\n" +
+            "public class Functions {\n" +
+            "  @Stellar(name=\"ONE\") public static class One { }\n" +
+            "  @Stellar(name=\"TWO\") public static class Two { }\n" +
+            "  public static class NotAFunction { }\n" +
+            "}\n");
+    Source three = new Source("org.example.Three",
+            "package org.example;\n" +
+            "@org.apache.metron.common.dsl.Stellar(name=\"THREE\") public class Three { }\n");
+    Assert.assertTrue(compile(STELLAR, functions, three));
+
+    File index = new File(output, StellarFunctionIndexProcessor.INDEX_RESOURCE);
+    List<String> lines = Files.readAllLines(index.toPath(), StandardCharsets.UTF_8);
+    Assert.assertEquals(Arrays.asList("org.example.Functions$One", "org.example.Functions$Two", "org.example.Three"), lines);
+  }
+
+  @Test
+  public void testIncrementalCompilation() throws Exception {
+    Source one = new Source("org.example.One",
+            "package org.example;\n" +
+            "@org.apache.metron.common.dsl.Stellar(name=\"ONE\") public class One { }\n");
+    Source two = new Source("org.example.Two",
+            "package org.example;\n" +
+            "@org.apache.metron.common.dsl.Stellar(name=\"TWO\") public class Two { }\n");
+    Assert.assertTrue(compileClasses(STELLAR, one, two));
+
+    // only the classes that changed are recompiled; Two is no longer a function
+    Source three = new Source("org.example.Three",
+            "package org.example;\n" +
+            "@org.apache.metron.common.dsl.Stellar(name=\"THREE\") public class Three { }\n");
+    Source notTwo = new Source("org.example.Two",
+            "package org.example;\n" +
+            "public class Two { }\n");
+    Assert.assertTrue(compileClasses(three, notTwo));
+
+    File index = new File(output, StellarFunctionIndexProcessor.INDEX_RESOURCE);
+    List<String> lines = Files.readAllLines(index.toPath(), StandardCharsets.UTF_8);
+    Assert.assertEquals(Arrays.asList("org.example.One", "org.example.Three"), lines);
+  }
+
+  @Test
+  public void testNoFunctions() throws Exception {
+    Source other = new Source("org.example.Other",
+            "package org.example;\n" +
+            "public class Other { }\n");
+    Assert.assertTrue(compile(STELLAR, other));
+    Assert.assertFalse(new File(output, StellarFunctionIndexProcessor.INDEX_RESOURCE).exists());
+  }
+}
@@ -99,18 +99,35 @@ public class BulkWriterComponent<MESSAGE_T> {
                    , BulkMessageWriter<MESSAGE_T> bulkMessageWriter
                    , WriterConfiguration configurations
                    ) throws Exception
+  {
+    write(sensorType, Collections.singletonList(tuple), Collections.singletonList(message), bulkMessageWriter, configurations);
+  }
+
+  /**
+   * Adds several messages to the sensor's batch at once.  Once the batch holds at least the
+   * sensor's batch size of tuples, all of its messages are written together; so a single write
+   * may exceed the batch size.
+   * @param tuples The tuples of the messages.
+   * @param messages The messages to write.
+   */
+  public void write( String sensorType
+                   , Collection<Tuple> tuples
+                   , List<MESSAGE_T> messages
+                   , BulkMessageWriter<MESSAGE_T> bulkMessageWriter
+                   , WriterConfiguration configurations
+                   ) throws Exception
   {
     int batchSize = configurations.getBatchSize(sensorType);
     Collection<Tuple> tupleList = sensorTupleMap.get(sensorType);
     if (tupleList == null) {
       tupleList = createTupleCollection();
     }
-    tupleList.add(tuple);
+    tupleList.addAll(tuples);
     List<MESSAGE_T> messageList = sensorMessageMap.get(sensorType);
     if (messageList == null) {
       messageList = new ArrayList<>();
     }
-    messageList.add(message);
+    messageList.addAll(messages);
 
     if (tupleList.size() < batchSize) {
       sensorTupleMap.put(sensorType, tupleList);